@@ -0,0 +1,125 @@
+#!/usr/bin/env bash
+#
+# Measures time to the first successful fee response for each startup variant of the application:
+#
+#   jar      the packaged jar
+#   aot      the packaged jar with its AOT-processed initializers (built with -Paot)
+#   cds      the extracted jar with the class data sharing archive (built with -Pcds, or -Paot,cds)
+#   native   the native executable (built with -Pnative native:compile)
+#
+# Variants whose build output is missing are skipped. Build everything for the JVM with:
+#
+#   ./mvnw -Paot,cds -DskipTests package
+#
+# Every run starts on a copy of data/weatherdb, with scheduled weather fetches disabled, and polls
+# GET /api/delivery-fee/TALLINN/CAR until it answers 200.
+#
+# Usage: scripts/startup-benchmark.sh [runs per variant] [variant...]
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+if (( $# > 0 )); then shift; fi
+if (( $# > 0 )); then VARIANTS=("$@"); else VARIANTS=(jar aot cds native); fi
+
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JAR=$(ls target/DeliveryFeeCalculator-*.jar 2>/dev/null | grep -v -- '-plain' | head -n 1 || true)
+CDS_DIR=target/cds
+NATIVE=target/DeliveryFeeCalculator
+PORT=${PORT:-18080}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+has_aot_classes() {
+    # Not grep -q: with pipefail, unzip would fail on the closed pipe
+    unzip -l "$1" 2>/dev/null | grep '__ApplicationContextInitializer' > /dev/null
+}
+
+# Prints the command line of a variant, or nothing if it hasn't been built
+command_of() {
+    case "$1" in
+        jar)
+            [[ -n "$JAR" ]] && echo "$JAVA -jar $JAR"
+            ;;
+        aot)
+            [[ -n "$JAR" ]] && has_aot_classes "$JAR" && echo "$JAVA -Dspring.aot.enabled=true -jar $JAR"
+            ;;
+        cds)
+            if [[ -f "$CDS_DIR/application.jsa" ]]; then
+                local aot=false
+                has_aot_classes "$CDS_DIR/application.jar" && aot=true
+                echo "$JAVA -XX:SharedArchiveFile=$CDS_DIR/application.jsa -Dspring.aot.enabled=$aot -jar $CDS_DIR/application.jar"
+            fi
+            ;;
+        native)
+            [[ -x "$NATIVE" ]] && echo "$NATIVE"
+            ;;
+    esac
+    return 0
+}
+
+now_millis() {
+    date +%s%3N
+}
+
+# Starts one instance and prints the milliseconds until its first 200 fee response
+measure() {
+    local command=$1
+    local run_dir
+    run_dir=$(mktemp -d -p "$WORK_DIR")
+    cp data/weatherdb.mv.db "$run_dir/"
+
+    local started
+    started=$(now_millis)
+    $command \
+        --server.port="$PORT" \
+        --spring.profiles.active=prod \
+        --spring.datasource.url="jdbc:h2:file:$run_dir/weatherdb;DB_CLOSE_ON_EXIT=FALSE" \
+        --weather.fetch.cron=- \
+        > "$run_dir/app.log" 2>&1 &
+    local pid=$!
+
+    local elapsed=""
+    local deadline=$((started + TIMEOUT_SECONDS * 1000))
+    while (( $(now_millis) < deadline )); do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            break
+        fi
+        if curl -sf -o /dev/null "http://localhost:$PORT/api/delivery-fee/TALLINN/CAR"; then
+            elapsed=$(( $(now_millis) - started ))
+            break
+        fi
+        sleep 0.01
+    done
+
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+
+    if [[ -z "$elapsed" ]]; then
+        echo "No successful fee response, see the log below" >&2
+        tail -n 20 "$run_dir/app.log" >&2
+        return 1
+    fi
+    echo "$elapsed"
+}
+
+printf '%-8s %8s %8s %8s  %s\n' variant min median max "runs (ms)"
+for variant in "${VARIANTS[@]}"; do
+    command=$(command_of "$variant")
+    if [[ -z "$command" ]]; then
+        printf '%-8s %s\n' "$variant" "not built, skipped"
+        continue
+    fi
+
+    times=()
+    for ((run = 0; run < RUNS; run++)); do
+        times+=("$(measure "$command")")
+    done
+
+    read -r -a sorted <<< "$(printf '%s\n' "${times[@]}" | sort -n | tr '\n' ' ')"
+    printf '%-8s %8s %8s %8s  %s\n' "$variant" "${sorted[0]}" "${sorted[$((RUNS / 2))]}" "${sorted[$((RUNS - 1))]}" "${times[*]}"
+done
@@ -0,0 +1,52 @@
+package com.fujitsu.deliveryfeecalculator.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fujitsu.deliveryfeecalculator.dto.DeliveryFeeResponse;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeBreakdown;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures JSON serialization of {@link DeliveryFeeResponse} for success and error bodies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeliveryFeeResponseSerializationBenchmark {
+
+    private ObjectWriter writer;
+    private DeliveryFeeResponse feeResponse;
+    private DeliveryFeeResponse errorResponse;
+
+    @Setup
+    public void setUp() {
+        writer = new ObjectMapper().writerFor(DeliveryFeeResponse.class);
+        feeResponse = new DeliveryFeeResponse(new FeeBreakdown(350, 50, 0, 50));
+        errorResponse = new DeliveryFeeResponse("Usage of selected vehicle type is forbidden due to high wind speed");
+    }
+
+    @Benchmark
+    public byte[] serializeFee() throws JsonProcessingException {
+        return writer.writeValueAsBytes(feeResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeError() throws JsonProcessingException {
+        return writer.writeValueAsBytes(errorResponse);
+    }
+}
@@ -0,0 +1,76 @@
+package com.fujitsu.deliveryfeecalculator.benchmark;
+
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshot;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshotUpdatedEvent;
+import com.fujitsu.deliveryfeecalculator.metrics.DeliveryFeeMetrics;
+import com.fujitsu.deliveryfeecalculator.metrics.FeeAuditLog;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+import com.fujitsu.deliveryfeecalculator.service.DeliveryFeeServiceImpl;
+import com.fujitsu.deliveryfeecalculator.service.WeatherService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DeliveryFeeServiceImpl#evaluateFee} with a stubbed weather service.
+ * <p>
+ * {@code currentFee} is the precomputed fee matrix lookup used by the current-fee endpoint,
+ * {@code historicalFee} runs the full calculation used by the historical endpoint.
+ * Only allowed vehicle and weather combinations are measured here, see {@link FeeRejectionBenchmark}
+ * for forbidden ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeliveryFeeServiceBenchmark {
+
+    private static final LocalDateTime REQUESTED_TIME = LocalDateTime.of(2024, 3, 15, 12, 30);
+
+    @Param({"CAR", "SCOOTER", "BIKE"})
+    public VehicleType vehicleType;
+
+    @Param({"clear", "Light snow shower", "Moderate rain"})
+    public String phenomenon;
+
+    private DeliveryFeeServiceImpl deliveryFeeService;
+
+    @Setup
+    public void setUp() {
+        WeatherService weatherService = new StubWeatherService(-5.0, 12.0, phenomenon);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Nothing sampled, so the audit log only costs its sampling decision
+        deliveryFeeService = new DeliveryFeeServiceImpl(weatherService, new DeliveryFeeMetrics(meterRegistry),
+                new FeeAuditLog(meterRegistry, 0, Set.of(), 1), event -> { });
+        deliveryFeeService.onWeatherSnapshotUpdated(new WeatherSnapshotUpdatedEvent(
+                WeatherSnapshot.EMPTY.merge(1, List.of(weatherService.getLatestWeatherData(City.TARTU)))));
+    }
+
+    @Benchmark
+    public FeeResult currentFee() {
+        return deliveryFeeService.evaluateFee(City.TARTU, vehicleType);
+    }
+
+    @Benchmark
+    public FeeResult historicalFee() {
+        return deliveryFeeService.evaluateFee(City.TARTU, vehicleType, REQUESTED_TIME);
+    }
+}
@@ -0,0 +1,150 @@
+package com.fujitsu.deliveryfeecalculator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeBreakdown;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeRules;
+import com.fujitsu.deliveryfeecalculator.service.FeeCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the fee calculation core without weather lookups or metrics.
+ * <p>
+ * {@code compiledRules} runs a {@link FeeCalculator} compiled from rules that went through a JSON
+ * round trip, as if they had been reloaded from the database. {@code hardCodedRules} runs the same
+ * rules written as the constants and nested switches they were before they became configurable.
+ * Every allowed result is a shared breakdown, so {@code gc.alloc.rate.norm} should stay at about
+ * 0 bytes per operation for both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeeCalculatorBenchmark {
+
+    @Param({"CAR", "SCOOTER", "BIKE"})
+    public VehicleType vehicleType;
+
+    @Param({"NORMAL", "SNOW", "RAIN"})
+    public WeatherPhenomenon phenomenon;
+
+    public double airTemperature = -5.0;
+
+    public double windSpeed = 12.0;
+
+    private FeeCalculator reloaded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        FeeRules rules = objectMapper.readValue(objectMapper.writeValueAsString(FeeRules.defaults()), FeeRules.class);
+        reloaded = FeeCalculator.compile(1, rules);
+    }
+
+    @Benchmark
+    public FeeBreakdown compiledRules() {
+        return reloaded.calculate(City.TARTU, vehicleType, airTemperature, windSpeed, phenomenon);
+    }
+
+    @Benchmark
+    public FeeBreakdown hardCodedRules() {
+        return HardCodedRules.calculate(City.TARTU, vehicleType, airTemperature, windSpeed, phenomenon);
+    }
+
+    /**
+     * The default rules as constants and switch statements, returning a breakdown shared per combination.
+     */
+    private static final class HardCodedRules {
+
+        private static final int VEHICLE_TYPES = VehicleType.values().length;
+        private static final int[] AIR_TEMPERATURE_FEES = {0, 50, 100};
+        private static final int[] WIND_SPEED_FEES = {0, 50};
+        private static final int[] WEATHER_PHENOMENON_FEES = {0, 50, 100};
+        private static final FeeBreakdown[] BREAKDOWNS = new FeeBreakdown[City.values().length * VEHICLE_TYPES * 3 * 2 * 3];
+
+        static {
+            for (City city : City.values()) {
+                for (VehicleType vehicle : VehicleType.values()) {
+                    for (int temperature = 0; temperature < 3; temperature++) {
+                        for (int wind = 0; wind < 2; wind++) {
+                            for (int phenomenon = 0; phenomenon < 3; phenomenon++) {
+                                BREAKDOWNS[index(city, vehicle, temperature, wind, phenomenon)] = new FeeBreakdown(
+                                        regionalBaseFee(city, vehicle), AIR_TEMPERATURE_FEES[temperature],
+                                        WIND_SPEED_FEES[wind], WEATHER_PHENOMENON_FEES[phenomenon]);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        static FeeBreakdown calculate(City city, VehicleType vehicleType,
+                                      double temperature, double windSpeed, WeatherPhenomenon phenomenon) {
+            int temperatureTier = 0;
+            if (vehicleType != VehicleType.CAR) {
+                temperatureTier = temperature < -10.0 ? 2 : temperature <= 0.0 ? 1 : 0;
+            }
+
+            int windTier = 0;
+            if (vehicleType == VehicleType.BIKE) {
+                if (windSpeed > 20.0) {
+                    throw new IllegalStateException("Forbidden");
+                }
+                windTier = windSpeed >= 10.0 ? 1 : 0;
+            }
+
+            int phenomenonTier = 0;
+            if (vehicleType != VehicleType.CAR) {
+                phenomenonTier = switch (phenomenon) {
+                    case FORBIDDEN -> throw new IllegalStateException("Forbidden");
+                    case SNOW, SLEET -> 2;
+                    case RAIN -> 1;
+                    case NORMAL -> 0;
+                };
+            }
+
+            return BREAKDOWNS[index(city, vehicleType, temperatureTier, windTier, phenomenonTier)];
+        }
+
+        private static int regionalBaseFee(City city, VehicleType vehicleType) {
+            return switch (city) {
+                case TALLINN -> switch (vehicleType) {
+                    case CAR -> 400;
+                    case SCOOTER -> 350;
+                    case BIKE -> 300;
+                };
+                case TARTU -> switch (vehicleType) {
+                    case CAR -> 350;
+                    case SCOOTER -> 300;
+                    case BIKE -> 250;
+                };
+                case PARNU -> switch (vehicleType) {
+                    case CAR -> 300;
+                    case SCOOTER -> 250;
+                    case BIKE -> 200;
+                };
+            };
+        }
+
+        private static int index(City city, VehicleType vehicle, int temperatureTier, int windTier, int phenomenonTier) {
+            return (((city.ordinal() * VEHICLE_TYPES + vehicle.ordinal()) * 3 + temperatureTier) * 2 + windTier) * 3 + phenomenonTier;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.fujitsu.deliveryfeecalculator.benchmark;
+
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshot;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshotUpdatedEvent;
+import com.fujitsu.deliveryfeecalculator.exception.DeliveryFeeCalculationException;
+import com.fujitsu.deliveryfeecalculator.metrics.DeliveryFeeMetrics;
+import com.fujitsu.deliveryfeecalculator.metrics.FeeAuditLog;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+import com.fujitsu.deliveryfeecalculator.service.DeliveryFeeServiceImpl;
+import com.fujitsu.deliveryfeecalculator.service.WeatherService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a bike delivery in Tartu in fair weather with one forbidden by a storm.
+ * <p>
+ * {@code currentFee} and {@code historicalFee} evaluate a {@link FeeResult}. In a storm they should
+ * match the fair weather throughput, with {@code gc.alloc.rate.norm} at about 0 bytes per operation
+ * for the current fee. {@code historicalFeeThrowing} takes the exception path that
+ * {@link DeliveryFeeServiceImpl#calculateFee} keeps for callers that want it. In a storm it shows
+ * the cost of creating and catching an exception with its stack trace on every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeeRejectionBenchmark {
+
+    private static final LocalDateTime REQUESTED_TIME = LocalDateTime.of(2024, 3, 15, 12, 30);
+
+    /**
+     * Wind speed in m/s: fair weather allows bikes, a storm forbids them.
+     */
+    @Param({"5.0", "25.0"})
+    public double windSpeed;
+
+    private DeliveryFeeServiceImpl deliveryFeeService;
+
+    @Setup
+    public void setUp() {
+        WeatherService weatherService = new StubWeatherService(5.0, windSpeed, "clear");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        deliveryFeeService = new DeliveryFeeServiceImpl(weatherService, new DeliveryFeeMetrics(meterRegistry),
+                new FeeAuditLog(meterRegistry, 0, Set.of(), 1), event -> { });
+        deliveryFeeService.onWeatherSnapshotUpdated(new WeatherSnapshotUpdatedEvent(
+                WeatherSnapshot.EMPTY.merge(1, List.of(weatherService.getLatestWeatherData(City.TARTU)))));
+    }
+
+    @Benchmark
+    public FeeResult currentFee() {
+        return deliveryFeeService.evaluateFee(City.TARTU, VehicleType.BIKE);
+    }
+
+    @Benchmark
+    public FeeResult historicalFee() {
+        return deliveryFeeService.evaluateFee(City.TARTU, VehicleType.BIKE, REQUESTED_TIME);
+    }
+
+    @Benchmark
+    public Object historicalFeeThrowing() {
+        try {
+            return deliveryFeeService.calculateFee(City.TARTU, VehicleType.BIKE, REQUESTED_TIME);
+        } catch (DeliveryFeeCalculationException e) {
+            return e;
+        }
+    }
+}
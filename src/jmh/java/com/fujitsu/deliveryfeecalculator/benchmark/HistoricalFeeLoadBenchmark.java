@@ -0,0 +1,146 @@
+package com.fujitsu.deliveryfeecalculator.benchmark;
+
+import com.fujitsu.deliveryfeecalculator.DeliveryFeeCalculatorApplication;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.service.WeatherDataBulkLoader;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Load test of the historical fee endpoint: many concurrent clients request fees at random
+ * times older than the history index retention, so every request queries the H2 file database.
+ * <p>
+ * {@code platform} runs the application with the default Tomcat pool of platform threads,
+ * {@code virtual} with {@code spring.threads.virtual.enabled}. Both share the same connection
+ * pool. Throughput mode reports requests per second, sample time mode the latency percentiles
+ * including p0.99. The {@code errors} counter shows requests answered with neither a fee nor
+ * a weather restriction, such as the 503 given when no connection became available in time,
+ * and requests the client gave up on after 30 seconds. Change the number of concurrent
+ * clients with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(400)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class HistoricalFeeLoadBenchmark {
+
+    private static final int DAYS = 60;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private Path databaseDirectory;
+    private String baseUrl;
+    private LocalDateTime oldest;
+
+    @Setup
+    public void setUp() throws IOException {
+        databaseDirectory = Files.createTempDirectory("historical-load-");
+        context = new SpringApplicationBuilder(DeliveryFeeCalculatorApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + "virtual".equals(threads),
+                "--spring.datasource.url=jdbc:h2:file:" + databaseDirectory.resolve("weatherdb") + ";DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--weather.fetch.cron=-",
+                "--weather.retention.cron=-",
+                "--weather.history.retention=1d",
+                "--logging.level.root=WARN");
+
+        // Hourly observations from DAYS + 2 days ago until two days ago, all outside the history index
+        LocalDateTime newest = LocalDateTime.now().minusDays(2).truncatedTo(ChronoUnit.HOURS);
+        oldest = newest.minusDays(DAYS);
+        City[] cities = City.values();
+        context.getBean(WeatherDataBulkLoader.class).load(IntStream.range(0, DAYS * 24 * cities.length)
+                .mapToObj(i -> WeatherData.builder()
+                        .stationName(cities[i % cities.length].getStationName())
+                        .airTemperature(-5.0 + i % 20)
+                        .windSpeed(i % 15 + 0.5)
+                        .weatherPhenomenon(i % 5 == 0 ? "Light snow shower" : "Few clouds")
+                        .timestamp(oldest.plusHours(i / cities.length))
+                        .build()));
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/delivery-fee/";
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        context.close();
+        FileSystemUtils.deleteRecursively(databaseDirectory);
+    }
+
+    @Benchmark
+    public int historicalFee(Errors errors) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        City city = City.values()[random.nextInt(City.values().length)];
+        LocalDateTime datetime = oldest.plusMinutes(30 + random.nextInt((DAYS - 1) * 24 * 60));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + city + "/"
+                        + VehicleType.values()[random.nextInt(VehicleType.values().length)] + "/at?datetime=" + datetime))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status != 200 && status != 400) {
+                errors.errors++;
+            }
+            return status;
+        } catch (HttpTimeoutException e) {
+            errors.errors++;
+            return -1;
+        }
+    }
+
+    /**
+     * Requests answered with anything but a fee or a weather restriction.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Errors {
+        public long errors;
+    }
+}
@@ -0,0 +1,45 @@
+package com.fujitsu.deliveryfeecalculator.benchmark;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.service.WeatherService;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Weather service returning fixed observations, so benchmarks measure only the fee engine.
+ */
+class StubWeatherService implements WeatherService {
+
+    private final Map<City, WeatherData> observations = new EnumMap<>(City.class);
+
+    StubWeatherService(double airTemperature, double windSpeed, String phenomenon) {
+        for (City city : City.values()) {
+            observations.put(city, WeatherData.builder()
+                    .stationName(city.getStationName())
+                    .airTemperature(airTemperature)
+                    .windSpeed(windSpeed)
+                    .weatherPhenomenon(phenomenon)
+                    .timestamp(LocalDateTime.of(2024, 3, 15, 12, 15))
+                    .build());
+        }
+    }
+
+    @Override
+    public Optional<WeatherData> findLatestWeatherData(City city) {
+        return Optional.of(observations.get(city));
+    }
+
+    @Override
+    public Optional<WeatherData> findWeatherDataByTimestamp(City city, LocalDateTime timestamp) {
+        return Optional.of(observations.get(city));
+    }
+
+    @Override
+    public void fetchAndStoreWeatherData() {
+        // Benchmarks never ingest
+    }
+}
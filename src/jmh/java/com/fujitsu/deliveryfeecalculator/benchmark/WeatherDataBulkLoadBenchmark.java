@@ -0,0 +1,110 @@
+package com.fujitsu.deliveryfeecalculator.benchmark;
+
+import com.fujitsu.deliveryfeecalculator.DeliveryFeeCalculatorApplication;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.service.WeatherDataBulkLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Loads a million weather data rows into a fresh H2 file database, like the one the application
+ * runs on, through the application's persistence setup and reports rows per second.
+ * <p>
+ * {@code identity} maps the ids back to the identity column used before, which makes Hibernate
+ * send one insert per row; {@code sequence} is the current mapping with batched inserts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(WeatherDataBulkLoadBenchmark.ROWS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class WeatherDataBulkLoadBenchmark {
+
+    static final int ROWS = 1_000_000;
+
+    private static final LocalDateTime START = LocalDateTime.of(2000, 1, 1, 0, 15);
+
+    @Param({"identity", "sequence"})
+    public String idGeneration;
+
+    private ConfigurableApplicationContext context;
+    private WeatherDataBulkLoader loader;
+    private JdbcTemplate jdbcTemplate;
+    private Path databaseDirectory;
+
+    @Setup
+    public void setUp() throws IOException {
+        databaseDirectory = Files.createTempDirectory("bulkload-");
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:file:" + databaseDirectory.resolve("weatherdb") + ";DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--weather.fetch.cron=-"));
+        if ("identity".equals(idGeneration)) {
+            args.add("--spring.jpa.mapping-resources=META-INF/weather-data-identity-orm.xml");
+        }
+        context = new SpringApplicationBuilder(DeliveryFeeCalculatorApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        loader = context.getBean(WeatherDataBulkLoader.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyTable() {
+        jdbcTemplate.execute("TRUNCATE TABLE weather_data");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(databaseDirectory);
+    }
+
+    @Benchmark
+    public long load() {
+        return loader.load(observations());
+    }
+
+    private static Stream<WeatherData> observations() {
+        City[] cities = City.values();
+        return IntStream.range(0, ROWS).mapToObj(i -> WeatherData.builder()
+                .stationName(cities[i % cities.length].getStationName())
+                .wmoCode("26038")
+                .airTemperature(-10.0 + i % 25)
+                .windSpeed(i % 18 + 0.5)
+                .weatherPhenomenon(i % 7 == 0 ? "Light snow shower" : "Few clouds")
+                .timestamp(START.plusHours(i / cities.length))
+                .build());
+    }
+}
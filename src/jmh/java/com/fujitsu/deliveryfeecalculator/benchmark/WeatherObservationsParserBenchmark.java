@@ -0,0 +1,106 @@
+package com.fujitsu.deliveryfeecalculator.benchmark;
+
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.weather.WeatherResponse;
+import com.fujitsu.deliveryfeecalculator.model.weather.WeatherStation;
+import com.fujitsu.deliveryfeecalculator.service.WeatherObservationsParser;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the streaming observations parser with the JAXB unmarshalling it replaced,
+ * on a synthetic feed shaped like the real one where only three stations are monitored.
+ * The JAXB path mirrors RestTemplate's converter: a cached context, a new unmarshaller per read,
+ * and the monitored-station filter applied afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherObservationsParserBenchmark {
+
+    private static final Set<String> MONITORED_STATIONS = Arrays.stream(City.values())
+            .map(City::getStationName)
+            .collect(Collectors.toSet());
+
+    // The real feed has about a hundred stations
+    @Param({"100", "10000"})
+    public int stations;
+
+    private byte[] feed;
+    private JAXBContext jaxbContext;
+    private WeatherObservationsParser parser;
+
+    @Setup
+    public void setUp() throws JAXBException {
+        feed = syntheticFeed(stations);
+        jaxbContext = JAXBContext.newInstance(WeatherResponse.class);
+        parser = new WeatherObservationsParser();
+    }
+
+    @Benchmark
+    public List<WeatherStation> stax() {
+        return parser.parse(new ByteArrayInputStream(feed), MONITORED_STATIONS::contains).getStations();
+    }
+
+    @Benchmark
+    public List<WeatherStation> jaxb() throws JAXBException {
+        WeatherResponse response = (WeatherResponse) jaxbContext.createUnmarshaller()
+                .unmarshal(new ByteArrayInputStream(feed));
+        return response.getStations().stream()
+                .filter(station -> MONITORED_STATIONS.contains(station.getName()))
+                .toList();
+    }
+
+    private static byte[] syntheticFeed(int stationCount) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<observations timestamp=\"1710504900\">\n");
+        City[] cities = City.values();
+        for (int i = 0; i < stationCount; i++) {
+            // Spread the monitored stations through the feed
+            String name = i % (stationCount / cities.length) == 0 && i / (stationCount / cities.length) < cities.length
+                    ? cities[i / (stationCount / cities.length)].getStationName()
+                    : "Station " + i;
+            xml.append("  <station>\n")
+                    .append("    <name>").append(name).append("</name>\n")
+                    .append("    <wmocode>").append(26000 + i).append("</wmocode>\n")
+                    .append("    <longitude>24.602891666624284</longitude>\n")
+                    .append("    <latitude>59.398122222355134</latitude>\n")
+                    .append("    <phenomenon>Light snow shower</phenomenon>\n")
+                    .append("    <visibility>35.0</visibility>\n")
+                    .append("    <precipitations>0</precipitations>\n")
+                    .append("    <airpressure>1015.1</airpressure>\n")
+                    .append("    <relativehumidity>89</relativehumidity>\n")
+                    .append("    <airtemperature>").append(-10 + i % 20).append(".4</airtemperature>\n")
+                    .append("    <winddirection>220</winddirection>\n")
+                    .append("    <windspeed>").append(i % 15).append(".2</windspeed>\n")
+                    .append("    <windspeedmax>5.7</windspeedmax>\n")
+                    .append("    <waterlevel/>\n")
+                    .append("    <waterlevel_eh2000/>\n")
+                    .append("    <watertemperature/>\n")
+                    .append("    <uvindex>0.2</uvindex>\n")
+                    .append("  </station>\n");
+        }
+        return xml.append("</observations>\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,49 @@
+package com.fujitsu.deliveryfeecalculator.benchmark;
+
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link WeatherPhenomenon#categorize} over strings as sent by the upstream feed
+ * and over adversarial inputs that miss the exact lookup and fall through to partial matching.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherPhenomenonBenchmark {
+
+    @Param({
+            // Realistic upstream values
+            "Clear",
+            "Few clouds",
+            "Variable clouds",
+            "Light snow shower",
+            "Moderate rain",
+            "Thunderstorm",
+            // Adversarial values
+            "",
+            "  HEAVY   Snow-Shower  ",
+            "Light freezing drizzle with scattered hail",
+            "Completely unknown phenomenon reported by a misconfigured station"
+    })
+    public String phenomenon;
+
+    @Benchmark
+    public WeatherPhenomenon categorize() {
+        return WeatherPhenomenon.categorize(phenomenon);
+    }
+}
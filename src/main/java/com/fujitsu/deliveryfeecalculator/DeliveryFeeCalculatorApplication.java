@@ -1,11 +1,16 @@
 package com.fujitsu.deliveryfeecalculator;
 
+import com.fujitsu.deliveryfeecalculator.config.ApplicationRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableAsync
 @EnableScheduling
 @SpringBootApplication
+@ImportRuntimeHints(ApplicationRuntimeHints.class)
 public class DeliveryFeeCalculatorApplication {
 
     public static void main(String[] args) {
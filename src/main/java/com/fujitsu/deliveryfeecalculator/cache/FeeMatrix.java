@@ -0,0 +1,105 @@
+package com.fujitsu.deliveryfeecalculator.cache;
+
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Immutable table of current delivery fees for every city and vehicle type,
+ * computed once from a {@link WeatherSnapshot} and a version of the fee rules.
+ * <p>
+ * Each cell holds the {@link FeeResult}: either the fee or the rejection for a forbidden vehicle type.
+ * Cells are empty for cities the snapshot has no weather data for. The time of the observation
+ * each city's cells were computed from is kept alongside, so responses can be tagged with it.
+ * A matrix is never modified after it is built, so readers holding an older matrix
+ * can keep using it while a newer one is being published.
+ */
+public final class FeeMatrix {
+
+    public static final FeeMatrix EMPTY = new FeeMatrix(0L, 0L,
+            new FeeResult[City.values().length][VehicleType.values().length], new LocalDateTime[City.values().length]);
+
+    private final long snapshotVersion;
+    private final long rulesVersion;
+    private final FeeResult[][] cells;
+    private final LocalDateTime[] observedAt;
+
+    private FeeMatrix(long snapshotVersion, long rulesVersion, FeeResult[][] cells, LocalDateTime[] observedAt) {
+        this.snapshotVersion = snapshotVersion;
+        this.rulesVersion = rulesVersion;
+        this.cells = cells;
+        this.observedAt = observedAt;
+    }
+
+    /**
+     * Returns the version of the weather snapshot this matrix was computed from.
+     */
+    public long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    /**
+     * Returns the version of the fee rules this matrix was computed with.
+     */
+    public long getRulesVersion() {
+        return rulesVersion;
+    }
+
+    /**
+     * Returns the cell for the given city and vehicle type.
+     *
+     * @param city        the city
+     * @param vehicleType the vehicle type
+     * @return the fee or rejection, or empty if there was no weather data for the city
+     */
+    public Optional<FeeResult> get(City city, VehicleType vehicleType) {
+        return Optional.ofNullable(cells[city.ordinal()][vehicleType.ordinal()]);
+    }
+
+    /**
+     * Returns the time of the observation the cells of the given city were computed from.
+     *
+     * @param city the city
+     * @return the observation time, or empty if there was no weather data for the city
+     */
+    public Optional<LocalDateTime> getObservedAt(City city) {
+        return Optional.ofNullable(observedAt[city.ordinal()]);
+    }
+
+    public static Builder builder(long snapshotVersion, long rulesVersion) {
+        return new Builder(snapshotVersion, rulesVersion);
+    }
+
+    /**
+     * Collects cells for a new matrix. A builder must not be reused after {@link #build()}.
+     */
+    public static final class Builder {
+
+        private final long snapshotVersion;
+        private final long rulesVersion;
+        private final FeeResult[][] cells = new FeeResult[City.values().length][VehicleType.values().length];
+        private final LocalDateTime[] observedAt = new LocalDateTime[City.values().length];
+
+        private Builder(long snapshotVersion, long rulesVersion) {
+            this.snapshotVersion = snapshotVersion;
+            this.rulesVersion = rulesVersion;
+        }
+
+        public Builder cell(City city, VehicleType vehicleType, FeeResult cell) {
+            cells[city.ordinal()][vehicleType.ordinal()] = cell;
+            return this;
+        }
+
+        public Builder observedAt(City city, LocalDateTime timestamp) {
+            observedAt[city.ordinal()] = timestamp;
+            return this;
+        }
+
+        public FeeMatrix build() {
+            return new FeeMatrix(snapshotVersion, rulesVersion, cells, observedAt);
+        }
+    }
+}
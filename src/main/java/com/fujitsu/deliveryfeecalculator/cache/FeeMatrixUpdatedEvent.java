@@ -0,0 +1,10 @@
+package com.fujitsu.deliveryfeecalculator.cache;
+
+/**
+ * Application event published whenever a new {@link FeeMatrix} starts being served.
+ * Events are published in the order the matrices were built.
+ *
+ * @param matrix the matrix now being served
+ */
+public record FeeMatrixUpdatedEvent(FeeMatrix matrix) {
+}
@@ -0,0 +1,80 @@
+package com.fujitsu.deliveryfeecalculator.cache;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.repository.DataVersionRepository;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Brings the in-memory weather caches up to date with observations stored by other instances.
+ * <p>
+ * Only the instance holding the weather fetch lease stores observations, and it increments the
+ * {@value #WEATHER_DATA} version in the same transaction. Every instance polls that one row, and
+ * only when it has changed queries each station's observations from its latest one held in memory
+ * onwards. Observations already held are ignored by the snapshot and the history index, so the
+ * instance that stored them doesn't rebuild anything.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WeatherDataVersionWatcher {
+
+    public static final String WEATHER_DATA = "weather-data";
+
+    private final DataVersionRepository dataVersionRepository;
+    private final WeatherDataRepository weatherDataRepository;
+    private final WeatherSnapshotStore weatherSnapshotStore;
+    private final WeatherHistoryIndex weatherHistoryIndex;
+
+    // Only accessed by the startup listener and the scheduled poll, which don't overlap
+    private long seenVersion = -1;
+
+    /**
+     * Reads the version before the caches load on startup, so changes made while they load are caught up on.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ContextRefreshedEvent.class)
+    public void readVersionOnStartup() {
+        seenVersion = currentVersion();
+    }
+
+    @Scheduled(fixedDelayString = "${weather.version.poll-interval:5s}",
+            initialDelayString = "${weather.version.poll-interval:5s}")
+    public void poll() {
+        long version = currentVersion();
+        if (version == seenVersion) {
+            return;
+        }
+
+        List<WeatherData> stored = new ArrayList<>();
+        for (City city : City.values()) {
+            Optional<WeatherData> latest = weatherSnapshotStore.getLatest(city);
+            if (latest.isPresent()) {
+                stored.addAll(weatherDataRepository.findAllByStationNameSince(
+                        city.getStationName(), latest.get().getTimestamp()));
+            } else {
+                weatherDataRepository.findLatestByStationName(city.getStationName()).ifPresent(stored::add);
+            }
+        }
+        weatherHistoryIndex.append(stored);
+        WeatherSnapshot snapshot = weatherSnapshotStore.publish(stored);
+        seenVersion = version;
+        log.info("Caught up with weather data v{}, serving weather snapshot v{}", version, snapshot.getVersion());
+    }
+
+    private long currentVersion() {
+        return dataVersionRepository.findVersionByName(WEATHER_DATA).orElse(0L);
+    }
+}
@@ -0,0 +1,183 @@
+package com.fujitsu.deliveryfeecalculator.cache;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory, per-station index of observation time to weather data, used to answer
+ * historical "latest observation at or before" lookups in O(log n) without a database query.
+ * <p>
+ * Only observations inside the configured retention window are kept. Lookups the index
+ * can't answer with certainty (before the covered range, or with no earlier observation in it)
+ * return empty so the caller can fall back to the repository.
+ * <p>
+ * Writers are serialized by a lock rather than a monitor, so a load waiting on the database
+ * doesn't pin the carrier of a virtual thread. A load builds new per-station maps off to the
+ * side and swaps them in together with the covered range, so readers never see a partly
+ * loaded index.
+ */
+@Slf4j
+@Component
+public class WeatherHistoryIndex {
+
+    // Rough retained size of one entry: skip list node, key, detached entity and boxed values.
+    // Station names and phenomena are shared between entries.
+    private static final long ESTIMATED_BYTES_PER_ENTRY = 240;
+
+    private final WeatherDataRepository weatherDataRepository;
+    private final Duration retention;
+
+    private final Map<String, String> sharedStrings = new HashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Coverage coverage = new Coverage(null, emptyObservations());
+
+    public WeatherHistoryIndex(WeatherDataRepository weatherDataRepository,
+                               @Value("${weather.history.retention:30d}") Duration retention) {
+        this.weatherDataRepository = weatherDataRepository;
+        this.retention = retention;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void loadOnStartup() {
+        load();
+    }
+
+    /**
+     * (Re)loads every observation inside the retention window from the repository.
+     */
+    public void load() {
+        writeLock.lock();
+        try {
+            long started = System.nanoTime();
+            LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+
+            int loaded = 0;
+            Map<City, ConcurrentNavigableMap<LocalDateTime, WeatherData>> observations = emptyObservations();
+            for (City city : City.values()) {
+                ConcurrentNavigableMap<LocalDateTime, WeatherData> stationIndex = observations.get(city);
+                List<WeatherData> rows = weatherDataRepository.findAllByStationNameSince(city.getStationName(), cutoff);
+                for (WeatherData row : rows) {
+                    stationIndex.put(row.getTimestamp(), detach(city, row));
+                }
+                loaded += rows.size();
+            }
+            coverage = new Coverage(cutoff, observations);
+
+            log.info("Loaded {} weather observations into the history index in {} ms (~{} KiB, retention {})",
+                    loaded, Duration.ofNanos(System.nanoTime() - started).toMillis(),
+                    loaded * ESTIMATED_BYTES_PER_ENTRY / 1024, retention);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds freshly stored observations to the index and evicts observations that left the retention window.
+     *
+     * @param stored the stored observations
+     */
+    public void append(Collection<WeatherData> stored) {
+        writeLock.lock();
+        try {
+            for (WeatherData observation : stored) {
+                Optional<City> city = City.fromStationName(observation.getStationName());
+                if (city.isPresent() && observation.getTimestamp() != null) {
+                    coverage.observations().get(city.get()).put(observation.getTimestamp(), detach(city.get(), observation));
+                }
+            }
+            evictExpired();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Finds the latest observation for the city at or before the given time.
+     *
+     * @param city      the city
+     * @param timestamp the requested time
+     * @return the observation, or empty if the index can't answer and the repository must be asked
+     */
+    public Optional<WeatherData> floor(City city, LocalDateTime timestamp) {
+        Coverage current = coverage;
+        if (current.from() == null || timestamp.isBefore(current.from())) {
+            return Optional.empty();
+        }
+        Map.Entry<LocalDateTime, WeatherData> entry = current.observations().get(city).floorEntry(timestamp);
+        return entry == null ? Optional.empty() : Optional.of(entry.getValue());
+    }
+
+    /**
+     * Returns the number of observations currently held.
+     */
+    public int size() {
+        return coverage.observations().values().stream().mapToInt(Map::size).sum();
+    }
+
+    private void evictExpired() {
+        Coverage current = coverage;
+        if (current.from() == null) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        if (cutoff.isAfter(current.from())) {
+            // Narrow the range first: lookups that find nothing before the cutoff then go to the repository
+            coverage = new Coverage(cutoff, current.observations());
+            current.observations().values().forEach(stationIndex -> stationIndex.headMap(cutoff).clear());
+        }
+    }
+
+    private static Map<City, ConcurrentNavigableMap<LocalDateTime, WeatherData>> emptyObservations() {
+        Map<City, ConcurrentNavigableMap<LocalDateTime, WeatherData>> observations = new EnumMap<>(City.class);
+        for (City city : City.values()) {
+            observations.put(city, new ConcurrentSkipListMap<>());
+        }
+        return observations;
+    }
+
+    /**
+     * Copies the entity, sharing repeated strings between entries to keep the index compact.
+     */
+    private WeatherData detach(City city, WeatherData source) {
+        return WeatherData.builder()
+                .id(source.getId())
+                .stationName(city.getStationName())
+                .wmoCode(share(source.getWmoCode()))
+                .airTemperature(source.getAirTemperature())
+                .windSpeed(source.getWindSpeed())
+                .weatherPhenomenon(share(source.getWeatherPhenomenon()))
+                .phenomenonCategory(source.getPhenomenonCategory())
+                .timestamp(source.getTimestamp())
+                .build();
+    }
+
+    private String share(String value) {
+        return value == null ? null : sharedStrings.computeIfAbsent(value, v -> v);
+    }
+
+    /**
+     * The observations of every city and the start of the range for which they hold every stored
+     * observation, or a null start until the index has been loaded.
+     */
+    private record Coverage(LocalDateTime from, Map<City, ConcurrentNavigableMap<LocalDateTime, WeatherData>> observations) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.fujitsu.deliveryfeecalculator.cache;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable view of the latest weather observation for every monitored city.
+ * A new snapshot is built whenever the observations change and swapped in as a whole,
+ * so readers never see a partially updated state.
+ */
+public final class WeatherSnapshot {
+
+    public static final WeatherSnapshot EMPTY = new WeatherSnapshot(0L, new EnumMap<>(City.class));
+
+    private final long version;
+    private final Map<City, WeatherData> observations;
+
+    private WeatherSnapshot(long version, EnumMap<City, WeatherData> observations) {
+        this.version = version;
+        this.observations = Collections.unmodifiableMap(observations);
+    }
+
+    /**
+     * Returns the version of this snapshot. Versions grow with every published snapshot.
+     *
+     * @return the snapshot version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the latest observation for the given city.
+     * The returned entity is detached and shared between readers, so it must not be modified.
+     *
+     * @param city the city
+     * @return the latest observation, or empty if the snapshot holds none for the city
+     */
+    public Optional<WeatherData> get(City city) {
+        return Optional.ofNullable(observations.get(city));
+    }
+
+    /**
+     * Returns all observations held by this snapshot, keyed by city.
+     *
+     * @return an unmodifiable map of observations
+     */
+    public Map<City, WeatherData> getObservations() {
+        return observations;
+    }
+
+    public boolean isEmpty() {
+        return observations.isEmpty();
+    }
+
+    /**
+     * Builds a new snapshot containing this snapshot's observations, replaced by any
+     * of the given observations that are newer for their city.
+     * Observations from stations not mapped to a city are ignored.
+     *
+     * @param newVersion   the version of the resulting snapshot
+     * @param observations the observations to merge
+     * @return the merged snapshot, or this snapshot if nothing changed
+     */
+    public WeatherSnapshot merge(long newVersion, Collection<WeatherData> observations) {
+        EnumMap<City, WeatherData> merged = this.observations.isEmpty()
+                ? new EnumMap<>(City.class)
+                : new EnumMap<>(this.observations);
+        boolean changed = false;
+
+        for (WeatherData observation : observations) {
+            Optional<City> city = City.fromStationName(observation.getStationName());
+            if (city.isEmpty() || observation.getTimestamp() == null) {
+                continue;
+            }
+            WeatherData current = merged.get(city.get());
+            if (current == null || observation.getTimestamp().isAfter(current.getTimestamp())) {
+                merged.put(city.get(), copyOf(observation));
+                changed = true;
+            }
+        }
+
+        return changed ? new WeatherSnapshot(newVersion, merged) : this;
+    }
+
+    /**
+     * Copies the entity so the snapshot never aliases an instance managed by a persistence context.
+     */
+    private static WeatherData copyOf(WeatherData source) {
+        return WeatherData.builder()
+                .id(source.getId())
+                .stationName(source.getStationName())
+                .wmoCode(source.getWmoCode())
+                .airTemperature(source.getAirTemperature())
+                .windSpeed(source.getWindSpeed())
+                .weatherPhenomenon(source.getWeatherPhenomenon())
+                .phenomenonCategory(source.getPhenomenonCategory())
+                .timestamp(source.getTimestamp())
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.fujitsu.deliveryfeecalculator.cache;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the current {@link WeatherSnapshot} in memory so that current-fee requests
+ * can be served without a database round trip.
+ * <p>
+ * Reads are lock-free: the snapshot reference is volatile and snapshots are immutable.
+ * Writers are rare (one ingest per hour) and are serialized by a lock rather than a monitor,
+ * so a reload waiting on the database doesn't pin the carrier of a virtual thread.
+ * Every swap is announced with a {@link WeatherSnapshotUpdatedEvent} so derived caches can be rebuilt.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WeatherSnapshotStore {
+
+    private final WeatherDataRepository weatherDataRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile WeatherSnapshot current = WeatherSnapshot.EMPTY;
+    private long lastVersion;
+
+    /**
+     * Returns the snapshot currently being served.
+     */
+    public WeatherSnapshot current() {
+        return current;
+    }
+
+    /**
+     * Returns the latest observation held in memory for the given city.
+     *
+     * @param city the city
+     * @return the latest observation, or empty if none has been loaded yet
+     */
+    public Optional<WeatherData> getLatest(City city) {
+        return current.get(city);
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void loadOnStartup() {
+        WeatherSnapshot snapshot = reload();
+        log.info("Loaded weather snapshot v{} with {} cities", snapshot.getVersion(), snapshot.getObservations().size());
+    }
+
+    /**
+     * Rebuilds the snapshot from the latest observation of every monitored station in the database.
+     *
+     * @return the new snapshot
+     */
+    public WeatherSnapshot reload() {
+        writeLock.lock();
+        try {
+            List<WeatherData> latest = Arrays.stream(City.values())
+                    .map(city -> weatherDataRepository.findLatestByStationName(city.getStationName()))
+                    .flatMap(Optional::stream)
+                    .toList();
+
+            WeatherSnapshot snapshot = WeatherSnapshot.EMPTY.merge(++lastVersion, latest);
+            swap(snapshot);
+            return snapshot;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Merges freshly stored observations into the current snapshot and swaps it in.
+     * Observations older than the ones already held are ignored.
+     *
+     * @param observations the stored observations
+     * @return the snapshot being served after the merge
+     */
+    public WeatherSnapshot publish(Collection<WeatherData> observations) {
+        writeLock.lock();
+        try {
+            WeatherSnapshot merged = current.merge(lastVersion + 1, observations);
+            if (merged != current) {
+                lastVersion = merged.getVersion();
+                swap(merged);
+                log.debug("Published weather snapshot v{}", merged.getVersion());
+            }
+            return merged;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void swap(WeatherSnapshot snapshot) {
+        current = snapshot;
+        eventPublisher.publishEvent(new WeatherSnapshotUpdatedEvent(snapshot));
+    }
+}
@@ -0,0 +1,9 @@
+package com.fujitsu.deliveryfeecalculator.cache;
+
+/**
+ * Application event published whenever a new {@link WeatherSnapshot} starts being served.
+ *
+ * @param snapshot the snapshot now being served
+ */
+public record WeatherSnapshotUpdatedEvent(WeatherSnapshot snapshot) {
+}
@@ -1,14 +1,104 @@
 package com.fujitsu.deliveryfeecalculator.config;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
+/**
+ * HTTP client and fault tolerance for the weather feed.
+ * <p>
+ * The client is backed by {@code HttpURLConnection}, which keeps idle connections alive in the
+ * JDK's connection cache, and every request is bounded by connect and socket read timeouts. Transient failures (I/O errors,
+ * timeouts, 5xx and 429 responses) are retried with jittered exponential backoff, and they open
+ * a circuit breaker that stops calling upstream for a while. Breaker state and retry outcomes
+ * are published as {@code resilience4j.*} metrics.
+ */
 @Configuration
 public class AppConfig {
 
+    public static final String WEATHER_FEED = "weather-feed";
+
+    private static final double BACKOFF_MULTIPLIER = 2.0;
+    // Spread of the jitter around each backoff interval
+    private static final double BACKOFF_RANDOMIZATION = 0.5;
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     @Value("${weather.client.connect-timeout:5s}") Duration connectTimeout,
+                                     @Value("${weather.client.read-timeout:20s}") Duration readTimeout) {
+        return builder
+                .requestFactoryBuilder(ClientHttpRequestFactoryBuilder.simple())
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public CircuitBreaker weatherFeedCircuitBreaker(
+            @Value("${weather.client.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${weather.client.circuit-breaker.open-duration:5m}") Duration openDuration,
+            MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(failureThreshold)
+                .minimumNumberOfCalls(failureThreshold)
+                .failureRateThreshold(100)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(1)
+                .recordException(AppConfig::isTransientFeedFailure)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry.circuitBreaker(WEATHER_FEED);
+    }
+
+    /**
+     * Retries inside the hourly fetch window: with the defaults, the backoffs are
+     * 30s, 1m, 2m, 4m and 8m, each randomized by up to 50%, before giving up until the next run.
+     * Attempts rejected by the open circuit breaker are retried as well, so the last attempt
+     * can probe upstream once the breaker turns half-open.
+     */
+    @Bean
+    public Retry weatherFeedRetry(
+            @Value("${weather.client.retry.max-attempts:6}") int maxAttempts,
+            @Value("${weather.client.retry.initial-backoff:30s}") Duration initialBackoff,
+            @Value("${weather.client.retry.max-backoff:10m}") Duration maxBackoff,
+            MeterRegistry meterRegistry) {
+        RetryRegistry registry = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(maxAttempts)
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(
+                        initialBackoff, BACKOFF_MULTIPLIER, BACKOFF_RANDOMIZATION, maxBackoff))
+                .retryOnException(throwable -> isTransientFeedFailure(throwable)
+                        || throwable instanceof CallNotPermittedException)
+                .build());
+        TaggedRetryMetrics.ofRetryRegistry(registry).bindTo(meterRegistry);
+        return registry.retry(WEATHER_FEED);
+    }
+
+    /**
+     * Failures that may succeed on a later attempt. Client errors and malformed feeds won't.
+     */
+    static boolean isTransientFeedFailure(Throwable throwable) {
+        return throwable instanceof ResourceAccessException
+                || throwable instanceof HttpServerErrorException
+                || throwable instanceof HttpClientErrorException.TooManyRequests;
     }
 }
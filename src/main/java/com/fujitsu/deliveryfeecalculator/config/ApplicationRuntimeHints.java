@@ -0,0 +1,41 @@
+package com.fujitsu.deliveryfeecalculator.config;
+
+import com.fujitsu.deliveryfeecalculator.dto.DeliveryFeeBatchRequest;
+import com.fujitsu.deliveryfeecalculator.dto.DeliveryFeeBatchResult;
+import com.fujitsu.deliveryfeecalculator.dto.DeliveryFeeResponse;
+import com.fujitsu.deliveryfeecalculator.dto.FeeMatrixUpdate;
+import com.fujitsu.deliveryfeecalculator.dto.FeeSeriesPoint;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeRules;
+import com.fujitsu.deliveryfeecalculator.model.weather.WeatherResponse;
+import com.fujitsu.deliveryfeecalculator.model.weather.WeatherStation;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for the native image that AOT processing can't infer from the bean definitions.
+ * <p>
+ * Controller return types are registered by Spring, but these types are serialized through the
+ * {@code ObjectMapper} directly: streamed NDJSON and SSE payloads, and the fee rules stored as JSON.
+ * Their Lombok-generated accessors are ordinary methods, so binding hints cover them. Entities
+ * are registered for Hibernate by Spring's JPA AOT support; the weather feed model additionally
+ * keeps its JAXB binding, which reflects on its annotated accessors.
+ */
+public class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingHints.registerReflectionHints(hints.reflection(),
+                DeliveryFeeBatchRequest.class, DeliveryFeeBatchResult.class, DeliveryFeeResponse.class,
+                FeeSeriesPoint.class, FeeMatrixUpdate.class, WeatherData.class, FeeRules.class);
+
+        for (Class<?> type : new Class<?>[]{WeatherResponse.class, WeatherStation.class}) {
+            hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS);
+        }
+    }
+}
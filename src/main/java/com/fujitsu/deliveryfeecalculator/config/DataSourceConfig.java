@@ -0,0 +1,31 @@
+package com.fujitsu.deliveryfeecalculator.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Puts a {@link BoundedDataSource} in front of the connection pool, with one permit per pooled
+ * connection and the pool's connection timeout, so pool sizing alone decides how many threads
+ * work on the database at once.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool) {
+                    return new BoundedDataSource(pool, pool.getMaximumPoolSize(),
+                            Duration.ofMillis(pool.getConnectionTimeout()));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,13 +1,27 @@
 package com.fujitsu.deliveryfeecalculator.controller;
 
-import com.fujitsu.deliveryfeecalculator.exception.DeliveryFeeCalculationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrix;
+import com.fujitsu.deliveryfeecalculator.dto.DeliveryFeeBatchRequest;
+import com.fujitsu.deliveryfeecalculator.dto.DeliveryFeeBatchResult;
 import com.fujitsu.deliveryfeecalculator.dto.DeliveryFeeResponse;
-import com.fujitsu.deliveryfeecalculator.exception.WeatherDataNotFoundException;
+import com.fujitsu.deliveryfeecalculator.dto.FeeMatrixUpdate;
+import com.fujitsu.deliveryfeecalculator.dto.FeeSeriesPoint;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
 import com.fujitsu.deliveryfeecalculator.model.enums.City;
 import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+import com.fujitsu.deliveryfeecalculator.service.DeliveryFeeBatch;
 import com.fujitsu.deliveryfeecalculator.service.DeliveryFeeService;
+import com.fujitsu.deliveryfeecalculator.service.FeeMatrixBroadcaster;
+import com.fujitsu.deliveryfeecalculator.service.FeeSeriesService;
+import com.fujitsu.deliveryfeecalculator.service.WeatherService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,13 +29,26 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static com.fujitsu.deliveryfeecalculator.controller.WeatherDataController.APPLICATION_NDJSON_VALUE;
 
 /**
  * REST controller for delivery fee calculation.
@@ -34,24 +61,42 @@ import java.time.LocalDateTime;
 public class DeliveryFeeController {
 
     private final DeliveryFeeService deliveryFeeService;
+    private final FeeSeriesService feeSeriesService;
+    private final FeeMatrixBroadcaster feeMatrixBroadcaster;
+    private final FeeCachePolicy feeCachePolicy;
+    private final WeatherService weatherService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${delivery-fee.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    @Value("${delivery-fee.stream.timeout:30m}")
+    private Duration streamTimeout;
 
     /**
      * Calculate delivery fee based on city and vehicle type.
      *
      * @param city        The city (TALLINN, TARTU, PARNU)
      * @param vehicleType The vehicle type (CAR, SCOOTER, BIKE)
+     * @param webRequest  The request, checked for a matching If-None-Match header
      * @return Delivery fee or error message
      */
     @GetMapping("/{city}/{vehicleType}")
     @Operation(
             summary = "Calculate delivery fee",
-            description = "Calculates the delivery fee based on city, vehicle type, and current weather conditions"
+            description = "Calculates the delivery fee based on city, vehicle type, and current weather conditions. " +
+                    "Successful responses carry an ETag of the weather observation and fee rules they were computed " +
+                    "from, and may be cached until the next scheduled weather fetch."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful calculation",
                     content = @Content(schema = @Schema(implementation = DeliveryFeeResponse.class))),
+            @ApiResponse(responseCode = "304", description = "The fee for the ETag in If-None-Match is still current",
+                    content = @Content),
             @ApiResponse(responseCode = "400", description = "Invalid input or vehicle type forbidden due to weather conditions",
                     content = @Content(schema = @Schema(implementation = DeliveryFeeResponse.class))),
+            @ApiResponse(responseCode = "404", description = "No weather data is available for the city",
+                    content = @Content(schema = @Schema(implementation = DeliveryFeeResponse.class))),
             @ApiResponse(responseCode = "500", description = "Internal server error",
                     content = @Content(schema = @Schema(implementation = DeliveryFeeResponse.class)))
     })
@@ -59,18 +104,31 @@ public class DeliveryFeeController {
             @Parameter(description = "City name: TALLINN, TARTU, or PARNU", required = true)
             @PathVariable String city,
             @Parameter(description = "Vehicle type: CAR, SCOOTER, or BIKE", required = true)
-            @PathVariable String vehicleType) {
+            @PathVariable String vehicleType,
+            WebRequest webRequest) {
 
         try {
             City cityEnum = City.valueOf(city.toUpperCase());
             VehicleType vehicleTypeEnum = VehicleType.valueOf(vehicleType.toUpperCase());
 
-            BigDecimal fee = deliveryFeeService.calculateFee(cityEnum, vehicleTypeEnum);
+            // Tag before calculating: if the matrix is swapped in between, the body is newer than
+            // its tag, which only costs a full response on the next revalidation
+            Optional<String> eTag = feeCachePolicy.currentETag(deliveryFeeService.getFeeMatrix(), cityEnum);
+            if (eTag.isPresent() && webRequest.checkNotModified(eTag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(eTag.get())
+                        .cacheControl(feeCachePolicy.current())
+                        .build();
+            }
 
-            return ResponseEntity.ok(new DeliveryFeeResponse(fee));
-        } catch (DeliveryFeeCalculationException e) {
-            log.warn("Delivery calculation restriction: {}", e.getMessage());
-            return ResponseEntity.badRequest().body(new DeliveryFeeResponse(e.getMessage()));
+            return switch (deliveryFeeService.evaluateFee(cityEnum, vehicleTypeEnum)) {
+                case FeeResult.Allowed allowed -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(feeCachePolicy.current());
+                    eTag.ifPresent(response::eTag);
+                    yield response.body(new DeliveryFeeResponse(allowed.fee()));
+                }
+                case FeeResult.Rejected rejected -> rejected(rejected);
+            };
         } catch (IllegalArgumentException e) {
             log.warn("Invalid input: {}", e.getMessage());
             return ResponseEntity.badRequest()
@@ -82,27 +140,62 @@ public class DeliveryFeeController {
         }
     }
 
+    /**
+     * Subscribe to the current delivery fees of every city and vehicle type as Server-Sent Events.
+     *
+     * @return Event stream with the whole fee matrix first and the changed cells after every update
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream fee matrix changes",
+            description = "Sends a 'matrix' event with the current fee of every city and vehicle type, then a 'delta' event " +
+                    "with the changed cells whenever new weather data or fee rules change any fee. A cell has either a fee " +
+                    "or, while the vehicle type is forbidden, the reason as message. Clients that read slowly skip " +
+                    "intermediate updates and receive one delta to the latest fees. The stream ends after the configured " +
+                    "timeout; reconnecting clients receive the whole matrix again."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Fee matrix events",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                            schema = @Schema(implementation = FeeMatrixUpdate.class))),
+            @ApiResponse(responseCode = "503", description = "Too many subscribers are connected", content = @Content)
+    })
+    public ResponseEntity<SseEmitter> streamFeeMatrix() {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        if (!feeMatrixBroadcaster.subscribe(emitter)) {
+            log.warn("Rejected fee matrix subscriber, {} are connected", feeMatrixBroadcaster.subscriberCount());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
     /**
      * Calculate delivery fee based on city, vehicle type, and specific datetime.
      *
      * @param city        The city (TALLINN, TARTU, PARNU)
      * @param vehicleType The vehicle type (CAR, SCOOTER, BIKE)
      * @param datetime    The datetime for historical calculation
+     * @param webRequest  The request, checked against the ETag of the calculation
      * @return Delivery fee or error message
      */
     @GetMapping("/{city}/{vehicleType}/at")
     @Operation(
             summary = "Calculate historical delivery fee",
-            description = "Calculates the delivery fee based on city, vehicle type, and weather conditions at the specified time"
+            description = "Calculates the delivery fee based on city, vehicle type, and weather conditions at the specified time. " +
+                    "Responses carry an ETag of the weather observation and fee rules they were calculated with, " +
+                    "and are revalidated with it once their max-age runs out."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful calculation",
                     content = @Content(schema = @Schema(implementation = DeliveryFeeResponse.class))),
+            @ApiResponse(responseCode = "304", description = "The cached fee is still valid", content = @Content),
             @ApiResponse(responseCode = "400", description = "Invalid input or vehicle type forbidden due to weather conditions",
                     content = @Content(schema = @Schema(implementation = DeliveryFeeResponse.class))),
             @ApiResponse(responseCode = "404", description = "Weather data not found for the specified time",
                     content = @Content(schema = @Schema(implementation = DeliveryFeeResponse.class))),
             @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(schema = @Schema(implementation = DeliveryFeeResponse.class))),
+            @ApiResponse(responseCode = "503", description = "No database connection became available in time",
                     content = @Content(schema = @Schema(implementation = DeliveryFeeResponse.class)))
     })
     public ResponseEntity<DeliveryFeeResponse> calculateDeliveryFeeAtTime(
@@ -111,30 +204,225 @@ public class DeliveryFeeController {
             @Parameter(description = "Vehicle type: CAR, SCOOTER, or BIKE", required = true)
             @PathVariable String vehicleType,
             @Parameter(description = "Datetime for historical calculation (ISO format: yyyy-MM-dd'T'HH:mm:ss)", required = true)
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime datetime) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime datetime,
+            WebRequest webRequest) {
 
         try {
             City cityEnum = City.valueOf(city.toUpperCase());
             VehicleType vehicleTypeEnum = VehicleType.valueOf(vehicleType.toUpperCase());
 
-            BigDecimal fee = deliveryFeeService.calculateFee(cityEnum, vehicleTypeEnum, datetime);
+            FeeMatrix matrix = deliveryFeeService.getFeeMatrix();
 
-            return ResponseEntity.ok(new DeliveryFeeResponse(fee));
-        } catch (DeliveryFeeCalculationException e) {
-            log.warn("Delivery calculation restriction for historical data: {}", e.getMessage());
-            return ResponseEntity.badRequest().body(new DeliveryFeeResponse(e.getMessage()));
-        } catch (WeatherDataNotFoundException e) {
-            log.warn("Weather data not found: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(new DeliveryFeeResponse(e.getMessage()));
+            // Tagged with the observation the fee is calculated from and the fee rules version, so
+            // a rule change or a backfilled observation makes cached copies fail revalidation.
+            // The fee is calculated from the same observation, so the body always matches its tag.
+            Optional<WeatherData> observation = weatherService.findWeatherDataByTimestamp(cityEnum, datetime);
+            Optional<String> eTag = observation
+                    .map(weatherData -> feeCachePolicy.historicalETag(matrix, weatherData.getTimestamp()));
+            if (eTag.isPresent() && webRequest.checkNotModified(eTag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(eTag.get())
+                        .cacheControl(feeCachePolicy.historical(matrix, cityEnum, datetime))
+                        .build();
+            }
+
+            return switch (deliveryFeeService.evaluateFee(cityEnum, vehicleTypeEnum, datetime, observation.orElse(null))) {
+                case FeeResult.Allowed allowed -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .cacheControl(feeCachePolicy.historical(matrix, cityEnum, datetime));
+                    eTag.ifPresent(response::eTag);
+                    yield response.body(new DeliveryFeeResponse(allowed.fee()));
+                }
+                case FeeResult.Rejected rejected -> rejected(rejected);
+            };
         } catch (IllegalArgumentException e) {
             log.warn("Invalid params: {}", e.getMessage());
             return ResponseEntity.badRequest()
                     .body(new DeliveryFeeResponse("Invalid parameters provided"));
+        } catch (CannotCreateTransactionException | DataAccessResourceFailureException e) {
+            // The connection pool stayed exhausted for its whole timeout: shed the request
+            log.warn("No database connection for historical fee: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new DeliveryFeeResponse("Service is busy, please retry"));
         } catch (Exception e) {
             log.error("Error calculating historical delivery fee", e);
             return ResponseEntity.internalServerError()
                     .body(new DeliveryFeeResponse("An unexpected error occurred"));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Stream the delivery fee over a time range as newline-delimited JSON, one line per fee change.
+     *
+     * @param city        The city (TALLINN, TARTU, PARNU)
+     * @param vehicleType The vehicle type (CAR, SCOOTER, BIKE)
+     * @param from        Start of the time range, inclusive
+     * @param to          End of the time range, exclusive
+     * @return One change-point per line, oldest first
+     */
+    @GetMapping(value = "/{city}/{vehicleType}/series", produces = APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Stream delivery fee series",
+            description = "Streams the points in the time range where the delivery fee changes, as newline-delimited JSON. " +
+                    "The first point is at the start of the range with the fee the historical endpoint returns for it. " +
+                    "Each point has either a fee or, while the vehicle type is forbidden, the reason as message. " +
+                    "Weather data is read with ordered range scans in pages, so the cost grows with the range, not per point."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Fee change-points, one per line",
+                    content = @Content(mediaType = APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = FeeSeriesPoint.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid city, vehicle type or time range",
+                    content = @Content(schema = @Schema(implementation = DeliveryFeeResponse.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> streamDeliveryFeeSeries(
+            @Parameter(description = "City name: TALLINN, TARTU, or PARNU", required = true)
+            @PathVariable String city,
+            @Parameter(description = "Vehicle type: CAR, SCOOTER, or BIKE", required = true)
+            @PathVariable String vehicleType,
+            @Parameter(description = "Start of the time range, inclusive (ISO format: yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End of the time range, exclusive (ISO format: yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        City cityEnum;
+        VehicleType vehicleTypeEnum;
+        try {
+            cityEnum = City.valueOf(city.toUpperCase());
+            vehicleTypeEnum = VehicleType.valueOf(vehicleType.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid input: {}", e.getMessage());
+            return badRequest("Invalid city or vehicle type provided");
+        }
+        if (!from.isBefore(to)) {
+            log.warn("Invalid fee series range: {} - {}", from, to);
+            return badRequest("The start of the time range must be before its end");
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(FeeSeriesPoint.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                long evaluated = feeSeriesService.stream(cityEnum, vehicleTypeEnum, from, to, point -> {
+                    try {
+                        writer.writeValue(generator, point);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                log.debug("Evaluated the {} fee in {} for {} observations", vehicleTypeEnum, cityEnum, evaluated);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    /**
+     * Calculate delivery fees for many city, vehicle type and datetime combinations in one call.
+     *
+     * @param requests The batch items, each with an optional datetime for historical calculation
+     * @return Results in request order, streamed as a JSON array
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Calculate delivery fees in batch",
+            description = "Calculates delivery fees for many requests at once. Results are returned in request order, " +
+                    "each with the status the single-item endpoint would have returned. Items without a datetime " +
+                    "use current weather conditions."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the status of each result",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = DeliveryFeeBatchResult.class)))),
+            @ApiResponse(responseCode = "400", description = "Batch is larger than the configured maximum",
+                    content = @Content(schema = @Schema(implementation = DeliveryFeeResponse.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> calculateDeliveryFeeBatch(
+            @RequestBody List<DeliveryFeeBatchRequest> requests) {
+
+        if (requests.size() > maxBatchSize) {
+            log.warn("Rejected batch of {} items, maximum is {}", requests.size(), maxBatchSize);
+            return badRequest("Batch size exceeds the maximum of " + maxBatchSize);
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            DeliveryFeeBatch batch = deliveryFeeService.openBatch();
+            ObjectWriter writer = objectMapper.writerFor(DeliveryFeeBatchResult.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                for (DeliveryFeeBatchRequest request : requests) {
+                    writer.writeValue(generator, calculateBatchItem(batch, request));
+                }
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Returns the response for a fee that can't be offered, without any caching headers.
+     * Forbidden vehicle types are an expected outcome in bad weather, so they are only logged at debug level.
+     */
+    private static ResponseEntity<DeliveryFeeResponse> rejected(FeeResult.Rejected rejected) {
+        if (rejected.reason().isForbidden()) {
+            log.debug("Delivery calculation restriction: {}", rejected.message());
+        } else {
+            log.warn("Weather data not found: {}", rejected.message());
+        }
+        return ResponseEntity.status(statusOf(rejected)).body(new DeliveryFeeResponse(rejected.message()));
+    }
+
+    /**
+     * Returns 404 Not Found without weather data, and 400 Bad Request when the weather forbids the vehicle type.
+     */
+    private static HttpStatus statusOf(FeeResult.Rejected rejected) {
+        return rejected.reason().isForbidden() ? HttpStatus.BAD_REQUEST : HttpStatus.NOT_FOUND;
+    }
+
+    /**
+     * Returns a bad request with the message as a JSON body, for endpoints that otherwise stream.
+     */
+    private ResponseEntity<StreamingResponseBody> badRequest(String message) {
+        DeliveryFeeResponse error = new DeliveryFeeResponse(message);
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, error));
+    }
+
+    /**
+     * Calculates a single batch item, mapping failures the same way the single-item endpoints do.
+     * Failures are logged at debug level only, so one bad batch can't flood the log.
+     */
+    private DeliveryFeeBatchResult calculateBatchItem(DeliveryFeeBatch batch, DeliveryFeeBatchRequest request) {
+        if (request == null || request.getCity() == null || request.getVehicleType() == null) {
+            return DeliveryFeeBatchResult.error(HttpStatus.BAD_REQUEST.value(), "Invalid city or vehicle type provided");
+        }
+
+        try {
+            City cityEnum = City.valueOf(request.getCity().toUpperCase());
+            VehicleType vehicleTypeEnum = VehicleType.valueOf(request.getVehicleType().toUpperCase());
+
+            return switch (batch.evaluateFee(cityEnum, vehicleTypeEnum, request.getDatetime())) {
+                case FeeResult.Allowed allowed -> DeliveryFeeBatchResult.success(allowed.fee());
+                case FeeResult.Rejected rejected -> DeliveryFeeBatchResult.error(statusOf(rejected).value(), rejected.message());
+            };
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid batch item: {}", e.getMessage());
+            return DeliveryFeeBatchResult.error(HttpStatus.BAD_REQUEST.value(), "Invalid city or vehicle type provided");
+        } catch (Exception e) {
+            log.error("Error calculating delivery fee in batch", e);
+            return DeliveryFeeBatchResult.error(HttpStatus.INTERNAL_SERVER_ERROR.value(), "An unexpected error occurred");
+        }
+    }
+}
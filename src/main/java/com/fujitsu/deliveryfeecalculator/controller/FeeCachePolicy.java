@@ -0,0 +1,132 @@
+package com.fujitsu.deliveryfeecalculator.controller;
+
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrix;
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrixUpdatedEvent;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Caching headers for fee responses. A current fee only changes when an ingest brings new
+ * weather data or the fee rules change, so it is tagged with the observation and rules it was
+ * computed from, and may be cached until the next scheduled weather fetch.
+ * <p>
+ * Once a scheduled fetch is due, responses only get a short max-age until a fee matrix with new
+ * weather data is served, so caches don't keep the previous hour's fees for another hour while
+ * the fetch is running or retrying. Historical fees for an hour that weather data has already
+ * been ingested after no longer depend on future ingests, so they may be cached for longer. They
+ * can still change with the fee rules or a backfill of that hour, so they are tagged with the
+ * observation and rules they were computed from and revalidated once the max-age runs out.
+ */
+@Component
+public class FeeCachePolicy {
+
+    private static final DateTimeFormatter TAG_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    // Null when scheduled fetches are disabled
+    private final CronExpression fetchSchedule;
+    private final Duration pendingMaxAge;
+    private final Duration sealedMaxAge;
+    private final Clock clock;
+
+    // Only written by the event listener, which is never called concurrently
+    private volatile long snapshotVersion = -1;
+    private volatile LocalDateTime snapshotServedAt;
+
+    @Autowired
+    public FeeCachePolicy(@Value("${weather.fetch.cron}") String fetchCron,
+                          @Value("${delivery-fee.cache.pending-max-age:1m}") Duration pendingMaxAge,
+                          @Value("${delivery-fee.cache.sealed-max-age:1h}") Duration sealedMaxAge) {
+        this(fetchCron, pendingMaxAge, sealedMaxAge, Clock.systemDefaultZone());
+    }
+
+    FeeCachePolicy(String fetchCron, Duration pendingMaxAge, Duration sealedMaxAge, Clock clock) {
+        this.fetchSchedule = Scheduled.CRON_DISABLED.equals(fetchCron) ? null : CronExpression.parse(fetchCron);
+        this.pendingMaxAge = pendingMaxAge;
+        this.sealedMaxAge = sealedMaxAge;
+        this.clock = clock;
+    }
+
+    /**
+     * Records when weather data of a new snapshot started being served.
+     */
+    @EventListener
+    public void onFeeMatrixUpdated(FeeMatrixUpdatedEvent event) {
+        long version = event.matrix().getSnapshotVersion();
+        if (version != snapshotVersion) {
+            snapshotServedAt = LocalDateTime.now(clock);
+            snapshotVersion = version;
+        }
+    }
+
+    /**
+     * Returns the entity tag of the current fees of a city in the given matrix. It only depends on
+     * the observation time and the rules version, so every instance serving the same data agrees on it.
+     *
+     * @param matrix the fee matrix the response is served from
+     * @param city   the city
+     * @return the tag, or empty if the matrix has no weather data for the city
+     */
+    public Optional<String> currentETag(FeeMatrix matrix, City city) {
+        return matrix.getObservedAt(city).map(observedAt -> historicalETag(matrix, observedAt));
+    }
+
+    /**
+     * Returns the entity tag of a historical fee computed from the observation at the given time,
+     * with the rules of the matrix. Like the tag of a current fee, it only depends on the data.
+     *
+     * @param matrix     the fee matrix the response is served with, for its rules version
+     * @param observedAt the time of the observation the fee is computed from
+     */
+    public String historicalETag(FeeMatrix matrix, LocalDateTime observedAt) {
+        return "\"" + TAG_TIME.format(observedAt) + "-" + matrix.getRulesVersion() + "\"";
+    }
+
+    /**
+     * Returns the cache control for current fees: cacheable until the next scheduled weather fetch,
+     * briefly while that fetch's data is not served yet, and always revalidated without a schedule.
+     */
+    public CacheControl current() {
+        if (fetchSchedule == null) {
+            return CacheControl.noCache();
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime servedAt = snapshotServedAt;
+        LocalDateTime expectedUpdate = servedAt == null ? null : fetchSchedule.next(servedAt);
+        if (expectedUpdate == null || !expectedUpdate.isAfter(now)) {
+            return CacheControl.maxAge(pendingMaxAge).cachePublic();
+        }
+        return CacheControl.maxAge(Duration.between(now, fetchSchedule.next(now))).cachePublic();
+    }
+
+    /**
+     * Returns the cache control for the historical fee of a city at the given time. The hour is
+     * sealed once the matrix has an observation of the city from after it: new observations only
+     * come after the latest one, so ingests can't change the weather data in effect at that time.
+     * Sealed fees are not immutable, as fee rule changes and backfills still change them.
+     *
+     * @param matrix   the fee matrix current when the request was received
+     * @param city     the city
+     * @param datetime the requested time
+     */
+    public CacheControl historical(FeeMatrix matrix, City city, LocalDateTime datetime) {
+        LocalDateTime hourEnd = datetime.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        boolean sealed = matrix.getObservedAt(city)
+                .map(observedAt -> !observedAt.isBefore(hourEnd))
+                .orElse(false);
+        return sealed ? CacheControl.maxAge(sealedMaxAge).cachePublic() : current();
+    }
+}
@@ -0,0 +1,104 @@
+package com.fujitsu.deliveryfeecalculator.controller;
+
+import com.fujitsu.deliveryfeecalculator.dto.FeeRulesResponse;
+import com.fujitsu.deliveryfeecalculator.exception.InvalidFeeRulesException;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeRules;
+import com.fujitsu.deliveryfeecalculator.service.FeeCalculator;
+import com.fujitsu.deliveryfeecalculator.service.FeeRuleService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin controller for viewing and changing the fee rules at runtime.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/fee-rules")
+@RequiredArgsConstructor
+@Tag(name = "Fee Rules Administration", description = "API to view and change the delivery fee rules without a restart")
+public class FeeRuleController {
+
+    private final FeeRuleService feeRuleService;
+
+    /**
+     * Get the fee rules currently in effect.
+     *
+     * @return The rules with their version
+     */
+    @GetMapping
+    @Operation(
+            summary = "Get fee rules",
+            description = "Returns the fee rules currently in effect. Version 0 means the built-in defaults."
+    )
+    @ApiResponse(responseCode = "200", description = "Rules in effect",
+            content = @Content(schema = @Schema(implementation = FeeRulesResponse.class)))
+    public ResponseEntity<FeeRulesResponse> getFeeRules() {
+        return ResponseEntity.ok(toResponse(feeRuleService.current()));
+    }
+
+    /**
+     * Replace the fee rules. The rules are validated, stored as a new version and take effect immediately.
+     *
+     * @param rules The complete new rules
+     * @return The rules with their new version, or the validation errors
+     */
+    @PutMapping
+    @Operation(
+            summary = "Update fee rules",
+            description = "Validates the complete rule set, stores it as a new version and puts it into effect " +
+                    "without a restart. Fees are in euros with at most two decimals."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rules stored and in effect",
+                    content = @Content(schema = @Schema(implementation = FeeRulesResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Rules are incomplete or inconsistent",
+                    content = @Content(schema = @Schema(implementation = FeeRulesResponse.class))),
+            @ApiResponse(responseCode = "409", description = "Rules were updated concurrently",
+                    content = @Content(schema = @Schema(implementation = FeeRulesResponse.class)))
+    })
+    public ResponseEntity<FeeRulesResponse> updateFeeRules(@RequestBody FeeRules rules) {
+        try {
+            return ResponseEntity.ok(toResponse(feeRuleService.update(rules)));
+        } catch (InvalidFeeRulesException e) {
+            log.warn("Rejected fee rules: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(FeeRulesResponse.error("Invalid fee rules", e.getErrors()));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored the same version first
+            log.warn("Concurrent fee rules update: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(FeeRulesResponse.error("Fee rules were updated concurrently, please retry", null));
+        }
+    }
+
+    /**
+     * Put the latest stored fee rules into effect.
+     *
+     * @return The rules now in effect with their version
+     */
+    @PostMapping("/reload")
+    @Operation(
+            summary = "Reload fee rules",
+            description = "Puts the latest rules stored in the database into effect, for example after " +
+                    "another instance has updated them"
+    )
+    @ApiResponse(responseCode = "200", description = "Rules in effect",
+            content = @Content(schema = @Schema(implementation = FeeRulesResponse.class)))
+    public ResponseEntity<FeeRulesResponse> reloadFeeRules() {
+        return ResponseEntity.ok(toResponse(feeRuleService.reload()));
+    }
+
+    private static FeeRulesResponse toResponse(FeeCalculator calculator) {
+        return FeeRulesResponse.success(calculator.getVersion(), calculator.getRules());
+    }
+}
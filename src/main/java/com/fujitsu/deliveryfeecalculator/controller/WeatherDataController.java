@@ -1,49 +1,150 @@
 package com.fujitsu.deliveryfeecalculator.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataCursor;
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataPage;
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataQuery;
 import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
-import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import com.fujitsu.deliveryfeecalculator.service.WeatherDataQueryService;
 import io.swagger.v3.oas.annotations.Operation;
-import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 
 /**
  * Controller for accessing weather data.
  */
+@Slf4j
 @RestController
 @RequestMapping("/api/weather")
 @RequiredArgsConstructor
 @Tag(name = "Weather Data", description = "API to access weather data stored in the system")
 public class WeatherDataController {
 
-    private final WeatherDataRepository weatherDataRepository;
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final WeatherDataQueryService weatherDataQueryService;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Get all weather data records from the database.
+     * Get one page of weather data records, oldest first.
      *
-     * @return List of all weather data records
+     * @param station Only records from this station
+     * @param from    Only records at or after this time
+     * @param to      Only records before this time
+     * @param cursor  Cursor returned with the previous page
+     * @param limit   Maximum number of records on the page
+     * @return Page of weather data records with a cursor for the next page
      */
-    @GetMapping
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(
-            summary = "Get all weather data",
-            description = "Retrieves all weather data records stored in the system"
+            summary = "Get weather data",
+            description = "Retrieves weather data records page by page, ordered by timestamp. " +
+                    "Pass the returned nextCursor to get the following page."
     )
-    @ApiResponse(
-            responseCode = "200",
-            description = "Successfully retrieved weather data",
-            content = @Content(
-                    array = @ArraySchema(schema = @Schema(implementation = WeatherData.class))
-            )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved weather data",
+                    content = @Content(schema = @Schema(implementation = WeatherDataPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size", content = @Content)
+    })
+    public ResponseEntity<WeatherDataPage> getWeatherData(
+            @Parameter(description = "Weather station name, e.g. Tallinn-Harku")
+            @RequestParam(required = false) String station,
+            @Parameter(description = "Start of the time range, inclusive (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End of the time range, exclusive (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Cursor returned with the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of records on the page (1-" + MAX_PAGE_SIZE + ")")
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            log.warn("Invalid page size: {}", limit);
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            WeatherDataCursor position = cursor != null ? WeatherDataCursor.decode(cursor) : null;
+            return ResponseEntity.ok(weatherDataQueryService.findPage(
+                    new WeatherDataQuery(station, from, to), position, limit));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cursor: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Stream all matching weather data records as newline-delimited JSON, oldest first.
+     *
+     * @param station Only records from this station
+     * @param from    Only records at or after this time
+     * @param to      Only records before this time
+     * @return One JSON record per line
+     */
+    @GetMapping(value = "/stream", produces = APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Stream weather data",
+            description = "Streams all matching weather data records as newline-delimited JSON, ordered by timestamp. " +
+                    "Rows are read from a database cursor, so the full history is never held in memory."
     )
-    public List<WeatherData> getAllWeatherData() {
-        return weatherDataRepository.findAll();
+    @ApiResponse(responseCode = "200", description = "Weather data records, one per line",
+            content = @Content(mediaType = APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = WeatherData.class)))
+    public ResponseEntity<StreamingResponseBody> streamWeatherData(
+            @Parameter(description = "Weather station name, e.g. Tallinn-Harku")
+            @RequestParam(required = false) String station,
+            @Parameter(description = "Start of the time range, inclusive (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End of the time range, exclusive (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        WeatherDataQuery query = new WeatherDataQuery(station, from, to);
+
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(WeatherData.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                long streamed = weatherDataQueryService.stream(query, row -> {
+                    try {
+                        writer.writeValue(generator, row);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                log.debug("Streamed {} weather data records", streamed);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
     }
-}
\ No newline at end of file
+}
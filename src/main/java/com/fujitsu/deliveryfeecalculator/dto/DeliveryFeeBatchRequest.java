@@ -0,0 +1,21 @@
+package com.fujitsu.deliveryfeecalculator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single item of a batch fee calculation request.
+ * Without a datetime the fee is calculated for the current weather conditions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryFeeBatchRequest {
+
+    private String city;
+    private String vehicleType;
+    private LocalDateTime datetime;
+}
@@ -0,0 +1,32 @@
+package com.fujitsu.deliveryfeecalculator.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeBreakdown;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Result of a single batch item. The status mirrors the HTTP status
+ * the matching single-item endpoint would have returned.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DeliveryFeeBatchResult {
+
+    private int status;
+    private BigDecimal fee;
+    private String message;
+
+    public static DeliveryFeeBatchResult success(FeeBreakdown fee) {
+        return new DeliveryFeeBatchResult(200, fee.toBigDecimal(), null);
+    }
+
+    public static DeliveryFeeBatchResult error(int status, String message) {
+        return new DeliveryFeeBatchResult(status, null, message);
+    }
+}
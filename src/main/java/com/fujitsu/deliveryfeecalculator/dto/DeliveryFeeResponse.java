@@ -1,6 +1,7 @@
 package com.fujitsu.deliveryfeecalculator.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeBreakdown;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -13,10 +14,10 @@ public class DeliveryFeeResponse {
     private String message;
 
     /**
-     * Constructor for successful fee calculation.
+     * Constructor for successful fee calculation. The fee is converted from cents to euros here.
      */
-    public DeliveryFeeResponse(BigDecimal fee) {
-        this.fee = fee;
+    public DeliveryFeeResponse(FeeBreakdown fee) {
+        this.fee = fee.toBigDecimal();
     }
 
     /**
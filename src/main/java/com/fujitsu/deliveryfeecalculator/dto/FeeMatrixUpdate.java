@@ -0,0 +1,65 @@
+package com.fujitsu.deliveryfeecalculator.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrix;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fee matrix cells pushed to stream subscribers: every cell on subscribe, afterwards only
+ * the cells that changed. A cell with neither fee nor message no longer has weather data.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeeMatrixUpdate {
+
+    private long snapshotVersion;
+    private long rulesVersion;
+    private List<Cell> cells;
+
+    /**
+     * Returns the cells of the current matrix that differ from the previous one.
+     */
+    public static FeeMatrixUpdate between(FeeMatrix previous, FeeMatrix current) {
+        List<Cell> cells = new ArrayList<>();
+        for (City city : City.values()) {
+            for (VehicleType vehicleType : VehicleType.values()) {
+                Optional<FeeResult> cell = current.get(city, vehicleType);
+                if (!cell.equals(previous.get(city, vehicleType))) {
+                    cells.add(Cell.of(city, vehicleType, cell.orElse(null)));
+                }
+            }
+        }
+        return new FeeMatrixUpdate(current.getSnapshotVersion(), current.getRulesVersion(), cells);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Cell {
+
+        private City city;
+        private VehicleType vehicleType;
+        private BigDecimal fee;
+        private String message;
+
+        static Cell of(City city, VehicleType vehicleType, FeeResult cell) {
+            return switch (cell) {
+                case null -> new Cell(city, vehicleType, null, null);
+                case FeeResult.Allowed allowed -> new Cell(city, vehicleType, allowed.fee().toBigDecimal(), null);
+                case FeeResult.Rejected rejected -> new Cell(city, vehicleType, null, rejected.message());
+            };
+        }
+    }
+}
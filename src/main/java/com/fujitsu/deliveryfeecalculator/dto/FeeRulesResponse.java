@@ -0,0 +1,32 @@
+package com.fujitsu.deliveryfeecalculator.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeRules;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The fee rules in effect with their version, or the reason an update was rejected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FeeRulesResponse {
+
+    private Long version;
+    private FeeRules rules;
+    private String message;
+    private List<String> errors;
+
+    public static FeeRulesResponse success(long version, FeeRules rules) {
+        return new FeeRulesResponse(version, rules, null, null);
+    }
+
+    public static FeeRulesResponse error(String message, List<String> errors) {
+        return new FeeRulesResponse(null, null, message, errors);
+    }
+}
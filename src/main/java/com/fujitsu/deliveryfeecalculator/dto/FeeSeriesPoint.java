@@ -0,0 +1,33 @@
+package com.fujitsu.deliveryfeecalculator.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeBreakdown;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Point of a fee series: from the timestamp on, the fee is the given one, or the vehicle type is
+ * forbidden for the reason in the message, until the next point.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FeeSeriesPoint {
+
+    private LocalDateTime timestamp;
+    private BigDecimal fee;
+    private String message;
+
+    public static FeeSeriesPoint allowed(LocalDateTime timestamp, FeeBreakdown fee) {
+        return new FeeSeriesPoint(timestamp, fee.toBigDecimal(), null);
+    }
+
+    public static FeeSeriesPoint forbidden(LocalDateTime timestamp, String reason) {
+        return new FeeSeriesPoint(timestamp, null, reason);
+    }
+}
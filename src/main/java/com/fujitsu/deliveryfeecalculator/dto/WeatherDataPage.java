@@ -0,0 +1,22 @@
+package com.fujitsu.deliveryfeecalculator.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of weather data. The next cursor is absent on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WeatherDataPage {
+
+    private List<WeatherData> items;
+    private String nextCursor;
+}
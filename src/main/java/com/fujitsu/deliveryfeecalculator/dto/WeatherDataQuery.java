@@ -0,0 +1,13 @@
+package com.fujitsu.deliveryfeecalculator.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filter for weather data listings. Every criterion is optional.
+ *
+ * @param stationName only rows from this station
+ * @param from        only rows at or after this time
+ * @param to          only rows before this time
+ */
+public record WeatherDataQuery(String stationName, LocalDateTime from, LocalDateTime to) {
+}
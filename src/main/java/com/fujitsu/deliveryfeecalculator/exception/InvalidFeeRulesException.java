@@ -0,0 +1,25 @@
+package com.fujitsu.deliveryfeecalculator.exception;
+
+import java.util.List;
+
+/**
+ * Exception thrown when fee rules fail validation and can't be compiled.
+ */
+public class InvalidFeeRulesException extends RuntimeException {
+
+    private final List<String> errors;
+
+    /**
+     * Constructs a new exception listing every problem found in the rules.
+     *
+     * @param errors the validation errors
+     */
+    public InvalidFeeRulesException(List<String> errors) {
+        super("Invalid fee rules: " + String.join("; ", errors));
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,88 @@
+package com.fujitsu.deliveryfeecalculator.metrics;
+
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Timers of fee calculations, tagged by city, vehicle type, whether the latest or historical
+ * weather was used, and outcome.
+ * <p>
+ * Every tag combination is known up front, so timers are looked up by array index instead of
+ * building tags on each call. They are registered on first use, so only combinations that
+ * actually occur are exported.
+ */
+@Component
+public class DeliveryFeeMetrics {
+
+    public static final String CALCULATION = "delivery.fee.calculation";
+
+    public enum Outcome {
+        OK("ok"),
+        FORBIDDEN("forbidden"),
+        NO_DATA("no-data"),
+        ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * @param result the result of the calculation; calculations that threw are {@link #ERROR}
+         */
+        public static Outcome of(FeeResult result) {
+            return switch (result) {
+                case FeeResult.Allowed allowed -> OK;
+                case FeeResult.Rejected rejected -> rejected.reason().isForbidden() ? FORBIDDEN : NO_DATA;
+            };
+        }
+    }
+
+    private static final City[] CITIES = City.values();
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicReferenceArray<Timer> timers =
+            new AtomicReferenceArray<>(CITIES.length * VEHICLE_TYPES.length * 2 * OUTCOMES.length);
+
+    public DeliveryFeeMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records one fee calculation.
+     *
+     * @param historical whether weather at a requested time was used instead of the latest
+     * @param outcome    the outcome of the calculation
+     * @param nanos      the duration of the calculation
+     */
+    public void record(City city, VehicleType vehicleType, boolean historical, Outcome outcome, long nanos) {
+        int index = ((city.ordinal() * VEHICLE_TYPES.length + vehicleType.ordinal()) * 2 + (historical ? 1 : 0))
+                * OUTCOMES.length + outcome.ordinal();
+        Timer timer = timers.get(index);
+        if (timer == null) {
+            timer = Timer.builder(CALCULATION)
+                    .description("Delivery fee calculations")
+                    .tag("city", city.name())
+                    .tag("vehicle", vehicleType.name())
+                    .tag("weather", historical ? "historical" : "latest")
+                    .tag("outcome", outcome.getTag())
+                    .register(meterRegistry);
+            timers.set(index, timer);
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
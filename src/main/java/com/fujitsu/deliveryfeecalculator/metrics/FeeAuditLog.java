@@ -0,0 +1,137 @@
+package com.fujitsu.deliveryfeecalculator.metrics;
+
+import com.fujitsu.deliveryfeecalculator.metrics.DeliveryFeeMetrics.Outcome;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Audit trail of fee calculations, written as one compact JSON object per line to the
+ * {@value #CHANNEL} logger.
+ * <p>
+ * Calculations are sampled at a configurable rate, except for outcomes that are always logged,
+ * such as forbidden vehicle types. Sampled records are handed to a bounded buffer without
+ * blocking and written by a single background thread, so the request path never waits for log
+ * output. When the buffer is full the record is dropped and counted in {@value #DROPPED}.
+ */
+@Component
+public class FeeAuditLog {
+
+    public static final String CHANNEL = "fee-audit";
+    public static final String DROPPED = "delivery.fee.audit.dropped";
+
+    private static final Logger AUDIT = LoggerFactory.getLogger(CHANNEL);
+
+    private final double sampleRate;
+    private final Set<Outcome> alwaysLogged;
+    private final Consumer<String> sink;
+    private final BlockingQueue<Entry> buffer;
+    private final Counter dropped;
+    private final Thread writer;
+
+    @Autowired
+    public FeeAuditLog(MeterRegistry meterRegistry,
+                       @Value("${delivery-fee.audit.sample-rate:0.01}") double sampleRate,
+                       @Value("${delivery-fee.audit.always-log:FORBIDDEN,NO_DATA,ERROR}") Set<Outcome> alwaysLogged,
+                       @Value("${delivery-fee.audit.buffer-size:8192}") int bufferSize) {
+        this(meterRegistry, sampleRate, alwaysLogged, bufferSize, AUDIT::info);
+    }
+
+    FeeAuditLog(MeterRegistry meterRegistry, double sampleRate, Set<Outcome> alwaysLogged, int bufferSize,
+                Consumer<String> sink) {
+        this.sampleRate = sampleRate;
+        this.alwaysLogged = alwaysLogged.isEmpty() ? EnumSet.noneOf(Outcome.class) : EnumSet.copyOf(alwaysLogged);
+        this.sink = sink;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.dropped = Counter.builder(DROPPED)
+                .description("Fee audit records dropped because the audit buffer was full")
+                .register(meterRegistry);
+        this.writer = Thread.ofPlatform().name(CHANNEL).daemon().start(this::drain);
+    }
+
+    /**
+     * Records one fee calculation if it is sampled or its outcome is always logged.
+     *
+     * @param timestamp the requested time, or null if the latest weather was used
+     * @param outcome   the outcome of the calculation
+     * @param result    the result, or null if the calculation threw
+     * @param nanos     the duration of the calculation
+     */
+    public void record(City city, VehicleType vehicleType, LocalDateTime timestamp, Outcome outcome,
+                       FeeResult result, long nanos) {
+        if (!alwaysLogged.contains(outcome)
+                && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+
+        Entry entry = new Entry(System.currentTimeMillis(), city, vehicleType, timestamp, outcome, result, nanos);
+        if (!buffer.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Stops the writer once the records already buffered are written.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() throws InterruptedException {
+        writer.interrupt();
+        writer.join(1000);
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                sink.accept(format(buffer.take()));
+            }
+        } catch (InterruptedException e) {
+            Entry entry;
+            while ((entry = buffer.poll()) != null) {
+                sink.accept(format(entry));
+            }
+        }
+    }
+
+    /**
+     * Formats an entry as JSON. Every value is an enum name, a number or a date, so nothing needs escaping.
+     */
+    static String format(Entry entry) {
+        StringBuilder json = new StringBuilder(192)
+                .append("{\"ts\":\"").append(Instant.ofEpochMilli(entry.epochMillis()))
+                .append("\",\"city\":\"").append(entry.city().name())
+                .append("\",\"vehicle\":\"").append(entry.vehicleType().name())
+                .append("\",\"weather\":\"").append(entry.timestamp() == null ? "latest" : "historical").append('"');
+        if (entry.timestamp() != null) {
+            json.append(",\"at\":\"").append(entry.timestamp()).append('"');
+        }
+        json.append(",\"outcome\":\"").append(entry.outcome().getTag()).append('"');
+        switch (entry.result()) {
+            case FeeResult.Allowed allowed -> json.append(",\"fee\":").append(allowed.fee().toBigDecimal());
+            case FeeResult.Rejected rejected -> json.append(",\"reason\":\"").append(rejected.reason()).append('"');
+            case null -> { }
+        }
+        return json.append(",\"micros\":").append(entry.nanos() / 1000).append('}').toString();
+    }
+
+    record Entry(long epochMillis, City city, VehicleType vehicleType, LocalDateTime timestamp, Outcome outcome,
+                 FeeResult result, long nanos) {
+    }
+}
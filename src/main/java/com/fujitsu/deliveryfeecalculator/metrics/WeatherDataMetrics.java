@@ -0,0 +1,66 @@
+package com.fujitsu.deliveryfeecalculator.metrics;
+
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshotStore;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Freshness and quality of the served weather data: the age of the latest observation of
+ * each monitored station, and the number of phenomena that matched no known category.
+ */
+@Component
+public class WeatherDataMetrics implements MeterBinder {
+
+    public static final String OBSERVATION_AGE = "weather.observation.age";
+    public static final String UNRECOGNIZED_PHENOMENA = "weather.phenomenon.unrecognized";
+
+    private final WeatherSnapshotStore weatherSnapshotStore;
+    private final Clock clock;
+
+    @Autowired
+    public WeatherDataMetrics(WeatherSnapshotStore weatherSnapshotStore) {
+        this(weatherSnapshotStore, Clock.systemDefaultZone());
+    }
+
+    WeatherDataMetrics(WeatherSnapshotStore weatherSnapshotStore, Clock clock) {
+        this.weatherSnapshotStore = weatherSnapshotStore;
+        this.clock = clock;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (City city : City.values()) {
+            TimeGauge.builder(OBSERVATION_AGE, () -> observationAgeMillis(city), TimeUnit.MILLISECONDS)
+                    .description("Age of the latest served weather observation")
+                    .tag("city", city.name())
+                    .tag("station", city.getStationName())
+                    .register(registry);
+        }
+        FunctionCounter.builder(UNRECOGNIZED_PHENOMENA, WeatherPhenomenon.class,
+                        phenomenon -> WeatherPhenomenon.getUnrecognizedCount())
+                .description("Weather phenomena that matched no known category and were treated as normal")
+                .register(registry);
+    }
+
+    /**
+     * @return the age in milliseconds, or NaN while there is no observation for the city
+     */
+    private double observationAgeMillis(City city) {
+        return weatherSnapshotStore.getLatest(city)
+                .map(WeatherData::getTimestamp)
+                .map(observed -> (double) Duration.between(observed, LocalDateTime.now(clock)).toMillis())
+                .orElse(Double.NaN);
+    }
+}
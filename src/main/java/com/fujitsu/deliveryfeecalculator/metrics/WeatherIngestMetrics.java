@@ -0,0 +1,89 @@
+package com.fujitsu.deliveryfeecalculator.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of the weather fetch job: the duration of each phase, the outcome of each run
+ * and the number of stored station observations.
+ */
+@Component
+public class WeatherIngestMetrics {
+
+    public static final String PHASE = "weather.ingest.phase";
+    public static final String RUNS = "weather.ingest.runs";
+    public static final String STATIONS_STORED = "weather.ingest.stations.stored";
+
+    public enum Phase {
+        /**
+         * Sending the request until the response headers arrive, per attempt that got a response.
+         * Failed attempts are counted by the retry metrics.
+         */
+        FETCH,
+        /**
+         * Reading and parsing the response body.
+         */
+        PARSE,
+        /**
+         * Storing new observations and publishing them to the in-memory caches.
+         */
+        PERSIST
+    }
+
+    public enum RunOutcome {
+        STORED,
+        UNCHANGED,
+        EMPTY,
+        SKIPPED,
+        FAILED,
+        /**
+         * Another instance holds the weather fetch lease, or took it over during the run.
+         */
+        FOLLOWER
+    }
+
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+    private final Map<RunOutcome, Counter> runCounters = new EnumMap<>(RunOutcome.class);
+    private final Counter stationsStored;
+
+    public WeatherIngestMetrics(MeterRegistry meterRegistry) {
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder(PHASE)
+                    .description("Duration of the weather fetch job phases")
+                    .tag("phase", tagOf(phase))
+                    .register(meterRegistry));
+        }
+        for (RunOutcome outcome : RunOutcome.values()) {
+            runCounters.put(outcome, Counter.builder(RUNS)
+                    .description("Weather fetch job runs")
+                    .tag("outcome", tagOf(outcome))
+                    .register(meterRegistry));
+        }
+        stationsStored = Counter.builder(STATIONS_STORED)
+                .description("Station observations stored by the weather fetch job")
+                .register(meterRegistry);
+    }
+
+    public void recordPhase(Phase phase, long nanos) {
+        phaseTimers.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRun(RunOutcome outcome) {
+        runCounters.get(outcome).increment();
+    }
+
+    public void recordStationsStored(int count) {
+        stationsStored.increment(count);
+    }
+
+    private static String tagOf(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
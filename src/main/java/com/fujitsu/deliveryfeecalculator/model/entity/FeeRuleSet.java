@@ -0,0 +1,49 @@
+package com.fujitsu.deliveryfeecalculator.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored version of the fee rules. The rule set with the highest version is in effect.
+ * <p>
+ * Rows are only ever added, so earlier versions stay available for auditing. The version is the
+ * primary key and every row is inserted, never merged, so two concurrent updates building on
+ * the same version can't both be stored.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "fee_rule_set")
+public class FeeRuleSet implements Persistable<Long> {
+
+    @Id
+    private long version;
+
+    /**
+     * The {@link com.fujitsu.deliveryfeecalculator.model.fee.FeeRules} as JSON.
+     */
+    @Lob
+    @Column(name = "rules", nullable = false)
+    private String rules;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Override
+    public Long getId() {
+        return version;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
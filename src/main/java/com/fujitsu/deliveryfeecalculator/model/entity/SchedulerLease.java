@@ -0,0 +1,50 @@
+package com.fujitsu.deliveryfeecalculator.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * A named lease on a job that only one instance may run at a time, such as the weather fetch.
+ * <p>
+ * The holder keeps the lease by extending it before it expires. Once it has expired, any instance
+ * may take it over, which increments the fencing token. Writes made under a lease check the token,
+ * so an instance that lost its lease without noticing can't write after the new holder.
+ * A row is inserted once per lease name and only updated after that.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "scheduler_lease")
+public class SchedulerLease implements Persistable<String> {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "holder", nullable = false)
+    private String holder;
+
+    @Column(name = "fencing_token", nullable = false)
+    private long fencingToken;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Override
+    public String getId() {
+        return name;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
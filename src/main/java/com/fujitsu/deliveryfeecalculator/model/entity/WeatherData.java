@@ -1,5 +1,6 @@
 package com.fujitsu.deliveryfeecalculator.model.entity;
 
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,17 +11,34 @@ import java.time.LocalDateTime;
 
 /**
  * Entity representing weather data from a specific station at a specific time.
+ * Lookups always filter by station and sort by time, which the composite index serves directly.
+ * The index is unique, so each station has at most one row per observation time.
+ * <p>
+ * Ids come from a pooled sequence, so Hibernate can assign them without a round trip per row
+ * and batch the inserts. An identity column would make it disable JDBC batching.
  */
 @Data
 @Entity
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "weather_data")
+@Table(name = "weather_data", indexes = {
+        @Index(name = WeatherData.STATION_TIMESTAMP_INDEX, columnList = "station_name, timestamp", unique = true)
+})
 public class WeatherData {
 
+    public static final String STATION_TIMESTAMP_INDEX = "idx_weather_data_station_timestamp_unique";
+
+    public static final String ID_SEQUENCE = "weather_data_seq";
+
+    /**
+     * Ids reserved per sequence call. Matches the JDBC batch size, so one call covers one batch.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private long id;
 
     @Column(name = "station_name", nullable = false)
@@ -38,6 +56,14 @@ public class WeatherData {
     @Column(name = "weather_phenomenon")
     private String weatherPhenomenon;
 
+    /**
+     * Category of {@link #weatherPhenomenon}, resolved once at ingest.
+     * Null only for rows stored before the column existed and not yet backfilled.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phenomenon_category", length = 16)
+    private WeatherPhenomenon phenomenonCategory;
+
     @Column(name = "timestamp", nullable = false)
     private LocalDateTime timestamp;
 }
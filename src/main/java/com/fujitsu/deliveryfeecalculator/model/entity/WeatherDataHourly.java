@@ -0,0 +1,121 @@
+package com.fujitsu.deliveryfeecalculator.model.entity;
+
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Weather data of one station compacted into one row per hour, kept after the raw rows
+ * are purged by the retention job.
+ * <p>
+ * The row keeps the last observation of the hour as it was stored, so historical lookups and fees
+ * resolve the same way they did against the raw rows, plus the range of the hour's observations.
+ * Rows can be merged with more observations of the same hour in any order.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "weather_data_hourly", indexes = {
+        @Index(name = "idx_weather_data_hourly_station_hour", columnList = "station_name, hour_start", unique = true),
+        @Index(name = "idx_weather_data_hourly_station_observed_at", columnList = "station_name, observed_at")
+})
+public class WeatherDataHourly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "weather_data_hourly_seq")
+    @SequenceGenerator(name = "weather_data_hourly_seq", sequenceName = "weather_data_hourly_seq", allocationSize = 50)
+    private long id;
+
+    @Column(name = "station_name", nullable = false)
+    private String stationName;
+
+    /**
+     * Start of the hour.
+     */
+    @Column(name = "hour_start", nullable = false)
+    private LocalDateTime hour;
+
+    /**
+     * Time of the last observation in the hour, which the values below belong to.
+     */
+    @Column(name = "observed_at", nullable = false)
+    private LocalDateTime observedAt;
+
+    @Column(name = "wmo_code")
+    private String wmoCode;
+
+    @Column(name = "air_temperature")
+    private Double airTemperature;
+
+    @Column(name = "wind_speed")
+    private Double windSpeed;
+
+    @Column(name = "weather_phenomenon")
+    private String weatherPhenomenon;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phenomenon_category", length = 16)
+    private WeatherPhenomenon phenomenonCategory;
+
+    @Column(name = "observation_count", nullable = false)
+    private int observationCount;
+
+    @Column(name = "min_air_temperature")
+    private Double minAirTemperature;
+
+    @Column(name = "max_air_temperature")
+    private Double maxAirTemperature;
+
+    @Column(name = "max_wind_speed")
+    private Double maxWindSpeed;
+
+    /**
+     * Adds a raw observation of this station and hour.
+     */
+    public void merge(WeatherData observation) {
+        observationCount++;
+        minAirTemperature = min(minAirTemperature, observation.getAirTemperature());
+        maxAirTemperature = max(maxAirTemperature, observation.getAirTemperature());
+        maxWindSpeed = max(maxWindSpeed, observation.getWindSpeed());
+        if (observedAt == null || !observation.getTimestamp().isBefore(observedAt)) {
+            observedAt = observation.getTimestamp();
+            wmoCode = observation.getWmoCode();
+            airTemperature = observation.getAirTemperature();
+            windSpeed = observation.getWindSpeed();
+            weatherPhenomenon = observation.getWeatherPhenomenon();
+            phenomenonCategory = observation.getPhenomenonCategory() != null
+                    ? observation.getPhenomenonCategory()
+                    : WeatherPhenomenon.categorize(observation.getWeatherPhenomenon());
+        }
+    }
+
+    /**
+     * The last observation of the hour, in the shape of a raw row.
+     */
+    public WeatherData toWeatherData() {
+        return WeatherData.builder()
+                .stationName(stationName)
+                .wmoCode(wmoCode)
+                .airTemperature(airTemperature)
+                .windSpeed(windSpeed)
+                .weatherPhenomenon(weatherPhenomenon)
+                .phenomenonCategory(phenomenonCategory)
+                .timestamp(observedAt)
+                .build();
+    }
+
+    private static Double min(Double current, Double value) {
+        return current == null ? value : value == null ? current : Math.min(current, value);
+    }
+
+    private static Double max(Double current, Double value) {
+        return current == null ? value : value == null ? current : Math.max(current, value);
+    }
+}
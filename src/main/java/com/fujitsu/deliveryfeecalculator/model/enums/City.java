@@ -3,6 +3,12 @@ package com.fujitsu.deliveryfeecalculator.model.enums;
 
 import lombok.Getter;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * Enumeration representing available cities for delivery service.
  * Each city has an associated weather station name.
@@ -13,6 +19,9 @@ public enum City {
     TARTU("Tartu-Tõravere"),
     PARNU("Pärnu");
 
+    private static final Map<String, City> BY_STATION_NAME = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(City::getStationName, Function.identity()));
+
     private final String stationName;
 
     City(String stationName) {
@@ -27,4 +36,14 @@ public enum City {
     public String getStationName() {
         return stationName;
     }
+
+    /**
+     * Resolves the city monitored by the given weather station.
+     *
+     * @param stationName the name of the weather station
+     * @return the city, or empty if the station is not monitored
+     */
+    public static Optional<City> fromStationName(String stationName) {
+        return Optional.ofNullable(stationName).map(BY_STATION_NAME::get);
+    }
 }
@@ -1,13 +1,26 @@
 package com.fujitsu.deliveryfeecalculator.model.enums;
 
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Enumeration representing available weather phenomena
  * Each phenomena falls into a specific category.
  */
+@Slf4j
 public enum WeatherPhenomenon {
     SNOW(new HashSet<>(Arrays.asList(
             "light snow shower", "moderate snow shower", "heavy snow shower",
@@ -32,45 +45,268 @@ public enum WeatherPhenomenon {
 
     /**
      * Categorize a weather phenomenon string into one of the enum values.
+     * <p>
+     * The string is lowercased, trimmed, whitespace runs are collapsed and hyphens are
+     * replaced with spaces. An exact phenomenon match wins; otherwise the string is searched
+     * for known phenomena in priority order: forbidden, snow, sleet, rain. Anything else is normal.
      */
     public static WeatherPhenomenon categorize(String phenomenonStr) {
-        if (phenomenonStr == null || phenomenonStr.trim().isEmpty()) {
-            return NORMAL;
+        return Classifier.INSTANCE.categorize(phenomenonStr);
+    }
+
+    /**
+     * Returns how many non-blank phenomenon strings have been categorized as normal
+     * only because they matched no known phenomenon.
+     */
+    public static long getUnrecognizedCount() {
+        return Classifier.INSTANCE.unrecognized.sum();
+    }
+
+    /**
+     * Check if this weather category forbids vehicle usage.
+     */
+    public boolean isUsageForbidden() {
+        return this == FORBIDDEN;
+    }
+
+    /**
+     * Categorizes phenomenon strings in a single pass without regular expressions or allocation.
+     * <p>
+     * All known phenomena are compiled into one Aho-Corasick automaton. While the input is
+     * normalized character by character, the plain trie walk answers the exact match and the
+     * automaton collects the highest-priority phenomenon occurring anywhere in the string.
+     * Results for the small, repetitive set of upstream strings are memoized in a bounded map.
+     * Strings containing non-ASCII characters take the original String-based normalization
+     * so that case mapping stays exactly the same.
+     * <p>
+     * Each unrecognized string is logged when it is first memoized. Once the memo is full,
+     * unrecognized strings are logged at most once a minute, with the number left out.
+     */
+    static final class Classifier {
+
+        static final int MEMO_CAPACITY = 256;
+        private static final long UNMEMOIZED_WARNING_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+        private static final int DEAD = -1;
+        private static final int NO_MATCH = Integer.MAX_VALUE;
+
+        // Partial matches in priority order; normal phenomena only ever match exactly
+        private static final WeatherPhenomenon[] PARTIAL_PRIORITY = {FORBIDDEN, SNOW, SLEET, RAIN};
+
+        private static final Result BLANK = new Result(NORMAL, true);
+        private static final Result UNRECOGNIZED = new Result(NORMAL, false);
+
+        // Declared after the constants the constructor reads
+        static final Classifier INSTANCE = new Classifier();
+
+        private final Result[] recognized = new Result[values().length];
+
+        // Maps ASCII characters to automaton symbols; 0 is every character that no phenomenon contains
+        private final byte[] symbols = new byte[128];
+        private final int[][] trie;
+        private final int[][] automaton;
+        private final WeatherPhenomenon[] exactMatches;
+        private final int[] partialMatches;
+
+        private final Map<String, Result> memo = new ConcurrentHashMap<>();
+        private final LongAdder unrecognized = new LongAdder();
+
+        private final AtomicLong nextUnmemoizedWarning = new AtomicLong(System.nanoTime());
+        private final LongAdder unloggedUnmemoized = new LongAdder();
+
+        Classifier() {
+            for (WeatherPhenomenon category : values()) {
+                recognized[category.ordinal()] = new Result(category, true);
+            }
+
+            int alphabetSize = 1;
+            for (WeatherPhenomenon category : values()) {
+                for (String phenomenon : category.phenomena) {
+                    for (char c : phenomenon.toCharArray()) {
+                        if (symbols[c] == 0) {
+                            symbols[c] = (byte) alphabetSize++;
+                        }
+                    }
+                }
+            }
+
+            List<int[]> nodes = new ArrayList<>();
+            List<WeatherPhenomenon> exact = new ArrayList<>();
+            List<Integer> partial = new ArrayList<>();
+            addNode(nodes, exact, partial, alphabetSize);
+            for (WeatherPhenomenon category : values()) {
+                int rank = Arrays.asList(PARTIAL_PRIORITY).indexOf(category);
+                for (String phenomenon : category.phenomena) {
+                    int node = 0;
+                    for (char c : phenomenon.toCharArray()) {
+                        if (nodes.get(node)[symbols[c]] == DEAD) {
+                            nodes.get(node)[symbols[c]] = addNode(nodes, exact, partial, alphabetSize);
+                        }
+                        node = nodes.get(node)[symbols[c]];
+                    }
+                    exact.set(node, category);
+                    if (rank >= 0) {
+                        partial.set(node, Math.min(partial.get(node), rank));
+                    }
+                }
+            }
+
+            trie = nodes.toArray(new int[0][]);
+            exactMatches = exact.toArray(new WeatherPhenomenon[0]);
+            partialMatches = partial.stream().mapToInt(Integer::intValue).toArray();
+            automaton = buildAutomaton(alphabetSize);
+        }
+
+        private static int addNode(List<int[]> nodes, List<WeatherPhenomenon> exact, List<Integer> partial,
+                                   int alphabetSize) {
+            int[] children = new int[alphabetSize];
+            Arrays.fill(children, DEAD);
+            nodes.add(children);
+            exact.add(null);
+            partial.add(NO_MATCH);
+            return nodes.size() - 1;
+        }
+
+        /**
+         * Folds failure links into the trie so every node has a transition for every symbol,
+         * and propagates partial matches along failure links.
+         */
+        private int[][] buildAutomaton(int alphabetSize) {
+            int[][] transitions = new int[trie.length][alphabetSize];
+            int[] failure = new int[trie.length];
+            Queue<Integer> queue = new ArrayDeque<>();
+            queue.add(0);
+            while (!queue.isEmpty()) {
+                int node = queue.remove();
+                for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                    int child = trie[node][symbol];
+                    int fallback = node == 0 ? 0 : transitions[failure[node]][symbol];
+                    if (child == DEAD) {
+                        transitions[node][symbol] = fallback;
+                    } else {
+                        failure[child] = fallback;
+                        partialMatches[child] = Math.min(partialMatches[child], partialMatches[fallback]);
+                        transitions[node][symbol] = child;
+                        queue.add(child);
+                    }
+                }
+            }
+            return transitions;
         }
 
-        // Normalizing just in case
-        String normalized = phenomenonStr.toLowerCase().trim()
-                .replaceAll("\\s+", " ")
-                .replaceAll("-", " ");
+        WeatherPhenomenon categorize(String phenomenonStr) {
+            if (phenomenonStr == null) {
+                return NORMAL;
+            }
 
-        // Exact match
-        for (WeatherPhenomenon category : values()) {
-            if (category.phenomena.contains(normalized)) {
-                return category;
+            Result result = memo.get(phenomenonStr);
+            if (result == null) {
+                result = classify(phenomenonStr);
+                if (memo.size() < MEMO_CAPACITY) {
+                    if (memo.putIfAbsent(phenomenonStr, result) == null && !result.recognized()) {
+                        log.warn("Unrecognized weather phenomenon '{}', treating it as normal", phenomenonStr);
+                    }
+                } else if (!result.recognized()) {
+                    warnUnmemoized(phenomenonStr);
+                }
+            }
+            if (!result.recognized()) {
+                unrecognized.increment();
             }
+            return result.category();
         }
 
-        // Partial match with priority
-        if (FORBIDDEN.phenomena.stream().anyMatch(normalized::contains)) {
-            return FORBIDDEN;
+        /**
+         * Logs an unrecognized string that didn't fit in the memo, and so is classified on every
+         * call, at most once per interval.
+         */
+        private void warnUnmemoized(String phenomenonStr) {
+            long now = System.nanoTime();
+            long next = nextUnmemoizedWarning.get();
+            if (now - next >= 0 && nextUnmemoizedWarning.compareAndSet(next, now + UNMEMOIZED_WARNING_INTERVAL)) {
+                log.warn("Unrecognized weather phenomenon '{}', treating it as normal; the phenomenon memo is full, "
+                        + "{} more unrecognized phenomena were not logged", phenomenonStr, unloggedUnmemoized.sumThenReset());
+            } else {
+                unloggedUnmemoized.increment();
+            }
         }
-        if (SNOW.phenomena.stream().anyMatch(normalized::contains)) {
-            return SNOW;
+
+        private Result classify(String phenomenonStr) {
+            for (int i = 0; i < phenomenonStr.length(); i++) {
+                if (phenomenonStr.charAt(i) >= 0x80) {
+                    return match(normalize(phenomenonStr), false);
+                }
+            }
+            return match(phenomenonStr, true);
         }
-        if (SLEET.phenomena.stream().anyMatch(normalized::contains)) {
-            return SLEET;
+
+        /**
+         * Runs the trie and the automaton over the text, trimming and normalizing on the fly
+         * unless the text has already been normalized.
+         */
+        private Result match(String text, boolean normalize) {
+            int start = 0;
+            int end = text.length();
+            if (normalize) {
+                while (start < end && text.charAt(start) <= ' ') {
+                    start++;
+                }
+                while (end > start && text.charAt(end - 1) <= ' ') {
+                    end--;
+                }
+                if (start == end) {
+                    return BLANK;
+                }
+            }
+
+            int exactNode = 0;
+            int node = 0;
+            int best = NO_MATCH;
+            boolean inWhitespace = false;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (normalize) {
+                    if (isWhitespace(c)) {
+                        if (inWhitespace) {
+                            continue;
+                        }
+                        inWhitespace = true;
+                        c = ' ';
+                    } else {
+                        inWhitespace = false;
+                        if (c == '-') {
+                            c = ' ';
+                        } else if (c >= 'A' && c <= 'Z') {
+                            c = (char) (c + ('a' - 'A'));
+                        }
+                    }
+                }
+
+                int symbol = c < 0x80 ? symbols[c] : 0;
+                exactNode = exactNode == DEAD ? DEAD : trie[exactNode][symbol];
+                node = automaton[node][symbol];
+                best = Math.min(best, partialMatches[node]);
+            }
+
+            if (exactNode != DEAD && exactMatches[exactNode] != null) {
+                return recognized[exactMatches[exactNode].ordinal()];
+            }
+            return best == NO_MATCH ? UNRECOGNIZED : recognized[PARTIAL_PRIORITY[best].ordinal()];
         }
-        if (RAIN.phenomena.stream().anyMatch(normalized::contains)) {
-            return RAIN;
+
+        /**
+         * Matches the whitespace class of {@code \s} in regular expressions.
+         */
+        private static boolean isWhitespace(char c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
         }
 
-        return NORMAL;
-    }
+        private static String normalize(String phenomenonStr) {
+            return phenomenonStr.toLowerCase(Locale.ROOT).trim()
+                    .replaceAll("\\s+", " ")
+                    .replaceAll("-", " ");
+        }
 
-    /**
-     * Check if this weather category forbids vehicle usage.
-     */
-    public boolean isUsageForbidden() {
-        return this == FORBIDDEN;
+        private record Result(WeatherPhenomenon category, boolean recognized) {
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package com.fujitsu.deliveryfeecalculator.model.fee;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable breakdown of a delivery fee into its components, all in whole euro cents.
+ * <p>
+ * Fee arithmetic stays in integer cents inside the application. The fee is converted to
+ * {@link BigDecimal} only when it leaves through the API, see {@link #toBigDecimal()}.
+ *
+ * @param regionalBaseFee       the regional base fee for the city and vehicle type
+ * @param airTemperatureFee     the extra fee for air temperature
+ * @param windSpeedFee          the extra fee for wind speed
+ * @param weatherPhenomenonFee  the extra fee for the weather phenomenon
+ */
+public record FeeBreakdown(int regionalBaseFee, int airTemperatureFee, int windSpeedFee, int weatherPhenomenonFee) {
+
+    public FeeBreakdown {
+        if (regionalBaseFee < 0 || airTemperatureFee < 0 || windSpeedFee < 0 || weatherPhenomenonFee < 0) {
+            throw new IllegalArgumentException("Fee components must not be negative");
+        }
+    }
+
+    /**
+     * Returns the total fee in euro cents.
+     */
+    public long total() {
+        return (long) regionalBaseFee + airTemperatureFee + windSpeedFee + weatherPhenomenonFee;
+    }
+
+    /**
+     * Returns the total fee in euros with a scale of 2, for example {@code 4.50}.
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(total(), 2);
+    }
+}
@@ -0,0 +1,71 @@
+package com.fujitsu.deliveryfeecalculator.model.fee;
+
+import com.fujitsu.deliveryfeecalculator.exception.DeliveryFeeCalculationException;
+import com.fujitsu.deliveryfeecalculator.exception.WeatherDataNotFoundException;
+
+/**
+ * Outcome of a fee calculation: either the fee, or the reason none can be offered.
+ * <p>
+ * Rejections are ordinary results rather than exceptions, so a storm that forbids most bike and
+ * scooter deliveries costs no more per request than fair weather. Results for forbidden vehicle
+ * types are shared constants, and the compiled fee rules hold one shared {@link Allowed} per fee,
+ * so calculating a result does not allocate.
+ */
+public sealed interface FeeResult permits FeeResult.Allowed, FeeResult.Rejected {
+
+    String HIGH_WIND_MESSAGE = "Usage of selected vehicle type is forbidden due to high wind speed";
+    String DANGEROUS_WEATHER_MESSAGE = "Usage of selected vehicle type is forbidden due to dangerous weather conditions";
+
+    Rejected HIGH_WIND = new Rejected(RejectionReason.HIGH_WIND, HIGH_WIND_MESSAGE);
+    Rejected DANGEROUS_WEATHER = new Rejected(RejectionReason.DANGEROUS_WEATHER, DANGEROUS_WEATHER_MESSAGE);
+
+    static Allowed allowed(FeeBreakdown fee) {
+        return new Allowed(fee);
+    }
+
+    /**
+     * Returns the rejection for missing weather data, with a message naming what was looked up.
+     */
+    static Rejected noWeatherData(String message) {
+        return new Rejected(RejectionReason.NO_WEATHER_DATA, message);
+    }
+
+    /**
+     * Returns the fee, or throws the exception the rejection corresponds to, for callers that
+     * handle rejections as exceptions.
+     *
+     * @throws DeliveryFeeCalculationException if the weather forbids the vehicle type
+     * @throws WeatherDataNotFoundException    if there is no weather data
+     */
+    FeeBreakdown orElseThrow();
+
+    /**
+     * A fee that can be offered.
+     *
+     * @param fee the fee breakdown
+     */
+    record Allowed(FeeBreakdown fee) implements FeeResult {
+
+        @Override
+        public FeeBreakdown orElseThrow() {
+            return fee;
+        }
+    }
+
+    /**
+     * No fee can be offered.
+     *
+     * @param reason  the reason code
+     * @param message the message shown to clients
+     */
+    record Rejected(RejectionReason reason, String message) implements FeeResult {
+
+        @Override
+        public FeeBreakdown orElseThrow() {
+            if (reason.isForbidden()) {
+                throw new DeliveryFeeCalculationException(message);
+            }
+            throw new WeatherDataNotFoundException(message);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.fujitsu.deliveryfeecalculator.model.fee;
+
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The business rules for delivery fees as managed through the admin API and stored in the database.
+ * Fees are in euros with at most two decimals.
+ *
+ * @param regionalBaseFees  the regional base fee for every city and vehicle type
+ * @param airTemperature    the extra fee rule for low air temperatures
+ * @param windSpeed         the extra fee and restriction rule for wind speed
+ * @param weatherPhenomenon the extra fee and restriction rule for weather phenomena
+ */
+public record FeeRules(
+        Map<City, Map<VehicleType, BigDecimal>> regionalBaseFees,
+        AirTemperatureRule airTemperature,
+        WindSpeedRule windSpeed,
+        WeatherPhenomenonRule weatherPhenomenon) {
+
+    /**
+     * Extra fee for cold weather, applied to the listed vehicle types.
+     *
+     * @param vehicleTypes  the vehicle types the rule applies to
+     * @param coldBelow     temperatures below this get the cold fee
+     * @param coldFee       the fee for cold temperatures
+     * @param coolAtOrBelow temperatures at or below this, but not cold, get the cool fee
+     * @param coolFee       the fee for cool temperatures
+     */
+    public record AirTemperatureRule(Set<VehicleType> vehicleTypes,
+                                     Double coldBelow, BigDecimal coldFee,
+                                     Double coolAtOrBelow, BigDecimal coolFee) {
+    }
+
+    /**
+     * Extra fee for windy weather, and the wind speed above which the listed vehicle types are forbidden.
+     *
+     * @param vehicleTypes   the vehicle types the rule applies to
+     * @param windyFrom      wind speeds at or above this get the windy fee
+     * @param windyFee       the fee for windy weather
+     * @param forbiddenAbove wind speeds above this forbid the vehicle type
+     */
+    public record WindSpeedRule(Set<VehicleType> vehicleTypes,
+                                Double windyFrom, BigDecimal windyFee,
+                                Double forbiddenAbove) {
+    }
+
+    /**
+     * Extra fee per phenomenon category, and the categories that forbid the listed vehicle types.
+     * Categories without a fee get none.
+     *
+     * @param vehicleTypes the vehicle types the rule applies to
+     * @param fees         the fee per phenomenon category
+     * @param forbidden    the phenomenon categories that forbid the vehicle type
+     */
+    public record WeatherPhenomenonRule(Set<VehicleType> vehicleTypes,
+                                        Map<WeatherPhenomenon, BigDecimal> fees,
+                                        Set<WeatherPhenomenon> forbidden) {
+    }
+
+    /**
+     * Returns the rules the application was built with, used until rules are stored in the database.
+     */
+    public static FeeRules defaults() {
+        Map<City, Map<VehicleType, BigDecimal>> regionalBaseFees = new EnumMap<>(City.class);
+        regionalBaseFees.put(City.TALLINN, baseFees("4.00", "3.50", "3.00"));
+        regionalBaseFees.put(City.TARTU, baseFees("3.50", "3.00", "2.50"));
+        regionalBaseFees.put(City.PARNU, baseFees("3.00", "2.50", "2.00"));
+
+        Map<WeatherPhenomenon, BigDecimal> phenomenonFees = new EnumMap<>(WeatherPhenomenon.class);
+        phenomenonFees.put(WeatherPhenomenon.SNOW, new BigDecimal("1.00"));
+        phenomenonFees.put(WeatherPhenomenon.SLEET, new BigDecimal("1.00"));
+        phenomenonFees.put(WeatherPhenomenon.RAIN, new BigDecimal("0.50"));
+
+        return new FeeRules(
+                regionalBaseFees,
+                new AirTemperatureRule(EnumSet.of(VehicleType.SCOOTER, VehicleType.BIKE),
+                        -10.0, new BigDecimal("1.00"), 0.0, new BigDecimal("0.50")),
+                new WindSpeedRule(EnumSet.of(VehicleType.BIKE),
+                        10.0, new BigDecimal("0.50"), 20.0),
+                new WeatherPhenomenonRule(EnumSet.of(VehicleType.SCOOTER, VehicleType.BIKE),
+                        phenomenonFees, EnumSet.of(WeatherPhenomenon.FORBIDDEN)));
+    }
+
+    private static Map<VehicleType, BigDecimal> baseFees(String car, String scooter, String bike) {
+        Map<VehicleType, BigDecimal> fees = new EnumMap<>(VehicleType.class);
+        fees.put(VehicleType.CAR, new BigDecimal(car));
+        fees.put(VehicleType.SCOOTER, new BigDecimal(scooter));
+        fees.put(VehicleType.BIKE, new BigDecimal(bike));
+        return fees;
+    }
+}
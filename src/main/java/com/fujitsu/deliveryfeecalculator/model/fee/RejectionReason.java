@@ -0,0 +1,29 @@
+package com.fujitsu.deliveryfeecalculator.model.fee;
+
+/**
+ * Why no delivery fee could be offered, as reported by a {@link FeeResult.Rejected}.
+ */
+public enum RejectionReason {
+
+    /**
+     * The wind speed is above the limit for the vehicle type.
+     */
+    HIGH_WIND,
+
+    /**
+     * The weather phenomenon forbids the vehicle type.
+     */
+    DANGEROUS_WEATHER,
+
+    /**
+     * There is no weather data for the city at the requested time.
+     */
+    NO_WEATHER_DATA;
+
+    /**
+     * Returns whether the weather forbids the vehicle type, as opposed to weather data missing.
+     */
+    public boolean isForbidden() {
+        return this != NO_WEATHER_DATA;
+    }
+}
@@ -1,5 +1,6 @@
 package com.fujitsu.deliveryfeecalculator.model.weather;
 
+import jakarta.xml.bind.annotation.XmlAttribute;
 import jakarta.xml.bind.annotation.XmlElement;
 import jakarta.xml.bind.annotation.XmlRootElement;
 import lombok.Data;
@@ -15,8 +16,18 @@ public class WeatherResponse {
 
     private List<WeatherStation> stations;
 
+    /**
+     * Observation time of the whole feed, in epoch seconds.
+     */
+    private Long timestamp;
+
     @XmlElement(name = "station")
     public List<WeatherStation> getStations() {
         return stations;
     }
+
+    @XmlAttribute(name = "timestamp")
+    public Long getTimestamp() {
+        return timestamp;
+    }
 }
\ No newline at end of file
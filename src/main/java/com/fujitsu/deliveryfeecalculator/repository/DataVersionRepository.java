@@ -0,0 +1,39 @@
+package com.fujitsu.deliveryfeecalculator.repository;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.DataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Repository for the change counters of shared data.
+ */
+@Repository
+public interface DataVersionRepository extends JpaRepository<DataVersion, String> {
+
+    /**
+     * Returns the current version of the named data, or empty if it has never changed.
+     */
+    @Query("SELECT v.version FROM DataVersion v WHERE v.name = :name")
+    Optional<Long> findVersionByName(@Param("name") String name);
+
+    // Flushes first: clearing would otherwise drop the pending changes this version counts
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE DataVersion v SET v.version = v.version + 1, v.updatedAt = :now WHERE v.name = :name")
+    int incrementExisting(@Param("name") String name, @Param("now") Instant now);
+
+    /**
+     * Increments the version of the named data, creating its row on the first change.
+     * Must be called in the transaction that changes the data.
+     */
+    default void increment(String name, Instant now) {
+        if (incrementExisting(name, now) == 0) {
+            saveAndFlush(DataVersion.builder().name(name).version(1).updatedAt(now).build());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.fujitsu.deliveryfeecalculator.repository;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.FeeRuleSet;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository for the stored versions of the fee rules.
+ */
+@Repository
+public interface FeeRuleSetRepository extends JpaRepository<FeeRuleSet, Long> {
+
+    /**
+     * Find the rule set currently in effect.
+     */
+    Optional<FeeRuleSet> findFirstByOrderByVersionDesc();
+}
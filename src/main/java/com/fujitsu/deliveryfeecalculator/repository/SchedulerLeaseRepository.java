@@ -0,0 +1,57 @@
+package com.fujitsu.deliveryfeecalculator.repository;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.SchedulerLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Repository for scheduler leases. Leases change hands through conditional updates, so two
+ * instances can't both take over the same expired lease.
+ */
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * Extends the lease if the holder already holds it, or takes it over if it has expired.
+     * A takeover increments the fencing token.
+     *
+     * @return 1 if the holder now holds the lease, 0 if another holder's lease is still valid or there is no lease row
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SchedulerLease l SET "
+            + "l.fencingToken = CASE WHEN l.holder = :holder THEN l.fencingToken ELSE l.fencingToken + 1 END, "
+            + "l.holder = :holder, l.expiresAt = :expiresAt "
+            + "WHERE l.name = :name AND (l.holder = :holder OR l.expiresAt <= :now)")
+    int acquire(@Param("name") String name,
+                @Param("holder") String holder,
+                @Param("now") Instant now,
+                @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Moves the expiry of a lease, as long as it is still held with the given fencing token.
+     *
+     * @return 1 if the lease was updated, 0 if it has been taken over
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SchedulerLease l SET l.expiresAt = :expiresAt "
+            + "WHERE l.name = :name AND l.holder = :holder AND l.fencingToken = :fencingToken")
+    int updateExpiresAt(@Param("name") String name,
+                        @Param("holder") String holder,
+                        @Param("fencingToken") long fencingToken,
+                        @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Finds the lease and locks its row until the transaction ends, so it can't change hands meanwhile.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM SchedulerLease l WHERE l.name = :name")
+    Optional<SchedulerLease> findAndLockByName(@Param("name") String name);
+}
@@ -0,0 +1,47 @@
+package com.fujitsu.deliveryfeecalculator.repository;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherDataHourly;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for the hourly rollups of purged weather data.
+ */
+@Repository
+public interface WeatherDataHourlyRepository extends JpaRepository<WeatherDataHourly, Long> {
+
+    /**
+     * Find the rollup with the latest observation of the station at or before the provided timestamp.
+     */
+    @Query("SELECT h FROM WeatherDataHourly h WHERE h.stationName = :stationName AND h.observedAt <= :timestamp ORDER BY h.stationName DESC, h.observedAt DESC LIMIT 1")
+    Optional<WeatherDataHourly> findClosestByStationNameAndTimestamp(
+            @Param("stationName") String stationName,
+            @Param("timestamp") LocalDateTime timestamp);
+
+    /**
+     * Find the oldest rollups of a station with their latest observation strictly between two timestamps,
+     * oldest first. Pages through a range by passing the last observation of the previous page as {@code after}.
+     */
+    @Query("SELECT h FROM WeatherDataHourly h WHERE h.stationName = :stationName AND h.observedAt > :after AND h.observedAt < :before ORDER BY h.stationName, h.observedAt")
+    List<WeatherDataHourly> findByStationNameBetween(
+            @Param("stationName") String stationName,
+            @Param("after") LocalDateTime after,
+            @Param("before") LocalDateTime before,
+            Limit limit);
+
+    /**
+     * Find the existing rollups of a station for the given hours.
+     */
+    @Query("SELECT h FROM WeatherDataHourly h WHERE h.stationName = :stationName AND h.hour IN :hours")
+    List<WeatherDataHourly> findByStationNameAndHours(
+            @Param("stationName") String stationName,
+            @Param("hours") Collection<LocalDateTime> hours);
+}
@@ -0,0 +1,49 @@
+package com.fujitsu.deliveryfeecalculator.repository;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keeps the weather data id sequence ahead of the ids already stored.
+ * <p>
+ * Databases created while ids came from an identity column get the sequence from Hibernate's
+ * schema update, starting at 1. Before anything is inserted, the sequence is moved past the
+ * highest stored id, so the ids Hibernate allocates from it can't collide with existing rows.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class WeatherDataIdSequence {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WeatherDataIdSequence(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignWithStoredIds() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM weather_data", Long.class);
+        List<Long> nextValues = jdbcTemplate.queryForList(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+                Long.class, WeatherData.ID_SEQUENCE.toUpperCase(Locale.ROOT));
+        if (maxId == null || nextValues.isEmpty()) {
+            return;
+        }
+        long nextValue = nextValues.get(0);
+
+        // The pooled optimizer hands out the block of ids just below each value it reads
+        long firstSafeValue = maxId + WeatherData.ID_ALLOCATION_SIZE + 1;
+        if (nextValue < firstSafeValue) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + WeatherData.ID_SEQUENCE + " RESTART WITH " + firstSafeValue);
+            log.info("Moved {} to {}, past the highest stored id {}", WeatherData.ID_SEQUENCE, firstSafeValue, maxId);
+        }
+    }
+}
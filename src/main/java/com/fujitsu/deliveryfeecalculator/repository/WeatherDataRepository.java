@@ -1,28 +1,118 @@
 package com.fujitsu.deliveryfeecalculator.repository;
 
 import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Repository for weather data.
+ * <p>
+ * Queries filtering on a single station also order by the station name. The result is the same,
+ * but it lets H2 walk the (station_name, timestamp) index in order instead of sorting the matches.
+ */
 @Repository
-public interface WeatherDataRepository extends JpaRepository<WeatherData, Long> {
+public interface WeatherDataRepository extends JpaRepository<WeatherData, Long>, JpaSpecificationExecutor<WeatherData> {
 
     /**
      * Find the latest weather data for a specific station.
      */
-    @Query("SELECT w FROM WeatherData w WHERE w.stationName = :stationName ORDER BY w.timestamp DESC LIMIT 1")
+    @Query("SELECT w FROM WeatherData w WHERE w.stationName = :stationName ORDER BY w.stationName DESC, w.timestamp DESC LIMIT 1")
     Optional<WeatherData> findLatestByStationName(@Param("stationName") String stationName);
 
     /**
      * Find the weather data for a specific station closest to the provided timestamp.
      */
-    @Query("SELECT w FROM WeatherData w WHERE w.stationName = :stationName AND w.timestamp <= :timestamp ORDER BY w.timestamp DESC LIMIT 1")
+    @Query("SELECT w FROM WeatherData w WHERE w.stationName = :stationName AND w.timestamp <= :timestamp ORDER BY w.stationName DESC, w.timestamp DESC LIMIT 1")
     Optional<WeatherData> findClosestByStationNameAndTimestamp(
             @Param("stationName") String stationName,
             @Param("timestamp") LocalDateTime timestamp);
+
+    /**
+     * Find all weather data for a specific station from the provided timestamp onwards, oldest first.
+     */
+    @Query("SELECT w FROM WeatherData w WHERE w.stationName = :stationName AND w.timestamp >= :timestamp ORDER BY w.stationName, w.timestamp")
+    List<WeatherData> findAllByStationNameSince(
+            @Param("stationName") String stationName,
+            @Param("timestamp") LocalDateTime timestamp);
+
+    /**
+     * Find the oldest weather data of a station strictly between two timestamps, oldest first.
+     * Pages through a range by passing the last timestamp of the previous page as {@code after}.
+     */
+    @Query("SELECT w FROM WeatherData w WHERE w.stationName = :stationName AND w.timestamp > :after AND w.timestamp < :before ORDER BY w.stationName, w.timestamp")
+    List<WeatherData> findByStationNameBetween(
+            @Param("stationName") String stationName,
+            @Param("after") LocalDateTime after,
+            @Param("before") LocalDateTime before,
+            Limit limit);
+
+    /**
+     * Find which of the given stations already have an observation stored for the given time.
+     */
+    @Query("SELECT w.stationName FROM WeatherData w WHERE w.stationName IN :stationNames AND w.timestamp = :timestamp")
+    List<String> findStationNamesWithObservationAt(
+            @Param("stationNames") Collection<String> stationNames,
+            @Param("timestamp") LocalDateTime timestamp);
+
+    /**
+     * Find the lowest id of weather data without a stored phenomenon category.
+     */
+    @Query("SELECT MIN(w.id) FROM WeatherData w WHERE w.phenomenonCategory IS NULL")
+    Optional<Long> findMinIdWithoutPhenomenonCategory();
+
+    /**
+     * Find the highest id of weather data without a stored phenomenon category.
+     */
+    @Query("SELECT MAX(w.id) FROM WeatherData w WHERE w.phenomenonCategory IS NULL")
+    Optional<Long> findMaxIdWithoutPhenomenonCategory();
+
+    /**
+     * Find the distinct raw phenomena of uncategorized weather data in the given id range.
+     */
+    @Query("SELECT DISTINCT w.weatherPhenomenon FROM WeatherData w " +
+            "WHERE w.phenomenonCategory IS NULL AND w.id BETWEEN :fromId AND :toId")
+    List<String> findUncategorizedPhenomena(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Store the category of every uncategorized row with the given raw phenomenon in the given id range.
+     *
+     * @return the number of updated rows
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE WeatherData w SET w.phenomenonCategory = :category " +
+            "WHERE w.phenomenonCategory IS NULL AND w.id BETWEEN :fromId AND :toId " +
+            "AND (w.weatherPhenomenon = :phenomenon OR (:phenomenon IS NULL AND w.weatherPhenomenon IS NULL))")
+    int updatePhenomenonCategory(
+            @Param("phenomenon") String phenomenon,
+            @Param("category") WeatherPhenomenon category,
+            @Param("fromId") long fromId,
+            @Param("toId") long toId);
+
+    /**
+     * Find the stations with weather data older than the cutoff.
+     */
+    @Query("SELECT DISTINCT w.stationName FROM WeatherData w WHERE w.timestamp < :cutoff")
+    List<String> findStationNamesWithObservationsBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Find the oldest weather data of a station before the cutoff, oldest first.
+     */
+    @Query("SELECT w FROM WeatherData w WHERE w.stationName = :stationName AND w.timestamp < :cutoff ORDER BY w.stationName, w.timestamp")
+    List<WeatherData> findOldestByStationNameBefore(
+            @Param("stationName") String stationName,
+            @Param("cutoff") LocalDateTime cutoff,
+            Limit limit);
 }
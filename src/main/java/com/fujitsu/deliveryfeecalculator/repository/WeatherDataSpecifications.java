@@ -0,0 +1,59 @@
+package com.fujitsu.deliveryfeecalculator.repository;
+
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataCursor;
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataQuery;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Query building blocks for listing weather data in keyset order.
+ */
+public final class WeatherDataSpecifications {
+
+    private WeatherDataSpecifications() {
+    }
+
+    /**
+     * Returns the keyset order for a query. With a station filter the station name leads the sort,
+     * so H2 can read the (station_name, timestamp) index in order instead of sorting.
+     */
+    public static Sort keysetOrder(WeatherDataQuery query) {
+        Sort order = Sort.by("timestamp", "id");
+        return query.stationName() != null ? Sort.by("stationName").and(order) : order;
+    }
+
+    /**
+     * Builds the filter for the query, starting strictly after the cursor if one is given.
+     */
+    public static Specification<WeatherData> matching(WeatherDataQuery query, WeatherDataCursor cursor) {
+        return Specification.where(stationName(query.stationName()))
+                .and(timestampFrom(query))
+                .and(timestampTo(query))
+                .and(after(cursor));
+    }
+
+    private static Specification<WeatherData> stationName(String stationName) {
+        return stationName == null ? null
+                : (root, cq, cb) -> cb.equal(root.get("stationName"), stationName);
+    }
+
+    private static Specification<WeatherData> timestampFrom(WeatherDataQuery query) {
+        return query.from() == null ? null
+                : (root, cq, cb) -> cb.greaterThanOrEqualTo(root.get("timestamp"), query.from());
+    }
+
+    private static Specification<WeatherData> timestampTo(WeatherDataQuery query) {
+        return query.to() == null ? null
+                : (root, cq, cb) -> cb.lessThan(root.get("timestamp"), query.to());
+    }
+
+    private static Specification<WeatherData> after(WeatherDataCursor cursor) {
+        return cursor == null ? null
+                : (root, cq, cb) -> cb.or(
+                        cb.greaterThan(root.get("timestamp"), cursor.timestamp()),
+                        cb.and(
+                                cb.equal(root.get("timestamp"), cursor.timestamp()),
+                                cb.greaterThan(root.get("id"), cursor.id())));
+    }
+}
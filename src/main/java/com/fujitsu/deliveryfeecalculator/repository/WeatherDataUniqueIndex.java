@@ -0,0 +1,65 @@
+package com.fujitsu.deliveryfeecalculator.repository;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Makes weather data unique per station and observation time in databases created before it was.
+ * <p>
+ * Those databases have a non-unique (station_name, timestamp) index named {@value #LEGACY_INDEX}.
+ * The unique index has a name of its own, and Hibernate's schema update adds it as a unique
+ * constraint, but only quietly tries: on a database that already holds duplicate observations
+ * the constraint is never added. Before anything is inserted, duplicates are removed here,
+ * keeping the row stored first, the constraint is added if it is missing, and the legacy index
+ * it replaces is dropped.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class WeatherDataUniqueIndex {
+
+    static final String LEGACY_INDEX = "idx_weather_data_station_timestamp";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WeatherDataUniqueIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void ensureUnique() {
+        if (!uniqueConstraintExists()) {
+            int removed = jdbcTemplate.update("DELETE FROM weather_data w WHERE EXISTS (SELECT 1 FROM weather_data d " +
+                    "WHERE d.station_name = w.station_name AND d.timestamp = w.timestamp AND d.id < w.id)");
+            jdbcTemplate.execute("ALTER TABLE weather_data ADD CONSTRAINT IF NOT EXISTS " +
+                    WeatherData.STATION_TIMESTAMP_INDEX + " UNIQUE (station_name, timestamp)");
+            log.info("Made weather data unique per station and time, removed {} duplicate observations", removed);
+        }
+        if (legacyIndexExists()) {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS " + LEGACY_INDEX);
+            log.info("Dropped {}, replaced by {}", LEGACY_INDEX, WeatherData.STATION_TIMESTAMP_INDEX);
+        }
+    }
+
+    private boolean uniqueConstraintExists() {
+        return count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS " +
+                "WHERE TABLE_NAME = 'WEATHER_DATA' AND CONSTRAINT_TYPE = 'UNIQUE' AND CONSTRAINT_NAME = ?",
+                WeatherData.STATION_TIMESTAMP_INDEX) > 0;
+    }
+
+    private boolean legacyIndexExists() {
+        return count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'WEATHER_DATA' AND INDEX_NAME = ?",
+                LEGACY_INDEX) > 0;
+    }
+
+    private int count(String sql, String name) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, name.toUpperCase(Locale.ROOT));
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,42 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeBreakdown;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+
+import java.time.LocalDateTime;
+
+/**
+ * A short-lived unit of work for calculating many delivery fees at once.
+ * Weather data is looked up at most once per city and timestamp within a batch,
+ * and every calculation behaves exactly like the matching {@link DeliveryFeeService} method.
+ * <p>
+ * A batch is not thread-safe and should be discarded once the request it serves is complete.
+ */
+public interface DeliveryFeeBatch {
+
+    /**
+     * Evaluates the delivery fee for a single batch item.
+     *
+     * @param city        the city where delivery is taking place
+     * @param vehicleType the type of vehicle used for delivery
+     * @param timestamp   the time for which to calculate the fee, or null for current weather conditions
+     * @return the fee in euro cents, or why none can be offered
+     */
+    FeeResult evaluateFee(City city, VehicleType vehicleType, LocalDateTime timestamp);
+
+    /**
+     * Calculates the delivery fee for a single batch item.
+     *
+     * @param city        the city where delivery is taking place
+     * @param vehicleType the type of vehicle used for delivery
+     * @param timestamp   the time for which to calculate the fee, or null for current weather conditions
+     * @return the calculated delivery fee, in euro cents
+     * @throws com.fujitsu.deliveryfeecalculator.exception.DeliveryFeeCalculationException if vehicle usage is forbidden
+     * @throws com.fujitsu.deliveryfeecalculator.exception.WeatherDataNotFoundException    if no weather data is available
+     */
+    default FeeBreakdown calculateFee(City city, VehicleType vehicleType, LocalDateTime timestamp) {
+        return evaluateFee(city, vehicleType, timestamp).orElseThrow();
+    }
+}
@@ -1,26 +1,66 @@
 package com.fujitsu.deliveryfeecalculator.service;
 
-
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrix;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
 import com.fujitsu.deliveryfeecalculator.model.enums.City;
 import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeBreakdown;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
  * Service for calculating delivery fees based on city, vehicle type, and weather conditions.
+ * <p>
+ * The {@code evaluateFee} methods return forbidden vehicle types and missing weather data as a
+ * {@link FeeResult.Rejected}, without throwing. The {@code calculateFee} methods throw instead.
  */
 public interface DeliveryFeeService {
 
+    /**
+     * Evaluates the delivery fee based on city, vehicle type, and current weather conditions.
+     *
+     * @param city        the city where delivery is taking place
+     * @param vehicleType the type of vehicle used for delivery
+     * @return the fee in euro cents, or why none can be offered
+     */
+    FeeResult evaluateFee(City city, VehicleType vehicleType);
+
+    /**
+     * Evaluates the delivery fee based on city, vehicle type, and weather conditions at the specified time.
+     *
+     * @param city        the city where delivery is taking place
+     * @param vehicleType the type of vehicle used for delivery
+     * @param timestamp   the time for which to calculate the fee (uses historical weather data)
+     * @return the fee in euro cents, or why none can be offered
+     */
+    FeeResult evaluateFee(City city, VehicleType vehicleType, LocalDateTime timestamp);
+
+    /**
+     * Evaluates the delivery fee at the specified time with the weather data the caller already
+     * looked up for it with {@link WeatherService#findWeatherDataByTimestamp}, so the caller can
+     * describe the result by the same observation.
+     *
+     * @param city        the city where delivery is taking place
+     * @param vehicleType the type of vehicle used for delivery
+     * @param timestamp   the time for which to calculate the fee
+     * @param weatherData the weather data for the time, or null if there is none
+     * @return the fee in euro cents, or why none can be offered
+     */
+    FeeResult evaluateFee(City city, VehicleType vehicleType, LocalDateTime timestamp, WeatherData weatherData);
+
     /**
      * Calculates the delivery fee based on city, vehicle type, and current weather conditions.
      *
      * @param city        the city where delivery is taking place
      * @param vehicleType the type of vehicle used for delivery
-     * @return the calculated delivery fee
-     * @throws IllegalArgumentException if vehicle usage is forbidden due to weather conditions
+     * @return the calculated delivery fee, in euro cents
+     * @throws com.fujitsu.deliveryfeecalculator.exception.DeliveryFeeCalculationException if vehicle usage is forbidden
+     * @throws com.fujitsu.deliveryfeecalculator.exception.WeatherDataNotFoundException    if no weather data is available
      */
-    BigDecimal calculateFee(City city, VehicleType vehicleType);
+    default FeeBreakdown calculateFee(City city, VehicleType vehicleType) {
+        return evaluateFee(city, vehicleType).orElseThrow();
+    }
 
     /**
      * Calculates the delivery fee based on city, vehicle type, and weather conditions at the specified time.
@@ -28,8 +68,26 @@ public interface DeliveryFeeService {
      * @param city        the city where delivery is taking place
      * @param vehicleType the type of vehicle used for delivery
      * @param timestamp   the time for which to calculate the fee (uses historical weather data)
-     * @return the calculated delivery fee
-     * @throws IllegalArgumentException if vehicle usage is forbidden due to weather conditions
+     * @return the calculated delivery fee, in euro cents
+     * @throws com.fujitsu.deliveryfeecalculator.exception.DeliveryFeeCalculationException if vehicle usage is forbidden
+     * @throws com.fujitsu.deliveryfeecalculator.exception.WeatherDataNotFoundException    if no weather data is available
+     */
+    default FeeBreakdown calculateFee(City city, VehicleType vehicleType, LocalDateTime timestamp) {
+        return evaluateFee(city, vehicleType, timestamp).orElseThrow();
+    }
+
+    /**
+     * Returns the fee matrix computed from the current weather snapshot.
+     *
+     * @return the current fee matrix, or {@link FeeMatrix#EMPTY} before any weather data is loaded
+     */
+    FeeMatrix getFeeMatrix();
+
+    /**
+     * Opens a batch for calculating many fees in one request.
+     * Within the batch, weather data is looked up once per distinct city and timestamp.
+     *
+     * @return a new batch
      */
-    BigDecimal calculateFee(City city, VehicleType vehicleType, LocalDateTime timestamp);
-}
\ No newline at end of file
+    DeliveryFeeBatch openBatch();
+}
@@ -1,21 +1,36 @@
 package com.fujitsu.deliveryfeecalculator.service;
 
-import com.fujitsu.deliveryfeecalculator.exception.DeliveryFeeCalculationException;
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrix;
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrixUpdatedEvent;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshot;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshotUpdatedEvent;
+import com.fujitsu.deliveryfeecalculator.metrics.DeliveryFeeMetrics;
+import com.fujitsu.deliveryfeecalculator.metrics.DeliveryFeeMetrics.Outcome;
+import com.fujitsu.deliveryfeecalculator.metrics.FeeAuditLog;
 import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
 import com.fujitsu.deliveryfeecalculator.model.enums.City;
 import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
 import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Implementation of the DeliveryFeeService interface that calculates
  * delivery fees based on regional base fees and weather conditions.
+ * The fee rules are applied by the current {@link FeeCalculator}, which is replaced
+ * whenever new rules take effect.
+ * Every calculation is timed in {@link DeliveryFeeMetrics} with its outcome, and passed to the
+ * {@link FeeAuditLog} for sampling.
  */
 @Slf4j
 @Service
@@ -23,160 +38,208 @@ import java.time.LocalDateTime;
 public class DeliveryFeeServiceImpl implements DeliveryFeeService {
 
     private final WeatherService weatherService;
+    private final DeliveryFeeMetrics deliveryFeeMetrics;
+    private final FeeAuditLog feeAuditLog;
+    private final ApplicationEventPublisher eventPublisher;
 
-    // Temperature thresholds
-    private static final double COLD_TEMP_THRESHOLD = -10.0;
-    private static final double COOL_TEMP_THRESHOLD = 0.0;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
 
-    // Wind speed thresholds
-    private static final double HIGH_WIND_THRESHOLD = 20.0;
-    private static final double MODERATE_WIND_THRESHOLD = 10.0;
+    private volatile FeeCalculator feeCalculator = FeeCalculator.DEFAULT;
+    private WeatherSnapshot weatherSnapshot = WeatherSnapshot.EMPTY;
+    private volatile FeeMatrix feeMatrix = FeeMatrix.EMPTY;
 
-    // Fee amounts in EUR
-    private static final BigDecimal COLD_TEMP_FEE = new BigDecimal("1.00");
-    private static final BigDecimal COOL_TEMP_FEE = new BigDecimal("0.50");
-    private static final BigDecimal HIGH_WIND_FEE = new BigDecimal("0.50");
-    private static final BigDecimal SNOW_SLEET_FEE = new BigDecimal("1.00");
-    private static final BigDecimal RAIN_FEE = new BigDecimal("0.50");
-
-    // Regional Base Fee constants for each city and vehicle type
-    private static final BigDecimal TALLINN_CAR_FEE = new BigDecimal("4.00");
-    private static final BigDecimal TALLINN_SCOOTER_FEE = new BigDecimal("3.50");
-    private static final BigDecimal TALLINN_BIKE_FEE = new BigDecimal("3.00");
-
-    private static final BigDecimal TARTU_CAR_FEE = new BigDecimal("3.50");
-    private static final BigDecimal TARTU_SCOOTER_FEE = new BigDecimal("3.00");
-    private static final BigDecimal TARTU_BIKE_FEE = new BigDecimal("2.50");
-
-    private static final BigDecimal PARNU_CAR_FEE = new BigDecimal("3.00");
-    private static final BigDecimal PARNU_SCOOTER_FEE = new BigDecimal("2.50");
-    private static final BigDecimal PARNU_BIKE_FEE = new BigDecimal("2.00");
-
-    private static final BigDecimal ZERO_FEE = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Serves the fee from the precomputed fee matrix. Only cities missing from the
+     * current weather snapshot are calculated on demand.
+     */
+    @Override
+    public FeeResult evaluateFee(City city, VehicleType vehicleType) {
+        long started = System.nanoTime();
+        FeeResult result = null;
+        try {
+            Optional<FeeResult> cell = feeMatrix.get(city, vehicleType);
+            result = cell.isPresent() ? cell.get() : evaluateLatest(city, vehicleType);
+            return result;
+        } finally {
+            record(city, vehicleType, null, result, started);
+        }
+    }
 
     @Override
-    public BigDecimal calculateFee(City city, VehicleType vehicleType) {
-        WeatherData weatherData = weatherService.getLatestWeatherData(city);
-        return calculateFeeInternal(city, vehicleType, weatherData);
+    public FeeResult evaluateFee(City city, VehicleType vehicleType, LocalDateTime timestamp) {
+        long started = System.nanoTime();
+        FeeResult result = null;
+        try {
+            result = evaluateAt(city, vehicleType, timestamp,
+                    weatherService.findWeatherDataByTimestamp(city, timestamp).orElse(null));
+            return result;
+        } finally {
+            record(city, vehicleType, timestamp, result, started);
+        }
     }
 
     @Override
-    public BigDecimal calculateFee(City city, VehicleType vehicleType, LocalDateTime timestamp) {
-        WeatherData weatherData = weatherService.getWeatherDataByTimestamp(city, timestamp);
-        return calculateFeeInternal(city, vehicleType, weatherData);
+    public FeeResult evaluateFee(City city, VehicleType vehicleType, LocalDateTime timestamp, WeatherData weatherData) {
+        long started = System.nanoTime();
+        FeeResult result = null;
+        try {
+            result = evaluateAt(city, vehicleType, timestamp, weatherData);
+            return result;
+        } finally {
+            record(city, vehicleType, timestamp, result, started);
+        }
+    }
+
+    private FeeResult evaluateAt(City city, VehicleType vehicleType, LocalDateTime timestamp, WeatherData weatherData) {
+        return weatherData != null
+                ? evaluateInternal(city, vehicleType, weatherData)
+                : FeeResult.noWeatherData(WeatherService.noWeatherDataMessage(city, timestamp));
     }
 
     /**
-     * Internal method to calculate the fee based on provided weather data.
+     * Times a calculation and passes it to the audit log.
      *
-     * @param city        the city
-     * @param vehicleType the vehicle type
-     * @param weatherData the weather data to use for calculation
-     * @return the calculated fee
+     * @param timestamp the requested time, or null if the latest weather was used
+     * @param result    the result, or null if the calculation threw
+     * @param started   {@link System#nanoTime()} when the calculation started
      */
-    private BigDecimal calculateFeeInternal(City city, VehicleType vehicleType, WeatherData weatherData) {
-        // Step 1: Calculate regional base fee (RBF)
-        BigDecimal regionalBaseFee = calculateRegionalBaseFee(city, vehicleType);
-
-        // Step 2: Calculate extra fees based on weather conditions
-        BigDecimal extraTemperatureFee = calculateExtraTemperatureFee(vehicleType, weatherData.getAirTemperature());
-        BigDecimal extraWindFee = calculateExtraWindFee(vehicleType, weatherData.getWindSpeed());
-        BigDecimal extraWeatherPhenomenonFee = calculateExtraWeatherPhenomenonFee(
-                vehicleType, weatherData.getWeatherPhenomenon());
+    private void record(City city, VehicleType vehicleType, LocalDateTime timestamp, FeeResult result, long started) {
+        long nanos = System.nanoTime() - started;
+        Outcome outcome = result == null ? Outcome.ERROR : Outcome.of(result);
+        deliveryFeeMetrics.record(city, vehicleType, timestamp != null, outcome, nanos);
+        feeAuditLog.record(city, vehicleType, timestamp, outcome, result, nanos);
+    }
 
-        // Step 3: Calculate total fee (sum of all fees)
-        BigDecimal totalFee = regionalBaseFee
-                .add(extraTemperatureFee)
-                .add(extraWindFee)
-                .add(extraWeatherPhenomenonFee);
+    private FeeResult evaluateLatest(City city, VehicleType vehicleType) {
+        Optional<WeatherData> weatherData = weatherService.findLatestWeatherData(city);
+        return weatherData.isPresent()
+                ? evaluateInternal(city, vehicleType, weatherData.get())
+                : FeeResult.noWeatherData(WeatherService.noWeatherDataMessage(city));
+    }
 
-        log.info("Fee calculation for {} in {} with weather conditions [temp: {}, wind: {}, phenomenon: {}] = {}€",
-                vehicleType, city, weatherData.getAirTemperature(), weatherData.getWindSpeed(),
-                weatherData.getWeatherPhenomenon(), totalFee);
+    @Override
+    public DeliveryFeeBatch openBatch() {
+        return new MemoizingBatch();
+    }
 
-        return totalFee;
+    @Override
+    public FeeMatrix getFeeMatrix() {
+        return feeMatrix;
     }
 
     /**
-     * Calculates the regional base fee based on city and vehicle type.
+     * Recomputes the fee matrix whenever a new weather snapshot is published.
+     * The previous matrix stays valid for readers that already hold it.
      */
-    private BigDecimal calculateRegionalBaseFee(City city, VehicleType vehicleType) {
-        return switch (city) {
-            case TALLINN -> switch (vehicleType) {
-                case CAR -> TALLINN_CAR_FEE;
-                case SCOOTER -> TALLINN_SCOOTER_FEE;
-                case BIKE -> TALLINN_BIKE_FEE;
-            };
-            case TARTU -> switch (vehicleType) {
-                case CAR -> TARTU_CAR_FEE;
-                case SCOOTER -> TARTU_SCOOTER_FEE;
-                case BIKE -> TARTU_BIKE_FEE;
-            };
-            case PARNU -> switch (vehicleType) {
-                case CAR -> PARNU_CAR_FEE;
-                case SCOOTER -> PARNU_SCOOTER_FEE;
-                case BIKE -> PARNU_BIKE_FEE;
-            };
-        };
+    @EventListener
+    public void onWeatherSnapshotUpdated(WeatherSnapshotUpdatedEvent event) {
+        rebuildLock.lock();
+        try {
+            weatherSnapshot = event.snapshot();
+            rebuildFeeMatrix();
+        } finally {
+            rebuildLock.unlock();
+        }
     }
 
     /**
-     * Calculates extra fee based on air temperature.
-     * Only applies to SCOOTER and BIKE vehicle types.
+     * Switches to the new fee rules and recomputes the fee matrix with them.
      */
-    private BigDecimal calculateExtraTemperatureFee(VehicleType vehicleType, double temperature) {
-        if (vehicleType == VehicleType.CAR) {
-            return ZERO_FEE;
+    @EventListener
+    public void onFeeRulesUpdated(FeeRulesUpdatedEvent event) {
+        rebuildLock.lock();
+        try {
+            feeCalculator = event.calculator();
+            rebuildFeeMatrix();
+        } finally {
+            rebuildLock.unlock();
         }
-
-        if (temperature < COLD_TEMP_THRESHOLD) {
-            return COLD_TEMP_FEE;
-        } else if (temperature <= COOL_TEMP_THRESHOLD) {
-            return COOL_TEMP_FEE;
-        }
-
-        return ZERO_FEE;
     }
 
     /**
-     * Calculates extra fee based on wind speed.
-     * Only applies to BIKE vehicle type.
+     * Builds and swaps in a new fee matrix. Called with the rebuild lock held, so matrices
+     * are announced in the order they were built.
      */
-    private BigDecimal calculateExtraWindFee(VehicleType vehicleType, double windSpeed) {
-        if (vehicleType != VehicleType.BIKE) {
-            return ZERO_FEE;
-        }
+    private void rebuildFeeMatrix() {
+        FeeMatrix rebuilt = buildFeeMatrix(weatherSnapshot);
+        feeMatrix = rebuilt;
+        log.info("Rebuilt fee matrix from weather snapshot v{} and fee rules v{}",
+                rebuilt.getSnapshotVersion(), rebuilt.getRulesVersion());
+        eventPublisher.publishEvent(new FeeMatrixUpdatedEvent(rebuilt));
+    }
+
+    private FeeMatrix buildFeeMatrix(WeatherSnapshot snapshot) {
+        FeeMatrix.Builder builder = FeeMatrix.builder(snapshot.getVersion(), feeCalculator.getVersion());
 
-        if (windSpeed > HIGH_WIND_THRESHOLD) {
-            throw new DeliveryFeeCalculationException("Usage of selected vehicle type is forbidden due to high wind speed");
-        } else if (windSpeed >= MODERATE_WIND_THRESHOLD) {
-            return HIGH_WIND_FEE;
+        for (Map.Entry<City, WeatherData> entry : snapshot.getObservations().entrySet()) {
+            builder.observedAt(entry.getKey(), entry.getValue().getTimestamp());
+            for (VehicleType vehicleType : VehicleType.values()) {
+                builder.cell(entry.getKey(), vehicleType, evaluateInternal(entry.getKey(), vehicleType, entry.getValue()));
+            }
         }
 
-        return ZERO_FEE;
+        return builder.build();
     }
 
     /**
-     * Calculates extra fee based on weather phenomenon.
-     * Only applies to SCOOTER and BIKE vehicle types.
+     * Internal method to evaluate the fee based on provided weather data.
+     *
+     * @param city        the city
+     * @param vehicleType the vehicle type
+     * @param weatherData the weather data to use for calculation
+     * @return the fee, or the rejection if the weather forbids the vehicle type
      */
-    private BigDecimal calculateExtraWeatherPhenomenonFee(VehicleType vehicleType, String phenomenon) {
-        if (vehicleType == VehicleType.CAR) {
-            return ZERO_FEE;
+    private FeeResult evaluateInternal(City city, VehicleType vehicleType, WeatherData weatherData) {
+        FeeResult result = feeCalculator.evaluate(city, vehicleType,
+                weatherData.getAirTemperature(), weatherData.getWindSpeed(), phenomenonCategoryOf(weatherData));
+
+        if (log.isDebugEnabled()) {
+            log.debug("Fee calculation for {} in {} with weather conditions [temp: {}, wind: {}, phenomenon: {}] = {}",
+                    vehicleType, city, weatherData.getAirTemperature(), weatherData.getWindSpeed(),
+                    weatherData.getWeatherPhenomenon(), result);
         }
 
-        WeatherPhenomenon weatherCategory = WeatherPhenomenon.categorize(phenomenon);
+        return result;
+    }
 
-        if (weatherCategory.isUsageForbidden()) {
-            throw new DeliveryFeeCalculationException("Usage of selected vehicle type is forbidden due to dangerous weather conditions");
-        }
+    /**
+     * Returns the phenomenon category resolved at ingest. Rows stored before the category
+     * was persisted, and not yet backfilled, are categorized from the raw string.
+     */
+    static WeatherPhenomenon phenomenonCategoryOf(WeatherData weatherData) {
+        WeatherPhenomenon category = weatherData.getPhenomenonCategory();
+        return category != null ? category : WeatherPhenomenon.categorize(weatherData.getWeatherPhenomenon());
+    }
 
-        if (weatherCategory == WeatherPhenomenon.SNOW || weatherCategory == WeatherPhenomenon.SLEET) {
-            return SNOW_SLEET_FEE;
-        } else if (weatherCategory == WeatherPhenomenon.RAIN) {
-            return RAIN_FEE;
+    /**
+     * Batch that remembers the outcome of every historical weather lookup,
+     * including missing data, so repeated city and timestamp pairs hit the database once.
+     */
+    private class MemoizingBatch implements DeliveryFeeBatch {
+
+        private final Map<WeatherLookupKey, Optional<WeatherData>> lookups = new HashMap<>();
+
+        @Override
+        public FeeResult evaluateFee(City city, VehicleType vehicleType, LocalDateTime timestamp) {
+            if (timestamp == null) {
+                return DeliveryFeeServiceImpl.this.evaluateFee(city, vehicleType);
+            }
+
+            long started = System.nanoTime();
+            FeeResult result = null;
+            try {
+                Optional<WeatherData> weatherData = lookups.computeIfAbsent(new WeatherLookupKey(city, timestamp),
+                        key -> weatherService.findWeatherDataByTimestamp(key.city(), key.timestamp()));
+                result = weatherData.isPresent()
+                        ? evaluateInternal(city, vehicleType, weatherData.get())
+                        : FeeResult.noWeatherData(WeatherService.noWeatherDataMessage(city, timestamp));
+                return result;
+            } finally {
+                record(city, vehicleType, timestamp, result, started);
+            }
         }
+    }
 
-        return ZERO_FEE;
+    private record WeatherLookupKey(City city, LocalDateTime timestamp) {
     }
 }
@@ -0,0 +1,320 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.exception.DeliveryFeeCalculationException;
+import com.fujitsu.deliveryfeecalculator.exception.InvalidFeeRulesException;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeBreakdown;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeRules;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A version of the {@link FeeRules} compiled into a flat lookup table.
+ * <p>
+ * Temperature and wind speed are each mapped to one of three weather buckets by two comparisons,
+ * and the phenomenon category is its own bucket. The table holds the {@link FeeResult} for every
+ * city, vehicle type and combination of buckets: a {@link FeeBreakdown} in whole euro cents, shared
+ * by all equal outcomes, or the rejection for a forbidden vehicle type. Evaluating a fee is
+ * therefore a few comparisons and one array read, and does not allocate.
+ * <p>
+ * A calculator is immutable. New rules are compiled into a new calculator and swapped in as a whole.
+ */
+public final class FeeCalculator {
+
+    // Enum sizes, read once because values() copies its array on every call
+    private static final int CITIES = City.values().length;
+    private static final int VEHICLE_TYPES = VehicleType.values().length;
+    private static final int PHENOMENA = WeatherPhenomenon.values().length;
+
+    // Temperature buckets
+    private static final int MILD = 0;
+    private static final int COOL = 1;
+    private static final int COLD = 2;
+
+    // Wind speed buckets
+    private static final int CALM = 0;
+    private static final int WINDY = 1;
+    private static final int STORM = 2;
+
+    private static final int TEMPERATURE_BUCKETS = 3;
+    private static final int WIND_BUCKETS = 3;
+
+    /**
+     * The calculator for {@link FeeRules#defaults()}, used until rules are loaded from the database.
+     */
+    public static final FeeCalculator DEFAULT = compile(0L, FeeRules.defaults());
+
+    private final long version;
+    private final FeeRules rules;
+    private final double coldBelow;
+    private final double coolAtOrBelow;
+    private final double windyFrom;
+    private final double forbiddenAbove;
+    private final FeeResult[] results;
+
+    private FeeCalculator(long version, FeeRules rules, FeeResult[] results) {
+        this.version = version;
+        this.rules = rules;
+        this.coldBelow = rules.airTemperature().coldBelow();
+        this.coolAtOrBelow = rules.airTemperature().coolAtOrBelow();
+        this.windyFrom = rules.windSpeed().windyFrom();
+        this.forbiddenAbove = rules.windSpeed().forbiddenAbove();
+        this.results = results;
+    }
+
+    /**
+     * Validates the rules and compiles them into a lookup table.
+     *
+     * @param version the version of the rules
+     * @param rules   the rules
+     * @return the calculator for the rules
+     * @throws InvalidFeeRulesException if the rules are incomplete or inconsistent
+     */
+    public static FeeCalculator compile(long version, FeeRules rules) {
+        List<String> errors = new ArrayList<>();
+        int[][] baseFees = validate(rules, errors);
+        if (!errors.isEmpty()) {
+            throw new InvalidFeeRulesException(errors);
+        }
+
+        FeeRules.AirTemperatureRule airTemperature = rules.airTemperature();
+        FeeRules.WindSpeedRule windSpeed = rules.windSpeed();
+        FeeRules.WeatherPhenomenonRule weatherPhenomenon = rules.weatherPhenomenon();
+        int[] temperatureFees = {0, cents(airTemperature.coolFee()), cents(airTemperature.coldFee())};
+        int[] windFees = {0, cents(windSpeed.windyFee()), 0};
+        FeeResult[] results = new FeeResult[CITIES * VEHICLE_TYPES * TEMPERATURE_BUCKETS * WIND_BUCKETS * PHENOMENA];
+        Map<FeeBreakdown, FeeResult> shared = new HashMap<>();
+
+        for (City city : City.values()) {
+            for (VehicleType vehicleType : VehicleType.values()) {
+                boolean temperatureApplies = appliesTo(airTemperature.vehicleTypes(), vehicleType);
+                boolean windApplies = appliesTo(windSpeed.vehicleTypes(), vehicleType);
+                boolean phenomenonApplies = appliesTo(weatherPhenomenon.vehicleTypes(), vehicleType);
+
+                for (int temperature = 0; temperature < TEMPERATURE_BUCKETS; temperature++) {
+                    for (int wind = 0; wind < WIND_BUCKETS; wind++) {
+                        for (WeatherPhenomenon phenomenon : WeatherPhenomenon.values()) {
+                            int index = index(city.ordinal(), vehicleType.ordinal(), temperature, wind, phenomenon.ordinal());
+
+                            if (windApplies && wind == STORM) {
+                                results[index] = FeeResult.HIGH_WIND;
+                            } else if (phenomenonApplies && appliesTo(weatherPhenomenon.forbidden(), phenomenon)) {
+                                results[index] = FeeResult.DANGEROUS_WEATHER;
+                            } else {
+                                FeeBreakdown breakdown = new FeeBreakdown(
+                                        baseFees[city.ordinal()][vehicleType.ordinal()],
+                                        temperatureApplies ? temperatureFees[temperature] : 0,
+                                        windApplies ? windFees[wind] : 0,
+                                        phenomenonApplies ? phenomenonFee(weatherPhenomenon, phenomenon) : 0);
+                                results[index] = shared.computeIfAbsent(breakdown, FeeResult::allowed);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return new FeeCalculator(version, rules, results);
+    }
+
+    /**
+     * Returns the version of the rules this calculator was compiled from. The built-in defaults are version 0.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the rules this calculator was compiled from.
+     */
+    public FeeRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Evaluates the fee for the given vehicle type in the given city and weather.
+     *
+     * @param city           the city
+     * @param vehicleType    the vehicle type
+     * @param airTemperature the air temperature in degrees Celsius
+     * @param windSpeed      the wind speed in m/s
+     * @param phenomenon     the weather phenomenon category
+     * @return the fee, or the rejection if the weather forbids the vehicle type
+     */
+    public FeeResult evaluate(City city, VehicleType vehicleType,
+                              double airTemperature, double windSpeed, WeatherPhenomenon phenomenon) {
+        return results[index(city.ordinal(), vehicleType.ordinal(),
+                temperatureBucket(airTemperature), windBucket(windSpeed), phenomenon.ordinal())];
+    }
+
+    /**
+     * Calculates the fee for the given vehicle type in the given city and weather.
+     *
+     * @return the fee breakdown
+     * @throws DeliveryFeeCalculationException if the weather forbids the vehicle type
+     * @see #evaluate
+     */
+    public FeeBreakdown calculate(City city, VehicleType vehicleType,
+                                  double airTemperature, double windSpeed, WeatherPhenomenon phenomenon) {
+        return evaluate(city, vehicleType, airTemperature, windSpeed, phenomenon).orElseThrow();
+    }
+
+    private int temperatureBucket(double temperature) {
+        if (temperature < coldBelow) {
+            return COLD;
+        } else if (temperature <= coolAtOrBelow) {
+            return COOL;
+        }
+        return MILD;
+    }
+
+    private int windBucket(double windSpeed) {
+        if (windSpeed > forbiddenAbove) {
+            return STORM;
+        } else if (windSpeed >= windyFrom) {
+            return WINDY;
+        }
+        return CALM;
+    }
+
+    private static int index(int city, int vehicle, int temperatureBucket, int windBucket, int phenomenon) {
+        return (((city * VEHICLE_TYPES + vehicle)
+                * TEMPERATURE_BUCKETS + temperatureBucket)
+                * WIND_BUCKETS + windBucket)
+                * PHENOMENA + phenomenon;
+    }
+
+    /**
+     * Checks that every rule is present and consistent, and returns the regional base fees in cents.
+     */
+    private static int[][] validate(FeeRules rules, List<String> errors) {
+        int[][] baseFees = new int[CITIES][VEHICLE_TYPES];
+        if (rules == null) {
+            errors.add("rules are missing");
+            return baseFees;
+        }
+
+        if (rules.regionalBaseFees() == null) {
+            errors.add("regionalBaseFees is missing");
+        } else {
+            for (City city : City.values()) {
+                Map<VehicleType, BigDecimal> cityFees = rules.regionalBaseFees().get(city);
+                for (VehicleType vehicleType : VehicleType.values()) {
+                    BigDecimal fee = cityFees == null ? null : cityFees.get(vehicleType);
+                    String field = "regionalBaseFees." + city + "." + vehicleType;
+                    if (validFee(field, fee, errors)) {
+                        baseFees[city.ordinal()][vehicleType.ordinal()] = cents(fee);
+                    }
+                }
+            }
+        }
+
+        FeeRules.AirTemperatureRule airTemperature = rules.airTemperature();
+        if (airTemperature == null) {
+            errors.add("airTemperature is missing");
+        } else {
+            validVehicleTypes("airTemperature.vehicleTypes", airTemperature.vehicleTypes(), errors);
+            validFee("airTemperature.coldFee", airTemperature.coldFee(), errors);
+            validFee("airTemperature.coolFee", airTemperature.coolFee(), errors);
+            boolean coldValid = validThreshold("airTemperature.coldBelow", airTemperature.coldBelow(), errors);
+            boolean coolValid = validThreshold("airTemperature.coolAtOrBelow", airTemperature.coolAtOrBelow(), errors);
+            if (coldValid && coolValid && airTemperature.coldBelow() > airTemperature.coolAtOrBelow()) {
+                errors.add("airTemperature.coldBelow must not be above coolAtOrBelow");
+            }
+        }
+
+        FeeRules.WindSpeedRule windSpeed = rules.windSpeed();
+        if (windSpeed == null) {
+            errors.add("windSpeed is missing");
+        } else {
+            validVehicleTypes("windSpeed.vehicleTypes", windSpeed.vehicleTypes(), errors);
+            validFee("windSpeed.windyFee", windSpeed.windyFee(), errors);
+            boolean windyValid = validThreshold("windSpeed.windyFrom", windSpeed.windyFrom(), errors);
+            boolean forbiddenValid = validThreshold("windSpeed.forbiddenAbove", windSpeed.forbiddenAbove(), errors);
+            if (windyValid && forbiddenValid && windSpeed.windyFrom() > windSpeed.forbiddenAbove()) {
+                errors.add("windSpeed.windyFrom must not be above forbiddenAbove");
+            }
+        }
+
+        FeeRules.WeatherPhenomenonRule weatherPhenomenon = rules.weatherPhenomenon();
+        if (weatherPhenomenon == null) {
+            errors.add("weatherPhenomenon is missing");
+        } else {
+            validVehicleTypes("weatherPhenomenon.vehicleTypes", weatherPhenomenon.vehicleTypes(), errors);
+            if (weatherPhenomenon.fees() == null) {
+                errors.add("weatherPhenomenon.fees is missing");
+            } else {
+                weatherPhenomenon.fees().forEach((phenomenon, fee) -> {
+                    if (phenomenon == null) {
+                        errors.add("weatherPhenomenon.fees has an unknown phenomenon category");
+                    } else if (validFee("weatherPhenomenon.fees." + phenomenon, fee, errors)
+                            && appliesTo(weatherPhenomenon.forbidden(), phenomenon)) {
+                        errors.add("weatherPhenomenon." + phenomenon + " can't both have a fee and be forbidden");
+                    }
+                });
+            }
+            if (weatherPhenomenon.forbidden() == null) {
+                errors.add("weatherPhenomenon.forbidden is missing");
+            } else if (containsNull(weatherPhenomenon.forbidden())) {
+                errors.add("weatherPhenomenon.forbidden has an unknown phenomenon category");
+            }
+        }
+
+        return baseFees;
+    }
+
+    private static boolean validFee(String field, BigDecimal fee, List<String> errors) {
+        if (fee == null) {
+            errors.add(field + " is missing");
+            return false;
+        }
+        if (fee.signum() < 0 || fee.stripTrailingZeros().scale() > 2
+                || fee.movePointRight(2).compareTo(BigDecimal.valueOf(Integer.MAX_VALUE)) > 0) {
+            errors.add(field + " must be a non-negative amount in whole cents");
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean validThreshold(String field, Double threshold, List<String> errors) {
+        if (threshold == null || !Double.isFinite(threshold)) {
+            errors.add(field + " must be a finite number");
+            return false;
+        }
+        return true;
+    }
+
+    private static void validVehicleTypes(String field, Set<VehicleType> vehicleTypes, List<String> errors) {
+        if (vehicleTypes == null) {
+            errors.add(field + " is missing");
+        } else if (containsNull(vehicleTypes)) {
+            errors.add(field + " has an unknown vehicle type");
+        }
+    }
+
+    private static boolean containsNull(Set<?> values) {
+        return values.stream().anyMatch(Objects::isNull);
+    }
+
+    private static <T> boolean appliesTo(Set<T> values, T value) {
+        return values != null && values.contains(value);
+    }
+
+    private static int phenomenonFee(FeeRules.WeatherPhenomenonRule rule, WeatherPhenomenon phenomenon) {
+        BigDecimal fee = rule.fees().get(phenomenon);
+        return fee == null ? 0 : cents(fee);
+    }
+
+    private static int cents(BigDecimal euros) {
+        return euros.movePointRight(2).intValueExact();
+    }
+}
@@ -0,0 +1,232 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrix;
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrixUpdatedEvent;
+import com.fujitsu.deliveryfeecalculator.dto.FeeMatrixUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes the fee matrix to Server-Sent Events subscribers: the whole matrix when they subscribe,
+ * then the changed cells whenever a new matrix is served.
+ * <p>
+ * Idle subscribers hold no thread. Each update is handed to every subscriber's mailbox, which
+ * holds only the latest matrix not yet sent, and a virtual thread sends it. A slow subscriber
+ * therefore never delays the others: matrices published while it is still receiving are
+ * skipped, and it gets a single delta from the last matrix it received to the latest one.
+ * Each delta is serialized once and shared by every subscriber that received the same previous matrix.
+ */
+@Slf4j
+@Component
+public class FeeMatrixBroadcaster {
+
+    public static final String SUBSCRIBERS = "delivery.fee.stream.subscribers";
+    public static final String CONFLATED = "delivery.fee.stream.conflated";
+
+    private static final String MATRIX_EVENT = "matrix";
+    private static final String DELTA_EVENT = "delta";
+
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final Counter conflated;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * The latest matrix. Only replaced by the event listener, which is never called concurrently.
+     */
+    private volatile Broadcast latest;
+
+    public FeeMatrixBroadcaster(DeliveryFeeService deliveryFeeService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                @Value("${delivery-fee.stream.max-subscribers:10000}") int maxSubscribers) {
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.latest = new Broadcast(0, deliveryFeeService.getFeeMatrix());
+        Gauge.builder(SUBSCRIBERS, subscribers, Set::size)
+                .description("Connected fee matrix stream subscribers")
+                .register(meterRegistry);
+        this.conflated = Counter.builder(CONFLATED)
+                .description("Fee matrices skipped for subscribers that were still receiving an earlier one")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers an emitter. It is sent the current matrix right away and every change after that,
+     * until it completes, times out or a send fails.
+     *
+     * @param emitter the emitter of the subscriber's response
+     * @return false if the maximum number of subscribers is connected
+     */
+    public boolean subscribe(SseEmitter emitter) {
+        if (subscribers.size() >= maxSubscribers) {
+            return false;
+        }
+
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.offer(latest);
+        return true;
+    }
+
+    /**
+     * Returns the number of connected subscribers.
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    public void onFeeMatrixUpdated(FeeMatrixUpdatedEvent event) {
+        Broadcast broadcast = new Broadcast(latest.sequence + 1, event.matrix());
+        latest = broadcast;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(broadcast);
+        }
+    }
+
+    /**
+     * Ends every stream when the application starts shutting down. The context is closed before
+     * the web server, whose graceful shutdown would otherwise wait for the open streams.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private String toJson(FeeMatrixUpdate update) {
+        try {
+            return objectMapper.writeValueAsString(update);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A published matrix with its serialized forms, computed on first use.
+     */
+    private final class Broadcast {
+
+        private final long sequence;
+        private final FeeMatrix matrix;
+        // Keyed by the previous matrix, which compares by identity; empty if no cell changed
+        private final Map<FeeMatrix, Optional<String>> deltas = new ConcurrentHashMap<>();
+        private volatile String full;
+
+        Broadcast(long sequence, FeeMatrix matrix) {
+            this.sequence = sequence;
+            this.matrix = matrix;
+        }
+
+        String full() {
+            String json = full;
+            if (json == null) {
+                json = toJson(FeeMatrixUpdate.between(FeeMatrix.EMPTY, matrix));
+                full = json;
+            }
+            return json;
+        }
+
+        Optional<String> deltaFrom(FeeMatrix previous) {
+            return deltas.computeIfAbsent(previous, p -> {
+                FeeMatrixUpdate update = FeeMatrixUpdate.between(p, matrix);
+                return update.getCells().isEmpty() ? Optional.empty() : Optional.of(toJson(update));
+            });
+        }
+    }
+
+    /**
+     * A connected emitter with a mailbox of one pending matrix. At most one send task runs per subscriber.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicReference<Broadcast> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        // Only accessed by the send task; the sending flag orders consecutive tasks
+        private Broadcast lastSent;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Broadcast broadcast) {
+            Broadcast replaced = pending.getAndAccumulate(broadcast,
+                    (current, offered) -> current == null || offered.sequence > current.sequence ? offered : current);
+            if (replaced != null && replaced.sequence < broadcast.sequence) {
+                conflated.increment();
+            }
+            if (sending.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down; the stream has been completed
+                    sending.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Broadcast next;
+                while ((next = pending.getAndSet(null)) != null) {
+                    send(next);
+                }
+            } finally {
+                sending.set(false);
+            }
+            // A matrix offered after the mailbox was found empty, but before the flag was cleared
+            if (pending.get() != null && sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void send(Broadcast broadcast) {
+            if (lastSent != null && broadcast.sequence <= lastSent.sequence) {
+                return;
+            }
+
+            String name = lastSent == null ? MATRIX_EVENT : DELTA_EVENT;
+            Optional<String> data = lastSent == null ? Optional.of(broadcast.full()) : broadcast.deltaFrom(lastSent.matrix);
+            lastSent = broadcast;
+            if (data.isEmpty()) {
+                return;
+            }
+
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data.get()));
+            } catch (IOException | IllegalStateException e) {
+                // The client is gone or the emitter completed; the container completes the response
+                log.debug("Dropping fee matrix subscriber: {}", e.getMessage());
+                subscribers.remove(this);
+                pending.set(null);
+            }
+        }
+    }
+}
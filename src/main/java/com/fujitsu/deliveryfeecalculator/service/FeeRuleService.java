@@ -0,0 +1,34 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeRules;
+
+/**
+ * Service managing the fee rules: loads them from the database, stores new versions
+ * and swaps the compiled rules in without a restart.
+ */
+public interface FeeRuleService {
+
+    /**
+     * Returns the calculator for the rules currently in effect.
+     *
+     * @return the current calculator, {@link FeeCalculator#DEFAULT} if no rules are stored
+     */
+    FeeCalculator current();
+
+    /**
+     * Validates the rules, stores them as a new version and puts them into effect.
+     *
+     * @param rules the new rules
+     * @return the calculator compiled from the new rules
+     * @throws com.fujitsu.deliveryfeecalculator.exception.InvalidFeeRulesException if the rules are invalid
+     */
+    FeeCalculator update(FeeRules rules);
+
+    /**
+     * Puts the latest rules stored in the database into effect, for example after another
+     * instance has updated them.
+     *
+     * @return the calculator now in effect
+     */
+    FeeCalculator reload();
+}
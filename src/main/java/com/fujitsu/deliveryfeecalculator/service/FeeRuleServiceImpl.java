@@ -0,0 +1,118 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.deliveryfeecalculator.model.entity.FeeRuleSet;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeRules;
+import com.fujitsu.deliveryfeecalculator.repository.FeeRuleSetRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementation of the FeeRuleService interface that keeps the fee rules as JSON
+ * in the {@code fee_rule_set} table.
+ * <p>
+ * Rules are validated and compiled before they are stored, so an invalid version is never saved
+ * or served. The compiled calculator is held in a volatile field and replaced as a whole, and
+ * every swap is announced with a {@link FeeRulesUpdatedEvent} so the fee matrix can be rebuilt.
+ * Writers are serialized by a lock rather than a monitor, like the weather snapshot store.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FeeRuleServiceImpl implements FeeRuleService {
+
+    private final FeeRuleSetRepository feeRuleSetRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile FeeCalculator current = FeeCalculator.DEFAULT;
+
+    @Override
+    public FeeCalculator current() {
+        return current;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void loadOnStartup() {
+        FeeCalculator calculator = reload();
+        log.info("Loaded fee rules v{}", calculator.getVersion());
+    }
+
+    @Override
+    public FeeCalculator update(FeeRules rules) {
+        writeLock.lock();
+        try {
+            long latestStored = feeRuleSetRepository.findFirstByOrderByVersionDesc()
+                    .map(FeeRuleSet::getVersion)
+                    .orElse(0L);
+            FeeCalculator calculator = FeeCalculator.compile(Math.max(latestStored, current.getVersion()) + 1, rules);
+
+            feeRuleSetRepository.save(FeeRuleSet.builder()
+                    .version(calculator.getVersion())
+                    .rules(toJson(rules))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            swap(calculator);
+            log.info("Stored fee rules v{}", calculator.getVersion());
+            return calculator;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public FeeCalculator reload() {
+        writeLock.lock();
+        try {
+            Optional<FeeRuleSet> latest = feeRuleSetRepository.findFirstByOrderByVersionDesc();
+            if (latest.isEmpty()) {
+                if (current != FeeCalculator.DEFAULT) {
+                    swap(FeeCalculator.DEFAULT);
+                }
+                return current;
+            }
+            if (latest.get().getVersion() == current.getVersion()) {
+                return current;
+            }
+
+            FeeCalculator calculator = FeeCalculator.compile(latest.get().getVersion(), fromJson(latest.get().getRules()));
+            swap(calculator);
+            return calculator;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void swap(FeeCalculator calculator) {
+        current = calculator;
+        eventPublisher.publishEvent(new FeeRulesUpdatedEvent(calculator));
+    }
+
+    private String toJson(FeeRules rules) {
+        try {
+            return objectMapper.writeValueAsString(rules);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private FeeRules fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, FeeRules.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+/**
+ * Application event published whenever a new version of the fee rules takes effect.
+ *
+ * @param calculator the calculator compiled from the rules now in effect
+ */
+public record FeeRulesUpdatedEvent(FeeCalculator calculator) {
+}
@@ -0,0 +1,32 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.dto.FeeSeriesPoint;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Service for evaluating delivery fees over a time range of stored weather data.
+ */
+public interface FeeSeriesService {
+
+    /**
+     * Passes every point in the time range where the fee changes to the consumer, oldest first.
+     * <p>
+     * The first point is at {@code from} with the fee the historical endpoint returns for that time.
+     * Without weather data at or before {@code from}, the series starts at the first observation
+     * in the range instead. Every later point is an observation whose fee, or forbidden reason,
+     * differs from the previous point. All points are calculated with the same fee rules.
+     *
+     * @param city        the city
+     * @param vehicleType the vehicle type
+     * @param from        start of the time range, inclusive
+     * @param to          end of the time range, exclusive
+     * @param consumer    receives each point
+     * @return the number of observations evaluated
+     */
+    long stream(City city, VehicleType vehicleType, LocalDateTime from, LocalDateTime to,
+                Consumer<FeeSeriesPoint> consumer);
+}
@@ -0,0 +1,143 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.dto.FeeSeriesPoint;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherDataHourly;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataHourlyRepository;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Evaluates fees over a time range with ordered range scans instead of one historical lookup
+ * per point. Hourly rollups of purged data come first, as they are older than every remaining
+ * raw row.
+ * <p>
+ * The range is read in pages, each in its own short read-only transaction, and the points of a
+ * page are passed on after its transaction ends. A consumer blocked on a slow client then holds
+ * no database connection. Every page starts after the last observation of the previous one, so
+ * observations compacted into rollups between pages are still picked up.
+ */
+@Service
+public class FeeSeriesServiceImpl implements FeeSeriesService {
+
+    private final WeatherDataRepository weatherDataRepository;
+    private final WeatherDataHourlyRepository weatherDataHourlyRepository;
+    private final FeeRuleService feeRuleService;
+    private final TransactionTemplate transactionTemplate;
+    private final int pageSize;
+
+    public FeeSeriesServiceImpl(WeatherDataRepository weatherDataRepository,
+                                WeatherDataHourlyRepository weatherDataHourlyRepository,
+                                FeeRuleService feeRuleService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${delivery-fee.series.page-size:1000}") int pageSize) {
+        this.weatherDataRepository = weatherDataRepository;
+        this.weatherDataHourlyRepository = weatherDataHourlyRepository;
+        this.feeRuleService = feeRuleService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public long stream(City city, VehicleType vehicleType, LocalDateTime from, LocalDateTime to,
+                       Consumer<FeeSeriesPoint> consumer) {
+        String stationName = city.getStationName();
+        ChangePoints changePoints = new ChangePoints(feeRuleService.current(), city, vehicleType, consumer);
+
+        Optional<WeatherData> initial = transactionTemplate.execute(status ->
+                weatherDataRepository.findClosestByStationNameAndTimestamp(stationName, from)
+                        .or(() -> weatherDataHourlyRepository.findClosestByStationNameAndTimestamp(stationName, from)
+                                .map(WeatherDataHourly::toWeatherData)));
+        initial.ifPresent(weatherData -> changePoints.accept(from, weatherData));
+
+        LocalDateTime after = from;
+        List<WeatherData> page;
+        do {
+            LocalDateTime pageAfter = after;
+            page = transactionTemplate.execute(status -> findPage(stationName, pageAfter, to));
+            for (WeatherData weatherData : page) {
+                changePoints.accept(weatherData.getTimestamp(), weatherData);
+            }
+            if (!page.isEmpty()) {
+                after = page.getLast().getTimestamp();
+            }
+        } while (page.size() == pageSize);
+
+        return changePoints.evaluated;
+    }
+
+    /**
+     * Reads up to a page of the oldest observations after the given time: rollups first,
+     * then raw rows for the rest of the page.
+     */
+    private List<WeatherData> findPage(String stationName, LocalDateTime after, LocalDateTime to) {
+        List<WeatherData> page = new ArrayList<>();
+        for (WeatherDataHourly rollup : weatherDataHourlyRepository.findByStationNameBetween(
+                stationName, after, to, Limit.of(pageSize))) {
+            page.add(rollup.toWeatherData());
+        }
+        if (page.size() < pageSize) {
+            page.addAll(weatherDataRepository.findByStationNameBetween(
+                    stationName, after, to, Limit.of(pageSize - page.size())));
+        }
+        return page;
+    }
+
+    /**
+     * Evaluates observations in time order and passes on the ones where the outcome changes.
+     */
+    private static final class ChangePoints {
+
+        private final FeeCalculator feeCalculator;
+        private final City city;
+        private final VehicleType vehicleType;
+        private final Consumer<FeeSeriesPoint> consumer;
+
+        private LocalDateTime lastTimestamp;
+        private FeeResult lastResult;
+        private long evaluated;
+
+        ChangePoints(FeeCalculator feeCalculator, City city, VehicleType vehicleType, Consumer<FeeSeriesPoint> consumer) {
+            this.feeCalculator = feeCalculator;
+            this.city = city;
+            this.vehicleType = vehicleType;
+            this.consumer = consumer;
+        }
+
+        void accept(LocalDateTime timestamp, WeatherData weatherData) {
+            // Rollups and raw rows only overlap while the retention job is compacting
+            if (lastTimestamp != null && !timestamp.isAfter(lastTimestamp)) {
+                return;
+            }
+
+            FeeResult result = feeCalculator.evaluate(city, vehicleType, weatherData.getAirTemperature(),
+                    weatherData.getWindSpeed(), DeliveryFeeServiceImpl.phenomenonCategoryOf(weatherData));
+
+            boolean changed = !result.equals(lastResult);
+            lastTimestamp = timestamp;
+            lastResult = result;
+            evaluated++;
+
+            if (changed) {
+                consumer.accept(switch (result) {
+                    case FeeResult.Allowed allowed -> FeeSeriesPoint.allowed(timestamp, allowed.fee());
+                    case FeeResult.Rejected rejected -> FeeSeriesPoint.forbidden(timestamp, rejected.message());
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.exception.LeaseLostException;
+import com.fujitsu.deliveryfeecalculator.model.entity.SchedulerLease;
+import com.fujitsu.deliveryfeecalculator.repository.SchedulerLeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Elects one instance to run a job when several instances share the database, using
+ * {@link SchedulerLease} rows as leases with a time to live.
+ * <p>
+ * An instance that acquires a lease keeps extending it in the background, so it stays the leader
+ * until it stops or can't reach the database for the time to live; then another instance takes
+ * over on its next attempt. Every takeover increments the lease's fencing token. Writes made with
+ * {@link #fenced} lock the lease row and check the token in the same transaction, so an instance
+ * that lost its lease, for example after a long pause, can't write after the new leader.
+ * <p>
+ * Expiry is compared with the clock of the instance trying to take over, so instance clocks must
+ * agree to well within the time to live.
+ */
+@Slf4j
+@Component
+public class LeaderElection {
+
+    private final SchedulerLeaseRepository schedulerLeaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+    private final Duration ttl;
+    private final Clock clock;
+
+    private final Map<String, Lease> held = new ConcurrentHashMap<>();
+
+    /**
+     * A lease held by this instance.
+     *
+     * @param name         the lease name
+     * @param holder       the node id of this instance
+     * @param fencingToken the token that writes under the lease are checked against
+     */
+    public record Lease(String name, String holder, long fencingToken) {
+    }
+
+    @Autowired
+    public LeaderElection(SchedulerLeaseRepository schedulerLeaseRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${cluster.node-id:${random.uuid}}") String nodeId,
+                          @Value("${cluster.lease.ttl:30s}") Duration ttl) {
+        this(schedulerLeaseRepository, transactionManager, nodeId, ttl, Clock.systemUTC());
+    }
+
+    LeaderElection(SchedulerLeaseRepository schedulerLeaseRepository, PlatformTransactionManager transactionManager,
+                   String nodeId, Duration ttl, Clock clock) {
+        this.schedulerLeaseRepository = schedulerLeaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.nodeId = nodeId;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the id this instance holds leases under.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Acquires the lease, or extends it if this instance already holds it.
+     *
+     * @param name the lease name
+     * @return the lease, or empty if another instance holds it
+     */
+    public Optional<Lease> tryAcquire(String name) {
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(ttl);
+        Optional<Lease> lease;
+        try {
+            lease = transactionTemplate.execute(status -> {
+                if (schedulerLeaseRepository.acquire(name, nodeId, now, expiresAt) == 0) {
+                    if (schedulerLeaseRepository.existsById(name)) {
+                        return Optional.empty();
+                    }
+                    schedulerLeaseRepository.saveAndFlush(SchedulerLease.builder()
+                            .name(name)
+                            .holder(nodeId)
+                            .fencingToken(1)
+                            .expiresAt(expiresAt)
+                            .build());
+                }
+                return schedulerLeaseRepository.findById(name)
+                        .map(row -> new Lease(row.getName(), row.getHolder(), row.getFencingToken()));
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the lease row first
+            lease = Optional.empty();
+        }
+
+        Lease previous = lease.isPresent() ? held.put(name, lease.get()) : held.remove(name);
+        if (lease.isPresent() && !lease.get().equals(previous)) {
+            log.info("Acquired the {} lease as {} with fencing token {}", name, nodeId, lease.get().fencingToken());
+        } else if (lease.isEmpty() && previous != null) {
+            log.warn("Lost the {} lease to another instance", name);
+        }
+        return lease;
+    }
+
+    /**
+     * Runs a write in a transaction that locks the lease row, as long as the lease is still held
+     * with the same fencing token. The lease can't change hands until the transaction ends.
+     *
+     * @param lease the lease the write is made under
+     * @param write the write, which joins the transaction
+     * @return the result of the write
+     * @throws LeaseLostException if another instance has taken the lease over; nothing is written
+     */
+    public <T> T fenced(Lease lease, Supplier<T> write) {
+        return transactionTemplate.execute(status -> {
+            long currentToken = schedulerLeaseRepository.findAndLockByName(lease.name())
+                    .map(SchedulerLease::getFencingToken)
+                    .orElse(0L);
+            if (currentToken != lease.fencingToken()) {
+                held.remove(lease.name());
+                throw new LeaseLostException("The " + lease.name() + " lease with fencing token "
+                        + lease.fencingToken() + " was taken over with token " + currentToken);
+            }
+            return write.get();
+        });
+    }
+
+    /**
+     * Extends the leases this instance holds, so they don't expire between runs of their jobs.
+     */
+    @Scheduled(fixedDelayString = "${cluster.lease.renew-interval:10s}")
+    public void renewHeldLeases() {
+        for (Lease lease : held.values()) {
+            if (!updateExpiresAt(lease, clock.instant().plus(ttl))) {
+                held.remove(lease.name());
+                log.warn("Lost the {} lease to another instance", lease.name());
+            }
+        }
+    }
+
+    /**
+     * Lets the leases of this instance expire right away when it shuts down, so another
+     * instance can take over on its next attempt instead of waiting for the time to live.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void releaseHeldLeases() {
+        for (Lease lease : held.values()) {
+            try {
+                updateExpiresAt(lease, clock.instant());
+                log.info("Released the {} lease", lease.name());
+            } catch (RuntimeException e) {
+                log.warn("Could not release the {} lease, it expires on its own: {}", lease.name(), e.getMessage());
+            }
+        }
+        held.clear();
+    }
+
+    private boolean updateExpiresAt(Lease lease, Instant expiresAt) {
+        Integer updated = transactionTemplate.execute(status -> schedulerLeaseRepository.updateExpiresAt(
+                lease.name(), lease.holder(), lease.fencingToken(), expiresAt));
+        return updated != null && updated == 1;
+    }
+}
@@ -0,0 +1,93 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.cache.WeatherHistoryIndex;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Stores large amounts of weather data, such as historical backfills, in JDBC batches.
+ * <p>
+ * Rows are persisted one JDBC batch at a time and the persistence context is cleared after each
+ * batch, so memory stays flat however many rows are loaded. Every commit interval is committed
+ * in its own transaction; a failure rolls back only the interval it happened in.
+ * Loaded observations inside the history retention window are added to the history index.
+ * The latest-weather snapshot is not changed, since bulk loads are meant for past observations.
+ */
+@Slf4j
+@Component
+public class WeatherDataBulkLoader {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final WeatherHistoryIndex weatherHistoryIndex;
+    private final int batchSize;
+    private final int commitInterval;
+
+    public WeatherDataBulkLoader(EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 WeatherHistoryIndex weatherHistoryIndex,
+                                 @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                                 @Value("${weather.bulk-load.commit-interval:10000}") int commitInterval) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.weatherHistoryIndex = weatherHistoryIndex;
+        this.batchSize = batchSize;
+        this.commitInterval = Math.max(batchSize, commitInterval);
+    }
+
+    /**
+     * Stores the given new observations, resolving their phenomenon category if it is missing.
+     *
+     * @param rows the observations, without ids
+     * @return the number of stored rows
+     */
+    public long load(Stream<WeatherData> rows) {
+        long started = System.nanoTime();
+        long loaded = 0;
+        Iterator<WeatherData> iterator = rows.iterator();
+        List<WeatherData> chunk = new ArrayList<>(commitInterval);
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == commitInterval || !iterator.hasNext()) {
+                persist(chunk);
+                loaded += chunk.size();
+                chunk.clear();
+            }
+        }
+
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        log.info("Bulk loaded {} weather data records in {} ms", loaded, elapsedMillis);
+        return loaded;
+    }
+
+    private void persist(List<WeatherData> chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < chunk.size(); i++) {
+                WeatherData weatherData = chunk.get(i);
+                if (weatherData.getPhenomenonCategory() == null) {
+                    weatherData.setPhenomenonCategory(WeatherPhenomenon.categorize(weatherData.getWeatherPhenomenon()));
+                }
+                entityManager.persist(weatherData);
+                if ((i + 1) % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+        weatherHistoryIndex.append(chunk);
+    }
+}
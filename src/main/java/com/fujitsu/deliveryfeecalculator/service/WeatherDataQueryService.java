@@ -0,0 +1,35 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataCursor;
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataPage;
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataQuery;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+
+import java.util.function.Consumer;
+
+/**
+ * Service for listing stored weather data without loading the whole history into memory.
+ */
+public interface WeatherDataQueryService {
+
+    /**
+     * Returns one page of weather data ordered by timestamp and id.
+     *
+     * @param query  the filter to apply
+     * @param cursor the position after which the page starts, or null for the first page
+     * @param limit  the maximum number of rows on the page
+     * @return the page, with a cursor for the next page unless this is the last one
+     */
+    WeatherDataPage findPage(WeatherDataQuery query, WeatherDataCursor cursor, int limit);
+
+    /**
+     * Passes every matching row to the consumer in timestamp and id order.
+     * Rows are read in keyset pages, each in its own short transaction, and passed on after it
+     * ends, so only one page is held in memory and no connection is held while the consumer runs.
+     *
+     * @param query    the filter to apply
+     * @param consumer receives each row
+     * @return the number of rows streamed
+     */
+    long stream(WeatherDataQuery query, Consumer<WeatherData> consumer);
+}
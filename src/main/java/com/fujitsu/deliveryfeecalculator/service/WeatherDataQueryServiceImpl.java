@@ -0,0 +1,79 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataCursor;
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataPage;
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataQuery;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.fujitsu.deliveryfeecalculator.repository.WeatherDataSpecifications.keysetOrder;
+import static com.fujitsu.deliveryfeecalculator.repository.WeatherDataSpecifications.matching;
+
+/**
+ * Lists weather data with keyset pagination on (timestamp, id).
+ * <p>
+ * Streams read the same pages, each in its own short read-only transaction, and pass the rows
+ * of a page on after its transaction ends. A consumer blocked on a slow client then holds no
+ * database connection.
+ */
+@Service
+public class WeatherDataQueryServiceImpl implements WeatherDataQueryService {
+
+    private final WeatherDataRepository weatherDataRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int streamPageSize;
+
+    public WeatherDataQueryServiceImpl(WeatherDataRepository weatherDataRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${weather.stream.page-size:1000}") int streamPageSize) {
+        this.weatherDataRepository = weatherDataRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.streamPageSize = streamPageSize;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public WeatherDataPage findPage(WeatherDataQuery query, WeatherDataCursor cursor, int limit) {
+        // Fetch one extra row to find out whether another page follows
+        List<WeatherData> rows = weatherDataRepository.findBy(matching(query, cursor),
+                q -> q.sortBy(keysetOrder(query)).limit(limit + 1).all());
+
+        if (rows.size() <= limit) {
+            return new WeatherDataPage(rows, null);
+        }
+
+        List<WeatherData> items = rows.subList(0, limit);
+        WeatherData last = items.get(limit - 1);
+        return new WeatherDataPage(items, new WeatherDataCursor(last.getTimestamp(), last.getId()).encode());
+    }
+
+    @Override
+    public long stream(WeatherDataQuery query, Consumer<WeatherData> consumer) {
+        long count = 0;
+        WeatherDataCursor cursor = null;
+        List<WeatherData> rows;
+        do {
+            WeatherDataCursor pageCursor = cursor;
+            rows = transactionTemplate.execute(status -> weatherDataRepository.findBy(matching(query, pageCursor),
+                    q -> q.sortBy(keysetOrder(query)).limit(streamPageSize).all()));
+            for (WeatherData row : rows) {
+                consumer.accept(row);
+                count++;
+            }
+            if (!rows.isEmpty()) {
+                WeatherData last = rows.getLast();
+                cursor = new WeatherDataCursor(last.getTimestamp(), last.getId());
+            }
+        } while (rows.size() == streamPageSize);
+        return count;
+    }
+}
@@ -0,0 +1,169 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.exception.LeaseLostException;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherDataHourly;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataHourlyRepository;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps raw weather data for the retention window and compacts older rows into hourly rollups.
+ * <p>
+ * Each chunk of a station's oldest rows is merged into the rollups of its hours and deleted
+ * in one short transaction, so ingest and reads are never held up for long and an interrupted
+ * run loses nothing. Only whole hours before the cutoff are compacted, and a station's raw rows
+ * are always newer than its rollups, which is what lets historical lookups fall back from
+ * the raw rows to the rollups.
+ * <p>
+ * When several instances share the database, the scheduled run needs the
+ * {@value #RETENTION_LEASE} lease, and each chunk is committed under it.
+ */
+@Slf4j
+@Component
+public class WeatherDataRetention {
+
+    public static final String RETENTION_LEASE = "weather-retention";
+
+    private final WeatherDataRepository weatherDataRepository;
+    private final WeatherDataHourlyRepository weatherDataHourlyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaderElection leaderElection;
+    private final Duration rawWindow;
+    private final int chunkSize;
+    private final Duration chunkPause;
+
+    public WeatherDataRetention(WeatherDataRepository weatherDataRepository,
+                                WeatherDataHourlyRepository weatherDataHourlyRepository,
+                                PlatformTransactionManager transactionManager,
+                                LeaderElection leaderElection,
+                                @Value("${weather.retention.raw-window:90d}") Duration rawWindow,
+                                @Value("${weather.retention.chunk-size:1000}") int chunkSize,
+                                @Value("${weather.retention.chunk-pause:50ms}") Duration chunkPause) {
+        this.weatherDataRepository = weatherDataRepository;
+        this.weatherDataHourlyRepository = weatherDataHourlyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaderElection = leaderElection;
+        this.rawWindow = rawWindow;
+        this.chunkSize = chunkSize;
+        this.chunkPause = chunkPause;
+    }
+
+    @Scheduled(cron = "${weather.retention.cron:0 45 * * * ?}")
+    public void compactOnSchedule() {
+        Optional<LeaderElection.Lease> lease = leaderElection.tryAcquire(RETENTION_LEASE);
+        if (lease.isEmpty()) {
+            log.debug("Skipping weather data retention, another instance holds the {} lease", RETENTION_LEASE);
+            return;
+        }
+        try {
+            compactBefore(cutoff(), chunk -> leaderElection.fenced(lease.get(), chunk));
+        } catch (LeaseLostException e) {
+            log.warn("Stopped weather data retention: {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("Weather data retention failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Compacts every raw row older than the retention window.
+     *
+     * @return the number of compacted raw rows
+     */
+    public long compact() {
+        return compactBefore(cutoff());
+    }
+
+    /**
+     * Compacts every raw row observed before the cutoff, which must be the start of an hour.
+     *
+     * @return the number of compacted raw rows
+     */
+    long compactBefore(LocalDateTime cutoff) {
+        return compactBefore(cutoff, chunk -> transactionTemplate.execute(status -> chunk.get()));
+    }
+
+    private long compactBefore(LocalDateTime cutoff, Function<Supplier<Integer>, Integer> inTransaction) {
+        long started = System.nanoTime();
+        long compacted = 0;
+        for (String stationName : weatherDataRepository.findStationNamesWithObservationsBefore(cutoff)) {
+            int chunk;
+            do {
+                chunk = inTransaction.apply(() -> compactOldest(stationName, cutoff));
+                compacted += chunk;
+                if (chunk == chunkSize) {
+                    pause();
+                }
+            } while (chunk == chunkSize && !Thread.currentThread().isInterrupted());
+        }
+
+        if (compacted > 0) {
+            log.info("Compacted {} weather data records observed before {} into hourly rollups in {} ms",
+                    compacted, cutoff, Duration.ofNanos(System.nanoTime() - started).toMillis());
+        }
+        return compacted;
+    }
+
+    /**
+     * Merges the station's oldest chunk of rows into the rollups of their hours and deletes them.
+     *
+     * @return the number of compacted rows
+     */
+    private int compactOldest(String stationName, LocalDateTime cutoff) {
+        List<WeatherData> rows = weatherDataRepository.findOldestByStationNameBefore(
+                stationName, cutoff, Limit.of(chunkSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        // An hour may be split between chunks, so merge into the rollups already stored
+        Map<LocalDateTime, WeatherDataHourly> rollups = new HashMap<>();
+        List<LocalDateTime> hours = rows.stream().map(WeatherDataRetention::hourOf).distinct().toList();
+        for (WeatherDataHourly rollup : weatherDataHourlyRepository.findByStationNameAndHours(stationName, hours)) {
+            rollups.put(rollup.getHour(), rollup);
+        }
+        for (WeatherData row : rows) {
+            rollups.computeIfAbsent(hourOf(row), hour -> WeatherDataHourly.builder()
+                            .stationName(stationName)
+                            .hour(hour)
+                            .build())
+                    .merge(row);
+        }
+
+        weatherDataHourlyRepository.saveAll(rollups.values());
+        weatherDataRepository.deleteAllByIdInBatch(rows.stream().map(WeatherData::getId).toList());
+        return rows.size();
+    }
+
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minus(rawWindow).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(chunkPause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static LocalDateTime hourOf(WeatherData row) {
+        return row.getTimestamp().truncatedTo(ChronoUnit.HOURS);
+    }
+}
@@ -0,0 +1,179 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.model.weather.WeatherResponse;
+import com.fujitsu.deliveryfeecalculator.model.weather.WeatherStation;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Streaming parser for the observations feed of the Estonian Environment Agency.
+ * <p>
+ * Reads the feed with a StAX pull parser, keeps the observation time of the root element and
+ * only builds {@link WeatherStation} objects for stations accepted by the filter. Other stations
+ * are skipped as soon as their name is known, without reading the rest of their elements.
+ * Field values are converted the same way the JAXB binding of {@link WeatherResponse} converts
+ * them: text is kept as is, numbers are trimmed, and empty or invalid numbers become null.
+ */
+@Component
+public class WeatherObservationsParser {
+
+    private static final String STATION = "station";
+    private static final String TIMESTAMP = "timestamp";
+
+    private final XMLInputFactory inputFactory;
+
+    public WeatherObservationsParser() {
+        inputFactory = XMLInputFactory.newFactory();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Parses the feed, keeping only the stations whose name matches the filter.
+     *
+     * @param body          the response body
+     * @param stationFilter accepts the names of the stations to keep
+     * @return the kept stations in feed order
+     * @throws IllegalArgumentException if the feed is not well-formed XML
+     */
+    public WeatherResponse parse(InputStream body, Predicate<String> stationFilter) {
+        XMLStreamReader reader = null;
+        try {
+            reader = inputFactory.createXMLStreamReader(body);
+            List<WeatherStation> stations = new ArrayList<>();
+            Long timestamp = null;
+
+            // Stations are the direct children of the root element
+            int depth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (depth == 0) {
+                        timestamp = parseLong(reader.getAttributeValue(null, TIMESTAMP));
+                        depth++;
+                    } else if (depth == 1 && STATION.equals(reader.getLocalName())) {
+                        WeatherStation station = readStation(reader, stationFilter);
+                        if (station != null) {
+                            stations.add(station);
+                        }
+                    } else {
+                        depth++;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+
+            WeatherResponse response = new WeatherResponse();
+            response.setStations(stations);
+            response.setTimestamp(timestamp);
+            return response;
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Malformed observations feed: " + e.getMessage(), e);
+        } finally {
+            close(reader);
+        }
+    }
+
+    /**
+     * Reads one station element, leaving the reader on its end tag.
+     *
+     * @return the station, or null if the filter rejected it
+     */
+    private WeatherStation readStation(XMLStreamReader reader, Predicate<String> stationFilter) throws XMLStreamException {
+        WeatherStation station = new WeatherStation();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (depth > 1) {
+                    depth++;
+                    continue;
+                }
+                switch (reader.getLocalName()) {
+                    case "name" -> {
+                        station.setName(reader.getElementText());
+                        if (!stationFilter.test(station.getName())) {
+                            skipElement(reader);
+                            return null;
+                        }
+                    }
+                    case "wmocode" -> station.setWmoCode(reader.getElementText());
+                    case "airtemperature" -> station.setAirTemperature(parseDouble(reader.getElementText()));
+                    case "windspeed" -> station.setWindSpeed(parseDouble(reader.getElementText()));
+                    case "phenomenon" -> station.setPhenomenon(reader.getElementText());
+                    default -> depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        return station.getName() != null ? station : null;
+    }
+
+    /**
+     * Advances the reader to the end tag of the element it is currently inside.
+     */
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private Double parseDouble(String text) {
+        String value = text.trim();
+        switch (value) {
+            case "" -> {
+                return null;
+            }
+            case "INF" -> {
+                return Double.POSITIVE_INFINITY;
+            }
+            case "-INF" -> {
+                return Double.NEGATIVE_INFINITY;
+            }
+            default -> {
+                try {
+                    return Double.valueOf(value);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    private Long parseLong(String text) {
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void close(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // Nothing left to read
+            }
+        }
+    }
+}
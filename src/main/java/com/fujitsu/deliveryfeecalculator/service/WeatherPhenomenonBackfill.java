@@ -0,0 +1,72 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Stores the phenomenon category of weather data persisted before categories were resolved at ingest.
+ * <p>
+ * Runs once in the background after startup. Rows are processed in id ranges, and each range
+ * needs one update per distinct raw phenomenon, which is a handful given the upstream vocabulary.
+ * Rows that are not categorized yet are still served correctly: the fee engine categorizes
+ * their raw string itself.
+ */
+@Slf4j
+@Component
+public class WeatherPhenomenonBackfill {
+
+    private final WeatherDataRepository weatherDataRepository;
+    private final int chunkSize;
+
+    public WeatherPhenomenonBackfill(WeatherDataRepository weatherDataRepository,
+                                     @Value("${weather.phenomenon-backfill.chunk-size:5000}") int chunkSize) {
+        this.weatherDataRepository = weatherDataRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            backfill();
+        } catch (Exception e) {
+            log.error("Weather phenomenon backfill failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Categorizes every row without a stored category.
+     *
+     * @return the number of updated rows
+     */
+    public long backfill() {
+        Optional<Long> minId = weatherDataRepository.findMinIdWithoutPhenomenonCategory();
+        Optional<Long> maxId = weatherDataRepository.findMaxIdWithoutPhenomenonCategory();
+        if (minId.isEmpty() || maxId.isEmpty()) {
+            return 0;
+        }
+
+        long started = System.nanoTime();
+        long updated = 0;
+        for (long fromId = minId.get(); fromId <= maxId.get(); fromId += chunkSize) {
+            long toId = fromId + chunkSize - 1;
+            for (String phenomenon : weatherDataRepository.findUncategorizedPhenomena(fromId, toId)) {
+                updated += weatherDataRepository.updatePhenomenonCategory(
+                        phenomenon, WeatherPhenomenon.categorize(phenomenon), fromId, toId);
+            }
+        }
+
+        log.info("Backfilled the phenomenon category of {} weather data records in {} ms",
+                updated, Duration.ofNanos(System.nanoTime() - started).toMillis());
+        return updated;
+    }
+}
@@ -1,18 +1,50 @@
 package com.fujitsu.deliveryfeecalculator.service;
 
+import com.fujitsu.deliveryfeecalculator.exception.WeatherDataNotFoundException;
 import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
 import com.fujitsu.deliveryfeecalculator.model.enums.City;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 
 
 public interface WeatherService {
     /**
      * Get the latest weather data for a specific city.
+     *
+     * @throws WeatherDataNotFoundException if there is no weather data for the city
      */
-    WeatherData getLatestWeatherData(City city);
+    default WeatherData getLatestWeatherData(City city) {
+        return findLatestWeatherData(city).orElseThrow(() -> new WeatherDataNotFoundException(noWeatherDataMessage(city)));
+    }
 
-    WeatherData getWeatherDataByTimestamp(City city, LocalDateTime timestamp);
+    /**
+     * Get the weather data in effect at the given time for a specific city.
+     *
+     * @throws WeatherDataNotFoundException if there is no weather data for the city up to that time
+     */
+    default WeatherData getWeatherDataByTimestamp(City city, LocalDateTime timestamp) {
+        return findWeatherDataByTimestamp(city, timestamp)
+                .orElseThrow(() -> new WeatherDataNotFoundException(noWeatherDataMessage(city, timestamp)));
+    }
+
+    /**
+     * Find the latest weather data for a specific city, without throwing when there is none.
+     */
+    Optional<WeatherData> findLatestWeatherData(City city);
+
+    /**
+     * Find the weather data in effect at the given time for a specific city, without throwing when there is none.
+     */
+    Optional<WeatherData> findWeatherDataByTimestamp(City city, LocalDateTime timestamp);
 
     void fetchAndStoreWeatherData();
+
+    static String noWeatherDataMessage(City city) {
+        return "No weather data available for station: " + city.getStationName();
+    }
+
+    static String noWeatherDataMessage(City city, LocalDateTime timestamp) {
+        return "No weather data available for station: " + city.getStationName() + " and timestamp: " + timestamp;
+    }
 }
@@ -1,23 +1,46 @@
 package com.fujitsu.deliveryfeecalculator.service;
 
-import com.fujitsu.deliveryfeecalculator.exception.WeatherDataNotFoundException;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherDataVersionWatcher;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherHistoryIndex;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshotStore;
+import com.fujitsu.deliveryfeecalculator.exception.LeaseLostException;
+import com.fujitsu.deliveryfeecalculator.metrics.WeatherIngestMetrics;
 import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherDataHourly;
 import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
 import com.fujitsu.deliveryfeecalculator.model.weather.WeatherResponse;
 import com.fujitsu.deliveryfeecalculator.model.weather.WeatherStation;
+import com.fujitsu.deliveryfeecalculator.repository.DataVersionRepository;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataHourlyRepository;
 import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -26,11 +49,30 @@ import java.util.stream.Collectors;
 public class WeatherServiceImpl implements WeatherService {
 
     private final WeatherDataRepository weatherDataRepository;
+    private final WeatherDataHourlyRepository weatherDataHourlyRepository;
     private final RestTemplate restTemplate;
+    private final WeatherSnapshotStore weatherSnapshotStore;
+    private final WeatherHistoryIndex weatherHistoryIndex;
+    private final WeatherObservationsParser weatherObservationsParser;
+    private final CircuitBreaker weatherFeedCircuitBreaker;
+    private final Retry weatherFeedRetry;
+    private final WeatherIngestMetrics weatherIngestMetrics;
+    private final LeaderElection leaderElection;
+    private final DataVersionRepository dataVersionRepository;
 
     @Value("${weather.api.url}")
     private String weatherApiUrl;
 
+    private volatile FeedValidators feedValidators = FeedValidators.NONE;
+
+    // The thread calling upstream, which may be waiting out a retry backoff; set and
+    // interrupted under the lock only, so an interrupt can't reach the database writes
+    private final Object fetchLock = new Object();
+    private Thread fetchingThread;
+    private volatile boolean stopping;
+
+    public static final String FETCH_LEASE = "weather-fetch";
+
     // Constants to replace magic strings and numbers
     private static final String DEFAULT_STRING_VALUE = "Unknown";
     private static final double DEFAULT_NUMERIC_VALUE = 0.0;
@@ -40,70 +82,247 @@ public class WeatherServiceImpl implements WeatherService {
             .map(City::getStationName)
             .collect(Collectors.toSet());
 
+    /**
+     * Serves the latest observation from the in-memory snapshot and only queries
+     * the database when the snapshot holds nothing for the city yet.
+     */
     @Override
-    public WeatherData getLatestWeatherData(City city) {
-        return weatherDataRepository.findLatestByStationName(city.getStationName())
-                .orElseThrow(() -> new WeatherDataNotFoundException(
-                        "No weather data available for station: " + city.getStationName()));
+    public Optional<WeatherData> findLatestWeatherData(City city) {
+        return weatherSnapshotStore.getLatest(city)
+                .or(() -> loadLatestWeatherData(city));
+    }
+
+    private Optional<WeatherData> loadLatestWeatherData(City city) {
+        Optional<WeatherData> weatherData = weatherDataRepository.findLatestByStationName(city.getStationName());
+        weatherData.ifPresent(latest -> weatherSnapshotStore.publish(List.of(latest)));
+        return weatherData;
     }
 
+    /**
+     * Answers from the in-memory history index and only queries the database
+     * for timestamps the index doesn't cover. Timestamps older than the raw rows kept
+     * by the retention job are answered from the hourly rollups.
+     */
     @Override
-    public WeatherData getWeatherDataByTimestamp(City city, LocalDateTime timestamp) {
+    public Optional<WeatherData> findWeatherDataByTimestamp(City city, LocalDateTime timestamp) {
+        return weatherHistoryIndex.floor(city, timestamp)
+                .or(() -> loadWeatherDataByTimestamp(city, timestamp));
+    }
+
+    private Optional<WeatherData> loadWeatherDataByTimestamp(City city, LocalDateTime timestamp) {
         return weatherDataRepository.findClosestByStationNameAndTimestamp(city.getStationName(), timestamp)
-                .orElseThrow(() -> new WeatherDataNotFoundException(
-                        "No weather data available for station: " + city.getStationName() +
-                                " and timestamp: " + timestamp
-                ));
+                .or(() -> weatherDataHourlyRepository.findClosestByStationNameAndTimestamp(city.getStationName(), timestamp)
+                        .map(WeatherDataHourly::toWeatherData));
     }
 
+    /**
+     * Fetches the observations feed and stores the monitored stations.
+     * <p>
+     * Requests are conditional on the validators of the last stored feed, so an unchanged feed
+     * answers 304 and is neither parsed nor persisted. Rows are stamped with the feed's own
+     * observation time, and observations already stored for a station are skipped.
+     * Transient upstream failures are retried within the run unless the circuit breaker is open.
+     * Phase durations, run outcomes and stored stations are recorded in {@link WeatherIngestMetrics}.
+     * <p>
+     * When several instances share the database, only the holder of the {@value #FETCH_LEASE} lease
+     * fetches. It stores the observations fenced by the lease and increments the weather data version
+     * in the same transaction; the other instances pick them up through {@link WeatherDataVersionWatcher}.
+     */
     @Override
     @Scheduled(cron = "${weather.fetch.cron}")
     public void fetchAndStoreWeatherData() {
+        Optional<LeaderElection.Lease> lease = leaderElection.tryAcquire(FETCH_LEASE);
+        if (lease.isEmpty()) {
+            log.info("Skipping weather fetch, another instance holds the {} lease", FETCH_LEASE);
+            weatherIngestMetrics.recordRun(WeatherIngestMetrics.RunOutcome.FOLLOWER);
+            return;
+        }
+
         log.info("Fetching weather data from external service at {}", LocalDateTime.now());
+        AtomicInteger requests = new AtomicInteger();
         try {
-            WeatherResponse response = restTemplate.getForObject(weatherApiUrl, WeatherResponse.class);
+            FeedValidators requestValidators = feedValidators;
+            AtomicReference<FeedValidators> responseValidators = new AtomicReference<>(FeedValidators.NONE);
 
-            if (response == null || response.getStations() == null || response.getStations().isEmpty()) {
+            // Parse the body while it streams in, building objects for monitored stations only.
+            // Each attempt passes the circuit breaker; transient failures are retried with backoff.
+            Supplier<WeatherResponse> fetch = () -> {
+                requests.incrementAndGet();
+                long sent = System.nanoTime();
+                return restTemplate.execute(weatherApiUrl, HttpMethod.GET,
+                        request -> requestValidators.applyTo(request.getHeaders()),
+                        clientResponse -> {
+                            long received = System.nanoTime();
+                            weatherIngestMetrics.recordPhase(WeatherIngestMetrics.Phase.FETCH, received - sent);
+                            if (clientResponse.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                                return null;
+                            }
+                            responseValidators.set(FeedValidators.from(clientResponse.getHeaders()));
+                            WeatherResponse parsed = weatherObservationsParser.parse(
+                                    clientResponse.getBody(), MONITORED_STATIONS::contains);
+                            weatherIngestMetrics.recordPhase(WeatherIngestMetrics.Phase.PARSE, System.nanoTime() - received);
+                            return parsed;
+                        });
+            };
+            WeatherResponse response;
+            synchronized (fetchLock) {
+                if (stopping) {
+                    return;
+                }
+                fetchingThread = Thread.currentThread();
+            }
+            try {
+                response = Retry.decorateSupplier(weatherFeedRetry,
+                        CircuitBreaker.decorateSupplier(weatherFeedCircuitBreaker, fetch)).get();
+            } finally {
+                synchronized (fetchLock) {
+                    fetchingThread = null;
+                    Thread.interrupted();
+                }
+            }
+            if (stopping) {
+                log.info("Discarded the weather feed fetched while shutting down");
+                weatherIngestMetrics.recordRun(WeatherIngestMetrics.RunOutcome.SKIPPED);
+                return;
+            }
+
+            if (response == null) {
+                log.info("Weather feed has not changed since the last fetch");
+                weatherIngestMetrics.recordRun(WeatherIngestMetrics.RunOutcome.UNCHANGED);
+                return;
+            }
+            if (response.getStations() == null || response.getStations().isEmpty()) {
                 log.warn("Received empty or null response from weather service");
+                weatherIngestMetrics.recordRun(WeatherIngestMetrics.RunOutcome.EMPTY);
                 return;
             }
 
+            LocalDateTime observationTime = observationTimeOf(response);
             List<WeatherData> weatherDataList = response.getStations().stream()
                     .filter(station -> MONITORED_STATIONS.contains(station.getName()))
-                    .map(this::convertToWeatherData)
+                    .map(station -> convertToWeatherData(station, observationTime))
                     .collect(Collectors.toList());
 
             if (weatherDataList.isEmpty()) {
                 log.warn("No monitored stations found in the weather service response");
+                weatherIngestMetrics.recordRun(WeatherIngestMetrics.RunOutcome.EMPTY);
                 return;
             }
 
-            weatherDataRepository.saveAll(weatherDataList);
-            log.info("Successfully stored {} weather data records", weatherDataList.size());
+            long persistStarted = System.nanoTime();
+            Set<String> alreadyStored = Set.copyOf(weatherDataRepository.findStationNamesWithObservationAt(
+                    weatherDataList.stream().map(WeatherData::getStationName).toList(), observationTime));
+            List<WeatherData> newData = weatherDataList.stream()
+                    .filter(weatherData -> !alreadyStored.contains(weatherData.getStationName()))
+                    .toList();
+
+            if (!newData.isEmpty()) {
+                List<WeatherData> storedData = leaderElection.fenced(lease.get(), () -> {
+                    List<WeatherData> saved = weatherDataRepository.saveAll(newData);
+                    dataVersionRepository.increment(WeatherDataVersionWatcher.WEATHER_DATA, Instant.now());
+                    return saved;
+                });
+                weatherHistoryIndex.append(storedData);
+                weatherSnapshotStore.publish(storedData);
+            }
+            weatherIngestMetrics.recordPhase(WeatherIngestMetrics.Phase.PERSIST, System.nanoTime() - persistStarted);
+            weatherIngestMetrics.recordStationsStored(newData.size());
+            weatherIngestMetrics.recordRun(newData.isEmpty()
+                    ? WeatherIngestMetrics.RunOutcome.UNCHANGED
+                    : WeatherIngestMetrics.RunOutcome.STORED);
+            feedValidators = responseValidators.get();
+            log.info("Successfully stored {} weather data records observed at {}, skipped {} already stored",
+                    newData.size(), observationTime, alreadyStored.size());
+        } catch (DataIntegrityViolationException e) {
+            // Another writer stored the same observations first
+            log.warn("Weather data was already stored: {}", e.getMessage());
+            weatherIngestMetrics.recordRun(WeatherIngestMetrics.RunOutcome.UNCHANGED);
+        } catch (LeaseLostException e) {
+            log.warn("Discarded fetched weather data: {}", e.getMessage());
+            weatherIngestMetrics.recordRun(WeatherIngestMetrics.RunOutcome.FOLLOWER);
+        } catch (CallNotPermittedException e) {
+            log.warn("Skipping weather fetch, upstream circuit breaker is {}", weatherFeedCircuitBreaker.getState());
+            weatherIngestMetrics.recordRun(WeatherIngestMetrics.RunOutcome.SKIPPED);
         } catch (RestClientException e) {
-            log.error("Failed to fetch weather data from API: {}", e.getMessage(), e);
-            // Consider adding retry logic here
+            if (stopping) {
+                log.info("Stopped retrying the weather feed after {} request(s) to shut down", requests.get());
+                weatherIngestMetrics.recordRun(WeatherIngestMetrics.RunOutcome.SKIPPED);
+                return;
+            }
+            log.error("Failed to fetch weather data from API after {} request(s): {}",
+                    requests.get(), e.getMessage(), e);
+            weatherIngestMetrics.recordRun(WeatherIngestMetrics.RunOutcome.FAILED);
         } catch (IllegalArgumentException e) {
             log.error("Invalid data format: {}", e.getMessage(), e);
+            weatherIngestMetrics.recordRun(WeatherIngestMetrics.RunOutcome.FAILED);
             // Handle parsing errors
         } catch (Exception e) {
             log.error("Unexpected error: {}", e.getMessage(), e);
+            weatherIngestMetrics.recordRun(WeatherIngestMetrics.RunOutcome.FAILED);
             // Fallback for truly unexpected issues
         }
     }
 
-    private WeatherData convertToWeatherData(WeatherStation station) {
+    /**
+     * Cuts a fetch that is waiting out a retry backoff short when the application shuts down.
+     * The backoff runs on the scheduler thread, which the shutdown otherwise waits for.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void stopFetching() {
+        synchronized (fetchLock) {
+            stopping = true;
+            if (fetchingThread != null) {
+                fetchingThread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the feed's observation time in the server's time zone, like every other timestamp
+     * the API accepts and returns. Falls back to the fetch time if the feed carries none.
+     */
+    private LocalDateTime observationTimeOf(WeatherResponse response) {
+        if (response.getTimestamp() == null) {
+            log.warn("Weather feed carries no observation time, using the fetch time");
+            return LocalDateTime.now();
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(response.getTimestamp()), ZoneId.systemDefault());
+    }
+
+    private WeatherData convertToWeatherData(WeatherStation station, LocalDateTime observationTime) {
         if (station == null) {
             throw new IllegalArgumentException("WeatherStation cannot be null");
         }
-        LocalDateTime fetchTime = LocalDateTime.now();
+        String phenomenon = station.getPhenomenon() != null ? station.getPhenomenon() : DEFAULT_STRING_VALUE;
         return WeatherData.builder()
                 .stationName(station.getName() != null ? station.getName() : DEFAULT_STRING_VALUE)
                 .wmoCode(station.getWmoCode() != null ? station.getWmoCode() : DEFAULT_STRING_VALUE)
                 .airTemperature(station.getAirTemperature() != null ? station.getAirTemperature() : DEFAULT_NUMERIC_VALUE)
                 .windSpeed(station.getWindSpeed() != null ? station.getWindSpeed() : DEFAULT_NUMERIC_VALUE)
-                .weatherPhenomenon(station.getPhenomenon() != null ? station.getPhenomenon() : DEFAULT_STRING_VALUE)
-                .timestamp(fetchTime)
+                .weatherPhenomenon(phenomenon)
+                .phenomenonCategory(WeatherPhenomenon.categorize(phenomenon))
+                .timestamp(observationTime)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Cache validators of the last stored feed, sent back as conditional request headers.
+     */
+    private record FeedValidators(String etag, String lastModified) {
+
+        static final FeedValidators NONE = new FeedValidators(null, null);
+
+        static FeedValidators from(HttpHeaders headers) {
+            return new FeedValidators(headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED));
+        }
+
+        void applyTo(HttpHeaders headers) {
+            if (etag != null) {
+                headers.setIfNoneMatch(etag);
+            }
+            if (lastModified != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+    }
+}
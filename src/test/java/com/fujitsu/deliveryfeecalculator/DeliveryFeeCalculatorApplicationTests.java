@@ -3,7 +3,7 @@ package com.fujitsu.deliveryfeecalculator;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "weather.fetch.cron=-")
 class DeliveryFeeCalculatorApplicationTests {
 
     @Test
@@ -0,0 +1,141 @@
+package com.fujitsu.deliveryfeecalculator.cache;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherHistoryIndexTest {
+
+    @Mock
+    private WeatherDataRepository weatherDataRepository;
+
+    private WeatherHistoryIndex weatherHistoryIndex;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        weatherHistoryIndex = new WeatherHistoryIndex(weatherDataRepository, Duration.ofDays(7));
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    @DisplayName("Should not answer before it has been loaded")
+    void floor_notLoaded_returnsEmpty() {
+        assertTrue(weatherHistoryIndex.floor(City.TALLINN, now).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return the latest observation at or before the requested time")
+    void floor_returnsLatestEarlierObservation() {
+        // Arrange
+        when(weatherDataRepository.findAllByStationNameSince(anyString(), any()))
+                .thenReturn(List.of());
+        when(weatherDataRepository.findAllByStationNameSince(
+                eq(City.TALLINN.getStationName()), any()))
+                .thenReturn(List.of(
+                        observation(City.TALLINN, 1.0, now.minusHours(3)),
+                        observation(City.TALLINN, 2.0, now.minusHours(2)),
+                        observation(City.TALLINN, 3.0, now.minusHours(1))));
+
+        // Act
+        weatherHistoryIndex.load();
+
+        // Assert
+        assertEquals(3, weatherHistoryIndex.size());
+        assertEquals(2.0, weatherHistoryIndex.floor(City.TALLINN, now.minusMinutes(90)).orElseThrow().getAirTemperature());
+        assertEquals(3.0, weatherHistoryIndex.floor(City.TALLINN, now.minusHours(1)).orElseThrow().getAirTemperature());
+        assertTrue(weatherHistoryIndex.floor(City.TARTU, now).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should leave timestamps outside the retention window to the repository")
+    void floor_beforeRetentionWindow_returnsEmpty() {
+        // Arrange
+        when(weatherDataRepository.findAllByStationNameSince(anyString(), any()))
+                .thenReturn(List.of());
+        weatherHistoryIndex.load();
+        weatherHistoryIndex.append(List.of(observation(City.PARNU, 5.0, now.minusDays(1))));
+
+        // Act & Assert
+        assertTrue(weatherHistoryIndex.floor(City.PARNU, now.minusDays(8)).isEmpty());
+        assertEquals(5.0, weatherHistoryIndex.floor(City.PARNU, now).orElseThrow().getAirTemperature());
+    }
+
+    @Test
+    @DisplayName("Should keep answering from the previous load until a reload is complete")
+    void floor_duringReload_answersFromPreviousLoad() {
+        // Arrange
+        when(weatherDataRepository.findAllByStationNameSince(anyString(), any()))
+                .thenReturn(List.of());
+        when(weatherDataRepository.findAllByStationNameSince(eq(City.TALLINN.getStationName()), any()))
+                .thenReturn(List.of(observation(City.TALLINN, 1.0, now.minusHours(2))));
+        weatherHistoryIndex.load();
+
+        AtomicReference<Optional<WeatherData>> duringReload = new AtomicReference<>();
+        when(weatherDataRepository.findAllByStationNameSince(eq(City.TALLINN.getStationName()), any()))
+                .thenAnswer(invocation -> {
+                    duringReload.set(weatherHistoryIndex.floor(City.TALLINN, now));
+                    return List.of(
+                            observation(City.TALLINN, 1.0, now.minusHours(2)),
+                            observation(City.TALLINN, 2.0, now.minusHours(1)));
+                });
+
+        // Act
+        weatherHistoryIndex.load();
+
+        // Assert
+        assertEquals(1.0, duringReload.get().orElseThrow().getAirTemperature());
+        assertEquals(2.0, weatherHistoryIndex.floor(City.TALLINN, now).orElseThrow().getAirTemperature());
+    }
+
+    @Test
+    @DisplayName("Should index appended observations and ignore unmonitored stations")
+    void append_addsObservations() {
+        // Arrange
+        when(weatherDataRepository.findAllByStationNameSince(anyString(), any()))
+                .thenReturn(List.of());
+        weatherHistoryIndex.load();
+
+        WeatherData unknown = WeatherData.builder()
+                .stationName("Random Station")
+                .timestamp(now)
+                .build();
+
+        // Act
+        weatherHistoryIndex.append(List.of(observation(City.TARTU, -1.0, now.minusMinutes(5)), unknown));
+
+        // Assert
+        assertEquals(1, weatherHistoryIndex.size());
+        assertEquals(-1.0, weatherHistoryIndex.floor(City.TARTU, now).orElseThrow().getAirTemperature());
+    }
+
+    private WeatherData observation(City city, double airTemperature, LocalDateTime timestamp) {
+        return WeatherData.builder()
+                .stationName(city.getStationName())
+                .airTemperature(airTemperature)
+                .windSpeed(5.0)
+                .weatherPhenomenon("clear")
+                .timestamp(timestamp)
+                .build();
+    }
+}
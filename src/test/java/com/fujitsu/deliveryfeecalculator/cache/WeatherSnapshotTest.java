@@ -0,0 +1,94 @@
+package com.fujitsu.deliveryfeecalculator.cache;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherSnapshotTest {
+
+    private final LocalDateTime testTime = LocalDateTime.of(2024, 3, 15, 12, 0);
+
+    @Test
+    @DisplayName("Should keep the newest observation per city")
+    void merge_keepsNewestObservation() {
+        // Arrange
+        WeatherSnapshot snapshot = WeatherSnapshot.EMPTY.merge(1, List.of(
+                observation(City.TALLINN, 5.0, testTime)));
+
+        // Act
+        WeatherSnapshot merged = snapshot.merge(2, List.of(
+                observation(City.TALLINN, 7.0, testTime.plusHours(1)),
+                observation(City.TARTU, 3.0, testTime)));
+
+        // Assert
+        assertEquals(2, merged.getVersion());
+        assertEquals(7.0, merged.get(City.TALLINN).orElseThrow().getAirTemperature());
+        assertEquals(3.0, merged.get(City.TARTU).orElseThrow().getAirTemperature());
+        assertTrue(merged.get(City.PARNU).isEmpty());
+
+        // The previous snapshot stays untouched
+        assertEquals(5.0, snapshot.get(City.TALLINN).orElseThrow().getAirTemperature());
+    }
+
+    @Test
+    @DisplayName("Should return the same snapshot when nothing newer is merged")
+    void merge_olderObservation_returnsSameSnapshot() {
+        // Arrange
+        WeatherSnapshot snapshot = WeatherSnapshot.EMPTY.merge(1, List.of(
+                observation(City.TALLINN, 5.0, testTime)));
+
+        // Act
+        WeatherSnapshot merged = snapshot.merge(2, List.of(
+                observation(City.TALLINN, 7.0, testTime.minusHours(1))));
+
+        // Assert
+        assertSame(snapshot, merged);
+    }
+
+    @Test
+    @DisplayName("Should ignore observations from stations that are not monitored")
+    void merge_unknownStation_isIgnored() {
+        // Arrange
+        WeatherData unknown = WeatherData.builder()
+                .stationName("Random Station")
+                .airTemperature(1.0)
+                .timestamp(testTime)
+                .build();
+
+        // Act
+        WeatherSnapshot merged = WeatherSnapshot.EMPTY.merge(1, List.of(unknown));
+
+        // Assert
+        assertSame(WeatherSnapshot.EMPTY, merged);
+    }
+
+    @Test
+    @DisplayName("Should not alias the merged entity")
+    void merge_copiesObservation() {
+        // Arrange
+        WeatherData source = observation(City.PARNU, 2.0, testTime);
+
+        // Act
+        WeatherSnapshot merged = WeatherSnapshot.EMPTY.merge(1, List.of(source));
+        source.setAirTemperature(-20.0);
+
+        // Assert
+        assertEquals(2.0, merged.get(City.PARNU).orElseThrow().getAirTemperature());
+    }
+
+    private WeatherData observation(City city, double airTemperature, LocalDateTime timestamp) {
+        return WeatherData.builder()
+                .stationName(city.getStationName())
+                .airTemperature(airTemperature)
+                .windSpeed(5.0)
+                .weatherPhenomenon("clear")
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.fujitsu.deliveryfeecalculator.config;
+
+import com.fujitsu.deliveryfeecalculator.dto.DeliveryFeeBatchResult;
+import com.fujitsu.deliveryfeecalculator.dto.FeeMatrixUpdate;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeRules;
+import com.fujitsu.deliveryfeecalculator.model.weather.WeatherResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApplicationRuntimeHintsTest {
+
+    @Test
+    @DisplayName("Should register reflection for JSON written through the ObjectMapper and the JAXB feed model")
+    void registerHints_coversSerializedTypes() throws Exception {
+        // Arrange
+        RuntimeHints hints = new RuntimeHints();
+
+        // Act
+        new ApplicationRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // Assert
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(DeliveryFeeBatchResult.class.getMethod("getFee")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(FeeMatrixUpdate.Cell.class.getMethod("getMessage")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(FeeRules.WindSpeedRule.class.getMethod("forbiddenAbove")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(WeatherResponse.class.getMethod("setStations", List.class)).test(hints));
+    }
+}
@@ -0,0 +1,89 @@
+package com.fujitsu.deliveryfeecalculator.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BoundedDataSourceTest {
+
+    @Mock
+    private DataSource pool;
+
+    @Mock
+    private Connection connection;
+
+    private BoundedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new BoundedDataSource(pool, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    @DisplayName("Should hand out at most one connection per permit and time out the rest")
+    void getConnection_permitsExhausted_timesOut() throws SQLException {
+        // Arrange
+        when(pool.getConnection()).thenReturn(connection);
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // Act & Assert
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        verify(pool, times(2)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should release the permit once when the connection is closed")
+    void close_releasesPermitOnce() throws SQLException {
+        // Arrange
+        when(pool.getConnection()).thenReturn(connection);
+        Connection borrowed = dataSource.getConnection();
+
+        // Act
+        borrowed.close();
+        borrowed.close();
+
+        // Assert
+        assertEquals(2, dataSource.availablePermits());
+        verify(connection, times(2)).close();
+        assertSame(connection, ((ConnectionProxy) borrowed).getTargetConnection());
+    }
+
+    @Test
+    @DisplayName("Should release the permit when the pool fails to provide a connection")
+    void getConnection_poolFails_releasesPermit() throws SQLException {
+        // Arrange
+        when(pool.getConnection()).thenThrow(new SQLTransientConnectionException("Pool timed out"));
+
+        // Act & Assert
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(2, dataSource.availablePermits());
+    }
+
+    @Test
+    @DisplayName("Should pass exceptions from the connection through unchanged")
+    void connectionCall_failure_isRethrown() throws SQLException {
+        // Arrange
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenThrow(new SQLException("Connection is closed"));
+        Connection borrowed = dataSource.getConnection();
+
+        // Act & Assert
+        SQLException e = assertThrows(SQLException.class, borrowed::getAutoCommit);
+        assertEquals("Connection is closed", e.getMessage());
+    }
+}
@@ -0,0 +1,75 @@
+package com.fujitsu.deliveryfeecalculator.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the virtual-thread mode covers every thread pool the application runs work on:
+ * Tomcat request handling, the scheduler running the weather fetch and retention jobs,
+ * and the executor behind {@code @Async} tasks and streamed responses.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.threads.virtual.enabled=true", "weather.fetch.cron=-"})
+class VirtualThreadsTest {
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor applicationTaskExecutor;
+
+    @Test
+    @DisplayName("Should handle requests on virtual threads")
+    void requestHandling_runsOnVirtualThreads() throws Exception {
+        // Arrange
+        TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+        Executor executor = webServer.getTomcat().getConnector().getProtocolHandler().getExecutor();
+
+        // Act & Assert
+        assertTrue(runsOnVirtualThread(executor));
+    }
+
+    @Test
+    @DisplayName("Should run scheduled jobs on virtual threads")
+    void scheduledJobs_runOnVirtualThreads() throws Exception {
+        // Arrange
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+
+        // Act
+        taskScheduler.schedule(() -> virtual.complete(Thread.currentThread().isVirtual()), Instant.now());
+
+        // Assert
+        assertTrue(virtual.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should run async tasks on virtual threads")
+    void asyncTasks_runOnVirtualThreads() throws Exception {
+        // Act & Assert
+        assertTrue(runsOnVirtualThread(applicationTaskExecutor));
+    }
+
+    private static boolean runsOnVirtualThread(Executor executor) throws Exception {
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+        executor.execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+        return virtual.get(5, TimeUnit.SECONDS);
+    }
+}
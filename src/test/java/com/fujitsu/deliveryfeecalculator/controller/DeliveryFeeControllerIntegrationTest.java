@@ -1,28 +1,36 @@
 package com.fujitsu.deliveryfeecalculator.controller;
 
+import com.fujitsu.deliveryfeecalculator.cache.WeatherHistoryIndex;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshotStore;
 import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
 import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "weather.fetch.cron=-")
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class DeliveryFeeControllerIntegrationTest {
 
@@ -32,6 +40,12 @@ public class DeliveryFeeControllerIntegrationTest {
     @Autowired
     private WeatherDataRepository weatherDataRepository;
 
+    @Autowired
+    private WeatherSnapshotStore weatherSnapshotStore;
+
+    @Autowired
+    private WeatherHistoryIndex weatherHistoryIndex;
+
     @Test
     @DisplayName("Application context loads")
     void applicationContextLoads() {
@@ -51,6 +65,26 @@ public class DeliveryFeeControllerIntegrationTest {
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    @DisplayName("Conditional request with the current ETag gets a 304")
+    void conditionalRequestWithCurrentETag_returnsNotModified() throws Exception {
+        // Setup test data
+        setupCurrentWeatherData();
+
+        MvcResult first = mockMvc.perform(get("/api/delivery-fee/TALLINN/CAR"))
+                .andExpect(status().isOk())
+                // Scheduled fetches are disabled, so current fees are always revalidated
+                .andExpect(header().string("Cache-Control", containsString("no-cache")))
+                .andReturn();
+        String eTag = first.getResponse().getHeader("ETag");
+        assertThat(eTag).isNotNull();
+
+        mockMvc.perform(get("/api/delivery-fee/TALLINN/CAR").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+    }
+
     @Test
     @DisplayName("Calculate fee for Tartu with Scooter in cold weather")
     void calculateFeeForTartuWithScooter() throws Exception {
@@ -77,6 +111,7 @@ public class DeliveryFeeControllerIntegrationTest {
                 .build();
 
         weatherDataRepository.save(extremeWindData);
+        weatherSnapshotStore.reload();
 
         // Verify the data exists
         Optional<WeatherData> saved = weatherDataRepository.findLatestByStationName("Pärnu");
@@ -94,6 +129,22 @@ public class DeliveryFeeControllerIntegrationTest {
                 .andDo(print()); // Print response for debugging
     }
 
+    @Test
+    @DisplayName("Expose fee calculation and weather metrics for Prometheus")
+    void prometheusScrape() throws Exception {
+        // Setup test data
+        setupCurrentWeatherData();
+        mockMvc.perform(get("/api/delivery-fee/TALLINN/CAR"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "delivery_fee_calculation_seconds_bucket{city=\"TALLINN\",outcome=\"ok\",vehicle=\"CAR\",weather=\"latest\"")))
+                .andExpect(content().string(containsString("weather_observation_age_seconds{city=\"TALLINN\"")))
+                .andExpect(content().string(containsString("weather_phenomenon_unrecognized_total")));
+    }
+
     @Test
     @DisplayName("Return error for invalid city")
     void errorForInvalidCity() throws Exception {
@@ -132,7 +183,8 @@ public class DeliveryFeeControllerIntegrationTest {
                 .timestamp(pastTime)
                 .build();
 
-        weatherDataRepository.save(pastWeather);
+        // Data written straight to the repository bypasses ingest, so add it to the history index
+        weatherHistoryIndex.append(List.of(weatherDataRepository.save(pastWeather)));
 
         mockMvc.perform(get("/api/delivery-fee/TALLINN/BIKE/at")
                         .param("datetime", pastTime.format(DateTimeFormatter.ISO_DATE_TIME))
@@ -156,6 +208,39 @@ public class DeliveryFeeControllerIntegrationTest {
                 .andDo(print()); // Print response for debugging
     }
 
+    @Test
+    @DisplayName("Test batch fee calculation")
+    void testBatchFeeCalculation() throws Exception {
+        // Setup test data
+        setupCurrentWeatherData();
+        LocalDateTime veryOldTime = LocalDateTime.now().minusYears(10);
+
+        String body = "[" +
+                "{\"city\":\"TALLINN\",\"vehicleType\":\"CAR\"}," +
+                "{\"city\":\"PARNU\",\"vehicleType\":\"BIKE\"}," +
+                "{\"city\":\"TALLINN\",\"vehicleType\":\"CAR\",\"datetime\":\"" +
+                veryOldTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "\"}," +
+                "{\"city\":\"LONDON\",\"vehicleType\":\"CAR\"}" +
+                "]";
+
+        MvcResult result = mockMvc.perform(post("/api/delivery-fee/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].fee").value(4.0))
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[2].status").value(404))
+                .andExpect(jsonPath("$[3].status").value(400))
+                .andDo(print()); // Print response for debugging
+    }
+
     // Helper method to setup current weather data
     private void setupCurrentWeatherData() {
         LocalDateTime now = LocalDateTime.now();
@@ -168,6 +253,9 @@ public class DeliveryFeeControllerIntegrationTest {
 
         // Pärnu - extreme wind
         createWeatherData("Pärnu", 10.0, 25.0, "clear", now);
+
+        // Data written straight to the repository bypasses ingest, so refresh the snapshot
+        weatherSnapshotStore.reload();
     }
 
     // Helper method to create weather data only if it doesn't exist
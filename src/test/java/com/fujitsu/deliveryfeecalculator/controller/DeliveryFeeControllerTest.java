@@ -1,22 +1,54 @@
 package com.fujitsu.deliveryfeecalculator.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrix;
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrixUpdatedEvent;
+import com.fujitsu.deliveryfeecalculator.dto.DeliveryFeeBatchRequest;
 import com.fujitsu.deliveryfeecalculator.dto.DeliveryFeeResponse;
-import com.fujitsu.deliveryfeecalculator.exception.DeliveryFeeCalculationException;
-import com.fujitsu.deliveryfeecalculator.exception.WeatherDataNotFoundException;
+import com.fujitsu.deliveryfeecalculator.dto.FeeSeriesPoint;
 import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
 import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeBreakdown;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+import com.fujitsu.deliveryfeecalculator.model.fee.RejectionReason;
+import com.fujitsu.deliveryfeecalculator.service.DeliveryFeeBatch;
 import com.fujitsu.deliveryfeecalculator.service.DeliveryFeeService;
+import com.fujitsu.deliveryfeecalculator.service.FeeMatrixBroadcaster;
+import com.fujitsu.deliveryfeecalculator.service.FeeSeriesService;
+import com.fujitsu.deliveryfeecalculator.service.WeatherService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,25 +59,52 @@ class DeliveryFeeControllerTest {
     @Mock
     private DeliveryFeeService deliveryFeeService;
 
+    @Mock
+    private DeliveryFeeBatch deliveryFeeBatch;
+
+    @Mock
+    private FeeSeriesService feeSeriesService;
+
+    @Mock
+    private FeeMatrixBroadcaster feeMatrixBroadcaster;
+
+    @Mock
+    private WeatherService weatherService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    // 12:20, five minutes after the hourly fetch
+    @Spy
+    private FeeCachePolicy feeCachePolicy = new FeeCachePolicy("0 15 * * * ?", Duration.ofMinutes(1), Duration.ofDays(1),
+            Clock.fixed(LocalDateTime.of(2024, 3, 1, 12, 20).atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+
     @InjectMocks
     private DeliveryFeeController deliveryFeeController;
 
+    private final MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/api/delivery-fee/TALLINN/CAR");
+    private final ServletWebRequest webRequest = new ServletWebRequest(servletRequest, new MockHttpServletResponse());
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(deliveryFeeService.getFeeMatrix()).thenReturn(FeeMatrix.EMPTY);
+    }
+
     @Test
     @DisplayName("Should calculate delivery fee for valid request")
     void calculateDeliveryFee_validRequest_returnsCorrectFee() {
         // Arrange
-        BigDecimal expectedFee = new BigDecimal("4.00");
-        when(deliveryFeeService.calculateFee(City.TALLINN, VehicleType.CAR))
-                .thenReturn(expectedFee);
+        when(deliveryFeeService.evaluateFee(City.TALLINN, VehicleType.CAR))
+                .thenReturn(FeeResult.allowed(new FeeBreakdown(400, 0, 0, 0)));
 
         // Act
         ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
-                .calculateDeliveryFee("TALLINN", "CAR");
+                .calculateDeliveryFee("TALLINN", "CAR", webRequest);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(expectedFee, response.getBody().getFee());
+        assertEquals(new BigDecimal("4.00"), response.getBody().getFee());
         assertNull(response.getBody().getMessage());
     }
 
@@ -54,12 +113,12 @@ class DeliveryFeeControllerTest {
     void calculateDeliveryFee_forbiddenVehicle_returnsBadRequest() {
         // Arrange
         String errorMessage = "Usage of selected vehicle type is forbidden";
-        when(deliveryFeeService.calculateFee(City.TALLINN, VehicleType.BIKE))
-                .thenThrow(new DeliveryFeeCalculationException(errorMessage));
+        when(deliveryFeeService.evaluateFee(City.TALLINN, VehicleType.BIKE))
+                .thenReturn(new FeeResult.Rejected(RejectionReason.HIGH_WIND, errorMessage));
 
         // Act
         ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
-                .calculateDeliveryFee("TALLINN", "BIKE");
+                .calculateDeliveryFee("TALLINN", "BIKE", webRequest);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -73,7 +132,7 @@ class DeliveryFeeControllerTest {
     void calculateDeliveryFee_invalidCity_returnsBadRequest() {
         // Act
         ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
-                .calculateDeliveryFee("INVALID_CITY", "CAR");
+                .calculateDeliveryFee("INVALID_CITY", "CAR", webRequest);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -86,7 +145,7 @@ class DeliveryFeeControllerTest {
     void calculateDeliveryFee_invalidVehicleType_returnsBadRequest() {
         // Act
         ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
-                .calculateDeliveryFee("TALLINN", "INVALID_VEHICLE");
+                .calculateDeliveryFee("TALLINN", "INVALID_VEHICLE", webRequest);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -98,12 +157,12 @@ class DeliveryFeeControllerTest {
     @DisplayName("Should return server error for unexpected exceptions")
     void calculateDeliveryFee_unexpectedException_returnsServerError() {
         // Arrange
-        when(deliveryFeeService.calculateFee(City.TALLINN, VehicleType.CAR))
+        when(deliveryFeeService.evaluateFee(City.TALLINN, VehicleType.CAR))
                 .thenThrow(new RuntimeException("Unexpected error"));
 
         // Act
         ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
-                .calculateDeliveryFee("TALLINN", "CAR");
+                .calculateDeliveryFee("TALLINN", "CAR", webRequest);
 
         // Assert
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -111,24 +170,149 @@ class DeliveryFeeControllerTest {
         assertTrue(response.getBody().getMessage().contains("unexpected error"));
     }
 
+    @Test
+    @DisplayName("Should return not found when there is no current weather data for the city")
+    void calculateDeliveryFee_noWeatherData_returnsNotFound() {
+        // Arrange
+        when(deliveryFeeService.evaluateFee(City.PARNU, VehicleType.CAR))
+                .thenReturn(FeeResult.noWeatherData("No weather data available for station: Pärnu"));
+
+        // Act
+        ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
+                .calculateDeliveryFee("PARNU", "CAR", webRequest);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("No weather data available for station: Pärnu", response.getBody().getMessage());
+        assertNull(response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    @DisplayName("Should tag the current fee and allow caching it until the next weather fetch")
+    void calculateDeliveryFee_servedFromMatrix_setsCachingHeaders() {
+        // Arrange
+        when(deliveryFeeService.getFeeMatrix()).thenReturn(matrixObservedAt(LocalDateTime.of(2024, 3, 1, 12, 0)));
+        when(deliveryFeeService.evaluateFee(City.TALLINN, VehicleType.CAR))
+                .thenReturn(FeeResult.allowed(new FeeBreakdown(400, 0, 0, 0)));
+        feeCachePolicy.onFeeMatrixUpdated(new FeeMatrixUpdatedEvent(matrixObservedAt(LocalDateTime.of(2024, 3, 1, 12, 0))));
+
+        // Act
+        ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
+                .calculateDeliveryFee("TALLINN", "CAR", webRequest);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"20240301120000-3\"", response.getHeaders().getETag());
+        assertEquals("max-age=3300, public", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    @DisplayName("Should answer a matching conditional request without calculating the fee")
+    void calculateDeliveryFee_matchingETag_returnsNotModified() {
+        // Arrange
+        when(deliveryFeeService.getFeeMatrix()).thenReturn(matrixObservedAt(LocalDateTime.of(2024, 3, 1, 12, 0)));
+        servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "\"20240301110000-3\", \"20240301120000-3\"");
+
+        // Act
+        ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
+                .calculateDeliveryFee("TALLINN", "CAR", webRequest);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("\"20240301120000-3\"", response.getHeaders().getETag());
+        verify(deliveryFeeService, never()).evaluateFee(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should calculate the fee again when the tag no longer matches")
+    void calculateDeliveryFee_staleETag_returnsFee() {
+        // Arrange
+        when(deliveryFeeService.getFeeMatrix()).thenReturn(matrixObservedAt(LocalDateTime.of(2024, 3, 1, 12, 0)));
+        when(deliveryFeeService.evaluateFee(City.TALLINN, VehicleType.CAR))
+                .thenReturn(FeeResult.allowed(new FeeBreakdown(400, 0, 0, 0)));
+        servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "\"20240301110000-3\"");
+
+        // Act
+        ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
+                .calculateDeliveryFee("TALLINN", "CAR", webRequest);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new BigDecimal("4.00"), response.getBody().getFee());
+    }
+
+    @Test
+    @DisplayName("Should cache the historical fee of a sealed hour longer, but not as immutable")
+    void calculateDeliveryFeeAtTime_sealedHour_isCachedLonger() {
+        // Arrange
+        LocalDateTime sealed = LocalDateTime.of(2024, 3, 1, 11, 30);
+        LocalDateTime open = LocalDateTime.of(2024, 3, 1, 12, 10);
+        when(deliveryFeeService.getFeeMatrix()).thenReturn(matrixObservedAt(LocalDateTime.of(2024, 3, 1, 12, 0)));
+        when(deliveryFeeService.evaluateFee(eq(City.TALLINN), eq(VehicleType.CAR), any(), isNull()))
+                .thenReturn(FeeResult.allowed(new FeeBreakdown(300, 0, 0, 0)));
+
+        // Act
+        ResponseEntity<DeliveryFeeResponse> sealedResponse = deliveryFeeController
+                .calculateDeliveryFeeAtTime("TALLINN", "CAR", sealed, webRequest);
+        ResponseEntity<DeliveryFeeResponse> openResponse = deliveryFeeController
+                .calculateDeliveryFeeAtTime("TALLINN", "CAR", open, webRequest);
+
+        // Assert
+        assertEquals("max-age=86400, public", sealedResponse.getHeaders().getCacheControl());
+        assertEquals("max-age=60, public", openResponse.getHeaders().getCacheControl());
+    }
+
+    @Test
+    @DisplayName("Should tag the historical fee of a sealed hour with the fee rules version so rule changes revalidate")
+    void calculateDeliveryFeeAtTime_rulesUpdated_sealedHourRevalidates() {
+        // Arrange
+        LocalDateTime sealed = LocalDateTime.of(2024, 3, 1, 11, 30);
+        WeatherData observation = new WeatherData();
+        observation.setTimestamp(LocalDateTime.of(2024, 3, 1, 11, 0));
+        when(weatherService.findWeatherDataByTimestamp(City.TALLINN, sealed)).thenReturn(Optional.of(observation));
+        when(deliveryFeeService.getFeeMatrix())
+                .thenReturn(matrixObservedAt(LocalDateTime.of(2024, 3, 1, 12, 0), 3))
+                .thenReturn(matrixObservedAt(LocalDateTime.of(2024, 3, 1, 12, 0), 4));
+        when(deliveryFeeService.evaluateFee(City.TALLINN, VehicleType.CAR, sealed, observation))
+                .thenReturn(FeeResult.allowed(new FeeBreakdown(300, 0, 0, 0)))
+                .thenReturn(FeeResult.allowed(new FeeBreakdown(350, 0, 0, 0)));
+
+        // Act
+        ResponseEntity<DeliveryFeeResponse> cached = deliveryFeeController
+                .calculateDeliveryFeeAtTime("TALLINN", "CAR", sealed, webRequest);
+        ResponseEntity<DeliveryFeeResponse> afterRulesUpdate = deliveryFeeController
+                .calculateDeliveryFeeAtTime("TALLINN", "CAR", sealed, conditionalRequest(cached.getHeaders().getETag()));
+        ResponseEntity<DeliveryFeeResponse> revalidated = deliveryFeeController
+                .calculateDeliveryFeeAtTime("TALLINN", "CAR", sealed, conditionalRequest(afterRulesUpdate.getHeaders().getETag()));
+
+        // Assert
+        assertEquals("\"20240301110000-3\"", cached.getHeaders().getETag());
+        assertEquals(HttpStatus.OK, afterRulesUpdate.getStatusCode());
+        assertEquals("\"20240301110000-4\"", afterRulesUpdate.getHeaders().getETag());
+        assertEquals(new BigDecimal("3.50"), afterRulesUpdate.getBody().getFee());
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getStatusCode());
+        assertEquals("max-age=86400, public", revalidated.getHeaders().getCacheControl());
+        verify(deliveryFeeService, times(2)).evaluateFee(City.TALLINN, VehicleType.CAR, sealed, observation);
+        verify(weatherService, times(3)).findWeatherDataByTimestamp(City.TALLINN, sealed);
+    }
+
     @Test
     @DisplayName("Should calculate historical delivery fee for valid request")
     void calculateDeliveryFeeAtTime_validRequest_returnsCorrectFee() {
         // Arrange
         LocalDateTime testTime = LocalDateTime.of(2024, 3, 1, 12, 0);
-        BigDecimal expectedFee = new BigDecimal("3.50");
-
-        when(deliveryFeeService.calculateFee(City.TALLINN, VehicleType.CAR, testTime))
-                .thenReturn(expectedFee);
+        when(deliveryFeeService.evaluateFee(City.TALLINN, VehicleType.CAR, testTime, null))
+                .thenReturn(FeeResult.allowed(new FeeBreakdown(300, 50, 0, 0)));
 
         // Act
         ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
-                .calculateDeliveryFeeAtTime("TALLINN", "CAR", testTime);
+                .calculateDeliveryFeeAtTime("TALLINN", "CAR", testTime, webRequest);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(expectedFee, response.getBody().getFee());
+        assertEquals(new BigDecimal("3.50"), response.getBody().getFee());
         assertNull(response.getBody().getMessage());
     }
 
@@ -139,12 +323,12 @@ class DeliveryFeeControllerTest {
         LocalDateTime testTime = LocalDateTime.of(2024, 3, 1, 12, 0);
         String errorMessage = "No weather data available";
 
-        when(deliveryFeeService.calculateFee(City.TALLINN, VehicleType.CAR, testTime))
-                .thenThrow(new WeatherDataNotFoundException(errorMessage));
+        when(deliveryFeeService.evaluateFee(City.TALLINN, VehicleType.CAR, testTime, null))
+                .thenReturn(FeeResult.noWeatherData(errorMessage));
 
         // Act
         ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
-                .calculateDeliveryFeeAtTime("TALLINN", "CAR", testTime);
+                .calculateDeliveryFeeAtTime("TALLINN", "CAR", testTime, webRequest);
 
         // Assert
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
@@ -160,12 +344,12 @@ class DeliveryFeeControllerTest {
         LocalDateTime testTime = LocalDateTime.of(2024, 3, 1, 12, 0);
         String errorMessage = "Usage of selected vehicle type is forbidden";
 
-        when(deliveryFeeService.calculateFee(City.TALLINN, VehicleType.BIKE, testTime))
-                .thenThrow(new DeliveryFeeCalculationException(errorMessage));
+        when(deliveryFeeService.evaluateFee(City.TALLINN, VehicleType.BIKE, testTime, null))
+                .thenReturn(new FeeResult.Rejected(RejectionReason.HIGH_WIND, errorMessage));
 
         // Act
         ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
-                .calculateDeliveryFeeAtTime("TALLINN", "BIKE", testTime);
+                .calculateDeliveryFeeAtTime("TALLINN", "BIKE", testTime, webRequest);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -182,7 +366,7 @@ class DeliveryFeeControllerTest {
 
         // Act
         ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
-                .calculateDeliveryFeeAtTime("INVALID_CITY", "CAR", testTime);
+                .calculateDeliveryFeeAtTime("INVALID_CITY", "CAR", testTime, webRequest);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -191,22 +375,221 @@ class DeliveryFeeControllerTest {
         assertEquals("Invalid parameters provided", response.getBody().getMessage());
     }
 
+    @Test
+    @DisplayName("Should return service unavailable when no database connection is available")
+    void calculateDeliveryFeeAtTime_connectionPoolExhausted_returnsServiceUnavailable() {
+        // Arrange
+        LocalDateTime testTime = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+        when(deliveryFeeService.evaluateFee(City.TALLINN, VehicleType.CAR, testTime, null))
+                .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction"));
+
+        // Act
+        ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
+                .calculateDeliveryFeeAtTime("TALLINN", "CAR", testTime, webRequest);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertNull(response.getBody().getFee());
+    }
+
     @Test
     @DisplayName("Should return server error for unexpected exceptions in historical request")
     void calculateDeliveryFeeAtTime_unexpectedException_returnsServerError() {
         // Arrange
         LocalDateTime testTime = LocalDateTime.of(2024, 3, 1, 12, 0);
 
-        when(deliveryFeeService.calculateFee(City.TALLINN, VehicleType.CAR, testTime))
+        when(deliveryFeeService.evaluateFee(City.TALLINN, VehicleType.CAR, testTime, null))
                 .thenThrow(new RuntimeException("Unexpected error"));
 
         // Act
         ResponseEntity<DeliveryFeeResponse> response = deliveryFeeController
-                .calculateDeliveryFeeAtTime("TALLINN", "CAR", testTime);
+                .calculateDeliveryFeeAtTime("TALLINN", "CAR", testTime, webRequest);
 
         // Assert
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertNotNull(response.getBody());
         assertTrue(response.getBody().getMessage().contains("unexpected error"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should return batch results in request order with per-item statuses")
+    void calculateDeliveryFeeBatch_mixedItems_returnsResultsInOrder() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(deliveryFeeController, "maxBatchSize", 100);
+        LocalDateTime testTime = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+        when(deliveryFeeService.openBatch()).thenReturn(deliveryFeeBatch);
+        when(deliveryFeeBatch.evaluateFee(City.TALLINN, VehicleType.CAR, null))
+                .thenReturn(FeeResult.allowed(new FeeBreakdown(400, 0, 0, 0)));
+        when(deliveryFeeBatch.evaluateFee(City.TARTU, VehicleType.BIKE, testTime))
+                .thenReturn(new FeeResult.Rejected(RejectionReason.HIGH_WIND, "Usage of selected vehicle type is forbidden"));
+        when(deliveryFeeBatch.evaluateFee(City.PARNU, VehicleType.CAR, testTime))
+                .thenReturn(FeeResult.noWeatherData("No weather data available"));
+
+        List<DeliveryFeeBatchRequest> requests = List.of(
+                new DeliveryFeeBatchRequest("TALLINN", "CAR", null),
+                new DeliveryFeeBatchRequest("TARTU", "BIKE", testTime),
+                new DeliveryFeeBatchRequest("LONDON", "CAR", testTime),
+                new DeliveryFeeBatchRequest("PARNU", "CAR", testTime));
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = deliveryFeeController.calculateDeliveryFeeBatch(requests);
+        JsonNode results = readStreamedBody(response);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(4, results.size());
+        assertEquals(200, results.get(0).get("status").asInt());
+        assertEquals(0, new BigDecimal("4.00").compareTo(results.get(0).get("fee").decimalValue()));
+        assertEquals(400, results.get(1).get("status").asInt());
+        assertTrue(results.get(1).get("message").asText().contains("forbidden"));
+        assertEquals(400, results.get(2).get("status").asInt());
+        assertTrue(results.get(2).get("message").asText().contains("Invalid"));
+        assertEquals(404, results.get(3).get("status").asInt());
+        assertFalse(results.get(3).has("fee"));
+    }
+
+    @Test
+    @DisplayName("Should reject batches larger than the configured maximum")
+    void calculateDeliveryFeeBatch_tooLarge_returnsBadRequest() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(deliveryFeeController, "maxBatchSize", 1);
+        List<DeliveryFeeBatchRequest> requests = List.of(
+                new DeliveryFeeBatchRequest("TALLINN", "CAR", null),
+                new DeliveryFeeBatchRequest("TARTU", "CAR", null));
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = deliveryFeeController.calculateDeliveryFeeBatch(requests);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(readStreamedBody(response).get("message").asText().contains("maximum"));
+        verify(deliveryFeeService, never()).openBatch();
+    }
+
+    @Test
+    @DisplayName("Should stream one fee change-point per line")
+    @SuppressWarnings("unchecked")
+    void streamDeliveryFeeSeries_writesNdjson() throws IOException {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        doAnswer(invocation -> {
+            Consumer<FeeSeriesPoint> consumer = invocation.getArgument(4);
+            consumer.accept(FeeSeriesPoint.allowed(from, new FeeBreakdown(250, 0, 50, 0)));
+            consumer.accept(FeeSeriesPoint.forbidden(from.plusHours(3), "Usage of selected vehicle type is forbidden"));
+            return 12L;
+        }).when(feeSeriesService).stream(eq(City.TARTU), eq(VehicleType.BIKE), eq(from), eq(to), any(Consumer.class));
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = deliveryFeeController
+                .streamDeliveryFeeSeries("tartu", "bike", from, to);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertNotNull(response.getBody());
+        response.getBody().writeTo(outputStream);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(0, new BigDecimal("3.00").compareTo(first.get("fee").decimalValue()));
+        assertFalse(first.has("message"));
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertFalse(second.has("fee"));
+        assertTrue(second.get("message").asText().contains("forbidden"));
+    }
+
+    @Test
+    @DisplayName("Should reject a fee series whose range is empty")
+    void streamDeliveryFeeSeries_emptyRange_returnsBadRequest() throws IOException {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = deliveryFeeController
+                .streamDeliveryFeeSeries("TARTU", "BIKE", from, from);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(readStreamedBody(response).get("message").asText().contains("time range"));
+        verifyNoInteractions(feeSeriesService);
+    }
+
+    @Test
+    @DisplayName("Should reject a fee series for an unknown city")
+    void streamDeliveryFeeSeries_invalidCity_returnsBadRequest() throws IOException {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = deliveryFeeController
+                .streamDeliveryFeeSeries("LONDON", "BIKE", from, from.plusDays(1));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(readStreamedBody(response).get("message").asText().contains("Invalid"));
+        verifyNoInteractions(feeSeriesService);
+    }
+
+    @Test
+    @DisplayName("Should subscribe a new event stream to fee matrix changes")
+    void streamFeeMatrix_subscribes() {
+        // Arrange
+        ReflectionTestUtils.setField(deliveryFeeController, "streamTimeout", Duration.ofMinutes(30));
+        when(feeMatrixBroadcaster.subscribe(any(SseEmitter.class))).thenReturn(true);
+
+        // Act
+        ResponseEntity<SseEmitter> response = deliveryFeeController.streamFeeMatrix();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(Duration.ofMinutes(30).toMillis(), response.getBody().getTimeout());
+        verify(feeMatrixBroadcaster).subscribe(response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should return service unavailable when too many subscribers are connected")
+    void streamFeeMatrix_tooManySubscribers_returnsServiceUnavailable() {
+        // Arrange
+        ReflectionTestUtils.setField(deliveryFeeController, "streamTimeout", Duration.ofMinutes(30));
+        when(feeMatrixBroadcaster.subscribe(any(SseEmitter.class))).thenReturn(false);
+
+        // Act
+        ResponseEntity<SseEmitter> response = deliveryFeeController.streamFeeMatrix();
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    private JsonNode readStreamedBody(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertNotNull(response.getBody());
+        response.getBody().writeTo(outputStream);
+        return objectMapper.readTree(outputStream.toByteArray());
+    }
+
+    /**
+     * Matrix of fee rules version 3 with a Tallinn observation at the given time.
+     */
+    private static ServletWebRequest conditionalRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/delivery-fee/TALLINN/CAR/at");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private static FeeMatrix matrixObservedAt(LocalDateTime observedAt) {
+        return matrixObservedAt(observedAt, 3);
+    }
+
+    private static FeeMatrix matrixObservedAt(LocalDateTime observedAt, long rulesVersion) {
+        return FeeMatrix.builder(1, rulesVersion)
+                .observedAt(City.TALLINN, observedAt)
+                .cell(City.TALLINN, VehicleType.CAR, FeeResult.allowed(new FeeBreakdown(400, 0, 0, 0)))
+                .build();
+    }
+}
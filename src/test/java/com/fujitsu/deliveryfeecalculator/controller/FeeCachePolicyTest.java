@@ -0,0 +1,99 @@
+package com.fujitsu.deliveryfeecalculator.controller;
+
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrix;
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrixUpdatedEvent;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeeCachePolicyTest {
+
+    private static final String HOURLY = "0 15 * * * ?";
+
+    private final MutableClock clock = new MutableClock(LocalDateTime.of(2024, 3, 1, 12, 16));
+    private final FeeCachePolicy policy = new FeeCachePolicy(HOURLY, Duration.ofMinutes(1), Duration.ofDays(1), clock);
+
+    @Test
+    @DisplayName("Should keep max-age short from a due fetch until its weather data is served")
+    void current_fetchDue_usesShortMaxAgeUntilNewSnapshot() {
+        // Arrange
+        policy.onFeeMatrixUpdated(new FeeMatrixUpdatedEvent(FeeMatrix.builder(1, 0).build()));
+
+        // Act & Assert
+        assertEquals("max-age=3540, public", policy.current().getHeaderValue());
+
+        clock.set(LocalDateTime.of(2024, 3, 1, 13, 15, 30));
+        assertEquals("max-age=60, public", policy.current().getHeaderValue());
+
+        // A rebuild for new fee rules doesn't bring the due weather data
+        policy.onFeeMatrixUpdated(new FeeMatrixUpdatedEvent(FeeMatrix.builder(1, 1).build()));
+        assertEquals("max-age=60, public", policy.current().getHeaderValue());
+
+        clock.set(LocalDateTime.of(2024, 3, 1, 13, 16));
+        policy.onFeeMatrixUpdated(new FeeMatrixUpdatedEvent(FeeMatrix.builder(2, 1).build()));
+        assertEquals("max-age=3540, public", policy.current().getHeaderValue());
+    }
+
+    @Test
+    @DisplayName("Should always revalidate when scheduled fetches are disabled")
+    void current_scheduleDisabled_revalidates() {
+        // Arrange
+        FeeCachePolicy unscheduled = new FeeCachePolicy("-", Duration.ofMinutes(1), Duration.ofDays(1), clock);
+        unscheduled.onFeeMatrixUpdated(new FeeMatrixUpdatedEvent(FeeMatrix.builder(1, 0).build()));
+
+        // Act & Assert
+        assertEquals("no-cache", unscheduled.current().getHeaderValue());
+    }
+
+    @Test
+    @DisplayName("Should tag by observation time and rules version, and not tag cities without data")
+    void currentETag_dependsOnObservationAndRules() {
+        // Arrange
+        LocalDateTime observedAt = LocalDateTime.of(2024, 3, 1, 12, 0);
+        FeeMatrix matrix = FeeMatrix.builder(7, 2).observedAt(City.TARTU, observedAt).build();
+        FeeMatrix otherSnapshot = FeeMatrix.builder(8, 2).observedAt(City.TARTU, observedAt).build();
+
+        // Act & Assert
+        assertEquals(Optional.of("\"20240301120000-2\""), policy.currentETag(matrix, City.TARTU));
+        assertEquals(policy.currentETag(matrix, City.TARTU), policy.currentETag(otherSnapshot, City.TARTU));
+        assertEquals(Optional.empty(), policy.currentETag(matrix, City.PARNU));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(LocalDateTime time) {
+            set(time);
+        }
+
+        void set(LocalDateTime time) {
+            instant = time.atZone(getZone()).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.fujitsu.deliveryfeecalculator.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshotStore;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Subscribes to the fee matrix stream over HTTP and checks that a weather update is pushed as a delta.
+ * Runs against its own in-memory database.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:fee-matrix-stream;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "weather.fetch.cron=-"
+})
+class FeeMatrixStreamIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private WeatherSnapshotStore weatherSnapshotStore;
+
+    @Test
+    @DisplayName("Should push the matrix on subscribe and the changed cells after a weather update")
+    void streamFeeMatrix_pushesMatrixAndDeltas() throws Exception {
+        // Arrange
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/delivery-fee/stream"))
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        Thread reader = Thread.ofVirtual().start(() -> response.body().forEach(lines::add));
+
+        try {
+            assertEquals(200, response.statusCode());
+            assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/event-stream"));
+            assertEquals("matrix", nextEvent(lines)[0]);
+
+            // Act
+            weatherSnapshotStore.publish(List.of(WeatherData.builder()
+                    .stationName("Tallinn-Harku")
+                    .airTemperature(-5.0)
+                    .windSpeed(5.0)
+                    .weatherPhenomenon("Clear")
+                    .timestamp(LocalDateTime.now())
+                    .build()));
+
+            // Assert
+            String[] event = nextEvent(lines);
+            assertEquals("delta", event[0]);
+            JsonNode cells = objectMapper.readTree(event[1]).get("cells");
+            assertEquals(3, cells.size());
+            assertEquals("TALLINN", cells.get(0).get("city").asText());
+            assertEquals(4.00, cells.get(0).get("fee").asDouble());
+            assertEquals(4.00, cells.get(1).get("fee").asDouble());
+        } finally {
+            response.body().close();
+            reader.interrupt();
+        }
+    }
+
+    /**
+     * Reads lines up to the blank line ending the next event and returns its name and data.
+     */
+    private static String[] nextEvent(BlockingQueue<String> lines) throws InterruptedException {
+        String name = null;
+        String data = null;
+        String line;
+        while (!(line = pollLine(lines)).isEmpty() || name == null) {
+            if (line.startsWith("event:")) {
+                name = line.substring("event:".length());
+            } else if (line.startsWith("data:")) {
+                data = line.substring("data:".length());
+            }
+        }
+        return new String[]{name, data};
+    }
+
+    private static String pollLine(BlockingQueue<String> lines) throws InterruptedException {
+        String line = lines.poll(10, TimeUnit.SECONDS);
+        assertNotNull(line, "No event was received");
+        return line;
+    }
+}
@@ -0,0 +1,93 @@
+package com.fujitsu.deliveryfeecalculator.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshotStore;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeRules;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Changes the fee rules through the admin API and checks that fees change without a restart.
+ * Runs against its own in-memory database, so stored rules don't leak into other tests.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:fee-rules;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "weather.fetch.cron=-"
+})
+@AutoConfigureMockMvc
+class FeeRuleControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private WeatherSnapshotStore weatherSnapshotStore;
+
+    @Test
+    @DisplayName("Should apply updated rules to current fees immediately")
+    void updateFeeRules_changesCurrentFees() throws Exception {
+        // Arrange
+        weatherSnapshotStore.publish(List.of(WeatherData.builder()
+                .stationName("Tallinn-Harku")
+                .airTemperature(10.0)
+                .windSpeed(5.0)
+                .weatherPhenomenon("Clear")
+                .timestamp(LocalDateTime.now())
+                .build()));
+        mockMvc.perform(get("/api/delivery-fee/TALLINN/CAR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fee").value(4.00));
+
+        ObjectNode rules = objectMapper.valueToTree(FeeRules.defaults());
+        rules.withObject("/regionalBaseFees/TALLINN").put("CAR", 4.25);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/admin/fee-rules")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(rules.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(get("/api/delivery-fee/TALLINN/CAR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fee").value(4.25));
+        mockMvc.perform(get("/api/admin/fee-rules"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1))
+                .andExpect(jsonPath("$.rules.regionalBaseFees.TALLINN.CAR").value(4.25));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid rules and keep the current ones")
+    void updateFeeRules_invalidRules_returnsErrors() throws Exception {
+        // Arrange
+        ObjectNode rules = objectMapper.valueToTree(FeeRules.defaults());
+        rules.withObject("/windSpeed").put("windyFee", -0.5);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/admin/fee-rules")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(rules.toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("windSpeed.windyFee must be a non-negative amount in whole cents"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.fujitsu.deliveryfeecalculator.controller;
+
+import com.fujitsu.deliveryfeecalculator.dto.FeeRulesResponse;
+import com.fujitsu.deliveryfeecalculator.exception.InvalidFeeRulesException;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeRules;
+import com.fujitsu.deliveryfeecalculator.service.FeeCalculator;
+import com.fujitsu.deliveryfeecalculator.service.FeeRuleService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FeeRuleControllerTest {
+
+    @Mock
+    private FeeRuleService feeRuleService;
+
+    @InjectMocks
+    private FeeRuleController feeRuleController;
+
+    @Test
+    @DisplayName("Should return the rules in effect with their version")
+    void getFeeRules_returnsCurrentRules() {
+        // Arrange
+        when(feeRuleService.current()).thenReturn(FeeCalculator.DEFAULT);
+
+        // Act
+        ResponseEntity<FeeRulesResponse> response = feeRuleController.getFeeRules();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(0L, response.getBody().getVersion());
+        assertEquals(FeeRules.defaults(), response.getBody().getRules());
+    }
+
+    @Test
+    @DisplayName("Should return the new version after a successful update")
+    void updateFeeRules_validRules_returnsNewVersion() {
+        // Arrange
+        FeeRules rules = FeeRules.defaults();
+        when(feeRuleService.update(rules)).thenReturn(FeeCalculator.compile(4, rules));
+
+        // Act
+        ResponseEntity<FeeRulesResponse> response = feeRuleController.updateFeeRules(rules);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(4L, response.getBody().getVersion());
+        assertNull(response.getBody().getMessage());
+    }
+
+    @Test
+    @DisplayName("Should return bad request with every validation error for invalid rules")
+    void updateFeeRules_invalidRules_returnsBadRequest() {
+        // Arrange
+        FeeRules rules = new FeeRules(null, null, null, null);
+        when(feeRuleService.update(rules))
+                .thenThrow(new InvalidFeeRulesException(List.of("regionalBaseFees is missing", "windSpeed is missing")));
+
+        // Act
+        ResponseEntity<FeeRulesResponse> response = feeRuleController.updateFeeRules(rules);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertNull(response.getBody().getVersion());
+        assertEquals(List.of("regionalBaseFees is missing", "windSpeed is missing"), response.getBody().getErrors());
+    }
+
+    @Test
+    @DisplayName("Should return conflict when another update stored the same version first")
+    void updateFeeRules_concurrentUpdate_returnsConflict() {
+        // Arrange
+        FeeRules rules = FeeRules.defaults();
+        when(feeRuleService.update(rules)).thenThrow(new DataIntegrityViolationException("Unique index or primary key violation"));
+
+        // Act
+        ResponseEntity<FeeRulesResponse> response = feeRuleController.updateFeeRules(rules);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertTrue(response.getBody().getMessage().contains("concurrently"));
+    }
+}
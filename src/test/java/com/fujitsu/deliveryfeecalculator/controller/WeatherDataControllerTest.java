@@ -0,0 +1,114 @@
+package com.fujitsu.deliveryfeecalculator.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataCursor;
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataPage;
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataQuery;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.service.WeatherDataQueryService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherDataControllerTest {
+
+    @Mock
+    private WeatherDataQueryService weatherDataQueryService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @InjectMocks
+    private WeatherDataController weatherDataController;
+
+    private final LocalDateTime testTime = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Test
+    @DisplayName("Should pass filters and decoded cursor to the query service")
+    void getWeatherData_validRequest_returnsPage() {
+        // Arrange
+        WeatherDataCursor cursor = new WeatherDataCursor(testTime, 5);
+        WeatherDataQuery query = new WeatherDataQuery("Pärnu", testTime.minusDays(1), testTime);
+        WeatherDataPage page = new WeatherDataPage(List.of(), null);
+
+        when(weatherDataQueryService.findPage(query, cursor, 50)).thenReturn(page);
+
+        // Act
+        ResponseEntity<WeatherDataPage> response = weatherDataController.getWeatherData(
+                "Pärnu", testTime.minusDays(1), testTime, cursor.encode(), 50);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(page, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should return bad request for a malformed cursor")
+    void getWeatherData_malformedCursor_returnsBadRequest() {
+        // Act
+        ResponseEntity<WeatherDataPage> response = weatherDataController.getWeatherData(
+                null, null, null, "garbage", 100);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(weatherDataQueryService);
+    }
+
+    @Test
+    @DisplayName("Should return bad request for a page size out of range")
+    void getWeatherData_invalidLimit_returnsBadRequest() {
+        // Act
+        ResponseEntity<WeatherDataPage> response = weatherDataController.getWeatherData(
+                null, null, null, null, 5000);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(weatherDataQueryService);
+    }
+
+    @Test
+    @DisplayName("Should stream one JSON record per line")
+    @SuppressWarnings("unchecked")
+    void streamWeatherData_writesNdjson() throws IOException {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<WeatherData> consumer = invocation.getArgument(1);
+            consumer.accept(WeatherData.builder().id(1).stationName("Pärnu").timestamp(testTime).build());
+            consumer.accept(WeatherData.builder().id(2).stationName("Pärnu").timestamp(testTime.plusHours(1)).build());
+            return 2L;
+        }).when(weatherDataQueryService).stream(eq(new WeatherDataQuery("Pärnu", null, null)), any(Consumer.class));
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = weatherDataController.streamWeatherData("Pärnu", null, null);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertNotNull(response.getBody());
+        response.getBody().writeTo(outputStream);
+
+        // Assert
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1, objectMapper.readTree(lines[0]).get("id").asLong());
+        assertEquals(2, objectMapper.readTree(lines[1]).get("id").asLong());
+    }
+}
@@ -0,0 +1,102 @@
+package com.fujitsu.deliveryfeecalculator.metrics;
+
+import com.fujitsu.deliveryfeecalculator.metrics.DeliveryFeeMetrics.Outcome;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeBreakdown;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeeAuditLogTest {
+
+    private static final LocalDateTime REQUESTED_TIME = LocalDateTime.of(2024, 3, 15, 12, 30);
+    private static final FeeResult FEE = FeeResult.allowed(new FeeBreakdown(300, 50, 0, 100));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+
+    private FeeAuditLog auditLog;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        auditLog.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should always log the configured outcomes and nothing else without sampling")
+    void record_logsAlwaysLoggedOutcomes() throws Exception {
+        // Arrange
+        auditLog = new FeeAuditLog(meterRegistry, 0, Set.of(Outcome.FORBIDDEN), 16, lines::add);
+
+        // Act
+        auditLog.record(City.TALLINN, VehicleType.CAR, null, Outcome.OK, FEE, 1_000);
+        auditLog.record(City.TARTU, VehicleType.BIKE, REQUESTED_TIME, Outcome.FORBIDDEN, FeeResult.HIGH_WIND, 12_345);
+        auditLog.shutdown();
+
+        // Assert
+        String line = lines.poll();
+        assertNotNull(line);
+        assertTrue(line.startsWith("{\"ts\":\""));
+        assertTrue(line.endsWith("\",\"city\":\"TARTU\",\"vehicle\":\"BIKE\",\"weather\":\"historical\","
+                + "\"at\":\"2024-03-15T12:30\",\"outcome\":\"forbidden\",\"reason\":\"HIGH_WIND\",\"micros\":12}"), line);
+        assertNull(lines.poll());
+    }
+
+    @Test
+    @DisplayName("Should log every calculation at a sample rate of one")
+    void record_logsSampledCalculations() throws Exception {
+        // Arrange
+        auditLog = new FeeAuditLog(meterRegistry, 1, Set.of(), 16, lines::add);
+
+        // Act
+        auditLog.record(City.TALLINN, VehicleType.CAR, null, Outcome.OK, FEE, 2_000);
+        auditLog.record(City.PARNU, VehicleType.SCOOTER, null, Outcome.ERROR, null, 3_000);
+        auditLog.shutdown();
+
+        // Assert
+        assertTrue(lines.poll().endsWith("\"weather\":\"latest\",\"outcome\":\"ok\",\"fee\":4.50,\"micros\":2}"));
+        assertTrue(lines.poll().endsWith("\"weather\":\"latest\",\"outcome\":\"error\",\"micros\":3}"));
+    }
+
+    @Test
+    @DisplayName("Should drop and count records when the buffer is full instead of blocking")
+    void record_fullBuffer_dropsRecords() throws Exception {
+        // Arrange
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        auditLog = new FeeAuditLog(meterRegistry, 1, Set.of(), 1, line -> {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lines.add(line);
+        });
+        auditLog.record(City.TALLINN, VehicleType.CAR, null, Outcome.OK, FEE, 1_000);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // Act
+        auditLog.record(City.TARTU, VehicleType.CAR, null, Outcome.OK, FEE, 1_000);
+        auditLog.record(City.PARNU, VehicleType.CAR, null, Outcome.OK, FEE, 1_000);
+        auditLog.record(City.PARNU, VehicleType.BIKE, null, Outcome.OK, FEE, 1_000);
+        release.countDown();
+
+        // Assert
+        assertEquals(2, meterRegistry.get(FeeAuditLog.DROPPED).counter().count());
+        assertTrue(lines.poll(5, TimeUnit.SECONDS).contains("TALLINN"));
+        assertTrue(lines.poll(5, TimeUnit.SECONDS).contains("TARTU"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.fujitsu.deliveryfeecalculator.metrics;
+
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshotStore;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherDataMetricsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 15, 12, 30);
+
+    @Mock
+    private WeatherSnapshotStore weatherSnapshotStore;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneId.of("UTC"));
+        new WeatherDataMetrics(weatherSnapshotStore, clock).bindTo(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should report the age of the latest observation per city")
+    void observationAge_isTimeSinceLatestObservation() {
+        // Arrange
+        WeatherData tallinn = WeatherData.builder()
+                .stationName(City.TALLINN.getStationName())
+                .timestamp(NOW.minusMinutes(45))
+                .build();
+        when(weatherSnapshotStore.getLatest(City.TALLINN)).thenReturn(Optional.of(tallinn));
+        when(weatherSnapshotStore.getLatest(City.TARTU)).thenReturn(Optional.empty());
+
+        // Act
+        double tallinnAge = ageInMinutes(City.TALLINN);
+        double tartuAge = ageInMinutes(City.TARTU);
+
+        // Assert
+        assertEquals(45.0, tallinnAge);
+        assertTrue(Double.isNaN(tartuAge));
+    }
+
+    @Test
+    @DisplayName("Should count phenomena that match no known category")
+    void unrecognizedPhenomena_areCounted() {
+        // Arrange
+        double before = meterRegistry.get(WeatherDataMetrics.UNRECOGNIZED_PHENOMENA).functionCounter().count();
+
+        // Act
+        WeatherPhenomenon.categorize("Volcanic ash");
+
+        // Assert
+        assertEquals(before + 1, meterRegistry.get(WeatherDataMetrics.UNRECOGNIZED_PHENOMENA).functionCounter().count());
+    }
+
+    private double ageInMinutes(City city) {
+        return meterRegistry.get(WeatherDataMetrics.OBSERVATION_AGE)
+                .tag("city", city.name())
+                .timeGauge()
+                .value(TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,172 @@
+package com.fujitsu.deliveryfeecalculator.model.enums;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.slf4j.LoggerFactory.getLogger;
+
+class WeatherPhenomenonTest {
+
+    private static final List<String> FRAGMENTS = List.of(
+            "light", "moderate", "heavy", "snow", "snowfall", "shower", "sleet", "rain", "glaze", "hail",
+            "thunder", "thunderstorm", "clear", "few", "clouds", "variable", "cloudy", "with", "spells",
+            "overcast", "mist", "fog", "Light", "SNOW", "Shower", "ThUnDeR", "s", "now", "ra", "in",
+            " ", "  ", "-", " - ", "\t", "\n", "\u000B", "\u0001", " ", "ü", "K", "İ", "x");
+
+    @ParameterizedTest(name = "\"{0}\" -> {1}")
+    @CsvSource(delimiter = '|', value = {
+            "Light snow shower|SNOW",
+            "  HEAVY   Snow-Shower  |SNOW",
+            "moderate sleet|SLEET",
+            "Light rain|RAIN",
+            "Thunderstorm|FORBIDDEN",
+            "Heavy snow shower with hail|FORBIDDEN",
+            "light snow shower and light rain|SNOW",
+            "Few clouds|NORMAL",
+            "cloudy with clear spells|NORMAL",
+            "snow|NORMAL",
+            "light  rain|RAIN",
+            "light -rain|NORMAL"
+    })
+    @DisplayName("Should categorize exact and partial matches")
+    void categorize_knownPhenomena(String phenomenon, WeatherPhenomenon expected) {
+        // Act & Assert
+        assertEquals(expected, WeatherPhenomenon.categorize(phenomenon));
+    }
+
+    @Test
+    @DisplayName("Should treat missing phenomena as normal")
+    void categorize_blank_isNormal() {
+        // Act & Assert
+        assertEquals(WeatherPhenomenon.NORMAL, WeatherPhenomenon.categorize(null));
+        assertEquals(WeatherPhenomenon.NORMAL, WeatherPhenomenon.categorize(""));
+        assertEquals(WeatherPhenomenon.NORMAL, WeatherPhenomenon.categorize(" \t\n"));
+    }
+
+    @Test
+    @DisplayName("Should categorize every known phenomenon and generated strings like the regex-based implementation")
+    void categorize_matchesReferenceImplementation() {
+        // Arrange
+        Random random = new Random(42);
+
+        for (WeatherPhenomenon category : WeatherPhenomenon.values()) {
+            for (String phenomenon : phenomenaOf(category)) {
+                // Act & Assert
+                assertEquals(category, WeatherPhenomenon.categorize(phenomenon), phenomenon);
+            }
+        }
+
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder phenomenon = new StringBuilder();
+            int parts = 1 + random.nextInt(6);
+            for (int part = 0; part < parts; part++) {
+                phenomenon.append(FRAGMENTS.get(random.nextInt(FRAGMENTS.size())));
+            }
+
+            // Act & Assert
+            assertEquals(reference(phenomenon.toString()), WeatherPhenomenon.categorize(phenomenon.toString()),
+                    () -> "Mismatch for '" + phenomenon + "'");
+        }
+    }
+
+    @Test
+    @DisplayName("Should count unrecognized phenomena on every call")
+    void categorize_unrecognized_isCounted() {
+        // Arrange
+        long before = WeatherPhenomenon.getUnrecognizedCount();
+
+        // Act
+        WeatherPhenomenon first = WeatherPhenomenon.categorize("Volcanic ash");
+        WeatherPhenomenon second = WeatherPhenomenon.categorize("Volcanic ash");
+        WeatherPhenomenon.categorize("Clear");
+        WeatherPhenomenon.categorize("");
+
+        // Assert
+        assertEquals(WeatherPhenomenon.NORMAL, first);
+        assertEquals(WeatherPhenomenon.NORMAL, second);
+        assertEquals(before + 2, WeatherPhenomenon.getUnrecognizedCount());
+    }
+
+    @Test
+    @DisplayName("Should log unrecognized phenomena that no longer fit in the memo, at most once a minute")
+    void categorize_unrecognizedWithFullMemo_isLogged() {
+        // Arrange
+        WeatherPhenomenon.Classifier classifier = new WeatherPhenomenon.Classifier();
+        Logger logger = (Logger) getLogger(WeatherPhenomenon.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+
+        // Act
+        try {
+            for (int i = 0; i < WeatherPhenomenon.Classifier.MEMO_CAPACITY + 3; i++) {
+                classifier.categorize("Volcanic ash " + i);
+            }
+        } finally {
+            logger.detachAppender(appender);
+        }
+
+        // Assert
+        List<String> warnings = appender.list.stream()
+                .filter(event -> event.getLevel() == Level.WARN)
+                .map(ILoggingEvent::getFormattedMessage)
+                .toList();
+        assertEquals(WeatherPhenomenon.Classifier.MEMO_CAPACITY + 1, warnings.size());
+        for (int i = 0; i < warnings.size(); i++) {
+            assertTrue(warnings.get(i).contains("'Volcanic ash " + i + "'"), warnings.get(i));
+        }
+        assertTrue(warnings.getLast().contains("memo is full"));
+    }
+
+    private static Set<String> phenomenaOf(WeatherPhenomenon category) {
+        return switch (category) {
+            case SNOW -> Set.of("light snow shower", "moderate snow shower", "heavy snow shower",
+                    "light snowfall", "moderate snowfall", "heavy snowfall");
+            case SLEET -> Set.of("light sleet", "moderate sleet");
+            case RAIN -> Set.of("light shower", "moderate shower", "heavy shower",
+                    "light rain", "moderate rain", "heavy rain");
+            case FORBIDDEN -> Set.of("glaze", "hail", "thunder", "thunderstorm");
+            case NORMAL -> Set.of("clear", "few clouds", "variable clouds", "cloudy with clear spells",
+                    "overcast", "mist", "fog");
+        };
+    }
+
+    /**
+     * The original regex-based categorization, kept as the reference for equivalence.
+     */
+    private static WeatherPhenomenon reference(String phenomenonStr) {
+        if (phenomenonStr == null || phenomenonStr.trim().isEmpty()) {
+            return WeatherPhenomenon.NORMAL;
+        }
+
+        String normalized = phenomenonStr.toLowerCase(Locale.ROOT).trim()
+                .replaceAll("\\s+", " ")
+                .replaceAll("-", " ");
+
+        for (WeatherPhenomenon category : WeatherPhenomenon.values()) {
+            if (phenomenaOf(category).contains(normalized)) {
+                return category;
+            }
+        }
+        for (WeatherPhenomenon category : Arrays.asList(WeatherPhenomenon.FORBIDDEN, WeatherPhenomenon.SNOW,
+                WeatherPhenomenon.SLEET, WeatherPhenomenon.RAIN)) {
+            if (phenomenaOf(category).stream().anyMatch(normalized::contains)) {
+                return category;
+            }
+        }
+        return WeatherPhenomenon.NORMAL;
+    }
+}
@@ -0,0 +1,22 @@
+package com.fujitsu.deliveryfeecalculator.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Remembers the last SQL statement Hibernate prepared on the current thread,
+ * so tests can inspect the plan of the exact SQL a repository method generates.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<String> LAST_SQL = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        LAST_SQL.set(sql);
+        return sql;
+    }
+
+    public static String lastSql() {
+        return LAST_SQL.get();
+    }
+}
@@ -0,0 +1,65 @@
+package com.fujitsu.deliveryfeecalculator.repository;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(WeatherDataIdSequence.class)
+class WeatherDataIdSequenceTest {
+
+    private static final LocalDateTime OBSERVED = LocalDateTime.of(2024, 3, 15, 12, 15);
+
+    @Autowired
+    private WeatherDataIdSequence weatherDataIdSequence;
+
+    @Autowired
+    private WeatherDataRepository weatherDataRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should allocate new ids above the ids stored before the sequence existed")
+    void alignWithStoredIds_newIdsDoNotCollide() {
+        // Arrange
+        jdbcTemplate.update("INSERT INTO weather_data (id, station_name, timestamp) VALUES (?, ?, ?)",
+                1000L, City.TALLINN.getStationName(), Timestamp.valueOf(OBSERVED));
+
+        // Act
+        weatherDataIdSequence.alignWithStoredIds();
+        WeatherData stored = weatherDataRepository.saveAndFlush(WeatherData.builder()
+                .stationName(City.TALLINN.getStationName())
+                .timestamp(OBSERVED.plusHours(1))
+                .build());
+
+        // Assert
+        assertTrue(stored.getId() > 1000, "Allocated id " + stored.getId());
+    }
+
+    @Test
+    @DisplayName("Should leave a sequence that is already ahead of the stored ids")
+    void alignWithStoredIds_sequenceAhead_isUnchanged() {
+        // Arrange
+        jdbcTemplate.execute("ALTER SEQUENCE weather_data_seq RESTART WITH 5000");
+        jdbcTemplate.update("INSERT INTO weather_data (id, station_name, timestamp) VALUES (?, ?, ?)",
+                10L, City.TALLINN.getStationName(), Timestamp.valueOf(OBSERVED));
+
+        // Act
+        weatherDataIdSequence.alignWithStoredIds();
+
+        // Assert
+        assertEquals(5000L, jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'WEATHER_DATA_SEQ'", Long.class));
+    }
+}
@@ -0,0 +1,146 @@
+package com.fujitsu.deliveryfeecalculator.repository;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the query plans of the station and time lookups against a year of hourly history.
+ * Runs against the embedded test database, never the application's file database.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.fujitsu.deliveryfeecalculator.repository.RecordingStatementInspector")
+class WeatherDataRepositoryQueryPlanTest {
+
+    private static final String INDEX_NAME = WeatherData.STATION_TIMESTAMP_INDEX.toUpperCase(Locale.ROOT);
+    private static final int HOURS_PER_YEAR = 365 * 24;
+    private static final int MEASURED_RUNS = 200;
+    private static final Duration AVERAGE_LATENCY_BUDGET = Duration.ofMillis(5);
+
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(2024, 1, 1, 0, 15);
+
+    @Autowired
+    private WeatherDataRepository weatherDataRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // ANALYZE commits, so rows of a previous test survive its rollback
+        jdbcTemplate.update("DELETE FROM weather_data");
+
+        List<Object[]> rows = new ArrayList<>();
+        for (City city : City.values()) {
+            for (int hour = 0; hour < HOURS_PER_YEAR; hour++) {
+                rows.add(new Object[]{
+                        city.getStationName(), "26038", -5.0 + hour % 20, 3.0 + hour % 15, "clear",
+                        Timestamp.valueOf(HISTORY_START.plusHours(hour))
+                });
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO weather_data " +
+                "(id, station_name, wmo_code, air_temperature, wind_speed, weather_phenomenon, timestamp) " +
+                "VALUES (NEXT VALUE FOR weather_data_seq, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE TABLE weather_data");
+    }
+
+    @Test
+    @DisplayName("Latest observation lookup should use the station and timestamp index")
+    void findLatestByStationName_usesIndex() {
+        // Arrange
+        String stationName = City.TARTU.getStationName();
+
+        // Act
+        Optional<WeatherData> latest = weatherDataRepository.findLatestByStationName(stationName);
+        String plan = explainLastStatement(stationName);
+
+        // Assert
+        assertEquals(HISTORY_START.plusHours(HOURS_PER_YEAR - 1), latest.orElseThrow().getTimestamp());
+        assertTrue(plan.contains(INDEX_NAME), "Query does not use the index:\n" + plan);
+        assertTrue(plan.contains("index sorted"), "Query sorts rows instead of reading the index in order:\n" + plan);
+        assertWithinBudget(() -> weatherDataRepository.findLatestByStationName(stationName));
+    }
+
+    @Test
+    @DisplayName("Closest observation lookup should use the station and timestamp index")
+    void findClosestByStationNameAndTimestamp_usesIndex() {
+        // Arrange
+        String stationName = City.PARNU.getStationName();
+        LocalDateTime requested = HISTORY_START.plusDays(180).plusMinutes(30);
+
+        // Act
+        Optional<WeatherData> closest = weatherDataRepository.findClosestByStationNameAndTimestamp(stationName, requested);
+        String plan = explainLastStatement(stationName, Timestamp.valueOf(requested));
+
+        // Assert
+        assertEquals(HISTORY_START.plusDays(180), closest.orElseThrow().getTimestamp());
+        assertTrue(plan.contains(INDEX_NAME), "Query does not use the index:\n" + plan);
+        assertTrue(plan.contains("index sorted"), "Query sorts rows instead of reading the index in order:\n" + plan);
+        assertWithinBudget(() -> weatherDataRepository.findClosestByStationNameAndTimestamp(stationName, requested));
+    }
+
+    @Test
+    @DisplayName("Range page should read the station and timestamp index in order")
+    void findByStationNameBetween_usesIndex() {
+        // Arrange
+        String stationName = City.TALLINN.getStationName();
+        LocalDateTime after = HISTORY_START.plusDays(30);
+        LocalDateTime before = HISTORY_START.plusDays(60);
+
+        // Act
+        List<LocalDateTime> timestamps = weatherDataRepository.findByStationNameBetween(stationName, after, before,
+                Limit.of(24)).stream().map(WeatherData::getTimestamp).toList();
+        String plan = explainLastStatement(stationName, Timestamp.valueOf(after), Timestamp.valueOf(before), 24);
+
+        // Assert
+        assertEquals(24, timestamps.size());
+        assertEquals(after.plusHours(1), timestamps.get(0));
+        assertEquals(after.plusHours(24), timestamps.get(timestamps.size() - 1));
+        assertTrue(plan.contains(INDEX_NAME), "Query does not use the index:\n" + plan);
+        assertTrue(plan.contains("index sorted"), "Query sorts rows instead of reading the index in order:\n" + plan);
+    }
+
+    /**
+     * Runs H2's EXPLAIN on the exact SQL Hibernate generated for the last repository call.
+     */
+    private String explainLastStatement(Object... parameters) {
+        String sql = RecordingStatementInspector.lastSql();
+        assertNotNull(sql, "No SQL statement was recorded");
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+    }
+
+    private void assertWithinBudget(Supplier<Optional<WeatherData>> query) {
+        // Warm up statement caches before measuring
+        for (int i = 0; i < 20; i++) {
+            query.get();
+        }
+
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            assertTrue(query.get().isPresent());
+        }
+        Duration average = Duration.ofNanos((System.nanoTime() - started) / MEASURED_RUNS);
+
+        assertTrue(average.compareTo(AVERAGE_LATENCY_BUDGET) <= 0,
+                "Average query latency " + average.toNanos() / 1000 + " µs exceeds the budget of "
+                        + AVERAGE_LATENCY_BUDGET.toMillis() + " ms");
+    }
+}
@@ -0,0 +1,98 @@
+package com.fujitsu.deliveryfeecalculator.repository;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Schema changes commit in H2, so the test doesn't run in a transaction and restores the
+ * schema of a new database itself.
+ */
+@DataJpaTest
+@Import(WeatherDataUniqueIndex.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WeatherDataUniqueIndexTest {
+
+    private static final Timestamp OBSERVED = Timestamp.valueOf(LocalDateTime.of(2024, 3, 15, 12, 15));
+
+    @Autowired
+    private WeatherDataUniqueIndex weatherDataUniqueIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM weather_data");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS " + WeatherDataUniqueIndex.LEGACY_INDEX);
+        jdbcTemplate.execute("ALTER TABLE weather_data ADD CONSTRAINT IF NOT EXISTS " +
+                WeatherData.STATION_TIMESTAMP_INDEX + " UNIQUE (station_name, timestamp)");
+    }
+
+    @Test
+    @DisplayName("Should remove duplicate observations and replace the legacy index with the unique one")
+    void ensureUnique_legacyDatabase_becomesUnique() {
+        // Arrange
+        jdbcTemplate.execute("ALTER TABLE weather_data DROP CONSTRAINT " + WeatherData.STATION_TIMESTAMP_INDEX);
+        jdbcTemplate.execute("CREATE INDEX " + WeatherDataUniqueIndex.LEGACY_INDEX + " ON weather_data (station_name, timestamp)");
+        insert(1, City.TALLINN, OBSERVED);
+        insert(2, City.TALLINN, OBSERVED);
+        insert(3, City.TARTU, OBSERVED);
+
+        // Act
+        weatherDataUniqueIndex.ensureUnique();
+
+        // Assert
+        assertEquals(List.of(1L, 3L), jdbcTemplate.queryForList("SELECT id FROM weather_data ORDER BY id", Long.class));
+        assertEquals(List.of("UNIQUE"), constraintTypes(WeatherData.STATION_TIMESTAMP_INDEX));
+        assertEquals(List.of(), indexTypes(WeatherDataUniqueIndex.LEGACY_INDEX));
+        assertThrows(DataIntegrityViolationException.class, () -> insert(4, City.TALLINN, OBSERVED));
+    }
+
+    @Test
+    @DisplayName("Should leave a database that already has the unique index alone")
+    void ensureUnique_newDatabase_isUnchanged() {
+        // Arrange
+        insert(1, City.TALLINN, OBSERVED);
+
+        // Act
+        weatherDataUniqueIndex.ensureUnique();
+
+        // Assert
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM weather_data", Integer.class));
+        assertEquals(List.of("UNIQUE"), constraintTypes(WeatherData.STATION_TIMESTAMP_INDEX));
+    }
+
+    private void insert(long id, City city, Timestamp timestamp) {
+        jdbcTemplate.update("INSERT INTO weather_data (id, station_name, timestamp) VALUES (?, ?, ?)",
+                id, city.getStationName(), timestamp);
+    }
+
+    private List<String> constraintTypes(String name) {
+        return jdbcTemplate.queryForList(
+                "SELECT CONSTRAINT_TYPE FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE TABLE_NAME = 'WEATHER_DATA' AND CONSTRAINT_NAME = ?",
+                String.class, name.toUpperCase(Locale.ROOT));
+    }
+
+    private List<String> indexTypes(String name) {
+        return jdbcTemplate.queryForList(
+                "SELECT INDEX_TYPE_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'WEATHER_DATA' AND INDEX_NAME = ?",
+                String.class, name.toUpperCase(Locale.ROOT));
+    }
+}
@@ -1,10 +1,23 @@
 package com.fujitsu.deliveryfeecalculator.service;
 
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrix;
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrixUpdatedEvent;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshot;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshotUpdatedEvent;
 import com.fujitsu.deliveryfeecalculator.exception.DeliveryFeeCalculationException;
 import com.fujitsu.deliveryfeecalculator.exception.WeatherDataNotFoundException;
+import com.fujitsu.deliveryfeecalculator.metrics.DeliveryFeeMetrics;
+import com.fujitsu.deliveryfeecalculator.metrics.DeliveryFeeMetrics.Outcome;
+import com.fujitsu.deliveryfeecalculator.metrics.FeeAuditLog;
 import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
 import com.fujitsu.deliveryfeecalculator.model.enums.City;
 import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeRules;
+import com.fujitsu.deliveryfeecalculator.model.fee.RejectionReason;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,10 +27,15 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,6 +46,17 @@ public class DeliveryFeeServiceTest {
     @Mock
     private WeatherService weatherService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private DeliveryFeeMetrics deliveryFeeMetrics = new DeliveryFeeMetrics(meterRegistry);
+
+    @Mock
+    private FeeAuditLog feeAuditLog;
+
     @InjectMocks
     private DeliveryFeeServiceImpl deliveryFeeService;
 
@@ -72,10 +101,10 @@ public class DeliveryFeeServiceTest {
         void shouldCalculateCorrectRegionalBaseFee(City city, VehicleType vehicleType, String expectedFee) {
             // Arrange
             normalWeather.setStationName(city.getStationName());
-            when(weatherService.getLatestWeatherData(city)).thenReturn(normalWeather);
+            when(weatherService.findLatestWeatherData(city)).thenReturn(Optional.of(normalWeather));
 
             // Act
-            BigDecimal fee = deliveryFeeService.calculateFee(city, vehicleType);
+            BigDecimal fee = deliveryFeeService.calculateFee(city, vehicleType).toBigDecimal();
 
             // Assert
             assertEquals(new BigDecimal(expectedFee), fee);
@@ -108,10 +137,10 @@ public class DeliveryFeeServiceTest {
                     .timestamp(testTime)
                     .build();
 
-            when(weatherService.getLatestWeatherData(city)).thenReturn(weatherData);
+            when(weatherService.findLatestWeatherData(city)).thenReturn(Optional.of(weatherData));
 
             // Act
-            BigDecimal totalFee = deliveryFeeService.calculateFee(city, vehicleType);
+            BigDecimal totalFee = deliveryFeeService.calculateFee(city, vehicleType).toBigDecimal();
 
             // Calculate expected fee (base fee + expected extra fee)
             BigDecimal baseFee = getBaseFee(city, vehicleType);
@@ -139,10 +168,10 @@ public class DeliveryFeeServiceTest {
                     .timestamp(testTime)
                     .build();
 
-            when(weatherService.getLatestWeatherData(city)).thenReturn(weatherData);
+            when(weatherService.findLatestWeatherData(city)).thenReturn(Optional.of(weatherData));
 
             // Act
-            BigDecimal fee = deliveryFeeService.calculateFee(city, VehicleType.BIKE);
+            BigDecimal fee = deliveryFeeService.calculateFee(city, VehicleType.BIKE).toBigDecimal();
 
             // Assert - Base fee (3.00) + Wind fee (0.50) = 3.50
             assertEquals(new BigDecimal("3.50"), fee);
@@ -161,10 +190,10 @@ public class DeliveryFeeServiceTest {
                     .timestamp(testTime)
                     .build();
 
-            when(weatherService.getLatestWeatherData(city)).thenReturn(weatherData);
+            when(weatherService.findLatestWeatherData(city)).thenReturn(Optional.of(weatherData));
 
             // Act
-            BigDecimal fee = deliveryFeeService.calculateFee(city, VehicleType.SCOOTER);
+            BigDecimal fee = deliveryFeeService.calculateFee(city, VehicleType.SCOOTER).toBigDecimal();
 
             // Assert - Only base fee (3.50), no wind fee
             assertEquals(new BigDecimal("3.50"), fee);
@@ -183,7 +212,7 @@ public class DeliveryFeeServiceTest {
                     .timestamp(testTime)
                     .build();
 
-            when(weatherService.getLatestWeatherData(city)).thenReturn(weatherData);
+            when(weatherService.findLatestWeatherData(city)).thenReturn(Optional.of(weatherData));
 
             // Act & Assert
             DeliveryFeeCalculationException exception = assertThrows(
@@ -193,6 +222,58 @@ public class DeliveryFeeServiceTest {
 
             assertTrue(exception.getMessage().contains("forbidden"));
         }
+
+        @Test
+        @DisplayName("Should return a rejection instead of throwing for a forbidden vehicle or missing data")
+        void shouldReturnRejectionWithoutThrowing() {
+            // Arrange
+            City city = City.TALLINN;
+            WeatherData weatherData = WeatherData.builder()
+                    .stationName(city.getStationName())
+                    .airTemperature(10.0)
+                    .windSpeed(25.0) // High wind (>20 m/s)
+                    .weatherPhenomenon("clear")
+                    .timestamp(testTime)
+                    .build();
+
+            when(weatherService.findLatestWeatherData(city)).thenReturn(Optional.of(weatherData));
+            when(weatherService.findWeatherDataByTimestamp(City.PARNU, testTime)).thenReturn(Optional.empty());
+
+            // Act
+            FeeResult bike = deliveryFeeService.evaluateFee(city, VehicleType.BIKE);
+            FeeResult car = deliveryFeeService.evaluateFee(city, VehicleType.CAR);
+            FeeResult missing = deliveryFeeService.evaluateFee(City.PARNU, VehicleType.CAR, testTime);
+
+            // Assert
+            assertSame(FeeResult.HIGH_WIND, bike);
+            assertEquals(new BigDecimal("4.00"), assertInstanceOf(FeeResult.Allowed.class, car).fee().toBigDecimal());
+            FeeResult.Rejected noData = assertInstanceOf(FeeResult.Rejected.class, missing);
+            assertEquals(RejectionReason.NO_WEATHER_DATA, noData.reason());
+            assertTrue(noData.message().contains("Pärnu"));
+        }
+
+        @Test
+        @DisplayName("Should use the category stored at ingest instead of the raw phenomenon")
+        void shouldUseStoredPhenomenonCategory() {
+            // Arrange
+            City city = City.TALLINN;
+            WeatherData weatherData = WeatherData.builder()
+                    .stationName(city.getStationName())
+                    .airTemperature(10.0)
+                    .windSpeed(5.0)
+                    .weatherPhenomenon("Some new upstream wording")
+                    .phenomenonCategory(WeatherPhenomenon.SNOW)
+                    .timestamp(testTime)
+                    .build();
+
+            when(weatherService.findLatestWeatherData(city)).thenReturn(Optional.of(weatherData));
+
+            // Act
+            BigDecimal totalFee = deliveryFeeService.calculateFee(city, VehicleType.SCOOTER).toBigDecimal();
+
+            // Assert
+            assertEquals(getBaseFee(city, VehicleType.SCOOTER).add(new BigDecimal("1.00")), totalFee);
+        }
     }
 
     @Nested
@@ -223,10 +304,10 @@ public class DeliveryFeeServiceTest {
                     .timestamp(testTime)
                     .build();
 
-            when(weatherService.getLatestWeatherData(city)).thenReturn(weatherData);
+            when(weatherService.findLatestWeatherData(city)).thenReturn(Optional.of(weatherData));
 
             // Act
-            BigDecimal totalFee = deliveryFeeService.calculateFee(city, vehicleType);
+            BigDecimal totalFee = deliveryFeeService.calculateFee(city, vehicleType).toBigDecimal();
 
             // Calculate expected fee (base fee + expected extra fee)
             BigDecimal baseFee = getBaseFee(city, vehicleType);
@@ -255,7 +336,7 @@ public class DeliveryFeeServiceTest {
                     .timestamp(testTime)
                     .build();
 
-            when(weatherService.getLatestWeatherData(city)).thenReturn(weatherData);
+            when(weatherService.findLatestWeatherData(city)).thenReturn(Optional.of(weatherData));
 
             // Act & Assert
             DeliveryFeeCalculationException exception = assertThrows(
@@ -284,11 +365,11 @@ public class DeliveryFeeServiceTest {
                     .timestamp(testTime)
                     .build();
 
-            when(weatherService.getLatestWeatherData(city)).thenReturn(weatherData);
+            when(weatherService.findLatestWeatherData(city)).thenReturn(Optional.of(weatherData));
 
             // Act
-            BigDecimal scooterFee = deliveryFeeService.calculateFee(city, VehicleType.SCOOTER);
-            BigDecimal bikeFee = deliveryFeeService.calculateFee(city, VehicleType.BIKE);
+            BigDecimal scooterFee = deliveryFeeService.calculateFee(city, VehicleType.SCOOTER).toBigDecimal();
+            BigDecimal bikeFee = deliveryFeeService.calculateFee(city, VehicleType.BIKE).toBigDecimal();
 
             // Assert
             // Scooter: Base fee (3.50) + Cold fee (0.50) + Snow fee (1.00) = 5.00
@@ -311,10 +392,10 @@ public class DeliveryFeeServiceTest {
                     .timestamp(testTime)
                     .build();
 
-            when(weatherService.getLatestWeatherData(city)).thenReturn(extremeWeather);
+            when(weatherService.findLatestWeatherData(city)).thenReturn(Optional.of(extremeWeather));
 
             // Act
-            BigDecimal fee = deliveryFeeService.calculateFee(city, VehicleType.CAR);
+            BigDecimal fee = deliveryFeeService.calculateFee(city, VehicleType.CAR).toBigDecimal();
 
             // Assert - Only base fee (4.00) for car
             assertEquals(new BigDecimal("4.00"), fee);
@@ -341,10 +422,10 @@ public class DeliveryFeeServiceTest {
                     .timestamp(pastTime)
                     .build();
 
-            when(weatherService.getWeatherDataByTimestamp(city, pastTime)).thenReturn(pastWeather);
+            when(weatherService.findWeatherDataByTimestamp(city, pastTime)).thenReturn(Optional.of(pastWeather));
 
             // Act
-            BigDecimal fee = deliveryFeeService.calculateFee(city, vehicleType, pastTime);
+            BigDecimal fee = deliveryFeeService.calculateFee(city, vehicleType, pastTime).toBigDecimal();
 
             // Assert - Base fee (3.50) + Cold fee (1.00) + Snow fee (1.00) = 5.50
             assertEquals(new BigDecimal("5.50"), fee);
@@ -358,8 +439,7 @@ public class DeliveryFeeServiceTest {
             VehicleType vehicleType = VehicleType.SCOOTER;
             LocalDateTime pastTime = LocalDateTime.of(2023, 1, 1, 12, 0);
 
-            when(weatherService.getWeatherDataByTimestamp(city, pastTime))
-                    .thenThrow(new WeatherDataNotFoundException("No historical data available"));
+            when(weatherService.findWeatherDataByTimestamp(city, pastTime)).thenReturn(Optional.empty());
 
             // Act & Assert
             WeatherDataNotFoundException exception = assertThrows(
@@ -367,7 +447,253 @@ public class DeliveryFeeServiceTest {
                     () -> deliveryFeeService.calculateFee(city, vehicleType, pastTime)
             );
 
-            assertEquals("No historical data available", exception.getMessage());
+            assertEquals("No weather data available for station: Tallinn-Harku and timestamp: 2023-01-01T12:00",
+                    exception.getMessage());
+        }
+
+        @Test
+        @DisplayName("Should calculate the historical fee from weather data the caller already looked up")
+        void shouldCalculateHistoricalFeeFromResolvedWeatherData() {
+            // Arrange
+            LocalDateTime pastTime = LocalDateTime.of(2024, 1, 15, 12, 0);
+            WeatherData pastWeather = WeatherData.builder()
+                    .stationName(City.TALLINN.getStationName())
+                    .airTemperature(-15.0)
+                    .windSpeed(5.0)
+                    .weatherPhenomenon("heavy snowfall")
+                    .timestamp(pastTime)
+                    .build();
+
+            // Act
+            FeeResult found = deliveryFeeService.evaluateFee(City.TALLINN, VehicleType.SCOOTER, pastTime, pastWeather);
+            FeeResult missing = deliveryFeeService.evaluateFee(City.TALLINN, VehicleType.SCOOTER, pastTime, null);
+
+            // Assert
+            assertEquals(new BigDecimal("5.50"), found.orElseThrow().toBigDecimal());
+            assertInstanceOf(FeeResult.Rejected.class, missing);
+            verify(weatherService, never()).findWeatherDataByTimestamp(any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Fee Calculation Tests")
+    class BatchFeeCalculationTests {
+
+        @Test
+        @DisplayName("Should look up weather data once per city and timestamp")
+        void shouldLookUpWeatherOncePerCityAndTimestamp() {
+            // Arrange
+            City city = City.TARTU;
+            WeatherData pastWeather = WeatherData.builder()
+                    .stationName(city.getStationName())
+                    .airTemperature(-15.0) // Very cold: +1.00€
+                    .windSpeed(5.0)
+                    .weatherPhenomenon("clear")
+                    .timestamp(testTime)
+                    .build();
+
+            when(weatherService.findWeatherDataByTimestamp(city, testTime)).thenReturn(Optional.of(pastWeather));
+
+            // Act
+            DeliveryFeeBatch batch = deliveryFeeService.openBatch();
+            BigDecimal carFee = batch.calculateFee(city, VehicleType.CAR, testTime).toBigDecimal();
+            BigDecimal scooterFee = batch.calculateFee(city, VehicleType.SCOOTER, testTime).toBigDecimal();
+            BigDecimal bikeFee = batch.calculateFee(city, VehicleType.BIKE, testTime).toBigDecimal();
+
+            // Assert
+            assertEquals(new BigDecimal("3.50"), carFee);
+            assertEquals(new BigDecimal("4.00"), scooterFee);
+            assertEquals(new BigDecimal("3.50"), bikeFee);
+            verify(weatherService, times(1)).findWeatherDataByTimestamp(city, testTime);
+        }
+
+        @Test
+        @DisplayName("Should remember missing weather data within a batch")
+        void shouldRememberMissingWeatherData() {
+            // Arrange
+            City city = City.PARNU;
+            when(weatherService.findWeatherDataByTimestamp(city, testTime)).thenReturn(Optional.empty());
+
+            // Act & Assert
+            DeliveryFeeBatch batch = deliveryFeeService.openBatch();
+            assertThrows(WeatherDataNotFoundException.class,
+                    () -> batch.calculateFee(city, VehicleType.CAR, testTime));
+            assertThrows(WeatherDataNotFoundException.class,
+                    () -> batch.calculateFee(city, VehicleType.BIKE, testTime));
+            verify(weatherService, times(1)).findWeatherDataByTimestamp(city, testTime);
+        }
+
+        @Test
+        @DisplayName("Should use current weather conditions when no timestamp is given")
+        void shouldUseCurrentWeatherWithoutTimestamp() {
+            // Arrange
+            City city = City.TALLINN;
+            WeatherData currentWeather = WeatherData.builder()
+                    .stationName(city.getStationName())
+                    .airTemperature(10.0)
+                    .windSpeed(5.0)
+                    .weatherPhenomenon("clear")
+                    .timestamp(testTime)
+                    .build();
+
+            when(weatherService.findLatestWeatherData(city)).thenReturn(Optional.of(currentWeather));
+
+            // Act
+            BigDecimal fee = deliveryFeeService.openBatch().calculateFee(city, VehicleType.CAR, null).toBigDecimal();
+
+            // Assert
+            assertEquals(new BigDecimal("4.00"), fee);
+            verify(weatherService, never()).findWeatherDataByTimestamp(any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Metrics Tests")
+    class MetricsTests {
+
+        @Test
+        @DisplayName("Should time calculations by city, vehicle, weather and outcome")
+        void shouldTimeCalculationsByOutcome() {
+            // Arrange
+            WeatherData stormyWeather = WeatherData.builder()
+                    .stationName(City.TARTU.getStationName())
+                    .airTemperature(5.0)
+                    .windSpeed(25.0)
+                    .weatherPhenomenon("clear")
+                    .timestamp(testTime)
+                    .build();
+            when(weatherService.findLatestWeatherData(City.TARTU)).thenReturn(Optional.of(stormyWeather));
+            when(weatherService.findWeatherDataByTimestamp(City.PARNU, testTime)).thenReturn(Optional.empty());
+
+            // Act
+            deliveryFeeService.calculateFee(City.TARTU, VehicleType.CAR);
+            deliveryFeeService.calculateFee(City.TARTU, VehicleType.CAR);
+            assertThrows(DeliveryFeeCalculationException.class,
+                    () -> deliveryFeeService.calculateFee(City.TARTU, VehicleType.BIKE));
+            assertThrows(WeatherDataNotFoundException.class,
+                    () -> deliveryFeeService.calculateFee(City.PARNU, VehicleType.SCOOTER, testTime));
+
+            // Assert
+            assertEquals(2, timer("TARTU", "CAR", "latest", "ok").count());
+            assertEquals(1, timer("TARTU", "BIKE", "latest", "forbidden").count());
+            assertEquals(1, timer("PARNU", "SCOOTER", "historical", "no-data").count());
+            assertEquals(3, meterRegistry.get(DeliveryFeeMetrics.CALCULATION).timers().size());
+        }
+
+        @Test
+        @DisplayName("Should pass every calculation to the audit log with its outcome and requested time")
+        void shouldAuditCalculations() {
+            // Arrange
+            when(weatherService.findWeatherDataByTimestamp(City.PARNU, testTime)).thenReturn(Optional.empty());
+            when(weatherService.findLatestWeatherData(City.TARTU)).thenThrow(new IllegalStateException("Database down"));
+
+            // Act
+            FeeResult missing = deliveryFeeService.evaluateFee(City.PARNU, VehicleType.SCOOTER, testTime);
+            assertThrows(IllegalStateException.class, () -> deliveryFeeService.evaluateFee(City.TARTU, VehicleType.CAR));
+
+            // Assert
+            verify(feeAuditLog).record(eq(City.PARNU), eq(VehicleType.SCOOTER), eq(testTime),
+                    eq(Outcome.NO_DATA), same(missing), anyLong());
+            verify(feeAuditLog).record(eq(City.TARTU), eq(VehicleType.CAR), isNull(),
+                    eq(Outcome.ERROR), isNull(), anyLong());
+        }
+
+        private Timer timer(String city, String vehicle, String weather, String outcome) {
+            return meterRegistry.get(DeliveryFeeMetrics.CALCULATION)
+                    .tag("city", city)
+                    .tag("vehicle", vehicle)
+                    .tag("weather", weather)
+                    .tag("outcome", outcome)
+                    .timer();
+        }
+    }
+
+    @Nested
+    @DisplayName("Fee Matrix Tests")
+    class FeeMatrixTests {
+
+        private WeatherSnapshot snapshot;
+
+        @BeforeEach
+        void setUp() {
+            snapshot = WeatherSnapshot.EMPTY.merge(7, List.of(
+                    WeatherData.builder()
+                            .stationName(City.TALLINN.getStationName())
+                            .airTemperature(-5.0) // Cold: +0.50€
+                            .windSpeed(25.0) // Extreme wind, bike forbidden
+                            .weatherPhenomenon("light rain") // Rain: +0.50€
+                            .timestamp(testTime)
+                            .build()));
+        }
+
+        @Test
+        @DisplayName("Should serve current fees from the matrix without loading weather data")
+        void shouldServeCurrentFeeFromMatrix() {
+            // Arrange
+            deliveryFeeService.onWeatherSnapshotUpdated(new WeatherSnapshotUpdatedEvent(snapshot));
+
+            // Act
+            BigDecimal carFee = deliveryFeeService.calculateFee(City.TALLINN, VehicleType.CAR).toBigDecimal();
+            BigDecimal scooterFee = deliveryFeeService.calculateFee(City.TALLINN, VehicleType.SCOOTER).toBigDecimal();
+
+            // Assert - Car: base fee only, Scooter: 3.50 + 0.50 + 0.50
+            assertEquals(new BigDecimal("4.00"), carFee);
+            assertEquals(new BigDecimal("4.50"), scooterFee);
+            verifyNoInteractions(weatherService);
+        }
+
+        @Test
+        @DisplayName("Should store the forbidden reason in the matrix")
+        void shouldThrowForForbiddenMatrixCell() {
+            // Arrange
+            deliveryFeeService.onWeatherSnapshotUpdated(new WeatherSnapshotUpdatedEvent(snapshot));
+
+            // Act & Assert
+            DeliveryFeeCalculationException exception = assertThrows(
+                    DeliveryFeeCalculationException.class,
+                    () -> deliveryFeeService.calculateFee(City.TALLINN, VehicleType.BIKE)
+            );
+
+            assertTrue(exception.getMessage().contains("forbidden"));
+            verifyNoInteractions(weatherService);
+        }
+
+        @Test
+        @DisplayName("Should carry the snapshot version and leave cities without data empty")
+        void shouldCarrySnapshotVersion() {
+            // Arrange
+            FeeMatrix previous = deliveryFeeService.getFeeMatrix();
+
+            // Act
+            deliveryFeeService.onWeatherSnapshotUpdated(new WeatherSnapshotUpdatedEvent(snapshot));
+            FeeMatrix matrix = deliveryFeeService.getFeeMatrix();
+
+            // Assert
+            assertEquals(7, matrix.getSnapshotVersion());
+            assertTrue(matrix.get(City.TARTU, VehicleType.CAR).isEmpty());
+            assertTrue(previous.get(City.TALLINN, VehicleType.CAR).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should rebuild the matrix with new fee rules for the same snapshot")
+        void shouldRebuildMatrixWhenRulesChange() {
+            // Arrange
+            deliveryFeeService.onWeatherSnapshotUpdated(new WeatherSnapshotUpdatedEvent(snapshot));
+            FeeRules defaults = FeeRules.defaults();
+            FeeRules rules = new FeeRules(defaults.regionalBaseFees(), defaults.airTemperature(),
+                    new FeeRules.WindSpeedRule(EnumSet.of(VehicleType.BIKE), 10.0, new BigDecimal("0.50"), 30.0),
+                    defaults.weatherPhenomenon());
+
+            // Act
+            deliveryFeeService.onFeeRulesUpdated(new FeeRulesUpdatedEvent(FeeCalculator.compile(2, rules)));
+
+            // Assert - Bike: 3.00 + 0.50 + 0.50 + 0.50 once 25 m/s is no longer forbidden
+            FeeMatrix matrix = deliveryFeeService.getFeeMatrix();
+            assertEquals(7, matrix.getSnapshotVersion());
+            assertEquals(2, matrix.getRulesVersion());
+            assertEquals(new BigDecimal("4.50"), deliveryFeeService.calculateFee(City.TALLINN, VehicleType.BIKE).toBigDecimal());
+            verify(eventPublisher).publishEvent(new FeeMatrixUpdatedEvent(matrix));
+            verifyNoInteractions(weatherService);
         }
     }
 
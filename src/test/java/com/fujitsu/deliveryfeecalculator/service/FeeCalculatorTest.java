@@ -0,0 +1,277 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.exception.DeliveryFeeCalculationException;
+import com.fujitsu.deliveryfeecalculator.exception.InvalidFeeRulesException;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeBreakdown;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeRules;
+import com.fujitsu.deliveryfeecalculator.model.fee.RejectionReason;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Property-based check that {@link FeeCalculator#DEFAULT}, compiled from the default rules, gives
+ * exactly the same result as the former {@link BigDecimal} implementation kept below as the reference.
+ * <p>
+ * Every city, vehicle type and phenomenon category is combined with temperatures and wind
+ * speeds on and next to every threshold, special values such as NaN and infinities, and a
+ * large seeded random sample. Fees must be equal including scale, and forbidden combinations
+ * must fail with the same message.
+ */
+class FeeCalculatorTest {
+
+    private static final long SEED = 0x5eed_fee5L;
+    private static final int RANDOM_SAMPLES = 200;
+
+    @Test
+    @DisplayName("Should match the BigDecimal reference implementation for all inputs")
+    void calculate_matchesReferenceImplementation() {
+        // Arrange
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Double> temperatures = sample(random, -10.0, 0.0, -40.0, 40.0);
+        List<Double> windSpeeds = sample(random, 10.0, 20.0, 0.0, 40.0);
+        int checked = 0;
+
+        // Act & Assert
+        for (City city : City.values()) {
+            for (VehicleType vehicleType : VehicleType.values()) {
+                for (WeatherPhenomenon phenomenon : WeatherPhenomenon.values()) {
+                    for (double temperature : temperatures) {
+                        for (double windSpeed : windSpeeds) {
+                            assertSameOutcome(city, vehicleType, temperature, windSpeed, phenomenon);
+                            checked++;
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(checked > 1_000_000, "Only " + checked + " inputs checked");
+    }
+
+    @Test
+    @DisplayName("Should break the fee down into its components")
+    void calculate_returnsComponentsInCents() {
+        // Act
+        FeeBreakdown fee = FeeCalculator.DEFAULT.calculate(City.TARTU, VehicleType.BIKE, -2.1, 4.7, WeatherPhenomenon.SNOW);
+
+        // Assert
+        assertEquals(new FeeBreakdown(250, 50, 0, 100), fee);
+        assertEquals(400, fee.total());
+        assertEquals(new BigDecimal("4.00"), fee.toBigDecimal());
+    }
+
+    @Test
+    @DisplayName("Should return the same shared breakdown for the same fee tiers")
+    void calculate_sameTiers_returnsSharedInstance() {
+        // Act
+        FeeBreakdown first = FeeCalculator.DEFAULT.calculate(City.TALLINN, VehicleType.SCOOTER, -5.0, 3.0, WeatherPhenomenon.RAIN);
+        FeeBreakdown second = FeeCalculator.DEFAULT.calculate(City.TALLINN, VehicleType.SCOOTER, -0.5, 15.0, WeatherPhenomenon.RAIN);
+
+        // Assert
+        assertSame(first, second);
+    }
+
+    @Test
+    @DisplayName("Should evaluate forbidden combinations to shared rejections with a reason code")
+    void evaluate_forbidden_returnsSharedRejection() {
+        // Act
+        FeeResult highWind = FeeCalculator.DEFAULT.evaluate(City.TARTU, VehicleType.BIKE, 5.0, 25.0, WeatherPhenomenon.NORMAL);
+        FeeResult thunder = FeeCalculator.DEFAULT.evaluate(City.PARNU, VehicleType.SCOOTER, 5.0, 3.0, WeatherPhenomenon.FORBIDDEN);
+        FeeResult car = FeeCalculator.DEFAULT.evaluate(City.PARNU, VehicleType.CAR, 5.0, 25.0, WeatherPhenomenon.FORBIDDEN);
+
+        // Assert
+        assertSame(FeeResult.HIGH_WIND, highWind);
+        assertSame(FeeResult.DANGEROUS_WEATHER, thunder);
+        assertEquals(RejectionReason.DANGEROUS_WEATHER, ((FeeResult.Rejected) thunder).reason());
+        assertEquals(FeeResult.allowed(new FeeBreakdown(300, 0, 0, 0)), car);
+    }
+
+    @Test
+    @DisplayName("Should apply changed rules to the vehicle types they list")
+    void compile_customRules_appliesThem() {
+        // Arrange
+        FeeRules defaults = FeeRules.defaults();
+        FeeRules rules = new FeeRules(
+                defaults.regionalBaseFees(),
+                new FeeRules.AirTemperatureRule(EnumSet.allOf(VehicleType.class),
+                        -5.0, new BigDecimal("2"), 5.0, new BigDecimal("0.25")),
+                new FeeRules.WindSpeedRule(EnumSet.of(VehicleType.BIKE, VehicleType.SCOOTER),
+                        8.0, new BigDecimal("0.75"), 15.0),
+                new FeeRules.WeatherPhenomenonRule(EnumSet.of(VehicleType.BIKE),
+                        Map.of(WeatherPhenomenon.RAIN, new BigDecimal("0.10")),
+                        EnumSet.of(WeatherPhenomenon.FORBIDDEN, WeatherPhenomenon.SLEET)));
+
+        // Act
+        FeeCalculator calculator = FeeCalculator.compile(3, rules);
+
+        // Assert
+        assertEquals(3, calculator.getVersion());
+        assertEquals(new FeeBreakdown(400, 25, 0, 0),
+                calculator.calculate(City.TALLINN, VehicleType.CAR, 4.0, 30.0, WeatherPhenomenon.FORBIDDEN));
+        assertEquals(new FeeBreakdown(350, 200, 75, 0),
+                calculator.calculate(City.TALLINN, VehicleType.SCOOTER, -6.0, 9.0, WeatherPhenomenon.RAIN));
+        assertEquals(new FeeBreakdown(300, 0, 0, 10),
+                calculator.calculate(City.TALLINN, VehicleType.BIKE, 6.0, 2.0, WeatherPhenomenon.RAIN));
+        assertThrows(DeliveryFeeCalculationException.class,
+                () -> calculator.calculate(City.TALLINN, VehicleType.SCOOTER, 6.0, 15.5, WeatherPhenomenon.NORMAL));
+        assertThrows(DeliveryFeeCalculationException.class,
+                () -> calculator.calculate(City.TALLINN, VehicleType.BIKE, 6.0, 2.0, WeatherPhenomenon.SLEET));
+    }
+
+    @Test
+    @DisplayName("Should reject incomplete and inconsistent rules with every error")
+    void compile_invalidRules_listsAllErrors() {
+        // Arrange
+        FeeRules defaults = FeeRules.defaults();
+        Map<City, Map<VehicleType, BigDecimal>> baseFees = new EnumMap<>(defaults.regionalBaseFees());
+        baseFees.put(City.TARTU, Map.of(VehicleType.CAR, new BigDecimal("3.505"), VehicleType.BIKE, new BigDecimal("-1")));
+        FeeRules rules = new FeeRules(
+                baseFees,
+                new FeeRules.AirTemperatureRule(Set.of(), 5.0, BigDecimal.ONE, -5.0, BigDecimal.ONE),
+                null,
+                new FeeRules.WeatherPhenomenonRule(Set.of(),
+                        Map.of(WeatherPhenomenon.FORBIDDEN, BigDecimal.ONE), Set.of(WeatherPhenomenon.FORBIDDEN)));
+
+        // Act
+        InvalidFeeRulesException exception = assertThrows(InvalidFeeRulesException.class,
+                () -> FeeCalculator.compile(1, rules));
+
+        // Assert
+        assertEquals(List.of(
+                "regionalBaseFees.TARTU.CAR must be a non-negative amount in whole cents",
+                "regionalBaseFees.TARTU.SCOOTER is missing",
+                "regionalBaseFees.TARTU.BIKE must be a non-negative amount in whole cents",
+                "airTemperature.coldBelow must not be above coolAtOrBelow",
+                "windSpeed is missing",
+                "weatherPhenomenon.FORBIDDEN can't both have a fee and be forbidden"
+        ), exception.getErrors());
+    }
+
+    private static void assertSameOutcome(City city, VehicleType vehicleType,
+                                          double temperature, double windSpeed, WeatherPhenomenon phenomenon) {
+        String input = city + "/" + vehicleType + " temp=" + temperature + " wind=" + windSpeed + " " + phenomenon;
+
+        BigDecimal expected;
+        try {
+            expected = ReferenceImplementation.calculate(city, vehicleType, temperature, windSpeed, phenomenon);
+        } catch (DeliveryFeeCalculationException e) {
+            DeliveryFeeCalculationException actual = assertThrows(DeliveryFeeCalculationException.class,
+                    () -> FeeCalculator.DEFAULT.calculate(city, vehicleType, temperature, windSpeed, phenomenon), input);
+            assertEquals(e.getMessage(), actual.getMessage(), input);
+            return;
+        }
+
+        assertEquals(expected, FeeCalculator.DEFAULT.calculate(city, vehicleType, temperature, windSpeed, phenomenon).toBigDecimal(), input);
+    }
+
+    /**
+     * Returns both thresholds with their neighbouring doubles, special values,
+     * and uniformly random values from the given range.
+     */
+    private static List<Double> sample(SplittableRandom random, double lowerThreshold, double upperThreshold,
+                                       double from, double to) {
+        List<Double> values = new ArrayList<>(List.of(
+                Double.NaN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                -Double.MAX_VALUE, Double.MAX_VALUE, -Double.MIN_VALUE, Double.MIN_VALUE, -0.0, 0.0));
+        for (double threshold : new double[]{lowerThreshold, upperThreshold}) {
+            values.add(Math.nextDown(threshold));
+            values.add(threshold);
+            values.add(Math.nextUp(threshold));
+        }
+        for (int i = 0; i < RANDOM_SAMPLES; i++) {
+            // Half the sample is rounded to one decimal, like the upstream observations
+            double value = random.nextDouble(from, to);
+            values.add(i % 2 == 0 ? value : Math.round(value * 10) / 10.0);
+        }
+        return values;
+    }
+
+    /**
+     * The fee calculation as it was implemented with {@link BigDecimal} constants.
+     */
+    private static final class ReferenceImplementation {
+
+        private static final BigDecimal ZERO_FEE = new BigDecimal("0.00");
+
+        static BigDecimal calculate(City city, VehicleType vehicleType,
+                                    double temperature, double windSpeed, WeatherPhenomenon phenomenon) {
+            return regionalBaseFee(city, vehicleType)
+                    .add(temperatureFee(vehicleType, temperature))
+                    .add(windFee(vehicleType, windSpeed))
+                    .add(phenomenonFee(vehicleType, phenomenon));
+        }
+
+        private static BigDecimal regionalBaseFee(City city, VehicleType vehicleType) {
+            return new BigDecimal(switch (city) {
+                case TALLINN -> switch (vehicleType) {
+                    case CAR -> "4.00";
+                    case SCOOTER -> "3.50";
+                    case BIKE -> "3.00";
+                };
+                case TARTU -> switch (vehicleType) {
+                    case CAR -> "3.50";
+                    case SCOOTER -> "3.00";
+                    case BIKE -> "2.50";
+                };
+                case PARNU -> switch (vehicleType) {
+                    case CAR -> "3.00";
+                    case SCOOTER -> "2.50";
+                    case BIKE -> "2.00";
+                };
+            });
+        }
+
+        private static BigDecimal temperatureFee(VehicleType vehicleType, double temperature) {
+            if (vehicleType == VehicleType.CAR) {
+                return ZERO_FEE;
+            }
+            if (temperature < -10.0) {
+                return new BigDecimal("1.00");
+            } else if (temperature <= 0.0) {
+                return new BigDecimal("0.50");
+            }
+            return ZERO_FEE;
+        }
+
+        private static BigDecimal windFee(VehicleType vehicleType, double windSpeed) {
+            if (vehicleType != VehicleType.BIKE) {
+                return ZERO_FEE;
+            }
+            if (windSpeed > 20.0) {
+                throw new DeliveryFeeCalculationException("Usage of selected vehicle type is forbidden due to high wind speed");
+            } else if (windSpeed >= 10.0) {
+                return new BigDecimal("0.50");
+            }
+            return ZERO_FEE;
+        }
+
+        private static BigDecimal phenomenonFee(VehicleType vehicleType, WeatherPhenomenon category) {
+            if (vehicleType == VehicleType.CAR) {
+                return ZERO_FEE;
+            }
+            if (category.isUsageForbidden()) {
+                throw new DeliveryFeeCalculationException("Usage of selected vehicle type is forbidden due to dangerous weather conditions");
+            }
+            if (category == WeatherPhenomenon.SNOW || category == WeatherPhenomenon.SLEET) {
+                return new BigDecimal("1.00");
+            } else if (category == WeatherPhenomenon.RAIN) {
+                return new BigDecimal("0.50");
+            }
+            return ZERO_FEE;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrix;
+import com.fujitsu.deliveryfeecalculator.cache.FeeMatrixUpdatedEvent;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeBreakdown;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FeeMatrixBroadcasterTest {
+
+    private static final String HIGH_WIND = "Usage of selected vehicle type is forbidden due to high wind speed";
+
+    @Mock
+    private DeliveryFeeService deliveryFeeService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private FeeMatrixBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        when(deliveryFeeService.getFeeMatrix()).thenReturn(matrix(1, 300));
+        broadcaster = new FeeMatrixBroadcaster(deliveryFeeService, objectMapper, meterRegistry, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should send the whole matrix on subscribe")
+    void subscribe_sendsWholeMatrix() throws Exception {
+        // Arrange
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        // Act
+        assertTrue(broadcaster.subscribe(emitter));
+        Event event = emitter.next();
+
+        // Assert
+        assertEquals("matrix", event.name());
+        assertEquals(1, event.data().get("snapshotVersion").asLong());
+        assertEquals(City.values().length * VehicleType.values().length, event.data().get("cells").size());
+        JsonNode first = event.data().get("cells").get(0);
+        assertEquals("TALLINN", first.get("city").asText());
+        assertEquals("CAR", first.get("vehicleType").asText());
+        assertEquals(3.00, first.get("fee").asDouble());
+        assertEquals(1.0, meterRegistry.get(FeeMatrixBroadcaster.SUBSCRIBERS).gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should send only the changed cells, and nothing when no cell changed")
+    void onFeeMatrixUpdated_sendsChangedCells() throws Exception {
+        // Arrange
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.subscribe(emitter);
+        emitter.next();
+
+        // Act
+        broadcaster.onFeeMatrixUpdated(new FeeMatrixUpdatedEvent(matrix(2, 300)));
+        broadcaster.onFeeMatrixUpdated(new FeeMatrixUpdatedEvent(FeeMatrix.builder(3, 0)
+                .cell(City.TARTU, VehicleType.BIKE, FeeResult.HIGH_WIND)
+                .build()));
+        Event event = emitter.next();
+
+        // Assert
+        assertEquals("delta", event.name());
+        assertEquals(3, event.data().get("snapshotVersion").asLong());
+        assertEquals(City.values().length * VehicleType.values().length, event.data().get("cells").size());
+        assertNull(emitter.poll(), "Unexpected event for a matrix without changes");
+        JsonNode tartuBike = event.data().get("cells").get(City.TARTU.ordinal() * VehicleType.values().length
+                + VehicleType.BIKE.ordinal());
+        assertEquals(HIGH_WIND, tartuBike.get("message").asText());
+        assertFalse(tartuBike.has("fee"));
+        JsonNode tallinnCar = event.data().get("cells").get(0);
+        assertFalse(tallinnCar.has("fee"));
+        assertFalse(tallinnCar.has("message"));
+    }
+
+    @Test
+    @DisplayName("Should skip intermediate matrices for a slow subscriber without delaying others")
+    void onFeeMatrixUpdated_slowSubscriber_conflates() throws Exception {
+        // Arrange
+        RecordingEmitter slow = new RecordingEmitter();
+        RecordingEmitter fast = new RecordingEmitter();
+        broadcaster.subscribe(slow);
+        slow.next();
+        broadcaster.subscribe(fast);
+        fast.next();
+        slow.block();
+
+        // Act & Assert
+        broadcaster.onFeeMatrixUpdated(new FeeMatrixUpdatedEvent(matrix(2, 310)));
+        assertTrue(slow.awaitBlocked());
+        assertEquals(2, fast.next().data().get("snapshotVersion").asLong());
+        broadcaster.onFeeMatrixUpdated(new FeeMatrixUpdatedEvent(matrix(3, 320)));
+        assertEquals(3, fast.next().data().get("snapshotVersion").asLong());
+        broadcaster.onFeeMatrixUpdated(new FeeMatrixUpdatedEvent(matrix(4, 330)));
+        assertEquals(4, fast.next().data().get("snapshotVersion").asLong());
+
+        slow.release();
+        assertEquals(2, slow.next().data().get("snapshotVersion").asLong());
+        Event caughtUp = slow.next();
+        assertEquals(4, caughtUp.data().get("snapshotVersion").asLong());
+        assertEquals(3.30, caughtUp.data().get("cells").get(0).get("fee").asDouble());
+        assertNull(slow.poll());
+        assertEquals(1.0, meterRegistry.get(FeeMatrixBroadcaster.CONFLATED).counter().count());
+    }
+
+    @Test
+    @DisplayName("Should reject subscribers over the maximum and drop those whose send fails")
+    void subscribe_limitsAndDropsSubscribers() throws Exception {
+        // Arrange
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        broadcaster.subscribe(first);
+        broadcaster.subscribe(second);
+        first.next();
+        second.next();
+
+        // Act & Assert
+        assertFalse(broadcaster.subscribe(new RecordingEmitter()));
+
+        second.fail();
+        broadcaster.onFeeMatrixUpdated(new FeeMatrixUpdatedEvent(matrix(2, 310)));
+        assertEquals("delta", first.next().name());
+        assertTrue(second.awaitFailed());
+        for (int i = 0; i < 100 && broadcaster.subscriberCount() > 1; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, broadcaster.subscriberCount());
+        assertTrue(broadcaster.subscribe(new RecordingEmitter()));
+    }
+
+    /**
+     * Matrix with the given Tallinn car fee and the default fee for every other cell.
+     */
+    private static FeeMatrix matrix(long snapshotVersion, int tallinnCarFee) {
+        FeeMatrix.Builder builder = FeeMatrix.builder(snapshotVersion, 0);
+        for (City city : City.values()) {
+            for (VehicleType vehicleType : VehicleType.values()) {
+                builder.cell(city, vehicleType, FeeResult.allowed(new FeeBreakdown(300, 0, 0, 0)));
+            }
+        }
+        return builder.cell(City.TALLINN, VehicleType.CAR, FeeResult.allowed(new FeeBreakdown(tallinnCarFee, 0, 0, 0)))
+                .build();
+    }
+
+    private record Event(String name, JsonNode data) {
+    }
+
+    /**
+     * Emitter that records sent events, and can hold up or fail sends like a slow or disconnected client.
+     */
+    private class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch failed = new CountDownLatch(1);
+        private volatile CountDownLatch release;
+        private volatile boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                failed.countDown();
+                throw new IOException("Broken pipe");
+            }
+            CountDownLatch gate = release;
+            if (gate != null) {
+                blocked.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                text.append(part.getData());
+            }
+            sent.add(text.toString());
+        }
+
+        void block() {
+            release = new CountDownLatch(1);
+        }
+
+        boolean awaitBlocked() throws InterruptedException {
+            return blocked.await(5, TimeUnit.SECONDS);
+        }
+
+        void release() {
+            CountDownLatch gate = release;
+            release = null;
+            gate.countDown();
+        }
+
+        void fail() {
+            failing = true;
+        }
+
+        boolean awaitFailed() throws InterruptedException {
+            return failed.await(5, TimeUnit.SECONDS);
+        }
+
+        Event next() throws Exception {
+            String text = sent.poll(5, TimeUnit.SECONDS);
+            assertNotNull(text, "No event was sent");
+            return parse(text);
+        }
+
+        Event poll() throws Exception {
+            String text = sent.poll(200, TimeUnit.MILLISECONDS);
+            return text == null ? null : parse(text);
+        }
+
+        private Event parse(String text) throws IOException {
+            String name = null;
+            String data = null;
+            for (String line : text.split("\n")) {
+                if (line.startsWith("event:")) {
+                    name = line.substring("event:".length());
+                } else if (line.startsWith("data:")) {
+                    data = line.substring("data:".length());
+                }
+            }
+            return new Event(name, objectMapper.readTree(data));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fujitsu.deliveryfeecalculator.exception.InvalidFeeRulesException;
+import com.fujitsu.deliveryfeecalculator.model.entity.FeeRuleSet;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeBreakdown;
+import com.fujitsu.deliveryfeecalculator.model.fee.FeeRules;
+import com.fujitsu.deliveryfeecalculator.repository.FeeRuleSetRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class FeeRuleServiceImplTest {
+
+    @Autowired
+    private FeeRuleSetRepository feeRuleSetRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<FeeRulesUpdatedEvent> events = new ArrayList<>();
+
+    private FeeRuleServiceImpl feeRuleService;
+
+    @BeforeEach
+    void setUp() {
+        feeRuleService = newService();
+    }
+
+    @Test
+    @DisplayName("Should serve the default rules while none are stored")
+    void reload_noStoredRules_keepsDefaults() {
+        // Act
+        FeeCalculator calculator = feeRuleService.reload();
+
+        // Assert
+        assertSame(FeeCalculator.DEFAULT, calculator);
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should store updated rules as the next version and put them into effect")
+    void update_validRules_storesAndSwaps() {
+        // Act
+        FeeCalculator first = feeRuleService.update(withTallinnCarFee("5.00"));
+        FeeCalculator second = feeRuleService.update(withTallinnCarFee("5.50"));
+
+        // Assert
+        assertEquals(1, first.getVersion());
+        assertEquals(2, second.getVersion());
+        assertSame(second, feeRuleService.current());
+        assertEquals(new FeeBreakdown(550, 0, 0, 0),
+                feeRuleService.current().calculate(City.TALLINN, VehicleType.CAR, 10.0, 5.0, WeatherPhenomenon.NORMAL));
+        assertEquals(List.of(1L, 2L), events.stream().map(event -> event.calculator().getVersion()).toList());
+        assertEquals(2, feeRuleSetRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should neither store nor apply invalid rules")
+    void update_invalidRules_rejected() {
+        // Arrange
+        FeeRules defaults = FeeRules.defaults();
+        FeeRules invalid = new FeeRules(defaults.regionalBaseFees(), null, defaults.windSpeed(), defaults.weatherPhenomenon());
+
+        // Act & Assert
+        assertThrows(InvalidFeeRulesException.class, () -> feeRuleService.update(invalid));
+        assertSame(FeeCalculator.DEFAULT, feeRuleService.current());
+        assertEquals(0, feeRuleSetRepository.count());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should load rules stored by another instance")
+    void reload_rulesStoredElsewhere_swapsThemIn() {
+        // Arrange
+        newService().update(withTallinnCarFee("6.00"));
+
+        // Act
+        FeeCalculator calculator = feeRuleService.reload();
+        FeeCalculator unchanged = feeRuleService.reload();
+
+        // Assert
+        assertEquals(1, calculator.getVersion());
+        assertSame(calculator, unchanged);
+        assertEquals(new FeeBreakdown(600, 0, 0, 0),
+                calculator.calculate(City.TALLINN, VehicleType.CAR, 10.0, 5.0, WeatherPhenomenon.NORMAL));
+        assertEquals(FeeRules.defaults().windSpeed(), calculator.getRules().windSpeed());
+    }
+
+    @Test
+    @DisplayName("Should never overwrite a stored version")
+    void save_existingVersion_fails() {
+        // Arrange
+        feeRuleSetRepository.saveAndFlush(ruleSet(1));
+        entityManager.clear();
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () -> feeRuleSetRepository.saveAndFlush(ruleSet(1)));
+    }
+
+    private FeeRuleServiceImpl newService() {
+        ApplicationEventPublisher publisher = event -> events.add((FeeRulesUpdatedEvent) event);
+        return new FeeRuleServiceImpl(feeRuleSetRepository, objectMapper, publisher);
+    }
+
+    private static FeeRules withTallinnCarFee(String fee) {
+        FeeRules defaults = FeeRules.defaults();
+        Map<City, Map<VehicleType, BigDecimal>> baseFees = new EnumMap<>(defaults.regionalBaseFees());
+        Map<VehicleType, BigDecimal> tallinn = new EnumMap<>(baseFees.get(City.TALLINN));
+        tallinn.put(VehicleType.CAR, new BigDecimal(fee));
+        baseFees.put(City.TALLINN, tallinn);
+        return new FeeRules(baseFees, defaults.airTemperature(), defaults.windSpeed(), defaults.weatherPhenomenon());
+    }
+
+    private static FeeRuleSet ruleSet(long version) {
+        return FeeRuleSet.builder()
+                .version(version)
+                .rules("{}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,175 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.dto.FeeSeriesPoint;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherDataHourly;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.VehicleType;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataHourlyRepository;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reads in pages of two observations, so every range spans several pages. The service runs its
+ * own short transactions, so the test doesn't run in a transaction.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FeeSeriesServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 15);
+    private static final String TARTU = City.TARTU.getStationName();
+
+    @Autowired
+    private WeatherDataRepository weatherDataRepository;
+
+    @Autowired
+    private WeatherDataHourlyRepository weatherDataHourlyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private FeeSeriesService feeSeriesService;
+
+    @BeforeEach
+    void setUp() {
+        FeeRuleService feeRuleService = mock(FeeRuleService.class);
+        when(feeRuleService.current()).thenReturn(FeeCalculator.DEFAULT);
+        feeSeriesService = new FeeSeriesServiceImpl(weatherDataRepository, weatherDataHourlyRepository,
+                feeRuleService, transactionManager, 2);
+
+        // Tartu bike: 2.50, 2.50, windy 3.00, forbidden, forbidden, 2.50
+        double[] windSpeeds = {3.0, 3.0, 12.0, 25.0, 22.0, 3.0};
+        List<WeatherData> rows = new ArrayList<>();
+        for (int hour = 0; hour < windSpeeds.length; hour++) {
+            rows.add(observation(TARTU, START.plusHours(hour), 5.0, windSpeeds[hour]));
+            rows.add(observation(City.TALLINN.getStationName(), START.plusHours(hour), -20.0, 30.0));
+        }
+        weatherDataRepository.saveAll(rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        weatherDataRepository.deleteAll();
+        weatherDataHourlyRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should stream the fee at the start of the range and every change after it")
+    void stream_emitsChangePoints() {
+        // Arrange
+        LocalDateTime from = START.plusMinutes(30);
+        List<FeeSeriesPoint> points = new ArrayList<>();
+
+        // Act
+        long evaluated = feeSeriesService.stream(City.TARTU, VehicleType.BIKE, from, START.plusHours(6), points::add);
+
+        // Assert
+        assertEquals(6, evaluated);
+        assertEquals(List.of(
+                new FeeSeriesPoint(from, new BigDecimal("2.50"), null),
+                new FeeSeriesPoint(START.plusHours(2), new BigDecimal("3.00"), null),
+                new FeeSeriesPoint(START.plusHours(3), null, "Usage of selected vehicle type is forbidden due to high wind speed"),
+                new FeeSeriesPoint(START.plusHours(5), new BigDecimal("2.50"), null)
+        ), points);
+    }
+
+    @Test
+    @DisplayName("Should pass points on between the transactions that read the pages")
+    void stream_passesPointsOutsideTransactions() {
+        // Arrange
+        List<Boolean> inTransaction = new ArrayList<>();
+
+        // Act
+        long evaluated = feeSeriesService.stream(City.TARTU, VehicleType.BIKE, START.minusHours(1), START.plusHours(6),
+                point -> inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive()));
+
+        // Assert
+        assertEquals(6, evaluated);
+        assertEquals(List.of(false, false, false, false), inTransaction);
+    }
+
+    @Test
+    @DisplayName("Should end the range before its exclusive end and only evaluate the requested station")
+    void stream_appliesRange() {
+        // Arrange
+        List<FeeSeriesPoint> points = new ArrayList<>();
+
+        // Act
+        long evaluated = feeSeriesService.stream(City.TARTU, VehicleType.CAR, START.plusHours(1), START.plusHours(3), points::add);
+
+        // Assert
+        assertEquals(2, evaluated);
+        assertEquals(List.of(new FeeSeriesPoint(START.plusHours(1), new BigDecimal("3.50"), null)), points);
+    }
+
+    @Test
+    @DisplayName("Should start at the first rollup when there is no weather data before the range")
+    void stream_includesRollupsBeforeRawRows() {
+        // Arrange
+        LocalDateTime compacted = START.minusDays(100);
+        weatherDataHourlyRepository.saveAndFlush(WeatherDataHourly.builder()
+                .stationName(TARTU)
+                .hour(compacted.withMinute(0))
+                .observedAt(compacted)
+                .airTemperature(-15.0)
+                .windSpeed(3.0)
+                .weatherPhenomenon("Light snow shower")
+                .observationCount(1)
+                .build());
+        List<FeeSeriesPoint> points = new ArrayList<>();
+
+        // Act
+        long evaluated = feeSeriesService.stream(City.TARTU, VehicleType.SCOOTER,
+                compacted.minusDays(1), START.plusHours(1), points::add);
+
+        // Assert
+        assertEquals(2, evaluated);
+        assertEquals(List.of(
+                new FeeSeriesPoint(compacted, new BigDecimal("5.00"), null),
+                new FeeSeriesPoint(START, new BigDecimal("3.00"), null)
+        ), points);
+    }
+
+    @Test
+    @DisplayName("Should stream nothing without weather data up to the end of the range")
+    void stream_noWeatherData_streamsNothing() {
+        // Arrange
+        List<FeeSeriesPoint> points = new ArrayList<>();
+
+        // Act
+        long evaluated = feeSeriesService.stream(City.PARNU, VehicleType.CAR, START, START.plusDays(1), points::add);
+
+        // Assert
+        assertEquals(0, evaluated);
+        assertTrue(points.isEmpty());
+    }
+
+    private static WeatherData observation(String stationName, LocalDateTime timestamp, double airTemperature, double windSpeed) {
+        return WeatherData.builder()
+                .stationName(stationName)
+                .airTemperature(airTemperature)
+                .windSpeed(windSpeed)
+                .weatherPhenomenon("Clear")
+                .timestamp(timestamp)
+                .build();
+    }
+}
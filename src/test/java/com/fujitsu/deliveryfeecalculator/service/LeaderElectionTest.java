@@ -0,0 +1,163 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.exception.LeaseLostException;
+import com.fujitsu.deliveryfeecalculator.repository.SchedulerLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs two instances' elections against one database. Every election commits its own
+ * transactions, like it does in the application, so the test doesn't run in a transaction.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LeaderElectionTest {
+
+    private static final String LEASE = "test-job";
+    private static final Duration TTL = Duration.ofSeconds(30);
+
+    @Autowired
+    private SchedulerLeaseRepository schedulerLeaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-03-15T12:15:00Z"));
+
+    private LeaderElection first;
+    private LeaderElection second;
+
+    @BeforeEach
+    void setUp() {
+        first = new LeaderElection(schedulerLeaseRepository, transactionManager, "node-1", TTL, clock);
+        second = new LeaderElection(schedulerLeaseRepository, transactionManager, "node-2", TTL, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM scheduler_lease");
+    }
+
+    @Test
+    @DisplayName("Should give the lease to the first instance and keep it while it is valid")
+    void tryAcquire_validLease_deniesOtherInstance() {
+        // Act
+        Optional<LeaderElection.Lease> acquired = first.tryAcquire(LEASE);
+        clock.advance(Duration.ofSeconds(20));
+        Optional<LeaderElection.Lease> denied = second.tryAcquire(LEASE);
+        Optional<LeaderElection.Lease> extended = first.tryAcquire(LEASE);
+
+        // Assert
+        assertEquals(Optional.of(new LeaderElection.Lease(LEASE, "node-1", 1)), acquired);
+        assertEquals(Optional.empty(), denied);
+        assertEquals(acquired, extended);
+    }
+
+    @Test
+    @DisplayName("Should let another instance take over an expired lease with a new fencing token")
+    void tryAcquire_expiredLease_takesOverWithNewToken() {
+        // Arrange
+        LeaderElection.Lease stale = first.tryAcquire(LEASE).orElseThrow();
+        clock.advance(TTL);
+
+        // Act
+        Optional<LeaderElection.Lease> takenOver = second.tryAcquire(LEASE);
+
+        // Assert
+        assertEquals(Optional.of(new LeaderElection.Lease(LEASE, "node-2", 2)), takenOver);
+        assertEquals(Optional.empty(), first.tryAcquire(LEASE));
+        assertEquals(1, stale.fencingToken());
+    }
+
+    @Test
+    @DisplayName("Should reject a write under a lease that was taken over, without running it")
+    void fenced_staleToken_throwsWithoutWriting() {
+        // Arrange
+        LeaderElection.Lease stale = first.tryAcquire(LEASE).orElseThrow();
+        clock.advance(TTL);
+        LeaderElection.Lease current = second.tryAcquire(LEASE).orElseThrow();
+        AtomicBoolean written = new AtomicBoolean();
+
+        // Act & Assert
+        assertThrows(LeaseLostException.class, () -> first.fenced(stale, () -> written.getAndSet(true)));
+        assertFalse(written.get());
+        assertEquals("written", second.fenced(current, () -> "written"));
+    }
+
+    @Test
+    @DisplayName("Should extend held leases in the background so they don't expire between runs")
+    void renewHeldLeases_preventsTakeover() {
+        // Arrange
+        first.tryAcquire(LEASE).orElseThrow();
+
+        // Act
+        clock.advance(Duration.ofSeconds(20));
+        first.renewHeldLeases();
+        clock.advance(Duration.ofSeconds(20));
+
+        // Assert
+        assertEquals(Optional.empty(), second.tryAcquire(LEASE));
+    }
+
+    @Test
+    @DisplayName("Should let another instance take over right away after the holder releases its leases")
+    void releaseHeldLeases_allowsImmediateTakeover() {
+        // Arrange
+        first.tryAcquire(LEASE).orElseThrow();
+
+        // Act
+        first.releaseHeldLeases();
+
+        // Assert
+        assertEquals(Optional.of(new LeaderElection.Lease(LEASE, "node-2", 2)), second.tryAcquire(LEASE));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
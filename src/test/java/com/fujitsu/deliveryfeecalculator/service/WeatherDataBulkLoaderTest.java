@@ -0,0 +1,110 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.cache.WeatherHistoryIndex;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "weather.bulk-load.commit-interval=400"
+})
+@Import({WeatherDataBulkLoader.class, WeatherHistoryIndex.class})
+class WeatherDataBulkLoaderTest {
+
+    private static final int ROWS = 1000;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private WeatherDataBulkLoader weatherDataBulkLoader;
+
+    @Autowired
+    private WeatherHistoryIndex weatherHistoryIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Should store every row with a resolved phenomenon category")
+    void load_storesAllRows() {
+        // Act
+        long loaded = weatherDataBulkLoader.load(hourlyObservations(LocalDateTime.of(2020, 1, 1, 0, 15), ROWS));
+
+        // Assert
+        assertEquals(ROWS, loaded);
+        assertEquals(ROWS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM weather_data", Long.class));
+        assertEquals(ROWS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM weather_data WHERE phenomenon_category = 'SNOW'", Long.class));
+    }
+
+    @Test
+    @DisplayName("Should insert rows in JDBC batches instead of one statement per row")
+    void load_insertsInBatches() {
+        // Act
+        weatherDataBulkLoader.load(hourlyObservations(LocalDateTime.of(2020, 1, 1, 0, 15), ROWS));
+
+        // Assert
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        // One insert statement per batch and one sequence call per allocated block of ids
+        assertTrue(statistics.getPrepareStatementCount() <= 2L * ROWS / BATCH_SIZE + 2,
+                "Prepared " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    @DisplayName("Should add recent rows to the history index")
+    void load_recentRows_areIndexed() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusDays(2);
+
+        // Act
+        weatherDataBulkLoader.load(hourlyObservations(start, 10));
+
+        // Assert
+        assertTrue(weatherHistoryIndex.floor(City.TARTU, start.plusHours(9)).isPresent());
+    }
+
+    @Test
+    @DisplayName("Should store nothing for an empty stream")
+    void load_emptyStream() {
+        // Act & Assert
+        assertEquals(0, weatherDataBulkLoader.load(Stream.empty()));
+    }
+
+    private static Stream<WeatherData> hourlyObservations(LocalDateTime start, int rows) {
+        City[] cities = City.values();
+        return IntStream.range(0, rows).mapToObj(i -> WeatherData.builder()
+                .stationName(cities[i % cities.length].getStationName())
+                .airTemperature(-5.0 + i % 20)
+                .windSpeed(3.0 + i % 15)
+                .weatherPhenomenon("Light snow shower")
+                .timestamp(start.plusHours(i / cities.length))
+                .build());
+    }
+}
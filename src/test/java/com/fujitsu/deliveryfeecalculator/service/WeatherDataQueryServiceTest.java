@@ -0,0 +1,142 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataCursor;
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataPage;
+import com.fujitsu.deliveryfeecalculator.dto.WeatherDataQuery;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streams read pages of four rows, so every stream spans several pages. The service runs its
+ * own short transactions, so the test doesn't run in a transaction.
+ */
+@DataJpaTest(properties = "weather.stream.page-size=4")
+@Import(WeatherDataQueryServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WeatherDataQueryServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 15);
+
+    @Autowired
+    private WeatherDataQueryService weatherDataQueryService;
+
+    @Autowired
+    private WeatherDataRepository weatherDataRepository;
+
+    @BeforeEach
+    void setUp() {
+        List<WeatherData> rows = new ArrayList<>();
+        for (int hour = 0; hour < 10; hour++) {
+            for (City city : City.values()) {
+                rows.add(WeatherData.builder()
+                        .stationName(city.getStationName())
+                        .airTemperature((double) hour)
+                        .windSpeed(5.0)
+                        .weatherPhenomenon("clear")
+                        .timestamp(START.plusHours(hour))
+                        .build());
+            }
+        }
+        weatherDataRepository.saveAll(rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        weatherDataRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should walk every row exactly once with keyset pagination")
+    void findPage_walksAllRowsInOrder() {
+        // Arrange
+        WeatherDataQuery query = new WeatherDataQuery(null, null, null);
+        List<WeatherData> seen = new ArrayList<>();
+        WeatherDataCursor cursor = null;
+        int pages = 0;
+
+        // Act
+        do {
+            WeatherDataPage page = weatherDataQueryService.findPage(query, cursor, 7);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor() != null ? WeatherDataCursor.decode(page.getNextCursor()) : null;
+            pages++;
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(30, seen.size());
+        assertEquals(5, pages);
+        assertEquals(30, seen.stream().map(WeatherData::getId).distinct().count());
+        for (int i = 1; i < seen.size(); i++) {
+            WeatherData previous = seen.get(i - 1);
+            WeatherData current = seen.get(i);
+            assertTrue(previous.getTimestamp().isBefore(current.getTimestamp())
+                    || (previous.getTimestamp().equals(current.getTimestamp()) && previous.getId() < current.getId()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should apply station and time range filters")
+    void findPage_appliesFilters() {
+        // Arrange
+        WeatherDataQuery query = new WeatherDataQuery(
+                City.TARTU.getStationName(), START.plusHours(2), START.plusHours(5));
+
+        // Act
+        WeatherDataPage page = weatherDataQueryService.findPage(query, null, 100);
+
+        // Assert
+        assertNull(page.getNextCursor());
+        assertEquals(3, page.getItems().size());
+        assertTrue(page.getItems().stream().allMatch(w -> w.getStationName().equals(City.TARTU.getStationName())));
+        assertEquals(START.plusHours(2), page.getItems().get(0).getTimestamp());
+        assertEquals(START.plusHours(4), page.getItems().get(2).getTimestamp());
+    }
+
+    @Test
+    @DisplayName("Should stream matching rows in order, passing them on between the page transactions")
+    void stream_passesRowsInOrder() {
+        // Arrange
+        WeatherDataQuery query = new WeatherDataQuery(City.PARNU.getStationName(), null, null);
+        List<WeatherData> streamed = new ArrayList<>();
+        List<Boolean> inTransaction = new ArrayList<>();
+
+        // Act
+        long count = weatherDataQueryService.stream(query, row -> {
+            streamed.add(row);
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+        });
+
+        // Assert
+        assertEquals(10, count);
+        assertEquals(START, streamed.get(0).getTimestamp());
+        assertEquals(START.plusHours(9), streamed.get(9).getTimestamp());
+        assertEquals(10, streamed.stream().map(WeatherData::getId).distinct().count());
+        assertFalse(inTransaction.contains(true));
+    }
+
+    @Test
+    @DisplayName("Should round-trip cursors and reject malformed ones")
+    void cursor_roundTrip() {
+        WeatherDataCursor cursor = new WeatherDataCursor(START, 42);
+
+        assertEquals(cursor, WeatherDataCursor.decode(cursor.encode()));
+        assertThrows(IllegalArgumentException.class, () -> WeatherDataCursor.decode("not-a-cursor"));
+    }
+}
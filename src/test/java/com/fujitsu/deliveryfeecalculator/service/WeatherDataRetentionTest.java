@@ -0,0 +1,184 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherDataHourly;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataHourlyRepository;
+import com.fujitsu.deliveryfeecalculator.repository.SchedulerLeaseRepository;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A chunk size of 3 splits the hour with two observations between chunks
+@DataJpaTest(properties = {"weather.retention.chunk-size=3", "weather.retention.chunk-pause=0ms"})
+@Import({WeatherDataRetention.class, LeaderElection.class})
+class WeatherDataRetentionTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime CUTOFF = START.plusHours(6);
+    private static final String TALLINN = City.TALLINN.getStationName();
+    private static final String TARTU = City.TARTU.getStationName();
+
+    @Autowired
+    private WeatherDataRetention weatherDataRetention;
+
+    @Autowired
+    private WeatherDataRepository weatherDataRepository;
+
+    @Autowired
+    private WeatherDataHourlyRepository weatherDataHourlyRepository;
+
+    @Autowired
+    private SchedulerLeaseRepository schedulerLeaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        List<WeatherData> rows = new ArrayList<>();
+        for (int hour = 0; hour < 10; hour++) {
+            rows.add(observation(TALLINN, START.plusHours(hour).plusMinutes(15), -1.0 - hour, 3.0, "Clear"));
+            rows.add(observation(TARTU, START.plusHours(hour).plusMinutes(15), 2.0, 4.0, "Light rain"));
+        }
+        // A second Tallinn observation in the hour compacted across two chunks
+        rows.add(observation(TALLINN, START.plusHours(1).plusMinutes(45), -8.0, 11.0, "Light snow shower"));
+        weatherDataRepository.saveAllAndFlush(rows);
+    }
+
+    @Test
+    @DisplayName("Should compact raw rows before the cutoff into one rollup per station and hour")
+    void compactBefore_compactsOldRows() {
+        // Act
+        long compacted = weatherDataRetention.compactBefore(CUTOFF);
+
+        // Assert
+        assertEquals(13, compacted);
+        List<WeatherData> remaining = weatherDataRepository.findAll();
+        assertEquals(8, remaining.size());
+        assertTrue(remaining.stream().noneMatch(row -> row.getTimestamp().isBefore(CUTOFF)));
+
+        List<WeatherDataHourly> rollups = weatherDataHourlyRepository.findAll();
+        assertEquals(12, rollups.size());
+        assertEquals(13, rollups.stream().mapToInt(WeatherDataHourly::getObservationCount).sum());
+    }
+
+    @Test
+    @DisplayName("Should keep the last observation of the hour and the range of all of them")
+    void compactBefore_mergesObservationsOfAnHour() {
+        // Act
+        weatherDataRetention.compactBefore(CUTOFF);
+
+        // Assert
+        WeatherDataHourly rollup = weatherDataHourlyRepository.findAll().stream()
+                .filter(hourly -> hourly.getStationName().equals(TALLINN) && hourly.getHour().equals(START.plusHours(1)))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, rollup.getObservationCount());
+        assertEquals(START.plusHours(1).plusMinutes(45), rollup.getObservedAt());
+        assertEquals(-8.0, rollup.getAirTemperature());
+        assertEquals(11.0, rollup.getWindSpeed());
+        assertEquals(WeatherPhenomenon.SNOW, rollup.getPhenomenonCategory());
+        assertEquals(-8.0, rollup.getMinAirTemperature());
+        assertEquals(-2.0, rollup.getMaxAirTemperature());
+        assertEquals(11.0, rollup.getMaxWindSpeed());
+    }
+
+    @Test
+    @DisplayName("Should find the observation a raw lookup would have found in the rollups")
+    void compactBefore_rollupLookupMatchesRawLookup() {
+        // Arrange
+        // Rollups keep the last observation of each hour, so lookups between two observations
+        // of the same hour are left out
+        List<LocalDateTime> lookups = List.of(START.plusMinutes(20), START.plusHours(1).plusMinutes(50),
+                START.plusHours(4), START.plusHours(5).plusMinutes(59));
+        List<WeatherData> expected = lookups.stream()
+                .map(timestamp -> weatherDataRepository.findClosestByStationNameAndTimestamp(TALLINN, timestamp).orElseThrow())
+                .toList();
+
+        // Act
+        weatherDataRetention.compactBefore(CUTOFF);
+
+        // Assert
+        for (int i = 0; i < lookups.size(); i++) {
+            assertTrue(weatherDataRepository.findClosestByStationNameAndTimestamp(TALLINN, lookups.get(i)).isEmpty());
+            WeatherData fromRollup = weatherDataHourlyRepository
+                    .findClosestByStationNameAndTimestamp(TALLINN, lookups.get(i))
+                    .map(WeatherDataHourly::toWeatherData)
+                    .orElseThrow();
+            assertEquals(expected.get(i).getTimestamp(), fromRollup.getTimestamp());
+            assertEquals(expected.get(i).getAirTemperature(), fromRollup.getAirTemperature());
+        }
+    }
+
+    @Test
+    @DisplayName("Should do nothing when no raw rows are older than the cutoff")
+    void compactBefore_secondRun_compactsNothing() {
+        // Arrange
+        weatherDataRetention.compactBefore(CUTOFF);
+
+        // Act
+        long compacted = weatherDataRetention.compactBefore(CUTOFF);
+
+        // Assert
+        assertEquals(0, compacted);
+        assertEquals(START.plusHours(6).plusMinutes(15), weatherDataRepository.findAll().stream()
+                .map(WeatherData::getTimestamp)
+                .min(Comparator.naturalOrder())
+                .orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should compact on schedule only on the instance holding the retention lease")
+    void compactOnSchedule_leaseHeldElsewhere_compactsNothing() {
+        // Arrange
+        LeaderElection otherInstance = new LeaderElection(schedulerLeaseRepository, transactionManager,
+                "other-instance", Duration.ofMinutes(1), Clock.systemUTC());
+        otherInstance.tryAcquire(WeatherDataRetention.RETENTION_LEASE).orElseThrow();
+
+        // Act
+        weatherDataRetention.compactOnSchedule();
+
+        // Assert
+        assertEquals(21, weatherDataRepository.count());
+        assertEquals(0, weatherDataHourlyRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should compact every row older than the retention window on schedule when it gets the lease")
+    void compactOnSchedule_acquiresLease_compactsOldRows() {
+        // Act
+        weatherDataRetention.compactOnSchedule();
+
+        // Assert
+        assertEquals(0, weatherDataRepository.count());
+        assertEquals(20, weatherDataHourlyRepository.count());
+    }
+
+    private static WeatherData observation(String stationName, LocalDateTime timestamp,
+                                           double airTemperature, double windSpeed, String phenomenon) {
+        return WeatherData.builder()
+                .stationName(stationName)
+                .airTemperature(airTemperature)
+                .windSpeed(windSpeed)
+                .weatherPhenomenon(phenomenon)
+                .phenomenonCategory(WeatherPhenomenon.categorize(phenomenon))
+                .timestamp(timestamp)
+                .build();
+    }
+}
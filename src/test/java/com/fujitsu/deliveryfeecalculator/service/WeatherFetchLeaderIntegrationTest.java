@@ -0,0 +1,144 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.DeliveryFeeCalculatorApplication;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshotStore;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts two instances of the application on one file database and checks that only the lease
+ * holder fetches weather data, and that the other instance serves it after polling the data version.
+ */
+class WeatherFetchLeaderIntegrationTest {
+
+    private static final long FIRST_OBSERVATION = 1710504900;
+
+    @TempDir
+    private Path dataDir;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Every request returns observations an hour after the previous ones
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/observations.php", exchange -> {
+            long timestamp = FIRST_OBSERVATION + 3600L * requests.getAndIncrement();
+            byte[] body = ("""
+                    <?xml version="1.0" encoding="UTF-8"?>
+                    <observations timestamp="%d">
+                      <station><name>Tallinn-Harku</name><airtemperature>-3.6</airtemperature><windspeed>3.2</windspeed><phenomenon>Few clouds</phenomenon></station>
+                    </observations>
+                    """.formatted(timestamp)).strip().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/xml");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should fetch on the lease holder only and catch the other instance up through the data version")
+    void fetch_twoInstances_onlyLeaderFetches() throws InterruptedException {
+        // Arrange
+        ConfigurableApplicationContext leader = start("node-1");
+        ConfigurableApplicationContext follower = start("node-2");
+        JdbcTemplate jdbcTemplate = follower.getBean(JdbcTemplate.class);
+
+        // Act
+        leader.getBean(WeatherService.class).fetchAndStoreWeatherData();
+        follower.getBean(WeatherService.class).fetchAndStoreWeatherData();
+
+        // Assert
+        assertEquals(1, requests.get());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM weather_data", Integer.class));
+        LocalDateTime stored = jdbcTemplate.queryForObject("SELECT timestamp FROM weather_data", LocalDateTime.class);
+        assertEquals(Optional.of(stored), awaitLatestTimestamp(follower, stored));
+    }
+
+    @Test
+    @DisplayName("Should let another instance take over the fetch when the leader shuts down")
+    void fetch_leaderShutsDown_otherInstanceTakesOver() {
+        // Arrange
+        ConfigurableApplicationContext leader = start("node-1");
+        ConfigurableApplicationContext follower = start("node-2");
+        leader.getBean(WeatherService.class).fetchAndStoreWeatherData();
+
+        // Act
+        leader.close();
+        follower.getBean(WeatherService.class).fetchAndStoreWeatherData();
+
+        // Assert
+        assertEquals(2, requests.get());
+        assertEquals(2, follower.getBean(JdbcTemplate.class)
+                .queryForObject("SELECT COUNT(*) FROM weather_data", Integer.class));
+        assertEquals(2, follower.getBean(JdbcTemplate.class)
+                .queryForObject("SELECT fencing_token FROM scheduler_lease WHERE name = ?", Integer.class,
+                        WeatherServiceImpl.FETCH_LEASE));
+    }
+
+    private ConfigurableApplicationContext start(String nodeId) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DeliveryFeeCalculatorApplication.class)
+                .run("--spring.datasource.url=jdbc:h2:file:" + dataDir.resolve("weatherdb") + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.hikari.minimum-idle=2",
+                        "--spring.jpa.show-sql=false",
+                        "--server.port=0",
+                        "--weather.api.url=http://localhost:" + server.getAddress().getPort() + "/observations.php",
+                        "--weather.client.retry.max-attempts=1",
+                        "--weather.fetch.cron=-",
+                        "--weather.retention.cron=-",
+                        "--weather.version.poll-interval=100ms",
+                        "--cluster.node-id=" + nodeId);
+        contexts.add(context);
+        return context;
+    }
+
+    private static Optional<LocalDateTime> awaitLatestTimestamp(ConfigurableApplicationContext context,
+                                                                LocalDateTime expected) throws InterruptedException {
+        WeatherSnapshotStore weatherSnapshotStore = context.getBean(WeatherSnapshotStore.class);
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        Optional<LocalDateTime> latest = Optional.empty();
+        while (System.nanoTime() < deadline) {
+            latest = weatherSnapshotStore.getLatest(City.TALLINN).map(WeatherData::getTimestamp);
+            if (latest.equals(Optional.of(expected))) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        return latest;
+    }
+}
@@ -0,0 +1,149 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.weather.WeatherResponse;
+import com.fujitsu.deliveryfeecalculator.model.weather.WeatherStation;
+import jakarta.xml.bind.JAXBContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherObservationsParserTest {
+
+    private static final Set<String> MONITORED_STATIONS = Arrays.stream(City.values())
+            .map(City::getStationName)
+            .collect(Collectors.toSet());
+
+    // Shaped like the real feed: name first, many fields per station, most stations not monitored
+    private static final String FEED = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <observations timestamp="1710504900">
+              <station>
+                <name>Kuressaare linn</name>
+                <wmocode></wmocode>
+                <longitude>22.48944444411111</longitude>
+                <latitude>58.26416666666667</latitude>
+                <phenomenon>Light snow shower</phenomenon>
+                <airtemperature>-2.1</airtemperature>
+                <windspeed>4.5</windspeed>
+              </station>
+              <station>
+                <name>Tallinn-Harku</name>
+                <wmocode>26038</wmocode>
+                <longitude>24.602891666624284</longitude>
+                <latitude>59.398122222355134</latitude>
+                <phenomenon>Few clouds</phenomenon>
+                <visibility>35.0</visibility>
+                <precipitations>0</precipitations>
+                <airpressure>1015.1</airpressure>
+                <relativehumidity>89</relativehumidity>
+                <airtemperature>-3.6</airtemperature>
+                <winddirection>220</winddirection>
+                <windspeed>3.2</windspeed>
+                <windspeedmax>5.7</windspeedmax>
+                <waterlevel/>
+                <waterlevel_eh2000/>
+                <watertemperature/>
+                <uvindex>0.2</uvindex>
+              </station>
+              <station>
+                <name>Tartu-Tõravere</name>
+                <wmocode>26242</wmocode>
+                <phenomenon></phenomenon>
+                <airtemperature> 1.5 </airtemperature>
+                <windspeed></windspeed>
+              </station>
+              <station>
+                <name>Pärnu</name>
+                <wmocode>41803</wmocode>
+                <phenomenon>Moderate rain</phenomenon>
+                <airtemperature>invalid</airtemperature>
+              </station>
+            </observations>
+            """;
+
+    private final WeatherObservationsParser parser = new WeatherObservationsParser();
+
+    @Test
+    @DisplayName("Should keep only monitored stations with their fields")
+    void parse_keepsMonitoredStations() {
+        // Act
+        WeatherResponse response = parse(FEED);
+        List<WeatherStation> stations = response.getStations();
+
+        // Assert
+        assertEquals(1710504900L, response.getTimestamp());
+        assertEquals(List.of("Tallinn-Harku", "Tartu-Tõravere", "Pärnu"),
+                stations.stream().map(WeatherStation::getName).toList());
+
+        WeatherStation tallinn = stations.get(0);
+        assertEquals("26038", tallinn.getWmoCode());
+        assertEquals(-3.6, tallinn.getAirTemperature());
+        assertEquals(3.2, tallinn.getWindSpeed());
+        assertEquals("Few clouds", tallinn.getPhenomenon());
+    }
+
+    @Test
+    @DisplayName("Should convert fields exactly like the JAXB binding")
+    void parse_matchesJaxbBinding() throws Exception {
+        // Arrange
+        WeatherResponse jaxb = (WeatherResponse) JAXBContext.newInstance(WeatherResponse.class)
+                .createUnmarshaller().unmarshal(new StringReader(FEED.strip()));
+        List<WeatherStation> expected = jaxb.getStations().stream()
+                .filter(station -> MONITORED_STATIONS.contains(station.getName()))
+                .toList();
+
+        // Act
+        WeatherResponse response = parse(FEED);
+
+        // Assert
+        assertEquals(jaxb.getTimestamp(), response.getTimestamp());
+        assertEquals(expected, response.getStations());
+    }
+
+    @Test
+    @DisplayName("Should return no stations when none are monitored")
+    void parse_noMonitoredStations() {
+        // Act
+        WeatherResponse response = parse("<observations><station><name>Ruhnu</name></station></observations>");
+
+        // Assert
+        assertTrue(response.getStations().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject malformed feeds")
+    void parse_malformedFeed_throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> parse("<observations><station><name>Pärnu</name></observations>"));
+    }
+
+    @Test
+    @DisplayName("Should not resolve external entities")
+    void parse_doctype_isRejected() {
+        // Arrange
+        String feed = """
+                <?xml version="1.0"?>
+                <!DOCTYPE observations [<!ENTITY xxe SYSTEM "file:///etc/hostname">]>
+                <observations><station><name>&xxe;</name></station></observations>
+                """;
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> parse(feed));
+    }
+
+    private WeatherResponse parse(String feed) {
+        return parser.parse(new ByteArrayInputStream(feed.strip().getBytes(StandardCharsets.UTF_8)),
+                MONITORED_STATIONS::contains);
+    }
+}
@@ -0,0 +1,85 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "weather.phenomenon-backfill.chunk-size=4")
+@Import(WeatherPhenomenonBackfill.class)
+class WeatherPhenomenonBackfillTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 15);
+    private static final List<String> PHENOMENA = Arrays.asList(
+            "Light snow shower", "Clear", "Moderate rain", "Thunderstorm", "Volcanic ash", null);
+
+    @Autowired
+    private WeatherPhenomenonBackfill weatherPhenomenonBackfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Rows as stored before the category column existed
+        List<Object[]> rows = new ArrayList<>();
+        for (int hour = 0; hour < 10; hour++) {
+            rows.add(new Object[]{
+                    City.TALLINN.getStationName(), 1.0, 2.0, PHENOMENA.get(hour % PHENOMENA.size()),
+                    Timestamp.valueOf(START.plusHours(hour))
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO weather_data " +
+                "(id, station_name, air_temperature, wind_speed, weather_phenomenon, timestamp) " +
+                "VALUES (NEXT VALUE FOR weather_data_seq, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @Test
+    @DisplayName("Should store the category of every uncategorized row")
+    void backfill_categorizesAllRows() {
+        // Act
+        long updated = weatherPhenomenonBackfill.backfill();
+
+        // Assert
+        assertEquals(10, updated);
+        Map<String, String> categories = jdbcTemplate.queryForList(
+                        "SELECT DISTINCT weather_phenomenon, phenomenon_category FROM weather_data").stream()
+                .collect(Collectors.toMap(
+                        row -> String.valueOf(row.get("WEATHER_PHENOMENON")),
+                        row -> String.valueOf(row.get("PHENOMENON_CATEGORY"))));
+        assertEquals(Map.of(
+                "Light snow shower", "SNOW",
+                "Clear", "NORMAL",
+                "Moderate rain", "RAIN",
+                "Thunderstorm", "FORBIDDEN",
+                "Volcanic ash", "NORMAL",
+                "null", "NORMAL"), categories);
+    }
+
+    @Test
+    @DisplayName("Should do nothing when every row is categorized")
+    void backfill_secondRun_updatesNothing() {
+        // Arrange
+        weatherPhenomenonBackfill.backfill();
+
+        // Act
+        long updated = weatherPhenomenonBackfill.backfill();
+
+        // Assert
+        assertEquals(0, updated);
+    }
+}
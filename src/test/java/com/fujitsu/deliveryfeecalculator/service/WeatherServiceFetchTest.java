@@ -0,0 +1,264 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.cache.WeatherHistoryIndex;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherDataVersionWatcher;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshotStore;
+import com.fujitsu.deliveryfeecalculator.exception.LeaseLostException;
+import com.fujitsu.deliveryfeecalculator.metrics.WeatherIngestMetrics;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.repository.DataVersionRepository;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataHourlyRepository;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Runs the fetch job against a mocked HTTP server to cover conditional requests,
+ * upstream observation times, skipping of stored observations and the ingest metrics.
+ */
+@ExtendWith(MockitoExtension.class)
+class WeatherServiceFetchTest {
+
+    private static final String TEST_API_URL = "https://test-api-url.com/observations.php";
+    private static final long FEED_TIMESTAMP = 1710504900L;
+    private static final LocalDateTime OBSERVATION_TIME =
+            LocalDateTime.ofInstant(Instant.ofEpochSecond(FEED_TIMESTAMP), ZoneId.systemDefault());
+
+    private static final String FEED = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <observations timestamp="1710504900">
+              <station><name>Tallinn-Harku</name><airtemperature>-3.6</airtemperature><windspeed>3.2</windspeed><phenomenon>Few clouds</phenomenon></station>
+              <station><name>Tartu-Tõravere</name><airtemperature>1.5</airtemperature><windspeed>2.0</windspeed><phenomenon>Light rain</phenomenon></station>
+              <station><name>Ruhnu</name><airtemperature>0.5</airtemperature></station>
+            </observations>
+            """.strip();
+
+    @Mock
+    private WeatherDataRepository weatherDataRepository;
+
+    @Mock
+    private WeatherDataHourlyRepository weatherDataHourlyRepository;
+
+    @Mock
+    private WeatherSnapshotStore weatherSnapshotStore;
+
+    @Mock
+    private WeatherHistoryIndex weatherHistoryIndex;
+
+    @Mock
+    private LeaderElection leaderElection;
+
+    @Mock
+    private DataVersionRepository dataVersionRepository;
+
+    @Captor
+    private ArgumentCaptor<List<WeatherData>> weatherDataCaptor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WeatherIngestMetrics weatherIngestMetrics = new WeatherIngestMetrics(meterRegistry);
+
+    private MockRestServiceServer server;
+    private WeatherServiceImpl weatherService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(leaderElection.tryAcquire(WeatherServiceImpl.FETCH_LEASE))
+                .thenReturn(Optional.of(new LeaderElection.Lease(WeatherServiceImpl.FETCH_LEASE, "node-1", 1)));
+        lenient().when(leaderElection.fenced(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        weatherService = new WeatherServiceImpl(weatherDataRepository, weatherDataHourlyRepository, restTemplate,
+                weatherSnapshotStore, weatherHistoryIndex, new WeatherObservationsParser(), CircuitBreaker.ofDefaults("weather-feed"),
+                Retry.of("weather-feed", RetryConfig.custom().maxAttempts(1).build()), weatherIngestMetrics,
+                leaderElection, dataVersionRepository);
+        ReflectionTestUtils.setField(weatherService, "weatherApiUrl", TEST_API_URL);
+    }
+
+    @Test
+    @DisplayName("Should stamp stored rows with the feed's observation time")
+    void fetch_usesUpstreamObservationTime() {
+        // Arrange
+        server.expect(requestTo(TEST_API_URL))
+                .andRespond(withSuccess(FEED, MediaType.APPLICATION_XML));
+        when(weatherDataRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        weatherService.fetchAndStoreWeatherData();
+
+        // Assert
+        verify(weatherDataRepository).saveAll(weatherDataCaptor.capture());
+        List<WeatherData> saved = weatherDataCaptor.getValue();
+        assertEquals(List.of("Tallinn-Harku", "Tartu-Tõravere"), saved.stream().map(WeatherData::getStationName).toList());
+        assertTrue(saved.stream().allMatch(weatherData -> OBSERVATION_TIME.equals(weatherData.getTimestamp())));
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should skip observations that are already stored")
+    void fetch_skipsStoredObservations() {
+        // Arrange
+        server.expect(requestTo(TEST_API_URL))
+                .andRespond(withSuccess(FEED, MediaType.APPLICATION_XML));
+        when(weatherDataRepository.findStationNamesWithObservationAt(anyCollection(), eq(OBSERVATION_TIME)))
+                .thenReturn(List.of("Tallinn-Harku"));
+        when(weatherDataRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        weatherService.fetchAndStoreWeatherData();
+
+        // Assert
+        verify(weatherDataRepository).saveAll(weatherDataCaptor.capture());
+        assertEquals(List.of("Tartu-Tõravere"),
+                weatherDataCaptor.getValue().stream().map(WeatherData::getStationName).toList());
+    }
+
+    @Test
+    @DisplayName("Should not store anything when every observation is already stored")
+    void fetch_allStored_savesNothing() {
+        // Arrange
+        server.expect(requestTo(TEST_API_URL))
+                .andRespond(withSuccess(FEED, MediaType.APPLICATION_XML));
+        when(weatherDataRepository.findStationNamesWithObservationAt(anyCollection(), eq(OBSERVATION_TIME)))
+                .thenReturn(List.of("Tallinn-Harku", "Tartu-Tõravere"));
+
+        // Act
+        weatherService.fetchAndStoreWeatherData();
+
+        // Assert
+        verify(weatherDataRepository, never()).saveAll(anyList());
+        verifyNoInteractions(weatherSnapshotStore, weatherHistoryIndex);
+    }
+
+    @Test
+    @DisplayName("Should send the last validators and skip the work when the feed is not modified")
+    void fetch_notModified_skipsParseAndPersist() {
+        // Arrange
+        HttpHeaders validators = new HttpHeaders();
+        validators.setETag("\"feed-1\"");
+        validators.set(HttpHeaders.LAST_MODIFIED, "Fri, 15 Mar 2024 12:15:00 GMT");
+
+        server.expect(requestTo(TEST_API_URL))
+                .andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+                .andExpect(headerDoesNotExist(HttpHeaders.IF_MODIFIED_SINCE))
+                .andRespond(withSuccess(FEED, MediaType.APPLICATION_XML).headers(validators));
+        server.expect(requestTo(TEST_API_URL))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"feed-1\""))
+                .andExpect(header(HttpHeaders.IF_MODIFIED_SINCE, "Fri, 15 Mar 2024 12:15:00 GMT"))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+        when(weatherDataRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        weatherService.fetchAndStoreWeatherData();
+        weatherService.fetchAndStoreWeatherData();
+
+        // Assert
+        server.verify();
+        verify(weatherDataRepository, times(1)).saveAll(anyList());
+        verify(weatherDataRepository, times(1)).findStationNamesWithObservationAt(anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("Should time every phase and count stored stations and run outcomes")
+    void fetch_recordsIngestMetrics() {
+        // Arrange
+        server.expect(requestTo(TEST_API_URL))
+                .andRespond(withSuccess(FEED, MediaType.APPLICATION_XML).header(HttpHeaders.ETAG, "\"feed-1\""));
+        server.expect(requestTo(TEST_API_URL))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+        when(weatherDataRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        weatherService.fetchAndStoreWeatherData();
+        weatherService.fetchAndStoreWeatherData();
+
+        // Assert
+        assertEquals(2, meterRegistry.get(WeatherIngestMetrics.PHASE).tag("phase", "fetch").timer().count());
+        assertEquals(1, meterRegistry.get(WeatherIngestMetrics.PHASE).tag("phase", "parse").timer().count());
+        assertEquals(1, meterRegistry.get(WeatherIngestMetrics.PHASE).tag("phase", "persist").timer().count());
+        assertEquals(2.0, meterRegistry.get(WeatherIngestMetrics.STATIONS_STORED).counter().count());
+        assertEquals(1.0, meterRegistry.get(WeatherIngestMetrics.RUNS).tag("outcome", "stored").counter().count());
+        assertEquals(1.0, meterRegistry.get(WeatherIngestMetrics.RUNS).tag("outcome", "unchanged").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should leave the fetch to the leader when another instance holds the lease")
+    void fetch_follower_skipsFetch() {
+        // Arrange
+        when(leaderElection.tryAcquire(WeatherServiceImpl.FETCH_LEASE)).thenReturn(Optional.empty());
+
+        // Act
+        weatherService.fetchAndStoreWeatherData();
+
+        // Assert
+        server.verify();
+        verifyNoInteractions(weatherDataRepository, weatherSnapshotStore, weatherHistoryIndex, dataVersionRepository);
+        assertEquals(1.0, meterRegistry.get(WeatherIngestMetrics.RUNS).tag("outcome", "follower").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should store observations and bump the data version under the lease")
+    void fetch_leader_storesUnderLease() {
+        // Arrange
+        server.expect(requestTo(TEST_API_URL))
+                .andRespond(withSuccess(FEED, MediaType.APPLICATION_XML));
+        when(weatherDataRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        weatherService.fetchAndStoreWeatherData();
+
+        // Assert
+        verify(leaderElection).fenced(argThat(lease -> lease.fencingToken() == 1), any());
+        verify(dataVersionRepository).increment(eq(WeatherDataVersionWatcher.WEATHER_DATA), any());
+        verify(weatherSnapshotStore).publish(anyList());
+    }
+
+    @Test
+    @DisplayName("Should discard fetched observations when the lease was taken over meanwhile")
+    void fetch_leaseLost_discardsData() {
+        // Arrange
+        server.expect(requestTo(TEST_API_URL))
+                .andRespond(withSuccess(FEED, MediaType.APPLICATION_XML));
+        doThrow(new LeaseLostException("taken over")).when(leaderElection).fenced(any(), any());
+
+        // Act
+        weatherService.fetchAndStoreWeatherData();
+
+        // Assert
+        verify(weatherDataRepository, never()).saveAll(anyList());
+        verifyNoInteractions(weatherSnapshotStore, weatherHistoryIndex);
+        assertEquals(1.0, meterRegistry.get(WeatherIngestMetrics.RUNS).tag("outcome", "follower").counter().count());
+    }
+}
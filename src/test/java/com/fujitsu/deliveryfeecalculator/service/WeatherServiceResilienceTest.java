@@ -0,0 +1,246 @@
+package com.fujitsu.deliveryfeecalculator.service;
+
+import com.fujitsu.deliveryfeecalculator.cache.WeatherHistoryIndex;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshotStore;
+import com.fujitsu.deliveryfeecalculator.config.AppConfig;
+import com.fujitsu.deliveryfeecalculator.metrics.WeatherIngestMetrics;
+import com.fujitsu.deliveryfeecalculator.repository.DataVersionRepository;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataHourlyRepository;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the fetch job with the production client configuration against a local stub server
+ * that injects latency and errors. Timeouts and backoffs are shortened to keep the test fast.
+ */
+@ExtendWith(MockitoExtension.class)
+class WeatherServiceResilienceTest {
+
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(300);
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final int MAX_ATTEMPTS = 4;
+
+    private static final String FEED = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <observations timestamp="1710504900">
+              <station><name>Tallinn-Harku</name><airtemperature>-3.6</airtemperature><windspeed>3.2</windspeed><phenomenon>Few clouds</phenomenon></station>
+            </observations>
+            """.strip();
+
+    @Mock
+    private WeatherDataRepository weatherDataRepository;
+
+    @Mock
+    private WeatherDataHourlyRepository weatherDataHourlyRepository;
+
+    @Mock
+    private WeatherSnapshotStore weatherSnapshotStore;
+
+    @Mock
+    private WeatherHistoryIndex weatherHistoryIndex;
+
+    @Mock
+    private LeaderElection leaderElection;
+
+    @Mock
+    private DataVersionRepository dataVersionRepository;
+
+    private final Queue<StubResponse> responses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private HttpServer server;
+    private CircuitBreaker circuitBreaker;
+    private WeatherServiceImpl weatherService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        lenient().when(leaderElection.tryAcquire(WeatherServiceImpl.FETCH_LEASE))
+                .thenReturn(Optional.of(new LeaderElection.Lease(WeatherServiceImpl.FETCH_LEASE, "node-1", 1)));
+        lenient().when(leaderElection.fenced(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/observations.php", exchange -> {
+            requests.incrementAndGet();
+            StubResponse response = responses.isEmpty() ? StubResponse.ok() : responses.remove();
+            sleep(response.delay());
+            byte[] body = response.status() == 200 ? FEED.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.getResponseHeaders().set("Content-Type", "application/xml");
+            exchange.sendResponseHeaders(response.status(), body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            } catch (IOException e) {
+                // The client gave up waiting
+            }
+        });
+        // Serve requests concurrently, so a retry is not queued behind the slow response it replaces
+        server.setExecutor(executor);
+        server.start();
+
+        AppConfig config = new AppConfig();
+        circuitBreaker = config.weatherFeedCircuitBreaker(FAILURE_THRESHOLD, Duration.ofMinutes(10), meterRegistry);
+        weatherService = new WeatherServiceImpl(weatherDataRepository, weatherDataHourlyRepository,
+                config.restTemplate(new RestTemplateBuilder(), Duration.ofSeconds(1), READ_TIMEOUT),
+                weatherSnapshotStore, weatherHistoryIndex, new WeatherObservationsParser(), circuitBreaker,
+                config.weatherFeedRetry(MAX_ATTEMPTS, Duration.ofMillis(10), Duration.ofMillis(50), meterRegistry),
+                new WeatherIngestMetrics(meterRegistry), leaderElection, dataVersionRepository);
+        ReflectionTestUtils.setField(weatherService, "weatherApiUrl",
+                "http://localhost:" + server.getAddress().getPort() + "/observations.php");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should retry server errors and store the feed once upstream recovers")
+    void fetch_serverErrors_areRetried() {
+        // Arrange
+        responses.add(StubResponse.status(503));
+        responses.add(StubResponse.status(502));
+        when(weatherDataRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        weatherService.fetchAndStoreWeatherData();
+
+        // Assert
+        assertEquals(3, requests.get());
+        verify(weatherDataRepository).saveAll(anyList());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should time out slow responses and retry them")
+    void fetch_slowResponse_timesOutAndRetries() {
+        // Arrange
+        responses.add(new StubResponse(200, READ_TIMEOUT.multipliedBy(3)));
+        when(weatherDataRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        long started = System.nanoTime();
+        weatherService.fetchAndStoreWeatherData();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        // Assert
+        assertEquals(2, requests.get());
+        verify(weatherDataRepository).saveAll(anyList());
+        assertTrue(elapsed.compareTo(READ_TIMEOUT.multipliedBy(3)) < 0, "Fetch waited for the slow response: " + elapsed);
+    }
+
+    @Test
+    @DisplayName("Should not retry client errors")
+    void fetch_clientError_isNotRetried() {
+        // Arrange
+        responses.add(StubResponse.status(404));
+
+        // Act
+        weatherService.fetchAndStoreWeatherData();
+
+        // Assert
+        assertEquals(1, requests.get());
+        verify(weatherDataRepository, never()).saveAll(anyList());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should open the circuit breaker after repeated failures and stop calling upstream")
+    void fetch_repeatedFailures_openCircuitBreaker() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            responses.add(StubResponse.status(500));
+        }
+
+        // Act
+        weatherService.fetchAndStoreWeatherData();
+        weatherService.fetchAndStoreWeatherData();
+
+        // Assert
+        assertEquals(FAILURE_THRESHOLD, requests.get());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1.0, meterRegistry.get("resilience4j.circuitbreaker.state")
+                .tag("name", AppConfig.WEATHER_FEED)
+                .tag("state", "open")
+                .gauge().value());
+        verify(weatherDataRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should stop waiting out a retry backoff when the application shuts down")
+    void stopFetching_duringBackoff_endsFetch() throws Exception {
+        // Arrange
+        responses.add(StubResponse.status(503));
+        AppConfig config = new AppConfig();
+        WeatherServiceImpl slowRetryingService = new WeatherServiceImpl(weatherDataRepository,
+                weatherDataHourlyRepository,
+                config.restTemplate(new RestTemplateBuilder(), Duration.ofSeconds(1), READ_TIMEOUT),
+                weatherSnapshotStore, weatherHistoryIndex, new WeatherObservationsParser(), circuitBreaker,
+                config.weatherFeedRetry(MAX_ATTEMPTS, Duration.ofMinutes(1), Duration.ofMinutes(1), meterRegistry),
+                new WeatherIngestMetrics(meterRegistry), leaderElection, dataVersionRepository);
+        ReflectionTestUtils.setField(slowRetryingService, "weatherApiUrl",
+                "http://localhost:" + server.getAddress().getPort() + "/observations.php");
+        Thread fetch = Thread.ofPlatform().start(slowRetryingService::fetchAndStoreWeatherData);
+        while (requests.get() == 0) {
+            Thread.sleep(10);
+        }
+
+        // Act
+        slowRetryingService.stopFetching();
+        fetch.join(Duration.ofSeconds(5));
+
+        // Assert
+        assertFalse(fetch.isAlive(), "Fetch is still waiting to retry");
+        assertEquals(1, requests.get());
+        verify(weatherDataRepository, never()).saveAll(anyList());
+        assertEquals(1.0, meterRegistry.get(WeatherIngestMetrics.RUNS).tag("outcome", "skipped").counter().count());
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record StubResponse(int status, Duration delay) {
+
+        static StubResponse ok() {
+            return new StubResponse(200, Duration.ZERO);
+        }
+
+        static StubResponse status(int status) {
+            return new StubResponse(status, Duration.ZERO);
+        }
+    }
+}
@@ -1,28 +1,46 @@
 package com.fujitsu.deliveryfeecalculator.service;
 
+import com.fujitsu.deliveryfeecalculator.cache.WeatherHistoryIndex;
+import com.fujitsu.deliveryfeecalculator.cache.WeatherSnapshotStore;
 import com.fujitsu.deliveryfeecalculator.exception.WeatherDataNotFoundException;
+import com.fujitsu.deliveryfeecalculator.metrics.WeatherIngestMetrics;
 import com.fujitsu.deliveryfeecalculator.model.entity.WeatherData;
+import com.fujitsu.deliveryfeecalculator.model.entity.WeatherDataHourly;
 import com.fujitsu.deliveryfeecalculator.model.enums.City;
+import com.fujitsu.deliveryfeecalculator.model.enums.WeatherPhenomenon;
 import com.fujitsu.deliveryfeecalculator.model.weather.WeatherResponse;
 import com.fujitsu.deliveryfeecalculator.model.weather.WeatherStation;
+import com.fujitsu.deliveryfeecalculator.repository.DataVersionRepository;
+import com.fujitsu.deliveryfeecalculator.repository.WeatherDataHourlyRepository;
 import com.fujitsu.deliveryfeecalculator.repository.WeatherDataRepository;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.http.HttpMethod;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,9 +51,33 @@ class WeatherServiceTest {
     @Mock
     private WeatherDataRepository weatherDataRepository;
 
+    @Mock
+    private WeatherDataHourlyRepository weatherDataHourlyRepository;
+
     @Mock
     private RestTemplate restTemplate;
 
+    @Mock
+    private WeatherSnapshotStore weatherSnapshotStore;
+
+    @Mock
+    private WeatherHistoryIndex weatherHistoryIndex;
+
+    @Mock
+    private LeaderElection leaderElection;
+
+    @Mock
+    private DataVersionRepository dataVersionRepository;
+
+    @Spy
+    private CircuitBreaker weatherFeedCircuitBreaker = CircuitBreaker.ofDefaults("weather-feed");
+
+    @Spy
+    private Retry weatherFeedRetry = Retry.of("weather-feed", RetryConfig.custom().maxAttempts(1).build());
+
+    @Spy
+    private WeatherIngestMetrics weatherIngestMetrics = new WeatherIngestMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private WeatherServiceImpl weatherService;
 
@@ -48,6 +90,10 @@ class WeatherServiceTest {
     void setUp() {
         // Set the weatherApiUrl field value using reflection
         ReflectionTestUtils.setField(weatherService, "weatherApiUrl", TEST_API_URL);
+        lenient().when(leaderElection.tryAcquire(WeatherServiceImpl.FETCH_LEASE))
+                .thenReturn(Optional.of(new LeaderElection.Lease(WeatherServiceImpl.FETCH_LEASE, "node-1", 1)));
+        lenient().when(leaderElection.fenced(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
     }
 
     @Test
@@ -77,6 +123,50 @@ class WeatherServiceTest {
         assertEquals(expectedData.getWeatherPhenomenon(), result.getWeatherPhenomenon());
     }
 
+    @Test
+    @DisplayName("Should serve latest weather data from the snapshot without querying the database")
+    void getLatestWeatherData_snapshotHit_skipsRepository() {
+        // Arrange
+        WeatherData cachedData = WeatherData.builder()
+                .stationName(City.TARTU.getStationName())
+                .airTemperature(-3.0)
+                .windSpeed(4.0)
+                .weatherPhenomenon("light snowfall")
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        when(weatherSnapshotStore.getLatest(City.TARTU)).thenReturn(Optional.of(cachedData));
+
+        // Act
+        WeatherData result = weatherService.getLatestWeatherData(City.TARTU);
+
+        // Assert
+        assertSame(cachedData, result);
+        verifyNoInteractions(weatherDataRepository);
+    }
+
+    @Test
+    @DisplayName("Should publish database fallback result to the snapshot")
+    void getLatestWeatherData_snapshotMiss_publishesFallback() {
+        // Arrange
+        String stationName = City.PARNU.getStationName();
+        WeatherData storedData = WeatherData.builder()
+                .stationName(stationName)
+                .airTemperature(8.0)
+                .windSpeed(3.0)
+                .weatherPhenomenon("clear")
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        when(weatherDataRepository.findLatestByStationName(stationName)).thenReturn(Optional.of(storedData));
+
+        // Act
+        weatherService.getLatestWeatherData(City.PARNU);
+
+        // Assert
+        verify(weatherSnapshotStore).publish(List.of(storedData));
+    }
+
     @Test
     @DisplayName("Should throw exception when no latest weather data found")
     void getLatestWeatherData_shouldThrowException() {
@@ -124,6 +214,63 @@ class WeatherServiceTest {
         assertEquals("light snow", result.getWeatherPhenomenon());
     }
 
+    @Test
+    @DisplayName("Should serve historical weather data from the history index without querying the database")
+    void getWeatherDataByTimestamp_indexHit_skipsRepository() {
+        // Arrange
+        LocalDateTime testTime = LocalDateTime.of(2024, 3, 1, 12, 0);
+        WeatherData indexedData = WeatherData.builder()
+                .stationName(City.TALLINN.getStationName())
+                .airTemperature(1.0)
+                .windSpeed(2.0)
+                .weatherPhenomenon("clear")
+                .timestamp(testTime.minusMinutes(30))
+                .build();
+
+        when(weatherHistoryIndex.floor(City.TALLINN, testTime)).thenReturn(Optional.of(indexedData));
+
+        // Act
+        WeatherData result = weatherService.getWeatherDataByTimestamp(City.TALLINN, testTime);
+
+        // Assert
+        assertSame(indexedData, result);
+        verifyNoInteractions(weatherDataRepository);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the hourly rollups for timestamps older than the raw rows")
+    void getWeatherDataByTimestamp_purged_returnsRollup() {
+        // Arrange
+        LocalDateTime testTime = LocalDateTime.of(2023, 3, 1, 12, 40);
+        String stationName = City.PARNU.getStationName();
+        WeatherDataHourly rollup = WeatherDataHourly.builder()
+                .stationName(stationName)
+                .hour(testTime.withMinute(0))
+                .observedAt(testTime.withMinute(15))
+                .airTemperature(-4.0)
+                .windSpeed(12.0)
+                .weatherPhenomenon("Light sleet")
+                .phenomenonCategory(WeatherPhenomenon.SLEET)
+                .observationCount(1)
+                .build();
+
+        when(weatherDataRepository.findClosestByStationNameAndTimestamp(stationName, testTime))
+                .thenReturn(Optional.empty());
+        when(weatherDataHourlyRepository.findClosestByStationNameAndTimestamp(stationName, testTime))
+                .thenReturn(Optional.of(rollup));
+
+        // Act
+        WeatherData result = weatherService.getWeatherDataByTimestamp(City.PARNU, testTime);
+
+        // Assert
+        assertEquals(stationName, result.getStationName());
+        assertEquals(testTime.withMinute(15), result.getTimestamp());
+        assertEquals(-4.0, result.getAirTemperature());
+        assertEquals(12.0, result.getWindSpeed());
+        assertEquals("Light sleet", result.getWeatherPhenomenon());
+        assertEquals(WeatherPhenomenon.SLEET, result.getPhenomenonCategory());
+    }
+
     @Test
     @DisplayName("Should throw exception when no historical data found")
     void getWeatherDataByTimestamp_noData_throwsException() {
@@ -181,7 +328,7 @@ class WeatherServiceTest {
 
         response.setStations(stations);
 
-        when(restTemplate.getForObject(TEST_API_URL, WeatherResponse.class)).thenReturn(response);
+        whenWeatherFetched().thenReturn(response);
 
         // Act
         weatherService.fetchAndStoreWeatherData();
@@ -204,6 +351,7 @@ class WeatherServiceTest {
                     assertEquals(5.0, data.getAirTemperature());
                     assertEquals(4.2, data.getWindSpeed());
                     assertEquals("few clouds", data.getWeatherPhenomenon());
+                    assertEquals(WeatherPhenomenon.NORMAL, data.getPhenomenonCategory());
                     break;
                 case "Tartu-Tõravere":
                     hasTartu = true;
@@ -216,6 +364,7 @@ class WeatherServiceTest {
                     assertEquals(6.2, data.getAirTemperature());
                     assertEquals(7.5, data.getWindSpeed());
                     assertEquals("light rain", data.getWeatherPhenomenon());
+                    assertEquals(WeatherPhenomenon.RAIN, data.getPhenomenonCategory());
                     break;
             }
         }
@@ -225,11 +374,48 @@ class WeatherServiceTest {
         assertTrue(hasParnu, "Pärnu data not saved");
     }
 
+    @Test
+    @DisplayName("Should publish stored weather data to the snapshot")
+    void fetchAndStoreWeatherData_publishesSnapshot() {
+        // Arrange
+        WeatherResponse response = new WeatherResponse();
+        response.setStations(List.of(createRandomStation(City.TALLINN.getStationName())));
+
+        List<WeatherData> storedData = List.of(WeatherData.builder()
+                .stationName(City.TALLINN.getStationName())
+                .timestamp(LocalDateTime.now())
+                .build());
+
+        whenWeatherFetched().thenReturn(response);
+        when(weatherDataRepository.saveAll(anyList())).thenReturn(storedData);
+
+        // Act
+        weatherService.fetchAndStoreWeatherData();
+
+        // Assert
+        verify(weatherHistoryIndex).append(storedData);
+        verify(weatherSnapshotStore).publish(storedData);
+    }
+
+    @Test
+    @DisplayName("Should not touch the snapshot when the fetch fails")
+    void fetchAndStoreWeatherData_apiException_keepsSnapshot() {
+        // Arrange
+        whenWeatherFetched()
+                .thenThrow(new RestClientException("API error"));
+
+        // Act
+        weatherService.fetchAndStoreWeatherData();
+
+        // Assert
+        verify(weatherSnapshotStore, never()).publish(anyList());
+    }
+
     @Test
     @DisplayName("Should handle empty response when fetching weather data")
     void fetchAndStoreWeatherData_emptyResponse() {
         // Arrange
-        when(restTemplate.getForObject(TEST_API_URL, WeatherResponse.class)).thenReturn(null);
+        whenWeatherFetched().thenReturn(null);
 
         // Act
         weatherService.fetchAndStoreWeatherData();
@@ -242,7 +428,7 @@ class WeatherServiceTest {
     @DisplayName("Should handle API exception when fetching weather data")
     void fetchAndStoreWeatherData_apiException() {
         // Arrange
-        when(restTemplate.getForObject(TEST_API_URL, WeatherResponse.class))
+        whenWeatherFetched()
                 .thenThrow(new RestClientException("API error"));
 
         // Act - should not throw exception
@@ -259,7 +445,7 @@ class WeatherServiceTest {
         WeatherResponse response = new WeatherResponse();
         response.setStations(new ArrayList<>());
 
-        when(restTemplate.getForObject(TEST_API_URL, WeatherResponse.class)).thenReturn(response);
+        whenWeatherFetched().thenReturn(response);
 
         // Act
         weatherService.fetchAndStoreWeatherData();
@@ -281,7 +467,7 @@ class WeatherServiceTest {
 
         response.setStations(stations);
 
-        when(restTemplate.getForObject(TEST_API_URL, WeatherResponse.class)).thenReturn(response);
+        whenWeatherFetched().thenReturn(response);
 
         // Act
         weatherService.fetchAndStoreWeatherData();
@@ -290,6 +476,12 @@ class WeatherServiceTest {
         verify(weatherDataRepository, never()).saveAll(anyList());
     }
 
+    // Stubs the streaming fetch; parsing and conditional requests are covered by WeatherServiceFetchTest
+    private OngoingStubbing<WeatherResponse> whenWeatherFetched() {
+        return when(restTemplate.execute(eq(TEST_API_URL), eq(HttpMethod.GET), any(RequestCallback.class),
+                ArgumentMatchers.<ResponseExtractor<WeatherResponse>>any()));
+    }
+
     // Helper method to create a random station
     private WeatherStation createRandomStation(String name) {
         WeatherStation station = new WeatherStation();